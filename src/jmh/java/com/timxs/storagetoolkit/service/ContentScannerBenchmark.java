@@ -0,0 +1,71 @@
+package com.timxs.storagetoolkit.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 纯文本 URL 提取基准：单遍扫描与正则实现对比
+ * 生成混合 Markdown 图片、链接、完整 URL、相对路径和正文的大篇幅文章
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContentScannerBenchmark {
+
+    /**
+     * 文章大小（字符数）
+     */
+    @Param({"100000", "1000000"})
+    private int size;
+
+    private String content;
+
+    private final ContentScanner scanner = new ContentScanner();
+
+    private final RegexContentScanner regexScanner = new RegexContentScanner();
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        String[] fragments = {
+            "![截图](/upload/2024/screenshot-%d.png \"截图\")\n",
+            "[下载附件](https://example.com/upload/files/report-%d.pdf)\n",
+            "参考 https://cdn.example.com/assets/img/cover-%d.webp?w=800 的配图，",
+            "本地路径 /upload/%d/image.jpeg, 另见 (/themes/default/assets/logo-%d.svg)\n",
+            "这是一段不包含链接的正文，用于模拟文章中占大部分篇幅的普通段落，编号 %d。\n",
+            "Plain English paragraph with some words, numbers like 3.14 and a path-like token a/b.c %d.\n",
+            "```\nconst url = \"//static.example.com/lib-%d.min.js\";\n```\n"
+        };
+        StringBuilder builder = new StringBuilder(size + 256);
+        int n = 0;
+        while (builder.length() < size) {
+            builder.append(fragments[random.nextInt(fragments.length)].replace("%d", String.valueOf(n++)));
+        }
+        content = builder.toString();
+    }
+
+    @Benchmark
+    public ContentScanner.ExtractResult singlePass() {
+        return scanner.extractUrlsWithType(content);
+    }
+
+    @Benchmark
+    public ContentScanner.ExtractResult regex() {
+        return regexScanner.extractUrlsWithType(content);
+    }
+}
@@ -0,0 +1,58 @@
+package com.timxs.storagetoolkit.service.support;
+
+import com.timxs.storagetoolkit.model.HashAlgorithm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 重复检测内容哈希基准：MD5 / SHA-256 / CRC32C
+ * 数据放在直接缓冲区中，与读取附件文件时的调用方式一致；
+ * xxHash3、BLAKE3 需要插件未打包的第三方库，以 JDK 内置的 CRC32C 作为非加密哈希代表
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContentDigestBenchmark {
+
+    @Param({"CRC32C", "MD5", "SHA_256"})
+    private HashAlgorithm algorithm;
+
+    /**
+     * 数据大小（字节）：100 KB、1 MB、20 MB
+     */
+    @Param({"102400", "1048576", "20971520"})
+    private int size;
+
+    private ByteBuffer data;
+
+    @Setup
+    public void setUp() {
+        byte[] bytes = new byte[size];
+        new Random(42).nextBytes(bytes);
+        data = ByteBuffer.allocateDirect(size);
+        data.put(bytes).flip();
+    }
+
+    @Benchmark
+    public String digest() {
+        ContentDigest digest = ContentDigest.of(algorithm);
+        digest.update(data.duplicate());
+        return digest.hex();
+    }
+}
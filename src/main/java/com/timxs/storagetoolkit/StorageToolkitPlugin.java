@@ -1,5 +1,6 @@
 package com.timxs.storagetoolkit;
 
+import com.timxs.storagetoolkit.extension.AttachmentHash;
 import com.timxs.storagetoolkit.extension.AttachmentReference;
 import com.timxs.storagetoolkit.extension.BatchProcessingStatus;
 import com.timxs.storagetoolkit.extension.BrokenLink;
@@ -9,8 +10,11 @@ import com.timxs.storagetoolkit.extension.DuplicateGroup;
 import com.timxs.storagetoolkit.extension.DuplicateScanStatus;
 import com.timxs.storagetoolkit.extension.ProcessingLog;
 import com.timxs.storagetoolkit.extension.ReferenceScanStatus;
+import com.timxs.storagetoolkit.extension.ReferenceSourceIndex;
 import com.timxs.storagetoolkit.extension.UrlReplaceLog;
 import com.timxs.storagetoolkit.extension.WhitelistEntry;
+import com.timxs.storagetoolkit.service.support.ImageProcessingExecutor;
+import com.timxs.storagetoolkit.service.support.ImageWriterPool;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import run.halo.app.extension.SchemeManager;
@@ -24,7 +28,11 @@ import javax.imageio.spi.ImageReaderSpi;
 import javax.imageio.spi.ImageWriterSpi;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
+import static run.halo.app.extension.index.IndexAttributeFactory.multiValueAttribute;
 import static run.halo.app.extension.index.IndexAttributeFactory.simpleAttribute;
 
 /**
@@ -42,6 +50,16 @@ public class StorageToolkitPlugin extends BasePlugin {
      * Halo 扩展模式管理器，用于注册和取消注册 Extension
      */
     private final SchemeManager schemeManager;
+
+    /**
+     * 图片处理专用线程池
+     */
+    private final ImageProcessingExecutor imageProcessingExecutor;
+
+    /**
+     * ImageWriter 池（插件启动时探测编码能力）
+     */
+    private final ImageWriterPool imageWriterPool;
     
     /**
      * 已注册的 SPI 列表，用于插件停止时注销
@@ -53,10 +71,16 @@ public class StorageToolkitPlugin extends BasePlugin {
      *
      * @param pluginContext 插件上下文
      * @param schemeManager 扩展模式管理器
+     * @param imageProcessingExecutor 图片处理专用线程池
+     * @param imageWriterPool ImageWriter 池
      */
-    public StorageToolkitPlugin(PluginContext pluginContext, SchemeManager schemeManager) {
+    public StorageToolkitPlugin(PluginContext pluginContext, SchemeManager schemeManager,
+                                ImageProcessingExecutor imageProcessingExecutor,
+                                ImageWriterPool imageWriterPool) {
         super(pluginContext);
         this.schemeManager = schemeManager;
+        this.imageProcessingExecutor = imageProcessingExecutor;
+        this.imageWriterPool = imageWriterPool;
     }
 
     /**
@@ -102,14 +126,57 @@ public class StorageToolkitPlugin extends BasePlugin {
                     ref -> ref.getSpec() != null ? ref.getSpec().getAttachmentName() : null)));
         });
 
+        // 注册 ReferenceSourceIndex Extension（带索引，用于增量扫描时按 URL 查找引用源）
+        schemeManager.register(ReferenceSourceIndex.class, indexSpecs -> {
+            indexSpecs.add(new IndexSpec()
+                .setName("spec.sourceType")
+                .setIndexFunc(simpleAttribute(ReferenceSourceIndex.class,
+                    index -> index.getSpec() != null ? index.getSpec().getSourceType() : null)));
+            // 引用的 URL（多值，URL ID），用于按 URL 反查引用源
+            indexSpecs.add(new IndexSpec()
+                .setName("status.urlIds")
+                .setIndexFunc(multiValueAttribute(ReferenceSourceIndex.class, ReferenceSourceIndex::urlIds)));
+        });
+
         // 注册 ReferenceScanStatus Extension
         schemeManager.register(ReferenceScanStatus.class);
 
         // 注册 DuplicateScanStatus Extension
         schemeManager.register(DuplicateScanStatus.class);
 
-        // 注册 DuplicateGroup Extension
-        schemeManager.register(DuplicateGroup.class);
+        // 注册 DuplicateGroup Extension（带索引，用于分页排序和按哈希查找）
+        schemeManager.register(DuplicateGroup.class, indexSpecs -> {
+            indexSpecs.add(new IndexSpec()
+                .setName("spec.md5Hash")
+                .setIndexFunc(simpleAttribute(DuplicateGroup.class,
+                    group -> group.getSpec() != null ? group.getSpec().getMd5Hash() : null)));
+            // 数值索引补零为定长字符串，保证按字典序排序与数值顺序一致
+            indexSpecs.add(new IndexSpec()
+                .setName("status.savableSize")
+                .setIndexFunc(simpleAttribute(DuplicateGroup.class,
+                    group -> sortableNumber(group.getStatus() != null ? group.getStatus().getSavableSize() : 0))));
+            indexSpecs.add(new IndexSpec()
+                .setName("status.fileCount")
+                .setIndexFunc(simpleAttribute(DuplicateGroup.class,
+                    group -> sortableNumber(group.getStatus() != null ? group.getStatus().getFileCount() : 0))));
+            indexSpecs.add(new IndexSpec()
+                .setName("status.pendingDelete")
+                .setIndexFunc(simpleAttribute(DuplicateGroup.class,
+                    group -> String.valueOf(group.getStatus() != null
+                        && Boolean.TRUE.equals(group.getStatus().getPendingDelete())))));
+        });
+
+        // 注册 AttachmentHash Extension（带索引）
+        schemeManager.register(AttachmentHash.class, indexSpecs -> {
+            indexSpecs.add(new IndexSpec()
+                .setName("spec.attachmentName")
+                .setIndexFunc(simpleAttribute(AttachmentHash.class,
+                    hash -> hash.getSpec() != null ? hash.getSpec().getAttachmentName() : null)));
+            // 内容哈希（多值，{算法}:{哈希值}），用于上传时按内容查找已有附件
+            indexSpecs.add(new IndexSpec()
+                .setName("status.contentHashes")
+                .setIndexFunc(multiValueAttribute(AttachmentHash.class, AttachmentHash::contentHashKeys)));
+        });
 
         // 注册 BatchProcessingStatus Extension
         schemeManager.register(BatchProcessingStatus.class);
@@ -141,12 +208,45 @@ public class StorageToolkitPlugin extends BasePlugin {
         // 注册 BrokenLinkScanStatus Extension
         schemeManager.register(BrokenLinkScanStatus.class);
 
-        // 注册 BrokenLink Extension（带索引）
+        // 注册 BrokenLink Extension（带索引，用于分页排序和过滤）
         schemeManager.register(BrokenLink.class, indexSpecs -> {
             indexSpecs.add(new IndexSpec()
                 .setName("spec.url")
                 .setIndexFunc(simpleAttribute(BrokenLink.class,
                     link -> link.getSpec() != null ? link.getSpec().getUrl() : null)));
+            indexSpecs.add(new IndexSpec()
+                .setName("status.sourceCount")
+                .setIndexFunc(simpleAttribute(BrokenLink.class,
+                    link -> sortableNumber(link.getStatus() != null ? link.getStatus().getSourceCount() : 0))));
+            indexSpecs.add(new IndexSpec()
+                .setName("status.discoveredAt")
+                .setIndexFunc(simpleAttribute(BrokenLink.class,
+                    link -> link.getStatus() != null && link.getStatus().getDiscoveredAt() != null
+                        ? link.getStatus().getDiscoveredAt().toString() : null)));
+            indexSpecs.add(new IndexSpec()
+                .setName("status.pendingDelete")
+                .setIndexFunc(simpleAttribute(BrokenLink.class,
+                    link -> String.valueOf(link.getStatus() != null
+                        && Boolean.TRUE.equals(link.getStatus().getPendingDelete())))));
+            // 断链原因分类：所有 HTTP 状态码错误归为 HTTP_ERROR
+            indexSpecs.add(new IndexSpec()
+                .setName("status.reasonCategory")
+                .setIndexFunc(simpleAttribute(BrokenLink.class,
+                    link -> link.getStatus() != null ? BrokenLink.reasonCategory(link.getStatus().getReason()) : null)));
+            // 引用源类型（多值）
+            indexSpecs.add(new IndexSpec()
+                .setName("status.sourceTypes")
+                .setIndexFunc(multiValueAttribute(BrokenLink.class,
+                    link -> link.getStatus() != null && link.getStatus().getSources() != null
+                        ? link.getStatus().getSources().stream()
+                            .map(BrokenLink.BrokenLinkSource::getSourceType)
+                            .filter(Objects::nonNull)
+                            .collect(Collectors.toSet())
+                        : Set.of())));
+            // 关键词搜索：URL 和引用源标题（小写，多值）
+            indexSpecs.add(new IndexSpec()
+                .setName("status.keywords")
+                .setIndexFunc(multiValueAttribute(BrokenLink.class, BrokenLink::searchKeywords)));
         });
 
         // 注册 WhitelistEntry Extension（带索引）
@@ -186,6 +286,16 @@ public class StorageToolkitPlugin extends BasePlugin {
         // 手动注册 ImageIO SPI（解决插件类加载器隔离问题）
         registerImageIOSpi();
 
+        // 一次性探测可用编码器，生成能力报告
+        if (imageWriterPool != null) {
+            imageWriterPool.discover();
+        }
+
+        // 启动图片处理线程池
+        if (imageProcessingExecutor != null) {
+            imageProcessingExecutor.start();
+        }
+
         log.info("Storage Toolkit 插件启动成功！");
     }
 
@@ -197,15 +307,27 @@ public class StorageToolkitPlugin extends BasePlugin {
     public void stop() {
         log.info("Storage Toolkit 插件停止中...");
 
+        // 停止图片处理线程池
+        if (imageProcessingExecutor != null) {
+            imageProcessingExecutor.stop();
+        }
+
+        // 销毁池中的 ImageWriter（持有插件类加载器加载的 native 编码器）
+        if (imageWriterPool != null) {
+            imageWriterPool.clear();
+        }
+
         // 注销 ImageIO SPI
         unregisterImageIOSpi();
 
         // 取消注册 Extension
         schemeManager.unregister(schemeManager.get(ProcessingLog.class));
         schemeManager.unregister(schemeManager.get(AttachmentReference.class));
+        schemeManager.unregister(schemeManager.get(ReferenceSourceIndex.class));
         schemeManager.unregister(schemeManager.get(ReferenceScanStatus.class));
         schemeManager.unregister(schemeManager.get(DuplicateScanStatus.class));
         schemeManager.unregister(schemeManager.get(DuplicateGroup.class));
+        schemeManager.unregister(schemeManager.get(AttachmentHash.class));
         schemeManager.unregister(schemeManager.get(BatchProcessingStatus.class));
         schemeManager.unregister(schemeManager.get(CleanupLog.class));
         schemeManager.unregister(schemeManager.get(BrokenLinkScanStatus.class));
@@ -216,6 +338,13 @@ public class StorageToolkitPlugin extends BasePlugin {
         log.info("Storage Toolkit 插件已停止");
     }
 
+    /**
+     * 非负数值转为定长字符串索引值（补零到 19 位）
+     */
+    private static String sortableNumber(long value) {
+        return String.format("%019d", Math.max(0, value));
+    }
+
     /**
      * 手动注册 ImageIO SPI（WebP 和 AVIF）
      * 由于 Halo 插件使用独立的类加载器，ImageIO 的 SPI 自动发现机制可能失效
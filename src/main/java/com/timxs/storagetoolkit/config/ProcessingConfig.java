@@ -1,5 +1,7 @@
 package com.timxs.storagetoolkit.config;
 
+import com.timxs.storagetoolkit.model.QueueOverflowAction;
+import com.timxs.storagetoolkit.model.UploadDuplicateAction;
 import lombok.Data;
 import java.util.List;
 
@@ -9,6 +11,18 @@ import java.util.List;
  */
 @Data
 public class ProcessingConfig {
+
+    /**
+     * 图片处理线程数上限
+     */
+    public static final int MAX_IMAGE_WORKER_THREADS = 64;
+
+    /**
+     * 默认图片处理线程数：CPU 核数
+     */
+    public static int defaultImageWorkerThreads() {
+        return Math.max(1, Math.min(MAX_IMAGE_WORKER_THREADS, Runtime.getRuntime().availableProcessors()));
+    }
     
     // ========== 全局设置 ==========
     
@@ -39,11 +53,39 @@ public class ProcessingConfig {
      */
     private int imageProcessingConcurrency = 3;
 
+    /**
+     * 图片处理线程数
+     * 解码、水印、编码使用的专用线程数，默认等于 CPU 核数
+     */
+    private int imageWorkerThreads = defaultImageWorkerThreads();
+
+    /**
+     * 上传处理最大排队数
+     * 并发已满时最多允许多少个上传排队等待，超出按溢出策略处理
+     */
+    private int processingQueueMaxDepth = 20;
+
+    /**
+     * 上传处理最大排队时间（秒）
+     */
+    private int processingQueueMaxWaitSeconds = 30;
+
+    /**
+     * 排队已满或超时时的处理方式
+     */
+    private QueueOverflowAction processingQueueOverflowAction = QueueOverflowAction.PASS_THROUGH;
+
     /**
      * 下载超时时间（秒）
      * 用于批量处理下载附件、加载水印图片等操作
      */
     private int downloadTimeoutSeconds = 90;
+
+    /**
+     * 上传时重复检测的处理方式
+     * 使用重复检测的哈希算法与附件哈希索引比对，上传成功后增量写入索引
+     */
+    private UploadDuplicateAction uploadDuplicateAction = UploadDuplicateAction.OFF;
     
     // ========== 文件过滤 ==========
     
@@ -62,7 +104,26 @@ public class ProcessingConfig {
      * 默认 20MB，过大的图片处理时会占用大量内存
      */
     private long maxFileSize = 20 * 1024 * 1024;
+
+    /**
+     * 最大像素数，0 表示不限制（默认）
+     * 在解码前通过文件头判断，避免超大尺寸图片解码时占用大量内存
+     */
+    private long maxImagePixels = 0;
+
+    /**
+     * 是否跳过动图（多帧 GIF / 动画 WebP），默认关闭
+     * 处理时只会解码第一帧，开启后保留原动图
+     */
+    private boolean skipAnimated = false;
     
+    // ========== 尺寸缩放设置 ==========
+
+    /**
+     * 尺寸缩放配置
+     */
+    private ResizeConfig resize = new ResizeConfig();
+
     // ========== 水印设置 ==========
     
     /**
@@ -0,0 +1,21 @@
+package com.timxs.storagetoolkit.config;
+
+import lombok.Data;
+
+/**
+ * 尺寸缩放配置
+ * 限制输出图片的最长边，超出时等比缩小
+ */
+@Data
+public class ResizeConfig {
+
+    /**
+     * 是否启用尺寸缩放
+     */
+    private boolean enabled = false;
+
+    /**
+     * 最长边（像素），超过此值的图片会等比缩小到此尺寸
+     */
+    private int maxLongEdge = 2560;
+}
@@ -16,6 +16,8 @@ import com.timxs.storagetoolkit.model.WatermarkPosition;
  * @param opacity  透明度 0-100
  * @param marginXPercent  X 边距百分比 0-50
  * @param marginYPercent  Y 边距百分比 0-50
+ * @param tileSpacing 平铺间距百分比 0-300
+ * @param tileAngle   平铺旋转角度
  */
 public record TextWatermarkConfig(
     String text,
@@ -27,7 +29,9 @@ public record TextWatermarkConfig(
     WatermarkPosition position,
     int opacity,
     double marginXPercent,
-    double marginYPercent
+    double marginYPercent,
+    int tileSpacing,
+    int tileAngle
 ) {
     /**
      * 从 WatermarkConfig 创建 TextWatermarkConfig
@@ -43,7 +47,9 @@ public record TextWatermarkConfig(
             config.getPosition(),
             config.getOpacity(),
             config.getMarginX(),
-            config.getMarginY()
+            config.getMarginY(),
+            config.getTileSpacing(),
+            config.getTileAngle()
         );
     }
     
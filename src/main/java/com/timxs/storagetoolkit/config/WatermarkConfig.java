@@ -89,4 +89,16 @@ public class WatermarkConfig {
      * Y 方向边距（百分比 0-50）
      */
     private double marginY = 5;
+
+    // ========== 平铺配置（position 为 TILED 时生效）==========
+
+    /**
+     * 平铺间距（相对单个水印尺寸的百分比 0-300）
+     */
+    private int tileSpacing = 100;
+
+    /**
+     * 平铺旋转角度（-90 到 90 度，负数为逆时针）
+     */
+    private int tileAngle = -30;
 }
@@ -35,7 +35,8 @@ public class CleanupEndpoint {
             return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "附件列表不能为空"));
         }
 
-        return duplicateService.deleteDuplicates(groupMd5, request.attachmentNames(), request.replaceReferences())
+        return duplicateService.deleteDuplicates(groupMd5, request.attachmentNames(), request.replaceReferences(),
+                request.confirmSimilar())
             .map(result -> new CleanupResultResponse(
                 result.deletedCount(),
                 result.failedCount(),
@@ -70,7 +71,7 @@ public class CleanupEndpoint {
 
     // ========== 请求/响应对象 ==========
 
-    public record DeleteRequest(List<String> attachmentNames, Boolean replaceReferences) {}
+    public record DeleteRequest(List<String> attachmentNames, Boolean replaceReferences, Boolean confirmSimilar) {}
 
     public record CleanupResultResponse(
         int deletedCount,
@@ -42,6 +42,23 @@ public class DuplicateEndpoint {
             );
     }
 
+    /**
+     * 取消正在进行的扫描
+     */
+    @DeleteMapping("/scan")
+    public Mono<ScanResponse> cancelScan() {
+        return duplicateService.cancelScan()
+            .map(status -> new ScanResponse(
+                status.getStatus().getPhase(),
+                "正在取消扫描",
+                status.getStatus().getTotalCount(),
+                status.getStatus().getScannedCount()
+            ))
+            .onErrorResume(IllegalStateException.class, e ->
+                Mono.error(new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage()))
+            );
+    }
+
     /**
      * 获取扫描状态和统计概览
      */
@@ -65,7 +82,9 @@ public class DuplicateEndpoint {
                     s != null ? s.getDuplicateFileCount() : 0,
                     s != null ? s.getSavableSize() : 0,
                     s != null ? s.getErrorMessage() : null,
-                    enableRemote
+                    enableRemote,
+                    s != null ? s.getCheckpointCount() : 0,
+                    s != null ? s.getLastCheckpointTime() : null
                 );
             });
     }
@@ -76,8 +95,9 @@ public class DuplicateEndpoint {
     @GetMapping
     public Mono<ListResult<DuplicateGroupVo>> listDuplicateGroups(
             @RequestParam(defaultValue = "1") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        return duplicateService.listDuplicateGroups(page, size);
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String sort) {
+        return duplicateService.listDuplicateGroups(page, size, sort);
     }
 
     /**
@@ -112,7 +132,9 @@ public class DuplicateEndpoint {
         int duplicateFileCount,
         long savableSize,
         String errorMessage,
-        boolean enableRemoteStorage
+        boolean enableRemoteStorage,
+        int checkpointCount,
+        Instant lastCheckpointTime
     ) {}
 
     public record ClearResponse(String message) {}
@@ -0,0 +1,33 @@
+package com.timxs.storagetoolkit.endpoint;
+
+import com.timxs.storagetoolkit.service.support.ImageWriterPool;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import run.halo.app.plugin.ApiVersion;
+
+/**
+ * 图片处理 REST API 端点
+ * 提供图片编解码能力报告
+ */
+@ApiVersion("console.api.storage-toolkit.timxs.com/v1alpha1")
+@RestController
+@RequestMapping("/imageprocessing")
+@RequiredArgsConstructor
+public class ImageProcessingEndpoint {
+
+    private final ImageWriterPool imageWriterPool;
+
+    /**
+     * 获取编解码能力报告
+     * 插件启动时探测，包括各格式编码器是否可用（WebP/AVIF 依赖 native 库）和可解码的格式
+     *
+     * @return 能力报告
+     */
+    @GetMapping("/capabilities")
+    public Mono<ImageWriterPool.Capabilities> capabilities() {
+        return Mono.fromSupplier(imageWriterPool::getCapabilities);
+    }
+}
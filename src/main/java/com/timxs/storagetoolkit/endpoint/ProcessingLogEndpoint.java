@@ -1,6 +1,7 @@
 package com.timxs.storagetoolkit.endpoint;
 
 import com.timxs.storagetoolkit.extension.ProcessingLog;
+import com.timxs.storagetoolkit.filter.UploadAdmissionController;
 import com.timxs.storagetoolkit.model.ProcessingLogQuery;
 import com.timxs.storagetoolkit.model.ProcessingSource;
 import com.timxs.storagetoolkit.model.ProcessingStatus;
@@ -28,6 +29,11 @@ public class ProcessingLogEndpoint {
      */
     private final ProcessingLogService processingLogService;
 
+    /**
+     * 上传处理准入控制器
+     */
+    private final UploadAdmissionController admissionController;
+
     /**
      * 查询处理日志列表
      * 支持文件名搜索、状态过滤、来源过滤和分页
@@ -97,6 +103,17 @@ public class ProcessingLogEndpoint {
             });
     }
 
+    /**
+     * 获取上传处理队列统计
+     * 包括当前并发/排队数、拒绝/超时次数以及等待时间和排队深度直方图（内存数据，重启后清零）
+     *
+     * @return 队列统计
+     */
+    @GetMapping("/admission")
+    public Mono<UploadAdmissionController.AdmissionStats> admission() {
+        return Mono.fromSupplier(admissionController::getStats);
+    }
+
     /**
      * 清空所有日志
      *
@@ -1,5 +1,6 @@
 package com.timxs.storagetoolkit.endpoint;
 
+import com.timxs.storagetoolkit.extension.ReferenceScanStatus;
 import com.timxs.storagetoolkit.service.ReferenceService;
 import com.timxs.storagetoolkit.service.ReferenceService.AttachmentReferenceVo;
 import com.timxs.storagetoolkit.service.ReferenceService.ReferenceQuery;
@@ -63,7 +64,10 @@ public class ReferenceEndpoint {
                     s != null ? s.getReferencedCount() : 0,
                     s != null ? s.getUnreferencedCount() : 0,
                     s != null ? s.getUnreferencedSize() : 0,
-                    s != null ? s.getErrorMessage() : null
+                    s != null ? s.getErrorMessage() : null,
+                    s != null ? s.getLastIncrementalUpdateTime() : null,
+                    s != null ? s.getIncrementalUpdateCount() : 0,
+                    s != null ? s.getTypeProgress() : null
                 );
             });
     }
@@ -274,7 +278,10 @@ public class ReferenceEndpoint {
         int referencedCount,
         int unreferencedCount,
         long unreferencedSize,
-        String errorMessage
+        String errorMessage,
+        java.time.Instant lastIncrementalUpdateTime,
+        int incrementalUpdateCount,
+        java.util.List<ReferenceScanStatus.TypeProgress> typeProgress
     ) {}
 
     public record PolicyInfo(String name, String displayName) {}
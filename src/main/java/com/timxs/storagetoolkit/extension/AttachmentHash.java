@@ -0,0 +1,126 @@
+package com.timxs.storagetoolkit.extension;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import run.halo.app.extension.AbstractExtension;
+import run.halo.app.extension.GVK;
+
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 附件内容哈希索引 Extension 实体
+ * 持久化每个附件的内容哈希，重复检测时仅对新增或已变化的附件重新计算
+ * metadata.name 格式为 hash-{attachmentName}
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@GVK(group = "storage-toolkit.timxs.com",
+     version = "v1alpha1",
+     kind = "AttachmentHash",
+     plural = "attachmenthashes",
+     singular = "attachmenthash")
+public class AttachmentHash extends AbstractExtension {
+
+    @Schema(requiredMode = Schema.RequiredMode.REQUIRED)
+    private AttachmentHashSpec spec;
+
+    private AttachmentHashStatus status;
+
+    /**
+     * 内容哈希索引值，格式为 {算法名称}:{哈希值}
+     *
+     * @param algorithm 算法名称（见 HashAlgorithm）
+     * @param hash      哈希值
+     * @return 索引值
+     */
+    public static String contentHashKey(String algorithm, String hash) {
+        return algorithm + ":" + hash;
+    }
+
+    /**
+     * 记录中全部内容哈希的索引值（早期记录只有 md5Hash 字段）
+     *
+     * @param hash 哈希索引记录
+     * @return 索引值集合
+     */
+    public static Set<String> contentHashKeys(AttachmentHash hash) {
+        Set<String> keys = new LinkedHashSet<>();
+        if (hash.getStatus() == null) {
+            return keys;
+        }
+        if (hash.getStatus().getContentHashes() != null) {
+            hash.getStatus().getContentHashes().forEach((algorithm, value) -> {
+                if (value != null) {
+                    keys.add(contentHashKey(algorithm, value));
+                }
+            });
+        }
+        if (hash.getStatus().getMd5Hash() != null) {
+            keys.add(contentHashKey("MD5", hash.getStatus().getMd5Hash()));
+        }
+        return keys;
+    }
+
+    /**
+     * 哈希索引键
+     * 任一字段与附件当前值不一致时，缓存的哈希失效
+     */
+    @Data
+    public static class AttachmentHashSpec {
+        /**
+         * 关联的附件名称（Attachment 的 metadata.name）
+         */
+        @Schema(requiredMode = Schema.RequiredMode.REQUIRED)
+        private String attachmentName;
+
+        /**
+         * 计算哈希时的附件大小（字节）
+         */
+        private Long size;
+
+        /**
+         * 计算哈希时的附件 permalink
+         */
+        private String permalink;
+
+        /**
+         * 计算哈希时的附件 metadata.version（附件每次更新都会递增）
+         */
+        private Long attachmentVersion;
+    }
+
+    /**
+     * 哈希计算结果
+     */
+    @Data
+    public static class AttachmentHashStatus {
+        /**
+         * 文件 MD5 哈希值
+         */
+        private String md5Hash;
+
+        /**
+         * 其他算法的完整哈希值（算法名称 -> 哈希值，见 HashAlgorithm）
+         */
+        private Map<String, String> contentHashes;
+
+        /**
+         * 文件首尾片段的 MD5（仅大于两个片段的文件，用于重复检测预筛选）
+         */
+        private String partialHash;
+
+        /**
+         * 图片感知哈希（64 位 dHash 的十六进制，仅相似图片检测时计算）
+         */
+        private String perceptualHash;
+
+        /**
+         * 哈希计算时间
+         */
+        private Instant hashedAt;
+    }
+}
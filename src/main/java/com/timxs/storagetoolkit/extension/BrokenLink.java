@@ -1,7 +1,10 @@
 package com.timxs.storagetoolkit.extension;
 
 import java.time.Instant;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import run.halo.app.extension.AbstractExtension;
@@ -76,6 +79,40 @@ public class BrokenLink extends AbstractExtension {
         private String reason;
     }
 
+    /**
+     * 断链原因分类，HTTP 状态码错误（如 "HTTP 404"）统一归为 HTTP_ERROR
+     *
+     * @param reason 断链原因
+     * @return 分类，原因为空时返回 null
+     */
+    public static String reasonCategory(String reason) {
+        if (reason == null) {
+            return null;
+        }
+        return reason.startsWith("HTTP ") ? "HTTP_ERROR" : reason;
+    }
+
+    /**
+     * 关键词搜索使用的小写文本：URL 和全部引用源标题
+     *
+     * @param link 断链记录
+     * @return 搜索文本集合
+     */
+    public static Set<String> searchKeywords(BrokenLink link) {
+        Set<String> keywords = new LinkedHashSet<>();
+        if (link.getSpec() != null && link.getSpec().getUrl() != null) {
+            keywords.add(link.getSpec().getUrl().toLowerCase(Locale.ROOT));
+        }
+        if (link.getStatus() != null && link.getStatus().getSources() != null) {
+            for (BrokenLinkSource source : link.getStatus().getSources()) {
+                if (source.getSourceTitle() != null) {
+                    keywords.add(source.getSourceTitle().toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return keywords;
+    }
+
     /**
      * 断链引用源信息
      */
@@ -10,8 +10,8 @@ import java.util.List;
 
 /**
  * 重复组 Extension 实体
- * 存储具有相同 MD5 哈希的附件组
- * metadata.name 格式为 dup-{md5hash}
+ * 存储内容哈希相同的附件组，开启相似图片检测时也存储感知哈希相近的图片组
+ * metadata.name 格式为 dup-{hash}
  */
 @Data
 @EqualsAndHashCode(callSuper = true)
@@ -31,15 +31,21 @@ public class DuplicateGroup extends AbstractExtension {
     public static class DuplicateGroupSpec {
         /**
          * 文件 MD5 哈希值
+         * 实际算法见 DuplicateScanStatus.hashAlgorithm；相似图片组为 p + 感知哈希
          */
         @Schema(requiredMode = Schema.RequiredMode.REQUIRED)
         private String md5Hash;
+
+        /**
+         * 匹配类型（见 DuplicateMatchType），为空视为 EXACT
+         */
+        private String matchType;
     }
 
     @Data
     public static class DuplicateGroupStatus {
         /**
-         * 文件大小（字节）
+         * 文件大小（字节），相似图片组为推荐保留文件的大小
          */
         private long fileSize;
 
@@ -49,7 +55,7 @@ public class DuplicateGroup extends AbstractExtension {
         private int fileCount;
 
         /**
-         * 可节省空间 = fileSize × (fileCount - 1)
+         * 可节省空间 = 组内文件总大小 - 推荐保留文件大小
          */
         private long savableSize;
 
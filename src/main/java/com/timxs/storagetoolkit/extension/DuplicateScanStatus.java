@@ -34,7 +34,7 @@ public class DuplicateScanStatus extends AbstractExtension {
     @Data
     public static class DuplicateScanStatusStatus {
         /**
-         * 扫描阶段：scanning / completed / error
+         * 扫描阶段：scanning / cancelling / cancelled / completed / error
          */
         private String phase;
 
@@ -82,6 +82,22 @@ public class DuplicateScanStatus extends AbstractExtension {
          * 错误信息
          */
         private String errorMessage;
+
+        /**
+         * 重复组哈希值使用的算法（见 HashAlgorithm，为空表示 MD5）
+         */
+        private String hashAlgorithm;
+
+        /**
+         * 本次扫描已写回哈希索引的检查点数量
+         * 扫描中断或取消后重新扫描时，这些附件直接命中索引，无需重新计算
+         */
+        private int checkpointCount;
+
+        /**
+         * 最后一次写入检查点的时间
+         */
+        private Instant lastCheckpointTime;
     }
 
     /**
@@ -89,6 +105,8 @@ public class DuplicateScanStatus extends AbstractExtension {
      */
     public static class Phase {
         public static final String SCANNING = "SCANNING";
+        public static final String CANCELLING = "CANCELLING";
+        public static final String CANCELLED = "CANCELLED";
         public static final String COMPLETED = "COMPLETED";
         public static final String ERROR = "ERROR";
     }
@@ -1,5 +1,6 @@
 package com.timxs.storagetoolkit.extension;
 
+import com.timxs.storagetoolkit.model.EncodingCandidate;
 import com.timxs.storagetoolkit.model.ProcessingSource;
 import com.timxs.storagetoolkit.model.ProcessingStatus;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -80,5 +81,20 @@ public class ProcessingLog extends AbstractExtension {
          * 上传来源
          */
         private ProcessingSource source;
+
+        /**
+         * 尺寸缩放减少的像素数
+         */
+        private long savedPixels;
+
+        /**
+         * 候选编码中胜出的一方（未进行候选比较为空）
+         */
+        private EncodingCandidate encodingCandidate;
+
+        /**
+         * 上传时检测到内容相同的已有附件名称（未检测或未命中为空）
+         */
+        private String duplicateOf;
     }
 }
@@ -6,6 +6,7 @@ import run.halo.app.extension.AbstractExtension;
 import run.halo.app.extension.GVK;
 
 import java.time.Instant;
+import java.util.List;
 
 /**
  * 引用扫描状态 Extension 实体（全局单例）
@@ -78,6 +79,52 @@ public class ReferenceScanStatus extends AbstractExtension {
          * 错误信息（如有）
          */
         private String errorMessage;
+
+        /**
+         * 引用源索引建立时间（全量扫描完成时写入，为空时不进行增量更新）
+         */
+        private Instant sourceIndexedAt;
+
+        /**
+         * 最后增量更新时间
+         */
+        private Instant lastIncrementalUpdateTime;
+
+        /**
+         * 上次全量扫描后的增量更新次数
+         */
+        private int incrementalUpdateCount;
+
+        /**
+         * 全量扫描的分类型进度（扫描期间定期更新）
+         */
+        private List<TypeProgress> typeProgress;
+    }
+
+    /**
+     * 单个内容类型的扫描进度
+     */
+    @Data
+    public static class TypeProgress {
+        /**
+         * 内容类型（Post/SinglePage/Comment/Reply/Moment/Photo/Doc/Setting/User）
+         */
+        private String type;
+
+        /**
+         * 已列出的记录数
+         */
+        private int listed;
+
+        /**
+         * 已扫描的记录数
+         */
+        private int scanned;
+
+        /**
+         * 是否已完成
+         */
+        private boolean completed;
     }
 
     /**
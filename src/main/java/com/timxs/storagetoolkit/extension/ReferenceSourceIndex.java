@@ -0,0 +1,189 @@
+package com.timxs.storagetoolkit.extension;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.springframework.util.DigestUtils;
+import run.halo.app.extension.AbstractExtension;
+import run.halo.app.extension.GVK;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 引用源 URL 索引 Extension 实体（引用关系倒排索引）
+ * 持久化每个引用源（文章、页面、评论、配置等）在上次扫描中引用的全部完整 URL，在扫描之间保留：
+ * 1. 引用源 Y 引用了哪些 URL：按引用源 ID（metadata.name）直接读取
+ * 2. 哪些引用源引用了 URL X：通过 status.urlIds 索引按 URL ID 查询
+ * 内容变更时只需重新提取该引用源并与索引比对，即可得到受影响的 URL
+ * <p>
+ * 为保持记录紧凑：URL 以定长的 URL ID（MD5）建立索引；同一引用源的引用信息在 status.sources 中只保存一份，
+ * 各 URL 条目通过下标引用
+ * metadata.name（引用源 ID）格式为 src-{sourceType}-{sourceName 的 MD5}
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@GVK(group = "storage-toolkit.timxs.com",
+     version = "v1alpha1",
+     kind = "ReferenceSourceIndex",
+     plural = "referencesourceindexes",
+     singular = "referencesourceindex")
+public class ReferenceSourceIndex extends AbstractExtension {
+
+    @Schema(requiredMode = Schema.RequiredMode.REQUIRED)
+    private ReferenceSourceIndexSpec spec;
+
+    private ReferenceSourceIndexStatus status;
+
+    /**
+     * 生成引用源索引的记录名称
+     * 引用源名称可能包含大写字母等不适合作为资源名称的字符，使用 MD5 保证名称合法且唯一
+     *
+     * @param sourceType 引用源类型
+     * @param sourceName 引用源名称
+     * @return 记录名称
+     */
+    public static String nameOf(String sourceType, String sourceName) {
+        return "src-" + sourceType.toLowerCase(Locale.ROOT) + "-"
+            + DigestUtils.md5DigestAsHex(sourceName.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 生成 URL ID（完整 URL 的 MD5），用作 status.urlIds 索引值
+     * URL 长度不定，使用定长 ID 建立索引更紧凑
+     *
+     * @param url 完整 URL
+     * @return URL ID
+     */
+    public static String urlId(String url) {
+        return DigestUtils.md5DigestAsHex(url.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 索引记录中引用的全部完整 URL
+     *
+     * @param index 索引记录
+     * @return URL 集合
+     */
+    public static Set<String> urls(ReferenceSourceIndex index) {
+        Set<String> urls = new LinkedHashSet<>();
+        if (index.getStatus() != null && index.getStatus().getEntries() != null) {
+            for (UrlEntry entry : index.getStatus().getEntries()) {
+                if (entry.getUrl() != null) {
+                    urls.add(entry.getUrl());
+                }
+            }
+        }
+        return urls;
+    }
+
+    /**
+     * 索引记录中引用的全部 URL ID
+     *
+     * @param index 索引记录
+     * @return URL ID 集合
+     */
+    public static Set<String> urlIds(ReferenceSourceIndex index) {
+        Set<String> ids = new LinkedHashSet<>();
+        for (String url : urls(index)) {
+            ids.add(urlId(url));
+        }
+        return ids;
+    }
+
+    /**
+     * 解析索引记录中每个 URL 对应的引用信息
+     *
+     * @param index 索引记录
+     * @return 完整 URL -> 引用信息
+     */
+    public static Map<String, Set<AttachmentReference.ReferenceSource>> referenceMap(ReferenceSourceIndex index) {
+        Map<String, Set<AttachmentReference.ReferenceSource>> map = new LinkedHashMap<>();
+        if (index.getStatus() == null || index.getStatus().getEntries() == null) {
+            return map;
+        }
+        List<AttachmentReference.ReferenceSource> sources = index.getStatus().getSources() != null
+            ? index.getStatus().getSources() : List.of();
+        for (UrlEntry entry : index.getStatus().getEntries()) {
+            if (entry.getUrl() == null) {
+                continue;
+            }
+            Set<AttachmentReference.ReferenceSource> refs =
+                map.computeIfAbsent(entry.getUrl(), k -> new LinkedHashSet<>());
+            if (entry.getSourceIds() != null) {
+                for (Integer id : entry.getSourceIds()) {
+                    if (id != null && id >= 0 && id < sources.size()) {
+                        refs.add(sources.get(id));
+                    }
+                }
+            }
+        }
+        return map;
+    }
+
+    /**
+     * 引用源标识
+     */
+    @Data
+    public static class ReferenceSourceIndexSpec {
+        /**
+         * 引用源类型（与 ReferenceSource.sourceType 一致）
+         */
+        @Schema(requiredMode = Schema.RequiredMode.REQUIRED)
+        private String sourceType;
+
+        /**
+         * 引用源名称（metadata.name）
+         */
+        @Schema(requiredMode = Schema.RequiredMode.REQUIRED)
+        private String sourceName;
+    }
+
+    /**
+     * 引用源提取结果
+     */
+    @Data
+    public static class ReferenceSourceIndexStatus {
+        /**
+         * 该引用源的引用信息（去重，按引用类型等区分），由 UrlEntry.sourceIds 按下标引用
+         */
+        private List<AttachmentReference.ReferenceSource> sources;
+
+        /**
+         * 引用的 URL 列表
+         */
+        private List<UrlEntry> entries;
+
+        /**
+         * 提取时间
+         */
+        private Instant indexedAt;
+    }
+
+    /**
+     * 单个 URL 的引用信息
+     */
+    @Data
+    public static class UrlEntry {
+        /**
+         * 完整 URL（相对路径已拼接站点地址）
+         */
+        private String url;
+
+        /**
+         * 内容中的原始 URL（用于显示）
+         */
+        private String originalUrl;
+
+        /**
+         * 对此 URL 的引用在 status.sources 中的下标（同一引用源可能以封面、内容等多种类型引用同一 URL）
+         */
+        private List<Integer> sourceIds;
+    }
+}
@@ -4,6 +4,7 @@ import com.timxs.storagetoolkit.config.ProcessingConfig;
 import com.timxs.storagetoolkit.model.ProcessingResult;
 import com.timxs.storagetoolkit.model.ProcessingSource;
 import com.timxs.storagetoolkit.model.ProcessingStatus;
+import com.timxs.storagetoolkit.model.QueueOverflowAction;
 import com.timxs.storagetoolkit.service.ImageProcessor;
 import com.timxs.storagetoolkit.service.ProcessingLogService;
 import com.timxs.storagetoolkit.service.SettingsManager;
@@ -14,6 +15,8 @@ import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.http.codec.multipart.FormFieldPart;
@@ -26,18 +29,19 @@ import org.springframework.security.web.server.util.matcher.ServerWebExchangeMat
 import org.springframework.stereotype.Component;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.ServerWebExchangeDecorator;
 import org.springframework.web.server.WebFilterChain;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 import run.halo.app.security.AdditionalWebFilter;
 
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
-import java.util.concurrent.Semaphore;
 import java.util.function.Supplier;
 
 /**
@@ -50,28 +54,19 @@ import java.util.function.Supplier;
 @RequiredArgsConstructor
 public class ImageProcessingWebFilter implements AdditionalWebFilter {
 
+    /**
+     * 上传内容与已有附件相同时返回的响应头，值为已有附件名称
+     */
+    private static final String DUPLICATE_OF_HEADER = "X-Storage-Toolkit-Duplicate-Of";
+
     private final ImageProcessor imageProcessor;
     private final SettingsManager settingsManager;
     private final ProcessingLogService processingLogService;
+    private final UploadAdmissionController admissionController;
+    private final UploadDuplicateChecker duplicateChecker;
 
     private final DefaultDataBufferFactory bufferFactory = new DefaultDataBufferFactory();
 
-    /**
-     * 默认并发处理数
-     */
-    private static final int DEFAULT_PROCESSING_CONCURRENCY = 3;
-
-    /**
-     * 并发处理限制信号量
-     * 使用 volatile 确保多线程可见性
-     */
-    private volatile Semaphore processingPermits = new Semaphore(DEFAULT_PROCESSING_CONCURRENCY);
-
-    /**
-     * 当前配置的并发数
-     */
-    private volatile int currentConcurrency = DEFAULT_PROCESSING_CONCURRENCY;
-
     /**
      * 控制台编辑器上传路径匹配器（新版 Console API - Halo 2.22+）
      */
@@ -93,30 +88,6 @@ public class ImageProcessingWebFilter implements AdditionalWebFilter {
         "/apis/api.console.halo.run/v1alpha1/attachments/upload"
     );
 
-    /**
-     * 获取处理许可的 Semaphore
-     * 如果配置的并发数发生变化，会重建 Semaphore
-     */
-    private Semaphore getProcessingPermits(ProcessingConfig config) {
-        int configuredConcurrency = config.getImageProcessingConcurrency();
-        if (configuredConcurrency < 1) {
-            configuredConcurrency = DEFAULT_PROCESSING_CONCURRENCY;
-        } else if (configuredConcurrency > 10) {
-            configuredConcurrency = 10;
-        }
-
-        if (configuredConcurrency != currentConcurrency) {
-            synchronized (this) {
-                if (configuredConcurrency != currentConcurrency) {
-                    log.info("图片处理并发数配置变更: {} -> {}", currentConcurrency, configuredConcurrency);
-                    currentConcurrency = configuredConcurrency;
-                    processingPermits = new Semaphore(configuredConcurrency);
-                }
-            }
-        }
-        return processingPermits;
-    }
-
     @Override
     @NonNull
     public Mono<Void> filter(@NonNull ServerWebExchange exchange, @NonNull WebFilterChain chain) {
@@ -241,8 +212,8 @@ public class ImageProcessingWebFilter implements AdditionalWebFilter {
                 if (!imageProcessor.isAllowedFormat(contentType, config)) {
                     log.debug("Format not in allowed list, skip processing: {} ({})", filename, contentType);
                     // 重建请求传递下游（multipart 数据已被读取）
-                    return filePart.content().collectList()
-                        .flatMap(buffers -> decorateExchange(exchange, parts, filePart, Flux.fromIterable(buffers)))
+                    return readChunks(filePart.content())
+                        .flatMap(chunks -> decorateExchange(exchange, parts, filePart, chunks))
                         .flatMap(chain::filter);
                 }
 
@@ -290,16 +261,16 @@ public class ImageProcessingWebFilter implements AdditionalWebFilter {
                 if (!imageProcessor.isAllowedFormat(fileContentType, config)) {
                     log.debug("Format not in allowed list, skip processing: {} ({})",
                         filePart.filename(), fileContentType);
-                    return filePart.content().collectList()
-                        .flatMap(buffers -> decorateExchange(exchange, parts, filePart, Flux.fromIterable(buffers)))
+                    return readChunks(filePart.content())
+                        .flatMap(chunks -> decorateExchange(exchange, parts, filePart, chunks))
                         .flatMap(chain::filter);
                 }
 
                 // 检查策略/分组
                 if (!shouldProcessForPolicyAndGroup(parts, config)) {
                     log.debug("Attachment manager: policy or group not in target list");
-                    return filePart.content().collectList()
-                        .flatMap(buffers -> decorateExchange(exchange, parts, filePart, Flux.fromIterable(buffers)))
+                    return readChunks(filePart.content())
+                        .flatMap(chunks -> decorateExchange(exchange, parts, filePart, chunks))
                         .flatMap(chain::filter);
                 }
 
@@ -309,73 +280,172 @@ public class ImageProcessingWebFilter implements AdditionalWebFilter {
 
     /**
      * 执行图片处理核心逻辑（编辑器上传和附件管理共用）
-     * 包含：信号量控制 → 图片处理 → 结果分发
+     * 包含：准入控制（有界队列）→ 上传重复检测 → 图片处理 → 结果分发
      * 注意：文件大小检查已在 filter() 前置阶段基于 Content-Length 完成
      */
     private Mono<Void> doProcessImage(ServerWebExchange exchange, WebFilterChain chain,
                                        MultiValueMap<String, Part> parts, FilePart filePart,
                                        ProcessingConfig config, ProcessingSource source) {
         String filename = filePart.filename();
-        String contentType = getContentType(filePart);
         Instant startTime = Instant.now();
 
-        // 获取处理许可，限制并发数
-        // 注意：必须在 acquire 时保存 Semaphore 引用，确保 release 同一个对象
-        final Semaphore permits = getProcessingPermits(config);
-        return Mono.fromCallable(() -> {
-                permits.acquire();
-                return permits; // 返回获取许可的 Semaphore 引用
+        // 获取处理许可，限制并发数；排队不占用线程，队列满或等待超时则按溢出策略处理
+        return admissionController.acquire(config.getImageProcessingConcurrency(),
+                config.getProcessingQueueMaxDepth(),
+                Duration.ofSeconds(config.getProcessingQueueMaxWaitSeconds()))
+            .onErrorResume(UploadAdmissionController.AdmissionRejectedException.class, e ->
+                handleAdmissionRejected(exchange, chain, parts, filePart, config, source, startTime, e)
+                    .then(Mono.empty()))
+            .flatMap(acquiredPermits -> readFully(filePart.content())
+                .flatMap(imageData -> duplicateChecker.check(imageData, config)
+                    .flatMap(originalCheck -> {
+                        // 原图已存在时直接拒绝，无需再处理
+                        if (duplicateChecker.shouldReject(originalCheck, config)) {
+                            return Mono.error(duplicateRejected(filename, originalCheck));
+                        }
+                        return processImage(exchange, chain, parts, filePart, config, source,
+                            startTime, imageData, originalCheck);
+                    }))
+                .doFinally(signal -> acquiredPermits.release())
+            );
+    }
+
+    /**
+     * 处理已读取的图片并传递下游
+     * 处理后的数据与原图不同时，对处理后的数据再做一次重复检测
+     */
+    private Mono<Void> processImage(ServerWebExchange exchange, WebFilterChain chain,
+                                     MultiValueMap<String, Part> parts, FilePart filePart,
+                                     ProcessingConfig config, ProcessingSource source, Instant startTime,
+                                     byte[] imageData, UploadDuplicateChecker.Check originalCheck) {
+        String filename = filePart.filename();
+        String contentType = getContentType(filePart);
+        long originalSize = imageData.length;
+
+        String skipReason = imageProcessor.getSkipReason(contentType, originalSize, config);
+        if (skipReason != null) {
+            log.debug("File skipped: {} - {}", filename, skipReason);
+            saveSkippedLog(filename, contentType, originalSize, startTime, skipReason, source,
+                originalCheck.duplicateOf());
+            // 用原图数据重建请求，传递下游
+            return forwardUpload(exchange, chain,
+                decorateExchange(exchange, parts, filePart, List.of(imageData)),
+                originalCheck, originalCheck.duplicateOf(), filename);
+        }
+
+        return imageProcessor.process(imageData, filename, contentType, config)
+            .onErrorResume(e -> {
+                // 仅捕获图片处理异常，回退原图
+                log.warn("Image processing error, passing original to downstream: {}", e.getMessage());
+                return Mono.just(ProcessingResult.failed(imageData, filename, contentType, e.getMessage()));
             })
-            .subscribeOn(Schedulers.boundedElastic())
-            .flatMap(acquiredPermits -> DataBufferUtils.join(filePart.content())
-                .flatMap(dataBuffer -> {
-                    byte[] imageData = new byte[dataBuffer.readableByteCount()];
-                    dataBuffer.read(imageData);
-                    DataBufferUtils.release(dataBuffer);
-                    long originalSize = imageData.length;
-
-                    String skipReason = imageProcessor.getSkipReason(contentType, originalSize, config);
-                    if (skipReason != null) {
-                        log.debug("File skipped: {} - {}", filename, skipReason);
-                        saveSkippedLog(filename, contentType, originalSize, startTime, skipReason, source);
-                        // 用原图数据重建请求，传递下游
-                        DataBuffer buffer = bufferFactory.wrap(imageData);
-                        return decorateExchange(exchange, parts, filePart, Flux.just(buffer))
-                            .flatMap(chain::filter);
+            .flatMap(result -> {
+                // SUCCESS 或 PARTIAL：用处理后的数据替换原始数据
+                boolean replaced = result.status() == ProcessingStatus.SUCCESS ||
+                    result.status() == ProcessingStatus.PARTIAL;
+                Mono<UploadDuplicateChecker.Check> storedCheckMono = replaced
+                    ? duplicateChecker.check(result.data(), config)
+                    : Mono.just(originalCheck);
+
+                return storedCheckMono.flatMap(storedCheck -> {
+                    if (duplicateChecker.shouldReject(storedCheck, config)) {
+                        return Mono.error(duplicateRejected(filename, storedCheck));
+                    }
+                    String duplicateOf = storedCheck.isDuplicate()
+                        ? storedCheck.duplicateOf()
+                        : originalCheck.duplicateOf();
+                    saveProcessingLog(result, filename, originalSize, startTime, source, duplicateOf);
+
+                    // 传递给下游控制器
+                    if (replaced) {
+                        log.debug("Image processed: {} -> {} ({} bytes -> {} bytes, {}% reduction)",
+                            filename, result.filename(),
+                            originalSize, result.data().length,
+                            originalSize > 0 ? (100 - (result.data().length * 100 / originalSize)) : 0);
+
+                        MediaType processedContentType = MediaType.parseMediaType(result.contentType());
+                        return forwardUpload(exchange, chain,
+                            decorateExchange(exchange, parts, filePart, List.of(result.data()),
+                                result.filename(), processedContentType),
+                            storedCheck, duplicateOf, result.filename());
                     }
 
-                    return imageProcessor.process(imageData, filename, contentType, config)
-                        .onErrorResume(e -> {
-                            // 仅捕获图片处理异常，回退原图
-                            log.warn("Image processing error, passing original to downstream: {}", e.getMessage());
-                            return Mono.just(ProcessingResult.failed(imageData, filename, contentType, e.getMessage()));
-                        })
-                        .flatMap(result -> {
-                            saveProcessingLog(result, filename, originalSize, startTime, source);
-
-                            // SUCCESS 或 PARTIAL：用处理后的数据替换原始数据，传递给下游控制器
-                            if (result.status() == ProcessingStatus.SUCCESS ||
-                                result.status() == ProcessingStatus.PARTIAL) {
-                                log.debug("Image processed: {} -> {} ({} bytes -> {} bytes, {}% reduction)",
-                                    filename, result.filename(),
-                                    originalSize, result.data().length,
-                                    originalSize > 0 ? (100 - (result.data().length * 100 / originalSize)) : 0);
-
-                                MediaType processedContentType = MediaType.parseMediaType(result.contentType());
-                                DataBuffer buffer = bufferFactory.wrap(result.data());
-                                return decorateExchange(exchange, parts, filePart, Flux.just(buffer),
-                                        result.filename(), processedContentType)
-                                    .flatMap(chain::filter);
-                            }
-
-                            // SKIPPED 或 FAILED，传递下游
-                            DataBuffer buffer = bufferFactory.wrap(imageData);
-                            return decorateExchange(exchange, parts, filePart, Flux.just(buffer))
-                                .flatMap(chain::filter);
-                        });
-                })
-                .doFinally(signal -> acquiredPermits.release()) // 释放获取许可时的同一个 Semaphore
-            );
+                    // SKIPPED 或 FAILED，传递下游
+                    return forwardUpload(exchange, chain,
+                        decorateExchange(exchange, parts, filePart, List.of(imageData)),
+                        storedCheck, duplicateOf, filename);
+                });
+            });
+    }
+
+    /**
+     * 传递重建后的请求给下游
+     * 检测到重复时通过响应头提示已有附件；上传成功后从响应中的附件 JSON 取得新附件名称，在后台增量更新哈希索引
+     */
+    private Mono<Void> forwardUpload(ServerWebExchange exchange, WebFilterChain chain,
+                                      Mono<ServerWebExchange> decorated,
+                                      UploadDuplicateChecker.Check storedCheck, String duplicateOf,
+                                      String storedFilename) {
+        if (duplicateOf != null) {
+            exchange.getResponse().getHeaders().set(DUPLICATE_OF_HEADER, duplicateOf);
+        }
+        if (!storedCheck.enabled()) {
+            return decorated.flatMap(chain::filter);
+        }
+        UploadResponseCapture capture = new UploadResponseCapture(exchange.getResponse());
+        return decorated
+            .map(ex -> ex.mutate().response(capture).build())
+            .flatMap(chain::filter)
+            .doOnSuccess(v -> {
+                HttpStatusCode status = exchange.getResponse().getStatusCode();
+                if (status != null && !status.is2xxSuccessful()) {
+                    return;
+                }
+                String attachmentName = capture.attachmentName();
+                if (attachmentName == null) {
+                    log.debug("Uploaded attachment name not found in response, skip indexing: {}",
+                        storedFilename);
+                    return;
+                }
+                duplicateChecker.indexUploaded(storedCheck, attachmentName)
+                    .subscribe(
+                        null,
+                        error -> log.warn("Failed to index uploaded attachment: {} - {}",
+                            storedFilename, error.getMessage())
+                    );
+            });
+    }
+
+    private ResponseStatusException duplicateRejected(String filename, UploadDuplicateChecker.Check check) {
+        log.info("Duplicate upload rejected: {} (same content as {})", filename, check.duplicateOf());
+        return new ResponseStatusException(HttpStatus.CONFLICT,
+            "已存在内容相同的附件：" + check.duplicateDisplayName());
+    }
+
+    /**
+     * 处理准入被拒绝（队列已满或排队超时）
+     * PASS_THROUGH：原图直接传递下游并记录跳过日志；REJECT：返回 503
+     */
+    private Mono<Void> handleAdmissionRejected(ServerWebExchange exchange, WebFilterChain chain,
+                                               MultiValueMap<String, Part> parts, FilePart filePart,
+                                               ProcessingConfig config, ProcessingSource source,
+                                               Instant startTime,
+                                               UploadAdmissionController.AdmissionRejectedException e) {
+        String filename = filePart.filename();
+        if (config.getProcessingQueueOverflowAction() == QueueOverflowAction.REJECT) {
+            log.warn("Image processing saturated, rejecting upload: {} - {}", filename, e.getMessage());
+            return Mono.error(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                "图片处理繁忙，请稍后重试"));
+        }
+
+        log.warn("Image processing saturated, passing original to downstream: {} - {}", filename, e.getMessage());
+        return readChunks(filePart.content())
+            .flatMap(chunks -> {
+                long size = chunks.stream().mapToLong(chunk -> chunk.length).sum();
+                saveSkippedLog(filename, getContentType(filePart), size, startTime, e.getMessage(), source);
+                return decorateExchange(exchange, parts, filePart, chunks);
+            })
+            .flatMap(chain::filter);
     }
 
     private boolean shouldProcessForConfig(ProcessingConfig config, String policyName, String groupName) {
@@ -420,15 +490,15 @@ public class ImageProcessingWebFilter implements AdditionalWebFilter {
     private Mono<ServerWebExchange> decorateExchange(ServerWebExchange exchange,
                                                       MultiValueMap<String, Part> parts,
                                                       FilePart filePart,
-                                                      Flux<DataBuffer> processedImage) {
-        return decorateExchange(exchange, parts, filePart, processedImage,
+                                                      List<byte[]> fileChunks) {
+        return decorateExchange(exchange, parts, filePart, fileChunks,
             filePart.filename(), filePart.headers().getContentType());
     }
 
     private Mono<ServerWebExchange> decorateExchange(ServerWebExchange exchange,
                                                       MultiValueMap<String, Part> parts,
                                                       FilePart filePart,
-                                                      Flux<DataBuffer> processedImage,
+                                                      List<byte[]> fileChunks,
                                                       String newFilename,
                                                       MediaType newContentType) {
         String boundary = getBoundary(exchange);
@@ -437,27 +507,30 @@ public class ImageProcessingWebFilter implements AdditionalWebFilter {
             return Mono.just(exchange);
         }
 
-        return processedImage.collectList()
-            .flatMap(buffers -> createDecoratedExchange(exchange, parts, boundary, buffers, newFilename, newContentType));
+        return Mono.just(createDecoratedExchange(exchange, parts, boundary, fileChunks, newFilename, newContentType));
     }
 
-    private Mono<ServerWebExchange> createDecoratedExchange(final ServerWebExchange exchange,
-                                                             MultiValueMap<String, Part> parts,
-                                                             String boundary,
-                                                             List<DataBuffer> buffers,
-                                                             String filename,
-                                                             MediaType contentType) {
-        final byte[] headerBytes = buildMultipartContent(boundary, parts, filename, contentType).getBytes();
-        final byte[] footerBytes = ("\r\n--" + boundary + "--\r\n").getBytes();
-
-        final List<DataBuffer> finalBuffers = buffers.isEmpty()
-            ? List.of(bufferFactory.wrap(new byte[0]))
-            : buffers;
-
-        // 合并 buffers 为 byte[]，构建 ProcessedFilePart 用于覆写 getMultipartData()
-        final byte[] combinedBytes = combineBuffers(finalBuffers);
+    /**
+     * 构建装饰后的 exchange（流式模式）
+     * 请求体按 header → 文件分块 → footer 顺序逐块发出，不合并为一个大数组；
+     * ProcessedFilePart 与请求体共享同一组文件分块，每次订阅仅做零拷贝包装，
+     * 因此每次上传的峰值内存接近一份图片数据
+     */
+    private ServerWebExchange createDecoratedExchange(final ServerWebExchange exchange,
+                                                       MultiValueMap<String, Part> parts,
+                                                       String boundary,
+                                                       List<byte[]> fileChunks,
+                                                       String filename,
+                                                       MediaType contentType) {
+        final byte[] headerBytes = buildMultipartContent(boundary, parts, filename, contentType)
+            .getBytes(StandardCharsets.UTF_8);
+        final byte[] footerBytes = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8);
+
+        final long fileLength = fileChunks.stream().mapToLong(chunk -> chunk.length).sum();
+
+        // 构建 ProcessedFilePart 用于覆写 getMultipartData()，与请求体共享文件分块
         ProcessedFilePart processedFilePart = new ProcessedFilePart(
-            filename, contentType, combinedBytes, bufferFactory);
+            filename, contentType, fileChunks, fileLength, bufferFactory);
         MultiValueMap<String, Part> newParts = new LinkedMultiValueMap<>();
         for (var entry : parts.entrySet()) {
             if (!"file".equals(entry.getKey())) {
@@ -467,16 +540,16 @@ public class ImageProcessingWebFilter implements AdditionalWebFilter {
         newParts.add("file", processedFilePart);
 
         // 计算重建后的 body 总大小，用于修正 Content-Length
-        final long newContentLength = headerBytes.length + combinedBytes.length + footerBytes.length;
+        final long newContentLength = headerBytes.length + fileLength + footerBytes.length;
 
         final ServerHttpRequest decoratedRequest = new ServerHttpRequestDecorator(exchange.getRequest()) {
             @Override
             @NonNull
             public Flux<DataBuffer> getBody() {
-                return Flux.just(
-                    bufferFactory.wrap(headerBytes),
-                    bufferFactory.wrap(combinedBytes),
-                    bufferFactory.wrap(footerBytes)
+                return Flux.concat(
+                    Mono.fromSupplier(() -> bufferFactory.wrap(headerBytes)),
+                    processedFilePart.content(),
+                    Mono.fromSupplier(() -> bufferFactory.wrap(footerBytes))
                 );
             }
 
@@ -491,7 +564,7 @@ public class ImageProcessingWebFilter implements AdditionalWebFilter {
             }
         };
 
-        return Mono.just(new ServerWebExchangeDecorator(exchange) {
+        return new ServerWebExchangeDecorator(exchange) {
             @Override
             @NonNull
             public ServerHttpRequest getRequest() {
@@ -503,7 +576,7 @@ public class ImageProcessingWebFilter implements AdditionalWebFilter {
             public Mono<MultiValueMap<String, Part>> getMultipartData() {
                 return Mono.just(newParts);
             }
-        });
+        };
     }
 
     private String buildMultipartContent(String boundary,
@@ -559,8 +632,9 @@ public class ImageProcessingWebFilter implements AdditionalWebFilter {
     }
 
     private void saveProcessingLog(ProcessingResult result, String originalFilename,
-                                    long originalSize, Instant startTime, ProcessingSource source) {
-        processingLogService.saveResultLog(result, originalFilename, originalSize, startTime, source)
+                                    long originalSize, Instant startTime, ProcessingSource source,
+                                    String duplicateOf) {
+        processingLogService.saveResultLog(result, originalFilename, originalSize, startTime, source, duplicateOf)
             .subscribe(
                 saved -> log.debug("Processing log saved: {}", saved.getMetadata().getName()),
                 error -> log.error("Failed to save processing log", error)
@@ -569,7 +643,13 @@ public class ImageProcessingWebFilter implements AdditionalWebFilter {
 
     private void saveSkippedLog(String filename, String contentType, long fileSize,
                                  Instant startTime, String reason, ProcessingSource source) {
-        processingLogService.saveSkippedLog(filename, contentType, fileSize, startTime, reason, source)
+        saveSkippedLog(filename, contentType, fileSize, startTime, reason, source, null);
+    }
+
+    private void saveSkippedLog(String filename, String contentType, long fileSize,
+                                 Instant startTime, String reason, ProcessingSource source,
+                                 String duplicateOf) {
+        processingLogService.saveSkippedLog(filename, contentType, fileSize, startTime, reason, source, duplicateOf)
             .subscribe(
                 saved -> log.debug("Skipped log saved: {}", saved.getMetadata().getName()),
                 error -> log.error("Failed to save skipped log", error)
@@ -582,39 +662,60 @@ public class ImageProcessingWebFilter implements AdditionalWebFilter {
     }
 
     /**
-     * 合并多个 DataBuffer 为 byte[]
+     * 读取上传文件的全部内容为一个 byte[]（供图片处理使用）
+     * 每个 DataBuffer 到达时即拷贝为分块并释放，不会在内存中同时保留全部原始缓冲区；
+     * 文件总大小事先未知，合并分块时内容仍会短暂存在两份（分块 + 结果数组）
      */
-    private byte[] combineBuffers(List<DataBuffer> buffers) {
-        int total = buffers.stream().mapToInt(DataBuffer::readableByteCount).sum();
-        byte[] result = new byte[total];
-        int offset = 0;
-        for (DataBuffer buf : buffers) {
-            int len = buf.readableByteCount();
-            buf.read(result, offset, len);
-            offset += len;
-        }
-        return result;
+    private Mono<byte[]> readFully(Flux<DataBuffer> content) {
+        return readChunks(content)
+            .map(chunks -> {
+                int total = chunks.stream().mapToInt(chunk -> chunk.length).sum();
+                byte[] result = new byte[total];
+                int offset = 0;
+                for (byte[] chunk : chunks) {
+                    System.arraycopy(chunk, 0, result, offset, chunk.length);
+                    offset += chunk.length;
+                }
+                return result;
+            });
+    }
+
+    /**
+     * 读取上传文件内容为分块列表（用于原样传递下游）
+     * 每个 DataBuffer 拷贝为一个分块后立即释放，不合并为大数组
+     */
+    private Mono<List<byte[]>> readChunks(Flux<DataBuffer> content) {
+        return content
+            .map(buf -> {
+                byte[] chunk = new byte[buf.readableByteCount()];
+                buf.read(chunk);
+                DataBufferUtils.release(buf);
+                return chunk;
+            })
+            .collectList()
+            .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
     }
 
     /**
      * 包装处理后图片数据的 FilePart 实现
      * 用于覆写 getMultipartData() 返回的 Part，使编辑器端点能读取处理后的数据
+     * 内容以分块形式保存，与重建后的请求体共享同一组分块
      */
     private static class ProcessedFilePart implements FilePart {
         private final String filename;
         private final HttpHeaders headers;
-        private final byte[] data;
+        private final List<byte[]> chunks;
         private final DefaultDataBufferFactory bufferFactory;
 
-        ProcessedFilePart(String filename, MediaType contentType, byte[] data,
+        ProcessedFilePart(String filename, MediaType contentType, List<byte[]> chunks, long length,
                           DefaultDataBufferFactory bufferFactory) {
             this.filename = filename;
-            this.data = data;
+            this.chunks = chunks;
             this.bufferFactory = bufferFactory;
             this.headers = new HttpHeaders();
             this.headers.setContentType(contentType);
             this.headers.setContentDispositionFormData("file", filename);
-            this.headers.setContentLength(data.length);
+            this.headers.setContentLength(length);
         }
 
         @Override
@@ -628,7 +729,8 @@ public class ImageProcessingWebFilter implements AdditionalWebFilter {
 
         @Override
         public Flux<DataBuffer> content() {
-            return Flux.just(bufferFactory.wrap(data));
+            // 每次订阅都重新包装分块（零拷贝），可被请求体和下游控制器多次读取
+            return Flux.fromIterable(chunks).map(bufferFactory::wrap);
         }
 
         @Override
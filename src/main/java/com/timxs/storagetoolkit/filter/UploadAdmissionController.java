@@ -0,0 +1,320 @@
+package com.timxs.storagetoolkit.filter;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 上传处理准入控制器
+ * 以非阻塞方式限制同时处理的上传数量，替代在 boundedElastic 线程上阻塞的 Semaphore.acquire()
+ * 排队的上传只占用一个等待者对象，不占用线程；队列长度和等待时间均有上限，
+ * 超出时快速失败，由调用方决定放行原图还是返回 503
+ */
+@Slf4j
+@Component
+public class UploadAdmissionController {
+
+    /**
+     * 等待时间直方图桶上界（毫秒），最后一个桶为 +Inf
+     */
+    private static final long[] WAIT_BUCKETS_MILLIS = {0, 10, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000};
+
+    /**
+     * 队列深度直方图桶上界（入队时前方等待数），最后一个桶为 +Inf
+     */
+    private static final int[] QUEUE_DEPTH_BUCKETS = {0, 1, 2, 4, 8, 16, 32, 64};
+
+    /**
+     * 正在处理的数量
+     */
+    private final AtomicInteger active = new AtomicInteger(0);
+
+    /**
+     * 排队等待的数量
+     */
+    private final AtomicInteger queued = new AtomicInteger(0);
+
+    /**
+     * 等待队列
+     */
+    private final ConcurrentLinkedQueue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 当前并发上限（随配置变化）
+     */
+    private volatile int limit = 1;
+
+    // ========== 统计数据（内存，重启后清零）==========
+    private final AtomicLong admittedCount = new AtomicLong(0);
+    private final AtomicLong queueFullCount = new AtomicLong(0);
+    private final AtomicLong timeoutCount = new AtomicLong(0);
+    private final AtomicLongArray waitHistogram = new AtomicLongArray(WAIT_BUCKETS_MILLIS.length + 1);
+    private final AtomicLongArray queueDepthHistogram = new AtomicLongArray(QUEUE_DEPTH_BUCKETS.length + 1);
+    private final AtomicLong totalWaitMillis = new AtomicLong(0);
+    private final AtomicLong maxWaitMillis = new AtomicLong(0);
+
+    /**
+     * 申请处理许可
+     * 有空闲许可时立即返回；否则进入等待队列，等待时间超过 maxWait 或队列已满时
+     * 以 {@link AdmissionRejectedException} 结束
+     *
+     * @param concurrency   并发上限
+     * @param maxQueueDepth 最大排队数量（0 表示不排队）
+     * @param maxWait       最大等待时间
+     * @return 许可（使用完毕后必须调用 {@link Permit#release()}）
+     */
+    public Mono<Permit> acquire(int concurrency, int maxQueueDepth, Duration maxWait) {
+        return Mono.defer(() -> {
+            updateLimit(concurrency);
+            long startNanos = System.nanoTime();
+
+            if (tryAcquire()) {
+                recordQueueDepth(0);
+                recordAdmitted(startNanos);
+                return Mono.just(new Permit());
+            }
+
+            // 先占位再检查，超出上限时回滚，并发入队时排队数不会超过上限
+            int depth = queued.incrementAndGet();
+            if (depth > maxQueueDepth) {
+                queued.decrementAndGet();
+                queueFullCount.incrementAndGet();
+                return Mono.error(new AdmissionRejectedException(
+                    "图片处理队列已满（排队 " + (depth - 1) + "，上限 " + maxQueueDepth + "）"));
+            }
+
+            Waiter waiter = new Waiter();
+            waiters.offer(waiter);
+            recordQueueDepth(depth);
+            // 入队后再尝试一次分发，避免入队期间许可被释放导致等待者错过唤醒
+            drain();
+
+            return waiter.sink.asMono()
+                .timeout(maxWait)
+                .onErrorResume(TimeoutException.class, e -> {
+                    if (waiter.cancel()) {
+                        if (waiters.remove(waiter)) {
+                            queued.decrementAndGet();
+                        }
+                        timeoutCount.incrementAndGet();
+                        return Mono.error(new AdmissionRejectedException(
+                            "图片处理排队超时（" + maxWait.toSeconds() + " 秒）"));
+                    }
+                    // 超时与分发同时发生：许可已经转交给该等待者，直接使用
+                    return waiter.sink.asMono();
+                })
+                .doOnCancel(() -> {
+                    // 上游取消（如客户端断开）：未获得许可则出队，已获得许可则归还
+                    if (waiter.cancel()) {
+                        if (waiters.remove(waiter)) {
+                            queued.decrementAndGet();
+                        }
+                    } else {
+                        waiter.sink.asMono().subscribe(Permit::release);
+                    }
+                })
+                .doOnNext(permit -> recordAdmitted(startNanos));
+        });
+    }
+
+    /**
+     * 获取当前统计快照
+     */
+    public AdmissionStats getStats() {
+        long[] waitCounts = new long[waitHistogram.length()];
+        for (int i = 0; i < waitCounts.length; i++) {
+            waitCounts[i] = waitHistogram.get(i);
+        }
+        long[] depthCounts = new long[queueDepthHistogram.length()];
+        for (int i = 0; i < depthCounts.length; i++) {
+            depthCounts[i] = queueDepthHistogram.get(i);
+        }
+        long admitted = admittedCount.get();
+        return new AdmissionStats(
+            limit,
+            active.get(),
+            queued.get(),
+            admitted,
+            queueFullCount.get(),
+            timeoutCount.get(),
+            admitted > 0 ? totalWaitMillis.get() / admitted : 0,
+            maxWaitMillis.get(),
+            WAIT_BUCKETS_MILLIS.clone(),
+            waitCounts,
+            QUEUE_DEPTH_BUCKETS.clone(),
+            depthCounts
+        );
+    }
+
+    /**
+     * 更新并发上限，调大时立即分发给排队中的上传
+     */
+    private void updateLimit(int concurrency) {
+        int newLimit = Math.max(1, concurrency);
+        if (newLimit != limit) {
+            log.info("图片处理并发数配置变更: {} -> {}", limit, newLimit);
+            limit = newLimit;
+            drain();
+        }
+    }
+
+    /**
+     * 尝试直接获取许可（不排队）
+     * 有等待者时不插队，保证先到先处理
+     */
+    private boolean tryAcquire() {
+        while (waiters.isEmpty()) {
+            int current = active.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (active.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 归还许可并分发给下一个等待者
+     */
+    private void release() {
+        active.decrementAndGet();
+        drain();
+    }
+
+    /**
+     * 在有空闲许可时依次分发给等待者
+     */
+    private void drain() {
+        while (waiters.peek() != null) {
+            int current = active.get();
+            if (current >= limit) {
+                return;
+            }
+            if (!active.compareAndSet(current, current + 1)) {
+                continue;
+            }
+            Waiter waiter = waiters.poll();
+            if (waiter == null) {
+                // 被其他线程取走，归还后重新检查队列
+                active.decrementAndGet();
+                continue;
+            }
+            queued.decrementAndGet();
+            if (!waiter.grant(new Permit())) {
+                // 等待者已超时或取消，许可继续分发
+                active.decrementAndGet();
+            }
+        }
+    }
+
+    private void recordAdmitted(long startNanos) {
+        long waitMillis = Duration.ofNanos(System.nanoTime() - startNanos).toMillis();
+        admittedCount.incrementAndGet();
+        totalWaitMillis.addAndGet(waitMillis);
+        maxWaitMillis.accumulateAndGet(waitMillis, Math::max);
+        int bucket = WAIT_BUCKETS_MILLIS.length;
+        for (int i = 0; i < WAIT_BUCKETS_MILLIS.length; i++) {
+            if (waitMillis <= WAIT_BUCKETS_MILLIS[i]) {
+                bucket = i;
+                break;
+            }
+        }
+        waitHistogram.incrementAndGet(bucket);
+    }
+
+    private void recordQueueDepth(int depth) {
+        int bucket = QUEUE_DEPTH_BUCKETS.length;
+        for (int i = 0; i < QUEUE_DEPTH_BUCKETS.length; i++) {
+            if (depth <= QUEUE_DEPTH_BUCKETS[i]) {
+                bucket = i;
+                break;
+            }
+        }
+        queueDepthHistogram.incrementAndGet(bucket);
+    }
+
+    /**
+     * 处理许可，release 可重复调用（只生效一次）
+     */
+    public class Permit {
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                UploadAdmissionController.this.release();
+            }
+        }
+    }
+
+    /**
+     * 排队中的等待者
+     * 状态：0 等待中，1 已分发许可，2 已取消
+     */
+    private static class Waiter {
+        private final AtomicInteger state = new AtomicInteger(0);
+        private final Sinks.One<Permit> sink = Sinks.one();
+
+        boolean grant(Permit permit) {
+            if (state.compareAndSet(0, 1)) {
+                sink.tryEmitValue(permit);
+                return true;
+            }
+            return false;
+        }
+
+        boolean cancel() {
+            return state.compareAndSet(0, 2);
+        }
+    }
+
+    /**
+     * 准入被拒绝（队列已满或排队超时）
+     */
+    public static class AdmissionRejectedException extends RuntimeException {
+        public AdmissionRejectedException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * 准入统计
+     *
+     * @param concurrency          当前并发上限
+     * @param active               正在处理数
+     * @param queued               排队数
+     * @param admittedCount        累计获得许可数
+     * @param queueFullCount       因队列已满被拒绝数
+     * @param timeoutCount         因排队超时被拒绝数
+     * @param avgWaitMillis        平均等待时间（毫秒）
+     * @param maxWaitMillis        最大等待时间（毫秒）
+     * @param waitBucketsMillis    等待时间直方图桶上界（毫秒），counts 比桶多一个 +Inf 桶
+     * @param waitCounts           等待时间直方图计数
+     * @param queueDepthBuckets    队列深度直方图桶上界
+     * @param queueDepthCounts     队列深度直方图计数
+     */
+    public record AdmissionStats(
+        int concurrency,
+        int active,
+        int queued,
+        long admittedCount,
+        long queueFullCount,
+        long timeoutCount,
+        long avgWaitMillis,
+        long maxWaitMillis,
+        long[] waitBucketsMillis,
+        long[] waitCounts,
+        int[] queueDepthBuckets,
+        long[] queueDepthCounts
+    ) {}
+}
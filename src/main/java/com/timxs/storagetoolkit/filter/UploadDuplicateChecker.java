@@ -0,0 +1,241 @@
+package com.timxs.storagetoolkit.filter;
+
+import com.timxs.storagetoolkit.config.ProcessingConfig;
+import com.timxs.storagetoolkit.extension.AttachmentHash;
+import com.timxs.storagetoolkit.model.HashAlgorithm;
+import com.timxs.storagetoolkit.model.UploadDuplicateAction;
+import com.timxs.storagetoolkit.service.AttachmentHashService;
+import com.timxs.storagetoolkit.service.DuplicateService;
+import com.timxs.storagetoolkit.service.SettingsManager;
+import com.timxs.storagetoolkit.service.support.AttachmentFetcher;
+import com.timxs.storagetoolkit.service.support.ContentDigest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import run.halo.app.core.extension.attachment.Attachment;
+import run.halo.app.extension.ReactiveExtensionClient;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 上传时重复检测
+ * 对上传内容计算重复检测所用算法的哈希，通过附件哈希索引（status.contentHashes）查找内容相同的已有附件；
+ * 非加密算法（CRC32C）命中时再用 SHA-256 复核，复核通过才允许拒绝上传，否则只做提示。
+ * 上传成功后把新附件的哈希增量写入索引，并将确认的命中记录到重复组，使后续上传无需等待全量扫描即可被识别
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UploadDuplicateChecker {
+
+    /**
+     * 等待新附件生成 permalink 的最大重试次数（permalink 由 Halo 异步生成）
+     */
+    private static final int PERMALINK_MAX_ATTEMPTS = 10;
+
+    private static final Duration PERMALINK_RETRY_INTERVAL = Duration.ofMillis(500);
+
+    private final ReactiveExtensionClient client;
+    private final SettingsManager settingsManager;
+    private final AttachmentHashService attachmentHashService;
+    private final DuplicateService duplicateService;
+    private final AttachmentFetcher fetcher;
+
+    /**
+     * 检测结果
+     *
+     * @param algorithm 哈希算法（未启用为 null）
+     * @param hash      上传内容的哈希值（未启用为 null）
+     * @param size      上传内容大小（字节）
+     * @param existing  内容相同的已有附件（未命中为 null）
+     * @param sha256    非加密算法命中后经 SHA-256 复核一致时的 SHA-256 值（其他情况为 null）
+     */
+    public record Check(HashAlgorithm algorithm, String hash, long size, Attachment existing, String sha256) {
+
+        /**
+         * 未启用检测
+         */
+        public static final Check DISABLED = new Check(null, null, 0, null, null);
+
+        public boolean enabled() {
+            return hash != null;
+        }
+
+        public boolean isDuplicate() {
+            return existing != null;
+        }
+
+        /**
+         * 是否确认内容相同（加密哈希命中，或非加密哈希命中且 SHA-256 复核一致）
+         */
+        public boolean isConfirmed() {
+            return existing != null && (algorithm.isCryptographic() || sha256 != null);
+        }
+
+        /**
+         * 已有附件名称，未命中为 null
+         */
+        public String duplicateOf() {
+            return existing != null ? existing.getMetadata().getName() : null;
+        }
+
+        /**
+         * 已有附件显示名称，未命中为 null
+         */
+        public String duplicateDisplayName() {
+            return existing != null ? existing.getSpec().getDisplayName() : null;
+        }
+    }
+
+    /**
+     * 检查上传内容是否与已有附件重复
+     * 检测失败不影响上传，按未启用处理
+     *
+     * @param data   上传内容
+     * @param config 图片处理配置
+     * @return 检测结果
+     */
+    public Mono<Check> check(byte[] data, ProcessingConfig config) {
+        if (config.getUploadDuplicateAction() == UploadDuplicateAction.OFF) {
+            return Mono.just(Check.DISABLED);
+        }
+        return settingsManager.getExcludeSettings()
+            .flatMap(settings -> {
+                HashAlgorithm algorithm = settings.duplicateHashAlgorithm();
+                return Mono.fromCallable(() -> digest(data, algorithm))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .flatMap(hash -> findExisting(algorithm, hash, data.length)
+                        .flatMap(match -> algorithm.isCryptographic()
+                            ? Mono.just(new Check(algorithm, hash, data.length, match.attachment(), null))
+                            : confirmSha256(data, match, settings.md5TimeoutSeconds())
+                                .map(sha256 -> new Check(algorithm, hash, data.length, match.attachment(), sha256))
+                                .defaultIfEmpty(new Check(algorithm, hash, data.length, match.attachment(), null)))
+                        .defaultIfEmpty(new Check(algorithm, hash, data.length, null, null)));
+            })
+            .onErrorResume(e -> {
+                log.warn("Upload duplicate check failed, skipping: {}", e.getMessage());
+                return Mono.just(Check.DISABLED);
+            });
+    }
+
+    /**
+     * 是否应拒绝上传
+     * 非加密哈希命中但未经 SHA-256 复核确认时只提示，不拒绝
+     */
+    public boolean shouldReject(Check check, ProcessingConfig config) {
+        if (!check.isDuplicate() || config.getUploadDuplicateAction() != UploadDuplicateAction.REJECT) {
+            return false;
+        }
+        if (!check.isConfirmed()) {
+            log.info("Upload matches {} by {} but SHA-256 confirmation failed, warning only",
+                check.duplicateOf(), check.algorithm());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 上传成功后增量更新哈希索引，确认重复时记录到重复组
+     *
+     * @param stored         实际存储内容的检测结果
+     * @param attachmentName 下游上传接口返回的新附件名称
+     * @return 完成信号
+     */
+    public Mono<Void> indexUploaded(Check stored, String attachmentName) {
+        if (!stored.enabled()) {
+            return Mono.empty();
+        }
+        return awaitPermalink(attachmentName)
+            .flatMap(uploaded -> {
+                String name = uploaded.getMetadata().getName();
+                Map<HashAlgorithm, String> hashes = new EnumMap<>(HashAlgorithm.class);
+                hashes.put(stored.algorithm(), stored.hash());
+                if (stored.sha256() != null) {
+                    hashes.put(HashAlgorithm.SHA_256, stored.sha256());
+                }
+                // 重复组的键可能是检测算法的哈希，也可能是 SHA-256 复核值，由重复组一侧按上次扫描的算法选取
+                Mono<Void> recordDuplicate = stored.isConfirmed() && !name.equals(stored.duplicateOf())
+                    ? duplicateService.recordUploadDuplicate(hashes, uploaded, stored.existing())
+                    : Mono.empty();
+                return attachmentHashService.loadIndex(List.of(name))
+                    .flatMap(index -> attachmentHashService.saveHash(index.get(name), uploaded, hashes, null, null))
+                    .then(recordDuplicate);
+            });
+    }
+
+    /**
+     * 哈希索引命中的已有附件
+     */
+    private record Match(AttachmentHash entry, Attachment attachment) {
+    }
+
+    /**
+     * 通过哈希索引查找内容相同的已有附件
+     * 索引记录需与附件当前值一致（大小、permalink、版本），且大小与上传内容相同
+     */
+    private Mono<Match> findExisting(HashAlgorithm algorithm, String hash, long size) {
+        return attachmentHashService.findByContentHash(algorithm, hash)
+            .filter(entry -> entry.getSpec() != null && Objects.equals(entry.getSpec().getSize(), size))
+            .concatMap(entry -> client.fetch(Attachment.class, entry.getSpec().getAttachmentName())
+                .filter(attachment -> attachment.getMetadata().getDeletionTimestamp() == null)
+                .filter(attachment -> hash.equals(attachmentHashService
+                    .getCachedHashes(Map.of(entry.getSpec().getAttachmentName(), entry), attachment)
+                    .get(algorithm)))
+                .map(attachment -> new Match(entry, attachment)))
+            .next();
+    }
+
+    /**
+     * 用 SHA-256 复核非加密哈希的命中
+     * 优先使用索引中缓存的 SHA-256，没有时下载已有附件计算
+     *
+     * @return 内容一致时返回上传内容的 SHA-256，不一致或无法复核时为空
+     */
+    private Mono<String> confirmSha256(byte[] data, Match match, int timeoutSeconds) {
+        String name = match.attachment().getMetadata().getName();
+        String cached = attachmentHashService.getCachedHashes(Map.of(name, match.entry()), match.attachment())
+            .get(HashAlgorithm.SHA_256);
+        String permalink = match.attachment().getStatus() != null
+            ? match.attachment().getStatus().getPermalink() : null;
+        Mono<String> existingSha256 = cached != null
+            ? Mono.just(cached)
+            : permalink == null ? Mono.empty() : fetcher.fetch(permalink, null, timeoutSeconds, (status, body) -> {
+                if (!status.is2xxSuccessful()) {
+                    return Mono.error(new IllegalStateException("HTTP " + status.value()));
+                }
+                ContentDigest digest = ContentDigest.of(HashAlgorithm.SHA_256);
+                return AttachmentFetcher.consume(body, digest::update).then(Mono.fromSupplier(digest::hex));
+            }).timeout(Duration.ofSeconds(timeoutSeconds));
+        return Mono.fromCallable(() -> digest(data, HashAlgorithm.SHA_256))
+            .subscribeOn(Schedulers.boundedElastic())
+            .zipWith(existingSha256)
+            .filter(pair -> pair.getT1().equals(pair.getT2()))
+            .map(pair -> pair.getT1())
+            .onErrorResume(e -> {
+                log.warn("SHA-256 confirmation of upload duplicate {} failed: {}", name, e.getMessage());
+                return Mono.empty();
+            });
+    }
+
+    /**
+     * 等待附件生成 permalink，索引键包含 permalink，否则下次扫描时缓存会失效
+     */
+    private Mono<Attachment> awaitPermalink(String name) {
+        return Mono.defer(() -> client.fetch(Attachment.class, name))
+            .filter(attachment -> attachment.getStatus() != null && attachment.getStatus().getPermalink() != null)
+            .repeatWhenEmpty(PERMALINK_MAX_ATTEMPTS, attempts -> attempts.delayElements(PERMALINK_RETRY_INTERVAL));
+    }
+
+    private static String digest(byte[] data, HashAlgorithm algorithm) {
+        ContentDigest digest = ContentDigest.of(algorithm);
+        digest.update(ByteBuffer.wrap(data));
+        return digest.hex();
+    }
+}
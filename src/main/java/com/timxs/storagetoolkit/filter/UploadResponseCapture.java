@@ -0,0 +1,81 @@
+package com.timxs.storagetoolkit.filter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.lang.NonNull;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import run.halo.app.infra.utils.JsonUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * 上传响应捕获
+ * 在响应体写出时旁路复制前若干字节（不影响流式写出），用于从下游上传接口返回的附件 JSON 中读取附件名称
+ */
+@Slf4j
+class UploadResponseCapture extends ServerHttpResponseDecorator {
+
+    /**
+     * 最多捕获的响应体字节数，附件 JSON 远小于该值
+     */
+    private static final int MAX_CAPTURE_SIZE = 64 * 1024;
+
+    private final ByteArrayOutputStream captured = new ByteArrayOutputStream();
+
+    private boolean truncated;
+
+    UploadResponseCapture(ServerHttpResponse delegate) {
+        super(delegate);
+    }
+
+    @Override
+    @NonNull
+    public Mono<Void> writeWith(@NonNull Publisher<? extends DataBuffer> body) {
+        return super.writeWith(Flux.from(body).doOnNext(this::capture));
+    }
+
+    private synchronized void capture(DataBuffer buffer) {
+        if (truncated) {
+            return;
+        }
+        // readableByteBuffers 返回只读视图，不改变 DataBuffer 的读位置
+        try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+            while (iterator.hasNext()) {
+                ByteBuffer chunk = iterator.next();
+                int length = chunk.remaining();
+                if (captured.size() + length > MAX_CAPTURE_SIZE) {
+                    truncated = true;
+                    return;
+                }
+                byte[] bytes = new byte[length];
+                chunk.get(bytes);
+                captured.write(bytes, 0, length);
+            }
+        }
+    }
+
+    /**
+     * 从捕获的响应体中读取附件名称（metadata.name）
+     *
+     * @return 附件名称，响应体不是完整的附件 JSON 时为 null
+     */
+    synchronized String attachmentName() {
+        if (truncated || captured.size() == 0) {
+            return null;
+        }
+        try {
+            JsonNode name = JsonUtils.mapper().readTree(captured.toByteArray()).path("metadata").path("name");
+            return name.isTextual() ? name.asText() : null;
+        } catch (IOException e) {
+            log.debug("Upload response is not attachment JSON: {}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -22,6 +22,11 @@ public class DuplicateGroupVo {
      */
     private String md5Hash;
 
+    /**
+     * 匹配类型（EXACT / PERCEPTUAL）
+     */
+    private String matchType;
+
     /**
      * 文件大小（字节）
      */
@@ -0,0 +1,16 @@
+package com.timxs.storagetoolkit.model;
+
+/**
+ * 重复组匹配类型
+ */
+public enum DuplicateMatchType {
+    /**
+     * 内容完全相同（内容哈希一致）
+     */
+    EXACT,
+
+    /**
+     * 相似图片（感知哈希汉明距离在阈值内）
+     */
+    PERCEPTUAL
+}
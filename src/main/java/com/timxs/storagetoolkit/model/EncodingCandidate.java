@@ -0,0 +1,17 @@
+package com.timxs.storagetoolkit.model;
+
+/**
+ * 候选编码格式
+ * 图片已加水印或缩放、且格式转换后体积超过阈值时，目标格式与原格式同时编码，取较小者
+ */
+public enum EncodingCandidate {
+    /**
+     * 目标格式（WebP / AVIF）
+     */
+    TARGET_FORMAT,
+
+    /**
+     * 原格式
+     */
+    ORIGINAL_FORMAT
+}
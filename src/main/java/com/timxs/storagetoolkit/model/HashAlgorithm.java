@@ -0,0 +1,49 @@
+package com.timxs.storagetoolkit.model;
+
+/**
+ * 重复检测使用的内容哈希算法
+ */
+public enum HashAlgorithm {
+    /**
+     * CRC32C（非加密哈希，JDK 内置硬件加速实现，速度最快）
+     * 只有 32 位，建议开启 SHA-256 复核
+     */
+    CRC32C(false),
+
+    /**
+     * MD5（默认，与早期版本的重复组兼容）
+     */
+    MD5(true),
+
+    /**
+     * SHA-256
+     */
+    SHA_256(true);
+
+    private final boolean cryptographic;
+
+    HashAlgorithm(boolean cryptographic) {
+        this.cryptographic = cryptographic;
+    }
+
+    /**
+     * 是否为加密哈希（碰撞概率可忽略，无需复核）
+     */
+    public boolean isCryptographic() {
+        return cryptographic;
+    }
+
+    /**
+     * 从配置值解析，无法识别时返回 MD5
+     */
+    public static HashAlgorithm fromString(String value) {
+        if (value != null) {
+            for (HashAlgorithm algorithm : values()) {
+                if (algorithm.name().equalsIgnoreCase(value)) {
+                    return algorithm;
+                }
+            }
+        }
+        return MD5;
+    }
+}
@@ -0,0 +1,25 @@
+package com.timxs.storagetoolkit.model;
+
+/**
+ * 图片头信息（仅读取文件头得到，不解码像素）
+ *
+ * @param formatName ImageIO 格式名（如 jpeg、png、gif、webp、avif、bmp）
+ * @param mimeType   按文件内容识别出的 MIME 类型
+ * @param width      宽度（像素）
+ * @param height     高度（像素）
+ * @param animated   是否为动图（多帧 GIF / 动画 WebP / AVIF 序列）
+ */
+public record ImageInfo(
+    String formatName,
+    String mimeType,
+    int width,
+    int height,
+    boolean animated
+) {
+    /**
+     * 像素总数
+     */
+    public long pixelCount() {
+        return (long) width * height;
+    }
+}
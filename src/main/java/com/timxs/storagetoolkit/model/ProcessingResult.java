@@ -8,46 +8,64 @@ package com.timxs.storagetoolkit.model;
  * @param contentType 新的 MIME 类型
  * @param status      处理状态
  * @param message     处理消息（错误信息等）
+ * @param savedPixels 尺寸缩放减少的像素数（未缩放为 0）
+ * @param encodingCandidate 候选编码中胜出的一方（未进行候选比较为 null）
  */
 public record ProcessingResult(
     byte[] data,
     String filename,
     String contentType,
     ProcessingStatus status,
-    String message
+    String message,
+    long savedPixels,
+    EncodingCandidate encodingCandidate
 ) {
     /**
      * 创建成功结果
      */
     public static ProcessingResult success(byte[] data, String filename, String contentType) {
-        return new ProcessingResult(data, filename, contentType, ProcessingStatus.SUCCESS, null);
+        return new ProcessingResult(data, filename, contentType, ProcessingStatus.SUCCESS, null, 0, null);
     }
 
     /**
      * 创建成功结果（附带说明信息）
      */
     public static ProcessingResult success(byte[] data, String filename, String contentType, String message) {
-        return new ProcessingResult(data, filename, contentType, ProcessingStatus.SUCCESS, message);
+        return new ProcessingResult(data, filename, contentType, ProcessingStatus.SUCCESS, message, 0, null);
     }
 
     /**
      * 创建部分成功结果
      */
     public static ProcessingResult partial(byte[] data, String filename, String contentType, String message) {
-        return new ProcessingResult(data, filename, contentType, ProcessingStatus.PARTIAL, message);
+        return new ProcessingResult(data, filename, contentType, ProcessingStatus.PARTIAL, message, 0, null);
     }
 
     /**
      * 创建失败结果（返回原数据）
      */
     public static ProcessingResult failed(byte[] originalData, String filename, String contentType, String message) {
-        return new ProcessingResult(originalData, filename, contentType, ProcessingStatus.FAILED, message);
+        return new ProcessingResult(originalData, filename, contentType, ProcessingStatus.FAILED, message, 0, null);
     }
 
     /**
      * 创建跳过结果
      */
     public static ProcessingResult skipped(byte[] originalData, String filename, String contentType, String reason) {
-        return new ProcessingResult(originalData, filename, contentType, ProcessingStatus.SKIPPED, reason);
+        return new ProcessingResult(originalData, filename, contentType, ProcessingStatus.SKIPPED, reason, 0, null);
+    }
+
+    /**
+     * 附带缩放减少的像素数
+     */
+    public ProcessingResult withSavedPixels(long savedPixels) {
+        return new ProcessingResult(data, filename, contentType, status, message, savedPixels, encodingCandidate);
+    }
+
+    /**
+     * 附带候选编码结果
+     */
+    public ProcessingResult withEncodingCandidate(EncodingCandidate encodingCandidate) {
+        return new ProcessingResult(data, filename, contentType, status, message, savedPixels, encodingCandidate);
     }
 }
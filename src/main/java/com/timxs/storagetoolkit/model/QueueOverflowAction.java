@@ -0,0 +1,16 @@
+package com.timxs.storagetoolkit.model;
+
+/**
+ * 上传处理队列饱和时的处理方式
+ */
+public enum QueueOverflowAction {
+    /**
+     * 不处理，原图直接传递下游（记录为 SKIPPED）
+     */
+    PASS_THROUGH,
+
+    /**
+     * 拒绝上传，返回 503
+     */
+    REJECT
+}
@@ -0,0 +1,21 @@
+package com.timxs.storagetoolkit.model;
+
+/**
+ * 上传时发现内容重复的附件后的处理方式
+ */
+public enum UploadDuplicateAction {
+    /**
+     * 不检查
+     */
+    OFF,
+
+    /**
+     * 允许上传，记录到处理日志和重复组，并通过响应头提示
+     */
+    WARN,
+
+    /**
+     * 拒绝上传，返回 409
+     */
+    REJECT
+}
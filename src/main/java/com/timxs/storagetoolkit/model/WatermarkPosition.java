@@ -2,7 +2,7 @@ package com.timxs.storagetoolkit.model;
 
 /**
  * 水印位置枚举
- * 定义九宫格位置，用于指定水印在图片上的位置
+ * 定义九宫格位置，用于指定水印在图片上的位置；TILED 为全图平铺
  */
 public enum WatermarkPosition {
     
@@ -49,7 +49,12 @@ public enum WatermarkPosition {
     /**
      * 右下角
      */
-    BOTTOM_RIGHT;
+    BOTTOM_RIGHT,
+
+    /**
+     * 平铺（旋转后全图重复）
+     */
+    TILED;
 
     /**
      * 计算水印在图片上的 X 坐标
@@ -64,6 +69,7 @@ public enum WatermarkPosition {
             case TOP_LEFT, MIDDLE_LEFT, BOTTOM_LEFT -> marginX;
             case TOP_CENTER, MIDDLE_CENTER, BOTTOM_CENTER -> (imageWidth - watermarkWidth) / 2;
             case TOP_RIGHT, MIDDLE_RIGHT, BOTTOM_RIGHT -> imageWidth - watermarkWidth - marginX;
+            case TILED -> 0;
         };
     }
 
@@ -80,6 +86,7 @@ public enum WatermarkPosition {
             case TOP_LEFT, TOP_CENTER, TOP_RIGHT -> marginY;
             case MIDDLE_LEFT, MIDDLE_CENTER, MIDDLE_RIGHT -> (imageHeight - watermarkHeight) / 2;
             case BOTTOM_LEFT, BOTTOM_CENTER, BOTTOM_RIGHT -> imageHeight - watermarkHeight - marginY;
+            case TILED -> 0;
         };
     }
 }
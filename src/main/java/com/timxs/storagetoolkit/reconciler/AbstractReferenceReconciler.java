@@ -0,0 +1,42 @@
+package com.timxs.storagetoolkit.reconciler;
+
+import com.timxs.storagetoolkit.service.ReferenceService;
+import lombok.extern.slf4j.Slf4j;
+import run.halo.app.extension.controller.Reconciler;
+
+import java.time.Duration;
+
+/**
+ * 引用增量更新 Reconciler 基类
+ * 监听内容资源变更，调用 {@link ReferenceService#refreshSource} 只更新该资源影响的附件引用；
+ * 启动时不同步已有资源（由全量扫描建立基线），更新失败不重试，等待下次变更或全量扫描修正
+ */
+@Slf4j
+public abstract class AbstractReferenceReconciler implements Reconciler<Reconciler.Request> {
+
+    /**
+     * 单次增量更新的最长等待时间
+     */
+    private static final Duration REFRESH_TIMEOUT = Duration.ofMinutes(2);
+
+    private final ReferenceService referenceService;
+
+    protected AbstractReferenceReconciler(ReferenceService referenceService) {
+        this.referenceService = referenceService;
+    }
+
+    /**
+     * 监听的资源类型（与 {@link ReferenceService#refreshSource} 的 kind 参数一致）
+     */
+    protected abstract String kind();
+
+    @Override
+    public Result reconcile(Request request) {
+        try {
+            referenceService.refreshSource(kind(), request.name()).block(REFRESH_TIMEOUT);
+        } catch (Exception e) {
+            log.warn("增量更新 {} {} 的引用失败: {}", kind(), request.name(), e.getMessage());
+        }
+        return Result.doNotRetry();
+    }
+}
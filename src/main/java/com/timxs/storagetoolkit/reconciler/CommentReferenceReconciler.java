@@ -0,0 +1,31 @@
+package com.timxs.storagetoolkit.reconciler;
+
+import com.timxs.storagetoolkit.service.ReferenceService;
+import org.springframework.stereotype.Component;
+import run.halo.app.core.extension.content.Comment;
+import run.halo.app.extension.controller.Controller;
+import run.halo.app.extension.controller.ControllerBuilder;
+
+/**
+ * 评论变更时增量更新附件引用
+ */
+@Component
+public class CommentReferenceReconciler extends AbstractReferenceReconciler {
+
+    public CommentReferenceReconciler(ReferenceService referenceService) {
+        super(referenceService);
+    }
+
+    @Override
+    protected String kind() {
+        return "Comment";
+    }
+
+    @Override
+    public Controller setupWith(ControllerBuilder builder) {
+        return builder
+            .extension(new Comment())
+            .syncAllOnStart(false)
+            .build();
+    }
+}
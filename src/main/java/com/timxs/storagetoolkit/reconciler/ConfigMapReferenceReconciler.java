@@ -0,0 +1,31 @@
+package com.timxs.storagetoolkit.reconciler;
+
+import com.timxs.storagetoolkit.service.ReferenceService;
+import org.springframework.stereotype.Component;
+import run.halo.app.extension.ConfigMap;
+import run.halo.app.extension.controller.Controller;
+import run.halo.app.extension.controller.ControllerBuilder;
+
+/**
+ * 系统、插件或主题设置变更时增量更新附件引用
+ */
+@Component
+public class ConfigMapReferenceReconciler extends AbstractReferenceReconciler {
+
+    public ConfigMapReferenceReconciler(ReferenceService referenceService) {
+        super(referenceService);
+    }
+
+    @Override
+    protected String kind() {
+        return "ConfigMap";
+    }
+
+    @Override
+    public Controller setupWith(ControllerBuilder builder) {
+        return builder
+            .extension(new ConfigMap())
+            .syncAllOnStart(false)
+            .build();
+    }
+}
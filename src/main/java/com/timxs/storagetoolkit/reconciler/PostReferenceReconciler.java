@@ -0,0 +1,31 @@
+package com.timxs.storagetoolkit.reconciler;
+
+import com.timxs.storagetoolkit.service.ReferenceService;
+import org.springframework.stereotype.Component;
+import run.halo.app.core.extension.content.Post;
+import run.halo.app.extension.controller.Controller;
+import run.halo.app.extension.controller.ControllerBuilder;
+
+/**
+ * 文章变更时增量更新附件引用
+ */
+@Component
+public class PostReferenceReconciler extends AbstractReferenceReconciler {
+
+    public PostReferenceReconciler(ReferenceService referenceService) {
+        super(referenceService);
+    }
+
+    @Override
+    protected String kind() {
+        return "Post";
+    }
+
+    @Override
+    public Controller setupWith(ControllerBuilder builder) {
+        return builder
+            .extension(new Post())
+            .syncAllOnStart(false)
+            .build();
+    }
+}
@@ -0,0 +1,31 @@
+package com.timxs.storagetoolkit.reconciler;
+
+import com.timxs.storagetoolkit.service.ReferenceService;
+import org.springframework.stereotype.Component;
+import run.halo.app.core.extension.content.Reply;
+import run.halo.app.extension.controller.Controller;
+import run.halo.app.extension.controller.ControllerBuilder;
+
+/**
+ * 回复变更时增量更新附件引用
+ */
+@Component
+public class ReplyReferenceReconciler extends AbstractReferenceReconciler {
+
+    public ReplyReferenceReconciler(ReferenceService referenceService) {
+        super(referenceService);
+    }
+
+    @Override
+    protected String kind() {
+        return "Reply";
+    }
+
+    @Override
+    public Controller setupWith(ControllerBuilder builder) {
+        return builder
+            .extension(new Reply())
+            .syncAllOnStart(false)
+            .build();
+    }
+}
@@ -0,0 +1,31 @@
+package com.timxs.storagetoolkit.reconciler;
+
+import com.timxs.storagetoolkit.service.ReferenceService;
+import org.springframework.stereotype.Component;
+import run.halo.app.core.extension.content.SinglePage;
+import run.halo.app.extension.controller.Controller;
+import run.halo.app.extension.controller.ControllerBuilder;
+
+/**
+ * 独立页面变更时增量更新附件引用
+ */
+@Component
+public class SinglePageReferenceReconciler extends AbstractReferenceReconciler {
+
+    public SinglePageReferenceReconciler(ReferenceService referenceService) {
+        super(referenceService);
+    }
+
+    @Override
+    protected String kind() {
+        return "SinglePage";
+    }
+
+    @Override
+    public Controller setupWith(ControllerBuilder builder) {
+        return builder
+            .extension(new SinglePage())
+            .syncAllOnStart(false)
+            .build();
+    }
+}
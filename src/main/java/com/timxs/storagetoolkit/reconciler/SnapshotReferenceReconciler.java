@@ -0,0 +1,31 @@
+package com.timxs.storagetoolkit.reconciler;
+
+import com.timxs.storagetoolkit.service.ReferenceService;
+import org.springframework.stereotype.Component;
+import run.halo.app.core.extension.content.Snapshot;
+import run.halo.app.extension.controller.Controller;
+import run.halo.app.extension.controller.ControllerBuilder;
+
+/**
+ * 内容快照（文章、页面的草稿编辑）变更时增量更新附件引用
+ */
+@Component
+public class SnapshotReferenceReconciler extends AbstractReferenceReconciler {
+
+    public SnapshotReferenceReconciler(ReferenceService referenceService) {
+        super(referenceService);
+    }
+
+    @Override
+    protected String kind() {
+        return "Snapshot";
+    }
+
+    @Override
+    public Controller setupWith(ControllerBuilder builder) {
+        return builder
+            .extension(new Snapshot())
+            .syncAllOnStart(false)
+            .build();
+    }
+}
@@ -0,0 +1,76 @@
+package com.timxs.storagetoolkit.service;
+
+import com.timxs.storagetoolkit.extension.AttachmentHash;
+import com.timxs.storagetoolkit.model.HashAlgorithm;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import run.halo.app.core.extension.attachment.Attachment;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 附件内容哈希索引服务接口
+ * 以（附件名称、大小、permalink、版本）为键缓存附件内容哈希，每个附件可同时缓存多种算法的结果
+ */
+public interface AttachmentHashService {
+
+    /**
+     * 加载指定附件的哈希索引（通过 spec.attachmentName 索引分批查询）
+     * @param attachmentNames 附件名称
+     * @return 附件名称 -> 哈希索引
+     */
+    Mono<Map<String, AttachmentHash>> loadIndex(Collection<String> attachmentNames);
+
+    /**
+     * 按内容哈希查找索引记录（通过 status.contentHashes 索引查询）
+     * 返回的记录可能已过期，调用方需与附件当前值核对
+     * @param algorithm 哈希算法
+     * @param hash 哈希值
+     * @return 匹配的索引记录
+     */
+    Flux<AttachmentHash> findByContentHash(HashAlgorithm algorithm, String hash);
+
+    /**
+     * 获取缓存的完整哈希值，索引键与附件当前值一致时才返回
+     * @param index 已加载的哈希索引
+     * @param attachment 附件
+     * @return 算法 -> 哈希值，失效或不存在时返回空 Map
+     */
+    Map<HashAlgorithm, String> getCachedHashes(Map<String, AttachmentHash> index, Attachment attachment);
+
+    /**
+     * 获取缓存的首尾片段哈希值，索引键与附件当前值一致时才返回
+     * @param index 已加载的哈希索引
+     * @param attachment 附件
+     * @return 缓存的部分哈希，失效或不存在时返回 null
+     */
+    String getCachedPartialHash(Map<String, AttachmentHash> index, Attachment attachment);
+
+    /**
+     * 获取缓存的图片感知哈希值，索引键与附件当前值一致时才返回
+     * @param index 已加载的哈希索引
+     * @param attachment 附件
+     * @return 缓存的感知哈希（十六进制），失效或不存在时返回 null
+     */
+    String getCachedPerceptualHash(Map<String, AttachmentHash> index, Attachment attachment);
+
+    /**
+     * 保存附件的哈希值（覆盖原有记录）
+     * @param existing 已存在的索引记录（不存在为 null）
+     * @param attachment 附件
+     * @param contentHashes 当前有效的完整哈希值（算法 -> 哈希值）
+     * @param partialHash 首尾片段哈希值（未计算为 null）
+     * @param perceptualHash 图片感知哈希值（未计算为 null）
+     * @return 保存后的索引记录，保存失败时为空
+     */
+    Mono<AttachmentHash> saveHash(AttachmentHash existing, Attachment attachment,
+                        Map<HashAlgorithm, String> contentHashes, String partialHash, String perceptualHash);
+
+    /**
+     * 删除附件已不存在的索引记录
+     * 分页遍历索引，每页按 metadata.name 批量查询对应附件是否存在，只在内存中保留过期记录
+     * @return 删除的记录数
+     */
+    Mono<Long> removeStale();
+}
@@ -8,9 +8,7 @@ import org.jsoup.select.Elements;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
-import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -24,33 +22,16 @@ import java.util.regex.Pattern;
 public class ContentScanner {
 
     /**
-     * Markdown 图片语法
-     * 匹配 ![alt](url) 或 ![alt](url "title")
+     * CSS url() 匹配
      */
-    private static final Pattern MD_IMAGE_PATTERN =
-        Pattern.compile("!\\[[^\\]]*\\]\\(([^)\"]+)(?:\\s+\"[^\"]*\")?\\)");
+    private static final Pattern CSS_URL_PATTERN =
+        Pattern.compile("url\\(['\"]?([^)'\"]+)['\"]?\\)");
 
     /**
-     * Markdown 链接语法
-     * 匹配 [text](url) 或 [text](url "title")
+     * 扩展名的最小/最大长度（完整 URL 和相对路径需以 .ext 结尾）
      */
-    private static final Pattern MD_LINK_PATTERN =
-        Pattern.compile("(?<!!)\\[[^\\]]*\\]\\(([^)\"]+)(?:\\s+\"[^\"]*\")?\\)");
-
-    /**
-     * 相对路径匹配（简化版）
-     * 匹配 / 开头、以扩展名结尾的路径
-     * 注意：会在代码中额外判断是否在完整 URL 范围内
-     */
-    private static final Pattern RELATIVE_PATH_PATTERN =
-        Pattern.compile("(/[^\"'<>\\n\\s]+?\\.\\w{2,5})(?=[\"'\\s<>\\]\\)\\},?]|$)", Pattern.CASE_INSENSITIVE);
-
-    /**
-     * HTTP/HTTPS URL 匹配
-     * 要求以文件扩展名结尾，支持带查询参数的 URL
-     */
-    private static final Pattern HTTP_URL_PATTERN =
-        Pattern.compile("(https?://[^\"'<>\\n\\s]+?\\.\\w{2,5})(?=[\"'\\s<>\\]\\)\\},?]|$)", Pattern.CASE_INSENSITIVE);
+    private static final int MIN_EXTENSION_LENGTH = 2;
+    private static final int MAX_EXTENSION_LENGTH = 5;
 
     /**
      * 提取结果，区分完整 URL 和相对路径
@@ -135,8 +116,7 @@ public class ContentScanner {
     private void extractUrlFromStyle(String style, ExtractResult result) {
         if (!StringUtils.hasText(style)) return;
 
-        Pattern urlPattern = Pattern.compile("url\\(['\"]?([^)'\"]+)['\"]?\\)");
-        Matcher matcher = urlPattern.matcher(style);
+        Matcher matcher = CSS_URL_PATTERN.matcher(style);
         while (matcher.find()) {
             String url = matcher.group(1);
             if (StringUtils.hasText(url)) {
@@ -151,6 +131,11 @@ public class ContentScanner {
     /**
      * 从内容中提取所有 URL，区分完整 URL 和相对路径
      * 用于非 HTML 内容（Markdown、JSON、纯文本）
+     * <p>
+     * 单次线性扫描同时识别三类 URL：
+     * 1. Markdown 图片/链接：![alt](url "title")、[text](url "title")，提取后自动分类
+     * 2. 完整 URL：http(s):// 开头、以 .ext 结尾（ext 为 2-5 位字母数字）且后跟分隔符或内容结尾
+     * 3. 相对路径：/ 开头、以 .ext 结尾，跳过位于完整 URL 内部和 // 开头的
      */
     public ExtractResult extractUrlsWithType(String content) {
         ExtractResult result = new ExtractResult();
@@ -159,72 +144,184 @@ public class ContentScanner {
             return result;
         }
 
-        // Markdown 语法（直接提取，自动分类）
-        extractByPattern(content, MD_IMAGE_PATTERN, result, 1);
-        extractByPattern(content, MD_LINK_PATTERN, result, 1);
-
-        // 1. 先提取完整 URL，并记录位置范围
-        List<int[]> fullUrlRanges = new ArrayList<>();
-        Matcher httpMatcher = HTTP_URL_PATTERN.matcher(content);
-        while (httpMatcher.find()) {
-            String url = httpMatcher.group(1);
-            if (StringUtils.hasText(url)) {
-                String trimmedUrl = url.trim();
-                if (isValidUrl(trimmedUrl)) {
-                    result.fullUrls().add(trimmedUrl);
-                    fullUrlRanges.add(new int[]{httpMatcher.start(), httpMatcher.end()});
+        int length = content.length();
+        // Markdown：已出现 '[' 且之后尚未出现 ']'
+        boolean bracketOpen = false;
+        // 完整 URL、相对路径各自下一个可作为起点的位置（已匹配或已确认无法匹配的片段不再重复扫描）
+        int fullUrlResume = 0;
+        int relativeResume = 0;
+        // 最近一个完整 URL 的范围（完整 URL 按顺序出现且互不重叠，只需与最近一个比较）
+        int fullUrlStart = -1;
+        int fullUrlEnd = -1;
+
+        for (int i = 0; i < length; i++) {
+            char c = content.charAt(i);
+
+            if (c == '[') {
+                bracketOpen = true;
+            } else if (c == ']') {
+                if (bracketOpen && i + 1 < length && content.charAt(i + 1) == '(') {
+                    String url = markdownUrl(content, i + 2);
+                    if (StringUtils.hasText(url)) {
+                        String trimmedUrl = url.trim();
+                        if (isValidUrl(trimmedUrl)) {
+                            classifyUrl(trimmedUrl, result);
+                        }
+                    }
                 }
+                bracketOpen = false;
             }
-        }
 
-        // 2. 提取相对路径，跳过在完整 URL 范围内的
-        Matcher relativeMatcher = RELATIVE_PATH_PATTERN.matcher(content);
-        while (relativeMatcher.find()) {
-            int start = relativeMatcher.start();
-
-            // 检查是否在某个完整 URL 的范围内
-            boolean insideFullUrl = false;
-            for (int[] range : fullUrlRanges) {
-                if (start >= range[0] && start < range[1]) {
-                    insideFullUrl = true;
-                    break;
+            if (i >= fullUrlResume && (c == 'h' || c == 'H')) {
+                int bodyStart = schemeEnd(content, i);
+                if (bodyStart > 0) {
+                    int end = extensionEnd(content, bodyStart);
+                    if (end >= 0) {
+                        result.fullUrls().add(content.substring(i, end));
+                        fullUrlStart = i;
+                        fullUrlEnd = end;
+                        fullUrlResume = end;
+                    } else {
+                        fullUrlResume = ~end;
+                    }
                 }
             }
-            if (insideFullUrl) {
-                continue;
+
+            if (i >= relativeResume && c == '/') {
+                int end = extensionEnd(content, i + 1);
+                if (end < 0) {
+                    relativeResume = ~end;
+                    continue;
+                }
+                relativeResume = end;
+                // 跳过完整 URL 内部的路径
+                if (i >= fullUrlStart && i < fullUrlEnd) {
+                    continue;
+                }
+                // 额外检查：排除 // 开头（协议相对 URL）
+                if (i > 0 && content.charAt(i - 1) == '/') {
+                    continue;
+                }
+                result.relativePaths().add(content.substring(i, end));
             }
+        }
 
-            // 额外检查：排除 // 开头（协议相对 URL）
-            if (start > 0 && content.charAt(start - 1) == '/') {
+        return result;
+    }
+
+    /**
+     * 解析 Markdown 链接括号内的 URL（start 为 '(' 之后的位置）
+     * 支持 (url) 和 (url "title")，格式不完整时返回 null
+     */
+    private String markdownUrl(String content, int start) {
+        int length = content.length();
+        int urlEnd = start;
+        while (urlEnd < length && content.charAt(urlEnd) != ')' && content.charAt(urlEnd) != '"') {
+            urlEnd++;
+        }
+        if (urlEnd == start || urlEnd == length) {
+            return null;
+        }
+        if (content.charAt(urlEnd) == ')') {
+            return content.substring(start, urlEnd);
+        }
+
+        // (url "title")：URL 与标题之间至少一个空白
+        int trimmedEnd = urlEnd;
+        while (trimmedEnd > start && isSpace(content.charAt(trimmedEnd - 1))) {
+            trimmedEnd--;
+        }
+        if (trimmedEnd == urlEnd || trimmedEnd == start) {
+            return null;
+        }
+        int titleEnd = content.indexOf('"', urlEnd + 1);
+        if (titleEnd < 0 || titleEnd + 1 >= length || content.charAt(titleEnd + 1) != ')') {
+            return null;
+        }
+        return content.substring(start, trimmedEnd);
+    }
+
+    /**
+     * 匹配 http:// 或 https://（不区分大小写），返回协议之后的位置，不匹配时返回 -1
+     */
+    private int schemeEnd(String content, int start) {
+        if (!regionMatchesIgnoreCase(content, start, "http")) {
+            return -1;
+        }
+        int pos = start + 4;
+        if (pos < content.length() && (content.charAt(pos) == 's' || content.charAt(pos) == 'S')) {
+            pos++;
+        }
+        return content.startsWith("://", pos) ? pos + 3 : -1;
+    }
+
+    /**
+     * 从 bodyStart 开始（至少一个字符之后）查找第一个以 .ext 结尾、后跟分隔符或内容结尾的位置
+     * 只在连续的非分隔字符内查找；找到时返回结束位置，找不到时返回 ~（连续片段的结束位置）
+     */
+    private int extensionEnd(String content, int bodyStart) {
+        int length = content.length();
+        int i = bodyStart;
+        for (; i < length; i++) {
+            char c = content.charAt(i);
+            if (isUrlDelimiter(c)) {
+                break;
+            }
+            if (c != '.' || i == bodyStart) {
                 continue;
             }
-
-            String url = relativeMatcher.group(1);
-            if (StringUtils.hasText(url)) {
-                String trimmedUrl = url.trim();
-                if (isValidUrl(trimmedUrl)) {
-                    result.relativePaths().add(trimmedUrl);
-                }
+            int extEnd = i + 1;
+            while (extEnd < length && extEnd - i <= MAX_EXTENSION_LENGTH && isWordChar(content.charAt(extEnd))) {
+                extEnd++;
+            }
+            int extLength = extEnd - i - 1;
+            if (extLength >= MIN_EXTENSION_LENGTH && extLength <= MAX_EXTENSION_LENGTH
+                && (extEnd == length || isUrlTerminator(content.charAt(extEnd)))) {
+                return extEnd;
             }
         }
+        return ~i;
+    }
 
-        return result;
+    /**
+     * URL 中不能出现的字符（引号、尖括号、空白）
+     */
+    private static boolean isUrlDelimiter(char c) {
+        return c == '"' || c == '\'' || c == '<' || c == '>' || isSpace(c);
     }
 
     /**
-     * 通用正则提取（用于 Markdown 等，自动分类）
+     * 可以紧跟在 URL 扩展名之后的字符
      */
-    private void extractByPattern(String content, Pattern pattern, ExtractResult result, int group) {
-        Matcher matcher = pattern.matcher(content);
-        while (matcher.find()) {
-            String url = matcher.group(group);
-            if (StringUtils.hasText(url)) {
-                String trimmedUrl = url.trim();
-                if (isValidUrl(trimmedUrl)) {
-                    classifyUrl(trimmedUrl, result);
-                }
+    private static boolean isUrlTerminator(char c) {
+        return isUrlDelimiter(c) || c == ']' || c == ')' || c == '}' || c == ',' || c == '?';
+    }
+
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /**
+     * ASCII 范围内不区分大小写的前缀比较（lowerCase 需为小写）
+     */
+    private static boolean regionMatchesIgnoreCase(String content, int start, String lowerCase) {
+        if (start + lowerCase.length() > content.length()) {
+            return false;
+        }
+        for (int i = 0; i < lowerCase.length(); i++) {
+            char c = content.charAt(start + i);
+            if (c >= 'A' && c <= 'Z') {
+                c = (char) (c + ('a' - 'A'));
+            }
+            if (c != lowerCase.charAt(i)) {
+                return false;
             }
         }
+        return true;
     }
 
     /**
@@ -3,9 +3,13 @@ package com.timxs.storagetoolkit.service;
 import com.timxs.storagetoolkit.extension.DuplicateScanStatus;
 import com.timxs.storagetoolkit.model.CleanupResult;
 import com.timxs.storagetoolkit.model.DuplicateGroupVo;
+import com.timxs.storagetoolkit.model.HashAlgorithm;
 import reactor.core.publisher.Mono;
+import run.halo.app.core.extension.attachment.Attachment;
 import run.halo.app.extension.ListResult;
 
+import java.util.Map;
+
 /**
  * 重复检测服务接口
  */
@@ -17,6 +21,13 @@ public interface DuplicateService {
      */
     Mono<DuplicateScanStatus> startScan();
 
+    /**
+     * 取消正在进行的扫描
+     * 进行中的哈希计算完成后写回检查点并停止，重新扫描时从检查点继续
+     * @return 扫描状态
+     */
+    Mono<DuplicateScanStatus> cancelScan();
+
     /**
      * 获取扫描状态和统计数据
      * @return 扫描状态
@@ -27,9 +38,10 @@ public interface DuplicateService {
      * 获取重复组列表
      * @param page 页码（从 1 开始）
      * @param size 每页数量
+     * @param sort 排序参数，格式：field,asc|desc，支持 savableSize（默认）、fileCount、createTime
      * @return 重复组列表
      */
-    Mono<ListResult<DuplicateGroupVo>> listDuplicateGroups(int page, int size);
+    Mono<ListResult<DuplicateGroupVo>> listDuplicateGroups(int page, int size, String sort);
 
     /**
      * 清空所有重复检测记录和扫描状态
@@ -42,7 +54,21 @@ public interface DuplicateService {
      * @param groupMd5 重复组 MD5
      * @param attachmentNames 要删除的附件名称列表
      * @param replaceReferences 是否自动替换引用（null 表示默认 true）
+     * @param confirmSimilar 是否已确认删除相似图片（相似组必须为 true）
      * @return 删除结果
      */
-    Mono<CleanupResult> deleteDuplicates(String groupMd5, java.util.List<String> attachmentNames, Boolean replaceReferences);
+    Mono<CleanupResult> deleteDuplicates(String groupMd5, java.util.List<String> attachmentNames, Boolean replaceReferences,
+                                         Boolean confirmSimilar);
+
+    /**
+     * 记录上传时发现的重复附件
+     * 以上次扫描的重复组算法取对应的哈希，追加到相同哈希的重复组，不存在时新建；
+     * 扫描进行中或上传时没有该算法的哈希时跳过
+     * @param contentHashes 上传内容的哈希值（算法 -> 哈希值）
+     * @param uploaded 新上传的附件
+     * @param existing 内容相同的已有附件
+     * @return 完成信号
+     */
+    Mono<Void> recordUploadDuplicate(Map<HashAlgorithm, String> contentHashes,
+                                     Attachment uploaded, Attachment existing);
 }
@@ -2,6 +2,7 @@ package com.timxs.storagetoolkit.service;
 
 import com.timxs.storagetoolkit.model.ImageFormat;
 
+import javax.imageio.stream.ImageOutputStream;
 import java.awt.image.BufferedImage;
 
 /**
@@ -21,6 +22,18 @@ public interface FormatConverter {
      */
     byte[] convert(BufferedImage image, ImageFormat targetFormat, int quality, int effort);
 
+    /**
+     * 转换图片格式并写入指定输出流
+     * 输出流可以带大小上限（如 BoundedImageOutputStream），超过上限时编码中止并抛出异常
+     *
+     * @param image        BufferedImage 对象
+     * @param targetFormat 目标格式
+     * @param quality      输出质量（0-100，对有损格式有效）
+     * @param effort       压缩等级（WebP: 0-6, AVIF: 0-10）
+     * @param output       输出流
+     */
+    void convert(BufferedImage image, ImageFormat targetFormat, int quality, int effort, ImageOutputStream output);
+
     /**
      * 检查是否支持指定格式
      *
@@ -37,6 +37,22 @@ public interface ProcessingLogService {
     Mono<ProcessingLog> saveSkippedLog(String filename, String contentType, long fileSize,
                                         Instant startTime, String reason, ProcessingSource source);
 
+    /**
+     * 保存跳过日志，并记录上传时检测到的重复附件
+     *
+     * @param filename    文件名
+     * @param contentType 文件 MIME 类型
+     * @param fileSize    文件大小
+     * @param startTime   开始时间
+     * @param reason      跳过原因
+     * @param source      来源
+     * @param duplicateOf 内容相同的已有附件名称（可为 null）
+     * @return 保存后的日志对象
+     */
+    Mono<ProcessingLog> saveSkippedLog(String filename, String contentType, long fileSize,
+                                        Instant startTime, String reason, ProcessingSource source,
+                                        String duplicateOf);
+
     /**
      * 保存处理结果日志
      *
@@ -50,6 +66,21 @@ public interface ProcessingLogService {
     Mono<ProcessingLog> saveResultLog(ProcessingResult result, String originalFilename,
                                        long originalSize, Instant startTime, ProcessingSource source);
 
+    /**
+     * 保存处理结果日志，并记录上传时检测到的重复附件
+     *
+     * @param result           处理结果
+     * @param originalFilename 原始文件名
+     * @param originalSize     原始文件大小
+     * @param startTime        开始时间
+     * @param source           来源
+     * @param duplicateOf      内容相同的已有附件名称（可为 null）
+     * @return 保存后的日志对象
+     */
+    Mono<ProcessingLog> saveResultLog(ProcessingResult result, String originalFilename,
+                                       long originalSize, Instant startTime, ProcessingSource source,
+                                       String duplicateOf);
+
     /**
      * 查询处理日志列表
      *
@@ -0,0 +1,70 @@
+package com.timxs.storagetoolkit.service;
+
+import com.timxs.storagetoolkit.extension.AttachmentReference;
+import com.timxs.storagetoolkit.extension.ReferenceSourceIndex;
+import com.timxs.storagetoolkit.service.support.ReferenceScanContext;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * 引用源索引服务接口
+ * 维护"引用源 -> URL"的持久化索引及其按 URL 的反向查询，在扫描之间保留；
+ * 供增量扫描计算单个引用源变更影响的 URL，以及引用替换、断链替换直接定位引用源
+ */
+public interface ReferenceIndexService {
+
+    /**
+     * 根据全量扫描结果重建索引
+     * 删除所有旧索引记录后，按引用源分组写入扫描上下文中的完整 URL
+     *
+     * @param context 全量扫描上下文
+     * @return 写入的索引记录数
+     */
+    Mono<Integer> rebuild(ReferenceScanContext context);
+
+    /**
+     * 替换单个引用源的索引记录
+     * 上下文中只应包含该引用源的提取结果；没有任何 URL 时删除索引记录
+     *
+     * @param sourceType 引用源类型
+     * @param sourceName 引用源名称
+     * @param context    仅包含该引用源的扫描上下文
+     * @return 引用信息发生变化的完整 URL（新旧并集中有差异的部分）
+     */
+    Mono<Set<String>> replaceSource(String sourceType, String sourceName, ReferenceScanContext context);
+
+    /**
+     * 查找引用了指定 URL 的索引记录
+     *
+     * @param urls 完整 URL 集合
+     * @return 索引记录（已去重）
+     */
+    Flux<ReferenceSourceIndex> findByUrls(Collection<String> urls);
+
+    /**
+     * 查找引用了指定 URL 的引用源（谁引用了 URL X）
+     *
+     * @param urls 完整 URL 集合
+     * @return 引用源（已去重）
+     */
+    Flux<AttachmentReference.ReferenceSource> findSourcesByUrls(Collection<String> urls);
+
+    /**
+     * 查找引用源的索引记录（引用源 Y 引用了哪些 URL）
+     *
+     * @param sourceType 引用源类型
+     * @param sourceName 引用源名称
+     * @return 索引记录，引用源没有引用任何 URL 时为空
+     */
+    Mono<ReferenceSourceIndex> findBySource(String sourceType, String sourceName);
+
+    /**
+     * 清空所有索引记录
+     *
+     * @return 完成信号
+     */
+    Mono<Void> clearAll();
+}
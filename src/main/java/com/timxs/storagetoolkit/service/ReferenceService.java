@@ -88,6 +88,17 @@ public interface ReferenceService {
      */
     Mono<SubjectInfo> resolveDocTreeInfo(String docTreeName);
 
+    /**
+     * 增量更新单个资源变更引起的引用关系
+     * 重新提取该资源对应引用源的 URL，与引用源索引比对后只更新受影响附件的引用记录。
+     * 未开启增量更新、尚未完成全量扫描或全量扫描进行中时不做任何处理
+     *
+     * @param kind 资源类型（Post/SinglePage/Comment/Reply/Snapshot/ConfigMap）
+     * @param name 资源名称
+     * @return 完成信号
+     */
+    Mono<Void> refreshSource(String kind, String name);
+
     /**
      * 清空所有引用记录和扫描状态
      *
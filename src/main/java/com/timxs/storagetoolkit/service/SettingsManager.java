@@ -1,6 +1,7 @@
 package com.timxs.storagetoolkit.service;
 
 import com.timxs.storagetoolkit.config.ProcessingConfig;
+import com.timxs.storagetoolkit.model.HashAlgorithm;
 import reactor.core.publisher.Mono;
 
 /**
@@ -78,10 +79,12 @@ public interface SettingsManager {
         boolean scanComments,
         boolean scanMoments,
         boolean scanPhotos,
-        boolean scanDocs
+        boolean scanDocs,
+        boolean incrementalScan,
+        int scanConcurrency
     ) {
         public static AnalysisSettings defaultSettings() {
-            return new AnalysisSettings(true, true, false, false, false, false);
+            return new AnalysisSettings(true, true, false, false, false, false, false, 8);
         }
     }
 
@@ -93,16 +96,21 @@ public interface SettingsManager {
     Mono<AnalysisSettings> getAnalysisSettings();
 
     /**
-     * 排除设置
+     * 排除设置（含重复检测的超时、并发数、哈希算法和相似图片检测）
      */
     record ExcludeSettings(
         java.util.Set<String> excludeGroups,
         java.util.Set<String> excludePolicies,
         int md5TimeoutSeconds,
-        int duplicateScanConcurrency
+        int duplicateScanConcurrency,
+        HashAlgorithm duplicateHashAlgorithm,
+        boolean confirmDuplicateHash,
+        boolean nearDuplicateEnabled,
+        int nearDuplicateDistance
     ) {
         public static ExcludeSettings defaultSettings() {
-            return new ExcludeSettings(java.util.Set.of(), java.util.Set.of(), 90, 4);
+            return new ExcludeSettings(java.util.Set.of(), java.util.Set.of(), 90, 4, HashAlgorithm.MD5, true,
+                false, 6);
         }
     }
 
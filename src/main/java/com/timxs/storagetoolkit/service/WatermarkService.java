@@ -16,7 +16,7 @@ public interface WatermarkService {
      *
      * @param image  原始图片
      * @param config 文字水印配置
-     * @return 添加水印后的图片
+     * @return 添加水印后的图片（原图类型支持时直接在原图上绘制并返回原图）
      */
     BufferedImage addTextWatermark(BufferedImage image, TextWatermarkConfig config);
 
@@ -26,7 +26,7 @@ public interface WatermarkService {
      * @param image          原始图片
      * @param config         图片水印配置
      * @param watermarkImage 水印图片
-     * @return 添加水印后的图片
+     * @return 添加水印后的图片（原图类型支持时直接在原图上绘制并返回原图）
      */
     BufferedImage addImageWatermark(BufferedImage image, ImageWatermarkConfig config, BufferedImage watermarkImage);
 }
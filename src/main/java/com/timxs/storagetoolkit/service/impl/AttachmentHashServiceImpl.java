@@ -0,0 +1,202 @@
+package com.timxs.storagetoolkit.service.impl;
+
+import com.timxs.storagetoolkit.extension.AttachmentHash;
+import com.timxs.storagetoolkit.model.HashAlgorithm;
+import com.timxs.storagetoolkit.service.AttachmentHashService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import run.halo.app.core.extension.attachment.Attachment;
+import run.halo.app.extension.ListOptions;
+import run.halo.app.extension.ListResult;
+import run.halo.app.extension.Metadata;
+import run.halo.app.extension.PageRequestImpl;
+import run.halo.app.extension.ReactiveExtensionClient;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static run.halo.app.extension.index.query.Queries.equal;
+import static run.halo.app.extension.index.query.Queries.in;
+
+/**
+ * 附件内容哈希索引服务实现
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AttachmentHashServiceImpl implements AttachmentHashService {
+
+    private static final String NAME_PREFIX = "hash-";
+
+    /**
+     * 按附件名称批量查询时每批的名称数量
+     */
+    private static final int QUERY_BATCH_SIZE = 200;
+
+    private final ReactiveExtensionClient client;
+
+    @Override
+    public Mono<Map<String, AttachmentHash>> loadIndex(Collection<String> attachmentNames) {
+        return Flux.fromIterable(attachmentNames)
+            .buffer(QUERY_BATCH_SIZE)
+            .concatMap(batch -> client.listAll(AttachmentHash.class,
+                ListOptions.builder().fieldQuery(in("spec.attachmentName", batch)).build(), Sort.unsorted()))
+            .filter(hash -> hash.getSpec() != null && hash.getSpec().getAttachmentName() != null)
+            .collectMap(hash -> hash.getSpec().getAttachmentName())
+            .doOnNext(index -> log.debug("已加载 {} 条附件哈希索引", index.size()));
+    }
+
+    @Override
+    public Flux<AttachmentHash> findByContentHash(HashAlgorithm algorithm, String hash) {
+        return client.listAll(AttachmentHash.class, ListOptions.builder()
+                .fieldQuery(equal("status.contentHashes", AttachmentHash.contentHashKey(algorithm.name(), hash)))
+                .build(), Sort.unsorted());
+    }
+
+    @Override
+    public Map<HashAlgorithm, String> getCachedHashes(Map<String, AttachmentHash> index, Attachment attachment) {
+        Map<HashAlgorithm, String> hashes = new EnumMap<>(HashAlgorithm.class);
+        AttachmentHash cached = getValidEntry(index, attachment);
+        if (cached == null) {
+            return hashes;
+        }
+        if (cached.getStatus().getContentHashes() != null) {
+            cached.getStatus().getContentHashes().forEach((name, value) -> {
+                HashAlgorithm algorithm = HashAlgorithm.fromString(name);
+                if (algorithm.name().equals(name) && value != null) {
+                    hashes.put(algorithm, value);
+                }
+            });
+        }
+        // 早期记录只有 md5Hash 字段
+        if (cached.getStatus().getMd5Hash() != null) {
+            hashes.putIfAbsent(HashAlgorithm.MD5, cached.getStatus().getMd5Hash());
+        }
+        return hashes;
+    }
+
+    @Override
+    public String getCachedPartialHash(Map<String, AttachmentHash> index, Attachment attachment) {
+        AttachmentHash cached = getValidEntry(index, attachment);
+        return cached != null ? cached.getStatus().getPartialHash() : null;
+    }
+
+    @Override
+    public String getCachedPerceptualHash(Map<String, AttachmentHash> index, Attachment attachment) {
+        AttachmentHash cached = getValidEntry(index, attachment);
+        return cached != null ? cached.getStatus().getPerceptualHash() : null;
+    }
+
+    /**
+     * 获取索引键与附件当前值一致的索引记录
+     */
+    private AttachmentHash getValidEntry(Map<String, AttachmentHash> index, Attachment attachment) {
+        AttachmentHash cached = index.get(attachment.getMetadata().getName());
+        if (cached == null || cached.getStatus() == null) {
+            return null;
+        }
+        AttachmentHash.AttachmentHashSpec spec = cached.getSpec();
+        if (!Objects.equals(spec.getSize(), attachment.getSpec().getSize())
+            || !Objects.equals(spec.getPermalink(), getPermalink(attachment))
+            || !Objects.equals(spec.getAttachmentVersion(), attachment.getMetadata().getVersion())) {
+            return null;
+        }
+        return cached;
+    }
+
+    @Override
+    public Mono<AttachmentHash> saveHash(AttachmentHash existing, Attachment attachment,
+                               Map<HashAlgorithm, String> contentHashes, String partialHash,
+                               String perceptualHash) {
+        AttachmentHash hash = existing;
+        if (hash == null) {
+            hash = new AttachmentHash();
+            hash.setMetadata(new Metadata());
+            hash.getMetadata().setName(NAME_PREFIX + attachment.getMetadata().getName());
+            hash.setSpec(new AttachmentHash.AttachmentHashSpec());
+            hash.getSpec().setAttachmentName(attachment.getMetadata().getName());
+        }
+        hash.getSpec().setSize(attachment.getSpec().getSize());
+        hash.getSpec().setPermalink(getPermalink(attachment));
+        hash.getSpec().setAttachmentVersion(attachment.getMetadata().getVersion());
+        if (hash.getStatus() == null) {
+            hash.setStatus(new AttachmentHash.AttachmentHashStatus());
+        }
+        hash.getStatus().setMd5Hash(contentHashes.get(HashAlgorithm.MD5));
+        Map<String, String> hashes = new LinkedHashMap<>();
+        contentHashes.forEach((algorithm, value) -> hashes.put(algorithm.name(), value));
+        hash.getStatus().setContentHashes(hashes);
+        hash.getStatus().setPartialHash(partialHash);
+        hash.getStatus().setPerceptualHash(perceptualHash);
+        hash.getStatus().setHashedAt(Instant.now());
+
+        Mono<AttachmentHash> saved = existing == null ? client.create(hash) : client.update(hash);
+        return saved
+            .doOnError(e -> log.warn("保存附件 {} 哈希索引失败: {}",
+                attachment.getMetadata().getName(), e.getMessage()))
+            // 索引写入失败只影响下次扫描是否命中缓存，不影响本次结果
+            .onErrorResume(e -> Mono.empty());
+    }
+
+    @Override
+    public Mono<Long> removeStale() {
+        // 先分页找出过期记录再删除，边遍历边删除会让后续分页错位而漏掉记录
+        return fetchIndexPage(1)
+            .expand(result -> result.hasNext() ? fetchIndexPage(result.getPage() + 1) : Mono.empty())
+            .concatMap(result -> findStale(result.getItems()))
+            .collectList()
+            .flatMapMany(Flux::fromIterable)
+            .flatMap(hash -> client.delete(hash)
+                .onErrorResume(e -> {
+                    log.warn("删除过期哈希索引 {} 失败: {}", hash.getMetadata().getName(), e.getMessage());
+                    return Mono.empty();
+                }))
+            .count()
+            .doOnNext(count -> {
+                if (count > 0) {
+                    log.debug("已删除 {} 条过期附件哈希索引", count);
+                }
+            });
+    }
+
+    private Mono<ListResult<AttachmentHash>> fetchIndexPage(int page) {
+        return client.listBy(AttachmentHash.class, ListOptions.builder().build(),
+            PageRequestImpl.of(page, QUERY_BATCH_SIZE, Sort.by("metadata.name")));
+    }
+
+    /**
+     * 查询一页索引记录对应的附件，返回附件已不存在（或正在删除）的记录
+     */
+    private Flux<AttachmentHash> findStale(List<AttachmentHash> page) {
+        List<String> attachmentNames = page.stream()
+            .map(AttachmentHash::getSpec)
+            .filter(Objects::nonNull)
+            .map(AttachmentHash.AttachmentHashSpec::getAttachmentName)
+            .filter(Objects::nonNull)
+            .toList();
+        Mono<Set<String>> liveNames = attachmentNames.isEmpty()
+            ? Mono.just(Set.of())
+            : client.listAll(Attachment.class,
+                    ListOptions.builder().fieldQuery(in("metadata.name", attachmentNames)).build(), Sort.unsorted())
+                .filter(attachment -> attachment.getMetadata().getDeletionTimestamp() == null)
+                .map(attachment -> attachment.getMetadata().getName())
+                .collect(Collectors.toSet());
+        return liveNames.flatMapMany(live -> Flux.fromIterable(page)
+            .filter(hash -> hash.getSpec() == null || !live.contains(hash.getSpec().getAttachmentName())));
+    }
+
+    private String getPermalink(Attachment attachment) {
+        return attachment.getStatus() != null ? attachment.getStatus().getPermalink() : null;
+    }
+}
@@ -18,6 +18,7 @@ import com.timxs.storagetoolkit.service.ImageProcessor;
 import com.timxs.storagetoolkit.service.ProcessingLogService;
 import com.timxs.storagetoolkit.service.ReferenceReplacerService;
 import com.timxs.storagetoolkit.service.SettingsManager;
+import com.timxs.storagetoolkit.service.support.AttachmentFetcher;
 import com.timxs.storagetoolkit.service.support.RetryUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -39,9 +40,6 @@ import run.halo.app.extension.ListOptions;
 import run.halo.app.extension.Metadata;
 import run.halo.app.extension.ReactiveExtensionClient;
 
-import java.io.InputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -65,8 +63,8 @@ public class BatchProcessingServiceImpl implements BatchProcessingService {
     private final ImageProcessor imageProcessor;
     private final ProcessingLogService processingLogService;
     private final AttachmentService attachmentService;
-    private final run.halo.app.infra.ExternalLinkProcessor externalLinkProcessor;
     private final ReferenceReplacerService referenceReplacerService;
+    private final AttachmentFetcher attachmentFetcher;
 
     private final DefaultDataBufferFactory bufferFactory = new DefaultDataBufferFactory();
 
@@ -219,8 +217,8 @@ public class BatchProcessingServiceImpl implements BatchProcessingService {
         List<String> attachmentNames = status.getSpec().getAttachmentNames();
         int concurrency = config.getImageProcessingConcurrency();
 
-        log.info("开始批量处理任务 {}, 附件数: {}, 并发数: {}, 保留原文件: {}, 替换引用: {}",
-            taskId, attachmentNames.size(), concurrency, keepOriginal, replaceReferences);
+        log.info("开始批量处理任务 {}, 附件数: {}, 并发数: {}, 处理线程数: {}, 保留原文件: {}, 替换引用: {}",
+            taskId, attachmentNames.size(), concurrency, config.getImageWorkerThreads(), keepOriginal, replaceReferences);
 
         return Flux.fromIterable(attachmentNames)
             .flatMap(attachmentName -> {
@@ -327,37 +325,11 @@ public class BatchProcessingServiceImpl implements BatchProcessingService {
 
     /**
      * 下载文件
+     * 通过共享的非阻塞下载组件获取，不占用 boundedElastic 线程
      */
     private Mono<byte[]> downloadFile(String permalink) {
         return settingsManager.getDownloadTimeoutSeconds()
-            .flatMap(timeoutSeconds ->
-                Mono.fromCallable(() -> {
-                    String fullUrl = externalLinkProcessor.processLink(permalink);
-                    String siteUrl = externalLinkProcessor.processLink("/");
-                    HttpURLConnection conn = null;
-                    try {
-                        URL url = new URL(fullUrl);
-                        conn = (HttpURLConnection) url.openConnection();
-                        conn.setConnectTimeout(com.timxs.storagetoolkit.service.support.TimeoutUtils.connectTimeoutMillis(timeoutSeconds));
-                        conn.setReadTimeout(com.timxs.storagetoolkit.service.support.TimeoutUtils.readTimeoutMillis(timeoutSeconds));
-                        conn.setRequestMethod("GET");
-                        conn.setRequestProperty("User-Agent", SettingsManager.DEFAULT_USER_AGENT);
-                        conn.setRequestProperty("Referer", siteUrl);
-
-                        int responseCode = conn.getResponseCode();
-                        if (responseCode != 200) {
-                            throw new RuntimeException("HTTP " + responseCode);
-                        }
-
-                        try (InputStream is = conn.getInputStream()) {
-                            return is.readAllBytes();
-                        }
-                    } finally {
-                        if (conn != null) {
-                            conn.disconnect();
-                        }
-                    }
-                }).subscribeOn(reactor.core.scheduler.Schedulers.boundedElastic())
+            .flatMap(timeoutSeconds -> attachmentFetcher.download(permalink, timeoutSeconds)
                 .timeout(java.time.Duration.ofSeconds(timeoutSeconds),
                     Mono.error(new java.util.concurrent.TimeoutException("下载文件超时: " + permalink)))
             );
@@ -494,6 +466,8 @@ public class BatchProcessingServiceImpl implements BatchProcessingService {
         logSpec.setResultFilename(result.filename());
         logSpec.setOriginalSize(originalSize);
         logSpec.setResultSize(newSize);
+        logSpec.setSavedPixels(result.savedPixels());
+        logSpec.setEncodingCandidate(result.encodingCandidate());
         logSpec.setStatus(result.status());
         logSpec.setProcessedAt(Instant.now());
         // 优先使用传入的 errorMessage，否则使用 result.message()
@@ -9,6 +9,7 @@ import com.timxs.storagetoolkit.model.BrokenLinkVo;
 import com.timxs.storagetoolkit.model.BrokenLinkVo.BrokenLinkSource;
 import com.timxs.storagetoolkit.model.ReplaceSource;
 import com.timxs.storagetoolkit.service.BrokenLinkService;
+import com.timxs.storagetoolkit.service.ReferenceIndexService;
 import com.timxs.storagetoolkit.service.ReferenceReplacerService;
 import com.timxs.storagetoolkit.service.ReferenceService;
 import com.timxs.storagetoolkit.service.support.UrlReplacer;
@@ -22,6 +23,7 @@ import reactor.core.publisher.Mono;
 import run.halo.app.extension.ListOptions;
 import run.halo.app.extension.ListResult;
 import run.halo.app.extension.Metadata;
+import run.halo.app.extension.PageRequestImpl;
 import run.halo.app.extension.ReactiveExtensionClient;
 import run.halo.app.infra.ExternalLinkProcessor;
 
@@ -29,6 +31,10 @@ import java.time.Instant;
 import java.util.*;
 import java.util.stream.Collectors;
 
+import static run.halo.app.extension.index.query.Queries.contains;
+import static run.halo.app.extension.index.query.Queries.equal;
+import static run.halo.app.extension.index.query.Queries.isNull;
+
 /**
  * 断链扫描服务实现
  * 断链检测现在由 ReferenceService 在扫描时同步完成
@@ -41,6 +47,7 @@ public class BrokenLinkServiceImpl implements BrokenLinkService {
     private final ReactiveExtensionClient client;
     private final ReferenceService referenceService;
     private final ReferenceReplacerService referenceReplacerService;
+    private final ReferenceIndexService referenceIndexService;
 
     private final ExternalLinkProcessor externalLinkProcessor;
 
@@ -76,106 +83,68 @@ public class BrokenLinkServiceImpl implements BrokenLinkService {
 
     @Override
     public Mono<ListResult<BrokenLinkVo>> listBrokenLinks(int page, int size, String sourceType, String keyword, String reason, String sort) {
-        return client.listAll(BrokenLink.class, ListOptions.builder().build(), Sort.unsorted())
-            .filter(link -> {
-                // 过滤待删除和已删除的记录（与引用记录逻辑一致）
-                if (link.getMetadata().getDeletionTimestamp() != null) {
-                    return false;
-                }
-                if (link.getStatus() != null && link.getStatus().getPendingDelete() != null && link.getStatus().getPendingDelete()) {
-                    return false;
-                }
-                if (link.getSpec() == null || link.getStatus() == null) return false;
-
-                // 按来源类型过滤（检查 sources 列表中是否包含该类型）
-                if (StringUtils.hasText(sourceType)) {
-                    boolean hasType = link.getStatus().getSources() != null
-                        && link.getStatus().getSources().stream()
-                            .anyMatch(s -> sourceType.equals(s.getSourceType()));
-                    if (!hasType) {
-                        return false;
-                    }
-                }
-
-                // 按关键词过滤（搜索 URL 或来源标题）
-                if (StringUtils.hasText(keyword)) {
-                    String url = link.getSpec().getUrl();
-                    boolean urlMatch = url != null && url.toLowerCase().contains(keyword.toLowerCase());
-
-                    boolean titleMatch = link.getStatus().getSources() != null
-                        && link.getStatus().getSources().stream()
-                            .anyMatch(s -> s.getSourceTitle() != null
-                                && s.getSourceTitle().toLowerCase().contains(keyword.toLowerCase()));
-
-                    if (!urlMatch && !titleMatch) {
-                        return false;
-                    }
-                }
+        // 过滤、排序和分页均通过索引在服务端完成，只加载当前页的记录
+        var pageRequest = PageRequestImpl.of(page, size, resolveBrokenLinkSort(sort));
+        return client.listBy(BrokenLink.class, buildBrokenLinkListOptions(sourceType, keyword, reason), pageRequest)
+            .map(result -> new ListResult<>(page, size, result.getTotal(),
+                result.getItems().stream().map(this::convertToVo).toList()));
+    }
 
-                // 按断链原因过滤
-                if (StringUtils.hasText(reason)) {
-                    String linkReason = link.getStatus().getReason();
-                    if (linkReason == null) {
-                        return false;
-                    }
-                    if ("HTTP_ERROR".equals(reason)) {
-                        // 匹配所有 HTTP 状态码错误（如 "HTTP 404"、"HTTP 403"）
-                        if (!linkReason.startsWith("HTTP ")) {
-                            return false;
-                        }
-                    } else {
-                        // 精确匹配：HTTP_TIMEOUT、CONNECTION_FAILED、ATTACHMENT_NOT_FOUND
-                        if (!reason.equals(linkReason)) {
-                            return false;
-                        }
-                    }
-                }
+    /**
+     * 构建断链查询条件
+     * 排除待删除和已删除的记录（与引用记录逻辑一致）
+     */
+    private ListOptions buildBrokenLinkListOptions(String sourceType, String keyword, String reason) {
+        var builder = ListOptions.builder()
+            .andQuery(isNull("metadata.deletionTimestamp"))
+            .andQuery(equal("status.pendingDelete", "false"));
+
+        // 按来源类型过滤（sources 列表中包含该类型）
+        if (StringUtils.hasText(sourceType)) {
+            builder.andQuery(equal("status.sourceTypes", sourceType));
+        }
 
-                return true;
-            })
-            .collectList()
-            .map(links -> {
-                // 转换为 VO 列表
-                List<BrokenLinkVo> voList = links.stream()
-                    .map(link -> {
-                        String url = link.getSpec().getUrl();
-                        Instant discoveredAt = link.getStatus() != null ? link.getStatus().getDiscoveredAt() : null;
-                        String linkReason = link.getStatus() != null ? link.getStatus().getReason() : null;
-                        String originalUrl = link.getStatus() != null ? link.getStatus().getOriginalUrl() : null;
-
-                        // 构建来源列表
-                        List<BrokenLinkSource> sources = link.getStatus() != null && link.getStatus().getSources() != null
-                            ? link.getStatus().getSources().stream()
-                                .map(s -> new BrokenLinkSource(
-                                    link.getMetadata().getName(),
-                                    s.getSourceType(),
-                                    s.getSourceName(),
-                                    s.getSourceTitle(),
-                                    s.getSourceUrl(),
-                                    s.getDeleted(),
-                                    s.getReferenceType(),
-                                    s.getSettingName()
-                                ))
-                                .toList()
-                            : List.of();
-
-                        int sourceCount = link.getStatus() != null ? link.getStatus().getSourceCount() : 0;
-
-                        return new BrokenLinkVo(url, originalUrl, sources, sourceCount, discoveredAt, linkReason);
-                    })
-                    .sorted(createBrokenLinkComparator(sort))
-                    .collect(Collectors.toList());
+        // 按关键词过滤（搜索 URL 或来源标题，索引值已转为小写）
+        if (StringUtils.hasText(keyword)) {
+            builder.andQuery(contains("status.keywords", keyword.toLowerCase(Locale.ROOT)));
+        }
 
-                int total = voList.size();
-                int start = (page - 1) * size;
-                int end = Math.min(start + size, total);
+        // 按断链原因过滤：HTTP_ERROR 匹配所有 HTTP 状态码错误，其余精确匹配
+        if (StringUtils.hasText(reason)) {
+            builder.andQuery(equal("status.reasonCategory", reason));
+        }
 
-                List<BrokenLinkVo> pageItems = start < total
-                    ? voList.subList(start, end)
-                    : List.of();
+        return builder.build();
+    }
 
-                return new ListResult<>(page, size, total, pageItems);
-            });
+    /**
+     * 转换为 VO
+     */
+    private BrokenLinkVo convertToVo(BrokenLink link) {
+        String url = link.getSpec() != null ? link.getSpec().getUrl() : null;
+        Instant discoveredAt = link.getStatus() != null ? link.getStatus().getDiscoveredAt() : null;
+        String linkReason = link.getStatus() != null ? link.getStatus().getReason() : null;
+        String originalUrl = link.getStatus() != null ? link.getStatus().getOriginalUrl() : null;
+
+        // 构建来源列表
+        List<BrokenLinkSource> sources = link.getStatus() != null && link.getStatus().getSources() != null
+            ? link.getStatus().getSources().stream()
+                .map(s -> new BrokenLinkSource(
+                    link.getMetadata().getName(),
+                    s.getSourceType(),
+                    s.getSourceName(),
+                    s.getSourceTitle(),
+                    s.getSourceUrl(),
+                    s.getDeleted(),
+                    s.getReferenceType(),
+                    s.getSettingName()
+                ))
+                .toList()
+            : List.of();
+
+        int sourceCount = link.getStatus() != null ? link.getStatus().getSourceCount() : 0;
+
+        return new BrokenLinkVo(url, originalUrl, sources, sourceCount, discoveredAt, linkReason);
     }
 
     @Override
@@ -202,12 +171,12 @@ public class BrokenLinkServiceImpl implements BrokenLinkService {
     }
 
     /**
-     * 创建断链排序比较器
-     * @param sort 排序参数，格式：field,asc|desc
-     * @return 比较器
+     * 解析断链排序参数
+     * 同值时按名称排序，保证分页结果稳定
+     * @param sort 排序参数，格式：field,asc|desc，支持 sourceCount（默认）和 discoveredAt
+     * @return 排序规则
      */
-    private java.util.Comparator<BrokenLinkVo> createBrokenLinkComparator(String sort) {
-        // 解析排序参数
+    private Sort resolveBrokenLinkSort(String sort) {
         boolean desc = true;
         String sortField = "sourceCount";
         if (StringUtils.hasText(sort)) {
@@ -218,38 +187,25 @@ public class BrokenLinkServiceImpl implements BrokenLinkService {
             }
         }
 
-        final String finalSortField = sortField;
-        final boolean finalDesc = desc;
-
-        return (a, b) -> {
-            int result;
-            if ("discoveredAt".equals(finalSortField)) {
-                // 按发现时间排序
-                if (a.discoveredAt() == null && b.discoveredAt() == null) result = 0;
-                else if (a.discoveredAt() == null) result = 1;
-                else if (b.discoveredAt() == null) result = -1;
-                else result = a.discoveredAt().compareTo(b.discoveredAt());
-            } else {
-                // 默认按出现次数排序
-                result = Integer.compare(a.sourceCount(), b.sourceCount());
-            }
-            return finalDesc ? -result : result;
-        };
+        String indexName = "discoveredAt".equals(sortField) ? "status.discoveredAt" : "status.sourceCount";
+        Sort.Order order = desc ? Sort.Order.desc(indexName) : Sort.Order.asc(indexName);
+        return Sort.by(order, Sort.Order.asc("metadata.name"));
     }
 
     @Override
     public Mono<BrokenLinkReplaceResult> replaceBrokenLink(String oldUrl, String newUrl) {
         log.info("开始替换断链: {} -> {}", oldUrl, newUrl);
 
-        // 1. 查找 BrokenLink 记录
-        return client.listAll(BrokenLink.class, ListOptions.builder().build(), Sort.unsorted())
-            .filter(link -> {
-                if (link.getMetadata().getDeletionTimestamp() != null) return false;
-                if (link.getStatus() != null && link.getStatus().getPendingDelete() != null
-                    && link.getStatus().getPendingDelete()) return false;
-                return link.getSpec() != null && oldUrl.equals(link.getSpec().getUrl());
-            })
+        // 1. 通过 spec.url 索引查找 BrokenLink 记录，并从引用源索引补充扫描后新增的来源
+        return client.listAll(BrokenLink.class, ListOptions.builder()
+                    .andQuery(isNull("metadata.deletionTimestamp"))
+                    .andQuery(equal("status.pendingDelete", "false"))
+                    .andQuery(equal("spec.url", oldUrl))
+                    .build(), Sort.unsorted())
             .collectList()
+            .flatMap(links -> links.isEmpty()
+                ? Mono.just(links)
+                : mergeIndexedSources(links.get(0)).thenReturn(links))
             .flatMap(links -> {
                 if (links.isEmpty()) {
                     log.warn("未找到断链记录: {}", oldUrl);
@@ -356,6 +312,41 @@ public class BrokenLinkServiceImpl implements BrokenLinkService {
             });
     }
 
+    /**
+     * 从引用源倒排索引补充当前仍引用该 URL、但断链记录中没有的来源（仅修改内存中的记录）
+     * 开启增量更新后，断链扫描之后新增的引用也能一并替换
+     */
+    private Mono<Void> mergeIndexedSources(BrokenLink brokenLink) {
+        if (brokenLink.getStatus() == null) {
+            brokenLink.setStatus(new BrokenLink.BrokenLinkStatus());
+        }
+        List<BrokenLink.BrokenLinkSource> merged = brokenLink.getStatus().getSources() != null
+            ? new ArrayList<>(brokenLink.getStatus().getSources())
+            : new ArrayList<>();
+        return referenceIndexService.findSourcesByUrls(List.of(brokenLink.getSpec().getUrl()))
+            .filter(source -> merged.stream().noneMatch(existing ->
+                Objects.equals(existing.getSourceType(), source.getSourceType())
+                    && Objects.equals(existing.getSourceName(), source.getSourceName())
+                    && Objects.equals(existing.getReferenceType(), source.getReferenceType())))
+            .doOnNext(source -> {
+                BrokenLink.BrokenLinkSource blSource = new BrokenLink.BrokenLinkSource();
+                blSource.setSourceType(source.getSourceType());
+                blSource.setSourceName(source.getSourceName());
+                blSource.setSourceTitle(source.getSourceTitle());
+                blSource.setSourceUrl(source.getSourceUrl());
+                blSource.setDeleted(source.getDeleted());
+                blSource.setReferenceType(source.getReferenceType());
+                blSource.setSettingName(source.getSettingName());
+                merged.add(blSource);
+            })
+            .then(Mono.fromRunnable(() -> brokenLink.getStatus().setSources(merged)))
+            .onErrorResume(e -> {
+                log.warn("查询引用源索引失败，使用断链记录中的来源: {}", e.getMessage());
+                return Mono.empty();
+            })
+            .then();
+    }
+
     /**
      * 在单个来源中执行替换
      */
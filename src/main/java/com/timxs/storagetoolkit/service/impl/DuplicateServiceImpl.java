@@ -1,5 +1,6 @@
 package com.timxs.storagetoolkit.service.impl;
 
+import com.timxs.storagetoolkit.extension.AttachmentHash;
 import com.timxs.storagetoolkit.extension.AttachmentReference;
 import com.timxs.storagetoolkit.extension.DuplicateGroup;
 import com.timxs.storagetoolkit.extension.DuplicateScanStatus;
@@ -7,14 +8,23 @@ import com.timxs.storagetoolkit.extension.ReferenceScanStatus;
 import com.timxs.storagetoolkit.model.CleanupReason;
 import com.timxs.storagetoolkit.model.CleanupResult;
 import com.timxs.storagetoolkit.model.DuplicateGroupVo;
+import com.timxs.storagetoolkit.model.DuplicateMatchType;
+import com.timxs.storagetoolkit.model.HashAlgorithm;
+import com.timxs.storagetoolkit.service.AttachmentHashService;
 import com.timxs.storagetoolkit.service.CleanupLogService;
 import com.timxs.storagetoolkit.service.DuplicateService;
 import com.timxs.storagetoolkit.service.ReferenceReplacerService;
 import com.timxs.storagetoolkit.service.SettingsManager;
+import com.timxs.storagetoolkit.service.support.AttachmentContentHasher;
+import com.timxs.storagetoolkit.service.support.HammingBkTree;
+import com.timxs.storagetoolkit.service.support.LocalAttachmentResolver;
+import com.timxs.storagetoolkit.service.support.PerceptualHasher;
+import com.timxs.storagetoolkit.service.support.RetryUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import run.halo.app.core.extension.attachment.Attachment;
@@ -22,20 +32,23 @@ import run.halo.app.core.extension.attachment.Policy;
 import run.halo.app.extension.ListOptions;
 import run.halo.app.extension.ListResult;
 import run.halo.app.extension.Metadata;
+import run.halo.app.extension.PageRequestImpl;
 import run.halo.app.extension.ReactiveExtensionClient;
-import run.halo.app.infra.ExternalLinkProcessor;
 
-import java.io.InputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.security.DigestInputStream;
-import java.security.MessageDigest;
+import java.nio.file.Path;
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
+import static run.halo.app.extension.index.query.Queries.equal;
+import static run.halo.app.extension.index.query.Queries.in;
+
 /**
  * 重复检测服务实现
  */
@@ -44,34 +57,93 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class DuplicateServiceImpl implements DuplicateService {
 
+    /**
+     * 相似图片组的键前缀（内容哈希为十六进制，不会与之冲突）
+     */
+    private static final String PERCEPTUAL_KEY_PREFIX = "p";
+
+    /**
+     * 检查点批大小：累计这么多条新哈希后写回哈希索引
+     */
+    private static final int CHECKPOINT_BATCH_SIZE = 100;
+
+    /**
+     * 检查点最大间隔（毫秒）：远程扫描较慢时按时间写回，避免长时间没有检查点
+     */
+    private static final long CHECKPOINT_INTERVAL_MILLIS = 30_000;
+
+    /**
+     * 写回检查点时的并发数
+     */
+    private static final int CHECKPOINT_SAVE_CONCURRENCY = 4;
+
+    /**
+     * 分页读取附件时的每页数量
+     */
+    private static final int ATTACHMENT_PAGE_SIZE = 200;
+
+    /**
+     * 按附件名称批量查询引用记录时每批的名称数量
+     */
+    private static final int REFERENCE_QUERY_BATCH_SIZE = 200;
+
     private final ReactiveExtensionClient client;
-    private final ExternalLinkProcessor externalLinkProcessor;
+    private final AttachmentContentHasher hasher;
+    private final PerceptualHasher perceptualHasher;
+    private final LocalAttachmentResolver localAttachmentResolver;
     private final SettingsManager settingsManager;
     private final ReferenceReplacerService referenceReplacerService;
     private final CleanupLogService cleanupLogService;
+    private final AttachmentHashService attachmentHashService;
 
     // 内存中的扫描进度（不持久化，重启后清零）
     private final AtomicInteger scanProgress = new AtomicInteger(0);
     private final AtomicInteger scanTotal = new AtomicInteger(0);
 
+    // 取消标志，哈希计算阶段在每个附件开始前检查
+    private final AtomicBoolean cancelRequested = new AtomicBoolean(false);
+
     @Override
     public Mono<DuplicateScanStatus> startScan() {
         return getScanStatus()
             .flatMap(status -> {
                 // 检查是否正在扫描
-                if (status.getStatus() != null
-                    && DuplicateScanStatus.Phase.SCANNING.equals(status.getStatus().getPhase())) {
+                if (status.getStatus() != null && isRunning(status.getStatus().getPhase())) {
                     // 检查内存进度：如果都为 0 说明服务重启过，允许重新扫描
                     if (scanProgress.get() == 0 && scanTotal.get() == 0) {
                         log.warn("检测到服务重启，上次扫描已中断，允许重新触发");
                         return doStartScan(status);
                     }
-                    return Mono.error(new IllegalStateException("扫描正在进行中"));
+                    return Mono.error(new IllegalStateException(
+                        DuplicateScanStatus.Phase.CANCELLING.equals(status.getStatus().getPhase())
+                            ? "扫描正在取消中" : "扫描正在进行中"));
                 }
                 return doStartScan(status);
             });
     }
 
+    @Override
+    public Mono<DuplicateScanStatus> cancelScan() {
+        return Mono.defer(() -> client.fetch(DuplicateScanStatus.class, DuplicateScanStatus.SINGLETON_NAME))
+            .flatMap(status -> {
+                if (status.getStatus() == null
+                    || !DuplicateScanStatus.Phase.SCANNING.equals(status.getStatus().getPhase())) {
+                    return Mono.error(new IllegalStateException("没有正在进行的扫描"));
+                }
+                // 设置取消标志，进行中的哈希计算完成后保存检查点并停止
+                cancelRequested.set(true);
+                status.getStatus().setPhase(DuplicateScanStatus.Phase.CANCELLING);
+                log.info("收到取消请求，更新状态为 CANCELLING");
+                return client.update(status);
+            })
+            .retryWhen(RetryUtils.optimisticLockRetry());
+    }
+
+    private boolean isRunning(String phase) {
+        return DuplicateScanStatus.Phase.SCANNING.equals(phase)
+            || DuplicateScanStatus.Phase.CANCELLING.equals(phase);
+    }
+
     /**
      * 获取重复检测并发数配置
      */
@@ -92,12 +164,21 @@ public class DuplicateServiceImpl implements DuplicateService {
         // 重置内存进度
         scanProgress.set(0);
         scanTotal.set(0);
+        cancelRequested.set(false);
 
         if (status.getStatus() == null) {
             status.setStatus(new DuplicateScanStatus.DuplicateScanStatusStatus());
         }
+        if (status.getStatus().getCheckpointCount() > 0
+            && !DuplicateScanStatus.Phase.COMPLETED.equals(status.getStatus().getPhase())) {
+            // 已写入的哈希索引会在本次扫描中直接命中，无需重新计算
+            log.info("上次扫描未完成，已保存 {} 条哈希检查点，本次从检查点继续",
+                status.getStatus().getCheckpointCount());
+        }
         status.getStatus().setPhase(DuplicateScanStatus.Phase.SCANNING);
         status.getStatus().setStartTime(Instant.now());
+        status.getStatus().setCheckpointCount(0);
+        status.getStatus().setLastCheckpointTime(null);
         status.getStatus().setErrorMessage(null);
 
         return client.update(status)
@@ -126,8 +207,9 @@ public class DuplicateServiceImpl implements DuplicateService {
     private Mono<DuplicateScanStatus> performScan() {
         log.info("开始重复检测扫描...");
 
-        // 用于存储 MD5 -> 附件列表的映射
+        // 用于存储 哈希值 -> 附件列表的映射
         Map<String, List<AttachmentInfo>> hashToAttachments = new ConcurrentHashMap<>();
+        AtomicInteger cacheHits = new AtomicInteger(0);
 
         // 1. 先标记旧数据为待删除
         return markAllAsPendingDelete()
@@ -139,6 +221,11 @@ public class DuplicateServiceImpl implements DuplicateService {
                 boolean enableRemote = tuple.getT3();
                 int md5Timeout = tuple.getT4();
                 SettingsManager.ExcludeSettings excludeSettings = tuple.getT5();
+                HashAlgorithm algorithm = excludeSettings.duplicateHashAlgorithm();
+                // 非加密哈希需要复核时，重复组最终以 SHA-256 为键
+                boolean confirm = excludeSettings.confirmDuplicateHash() && !algorithm.isCryptographic();
+                HashAlgorithm groupAlgorithm = confirm ? HashAlgorithm.SHA_256 : algorithm;
+                boolean nearDuplicate = excludeSettings.nearDuplicateEnabled();
 
                 // 根据配置过滤策略
                 Set<String> allowedPolicies = policyIsLocal.entrySet().stream()
@@ -148,73 +235,140 @@ public class DuplicateServiceImpl implements DuplicateService {
 
                 if (allowedPolicies.isEmpty()) {
                     log.warn("没有可扫描的存储策略，跳过扫描");
-                    return updateScanCompleted(0, 0, 0, 0);
+                    return updateScanCompleted(0, 0, 0, 0, groupAlgorithm);
                 }
-                log.debug("可扫描的存储策略: {}, 并发数: {}, 远程存储: {}, MD5超时: {}秒", allowedPolicies, concurrency, enableRemote, md5Timeout);
-
-                // 3. 获取附件
-                return client.listAll(Attachment.class, ListOptions.builder().build(), Sort.unsorted())
-                    .filter(attachment -> attachment.getMetadata().getDeletionTimestamp() == null)
-                    .filter(attachment -> {
-                        // 过滤排除的分组
-                        String groupName = attachment.getSpec().getGroupName();
-                        if (groupName != null && excludeSettings.excludeGroups().contains(groupName)) {
-                            return false;
-                        }
-                        // 过滤排除的存储策略
-                        String policyName = attachment.getSpec().getPolicyName();
-                        if (policyName != null && excludeSettings.excludePolicies().contains(policyName)) {
-                            return false;
+                log.debug("可扫描的存储策略: {}, 并发数: {}, 远程存储: {}, 哈希超时: {}秒, 哈希算法: {}{}",
+                    allowedPolicies, concurrency, enableRemote, md5Timeout, algorithm, confirm ? "（SHA-256 复核）" : "");
+
+                Predicate<Attachment> scannable = attachment -> {
+                    // 过滤排除的分组
+                    String groupName = attachment.getSpec().getGroupName();
+                    if (groupName != null && excludeSettings.excludeGroups().contains(groupName)) {
+                        return false;
+                    }
+                    // 过滤排除的存储策略
+                    String policyName = attachment.getSpec().getPolicyName();
+                    if (policyName != null && excludeSettings.excludePolicies().contains(policyName)) {
+                        return false;
+                    }
+                    return allowedPolicies.contains(policyName);
+                };
+
+                // 3. 第一遍分页读取附件：只记录各文件大小的出现次数，不保留附件对象
+                Map<Long, Integer> sizeCounts = new HashMap<>();
+                AtomicInteger scannableCount = new AtomicInteger(0);
+                return listAttachmentsPaged()
+                    .filter(scannable)
+                    .doOnNext(attachment -> {
+                        scannableCount.incrementAndGet();
+                        Long size = attachment.getSpec().getSize();
+                        if (size != null) {
+                            sizeCounts.merge(size, 1, Integer::sum);
                         }
-                        return true;
                     })
-                    .filter(attachment -> allowedPolicies.contains(attachment.getSpec().getPolicyName()))
-                    .collectList()
-                    .flatMap(attachments -> {
-                        // 设置内存进度总数
-                        scanTotal.set(attachments.size());
-                        scanProgress.set(0);
-                        log.debug("找到 {} 个附件，开始计算 MD5...", scanTotal.get());
-
-                        if (attachments.isEmpty()) {
+                    // 4. 第二遍分页读取：只保留可能重复的附件（大小出现多次或大小未知），
+                    //    开启相似图片检测时另外保留全部图片（图片同样参与内容哈希检测）
+                    .then(Mono.defer(() -> {
+                        List<Attachment> images = new ArrayList<>();
+                        List<Attachment> candidates = new ArrayList<>();
+                        AtomicInteger overlap = new AtomicInteger(0);
+                        return listAttachmentsPaged()
+                            .filter(scannable)
+                            .doOnNext(attachment -> {
+                                Long size = attachment.getSpec().getSize();
+                                boolean image = nearDuplicate && isImage(attachment);
+                                boolean candidate = size == null || sizeCounts.getOrDefault(size, 0) > 1;
+                                if (image) {
+                                    images.add(attachment);
+                                }
+                                if (candidate) {
+                                    candidates.add(attachment);
+                                }
+                                if (image && candidate) {
+                                    overlap.incrementAndGet();
+                                }
+                            })
+                            .then(Mono.fromCallable(() -> new ScanCandidates(images, candidates, overlap.get())));
+                    }))
+                    .flatMap(scan -> {
+                        // 设置内存进度总数，每个附件只计一次：大小唯一且不参与相似检测的附件直接计入进度，
+                        // 候选附件在内容哈希完成时计入，其余图片在相似检测完成时计入
+                        scanTotal.set(scannableCount.get());
+                        scanProgress.set(scannableCount.get() + scan.overlap()
+                            - scan.images().size() - scan.candidates().size());
+                        log.debug("找到 {} 个附件，{} 个大小唯一已跳过，{} 张图片、{} 个候选附件待计算哈希",
+                            scanTotal.get(), scanProgress.get(), scan.images().size(), scan.candidates().size());
+
+                        if (scannableCount.get() == 0) {
                             log.debug("没有附件，完成扫描");
-                            return updateScanCompleted(0, 0, 0, 0);
+                            return updateScanCompleted(0, 0, 0, 0, groupAlgorithm);
                         }
 
-                        // 4. 计算 MD5（使用配置的并发数和超时时间）
-                        return Flux.fromIterable(attachments)
-                            .flatMap(attachment -> processAttachment(attachment, hashToAttachments, md5Timeout), concurrency)
-                            .then(Mono.defer(() -> {
-                                log.debug("MD5 计算完成，已处理: {}/{}", scanProgress.get(), scanTotal.get());
-
-                                // 5. 获取引用次数并更新 AttachmentInfo
-                                return enrichWithReferenceCounts(hashToAttachments)
+                        // 5. 只加载候选附件的哈希索引，再计算哈希（按大小和首尾片段预筛选，
+                        //    只对可能重复的附件计算完整哈希；索引键未变化的附件直接复用缓存）
+                        Set<String> candidateNames = new HashSet<>();
+                        scan.images().forEach(attachment -> candidateNames.add(attachment.getMetadata().getName()));
+                        scan.candidates().forEach(attachment -> candidateNames.add(attachment.getMetadata().getName()));
+                        return attachmentHashService.loadIndex(candidateNames)
+                            .flatMap(loadedIndex -> {
+                                // 检查点写回时会并发放入新记录
+                                Map<String, AttachmentHash> hashIndex = new ConcurrentHashMap<>(loadedIndex);
+                                HashContext hashContext = new HashContext(md5Timeout, algorithm, confirm, hashIndex,
+                                    policyIsLocal, new ConcurrentHashMap<>(), cacheHits, new ScanCheckpoint());
+                                return groupSimilarImages(scan.images(), scan.images().size() - scan.overlap(),
+                                        hashToAttachments, excludeSettings.nearDuplicateDistance(), concurrency,
+                                        hashContext)
+                                    .then(Mono.defer(() -> hashCandidates(scan.candidates(), hashToAttachments,
+                                        concurrency, hashContext)))
+                                    .then(Mono.defer(() -> attachmentHashService.removeStale()))
                                     .then(Mono.defer(() -> {
-                                        // 6. 创建重复组
-                                        return createDuplicateGroups(hashToAttachments)
+                                        if (cancelRequested.get()) {
+                                            log.info("重复检测扫描已取消，已处理: {}/{}，已保存检查点: {}",
+                                                scanProgress.get(), scanTotal.get(), hashContext.checkpoint().saved.get());
+                                            return restorePendingRecords().then(updateScanCancelled());
+                                        }
+                                        log.debug("哈希计算完成，已处理: {}/{}，命中哈希索引: {}",
+                                            scanProgress.get(), scanTotal.get(), cacheHits.get());
+                                        // 只保留真正重复的组，唯一哈希的附件不再占用内存
+                                        hashToAttachments.values().removeIf(list -> list.size() < 2);
+                                        removeRedundantPerceptualGroups(hashToAttachments);
+
+                                        // 6. 获取引用次数并更新 AttachmentInfo
+                                        return enrichWithReferenceCounts(hashToAttachments)
                                             .then(Mono.defer(() -> {
-                                                // 7. 计算统计数据并更新状态
-                                                int groupCount = (int) hashToAttachments.values().stream()
-                                                    .filter(list -> list.size() > 1)
-                                                    .count();
-                                                int fileCount = hashToAttachments.values().stream()
-                                                    .filter(list -> list.size() > 1)
-                                                    .mapToInt(list -> list.size() - 1)
-                                                    .sum();
-                                                long savableSize = hashToAttachments.values().stream()
-                                                    .filter(list -> list.size() > 1)
-                                                    .mapToLong(list -> list.get(0).size * (list.size() - 1))
-                                                    .sum();
-
-                                                log.debug("扫描统计 - 重复组: {}, 重复文件: {}, 可节省: {} bytes",
-                                                    groupCount, fileCount, savableSize);
-                                                return updateScanCompleted(scanTotal.get(), groupCount, fileCount, savableSize);
+                                                // 7. 创建重复组
+                                                return createDuplicateGroups(hashToAttachments)
+                                                    .then(Mono.defer(() -> {
+                                                        // 8. 计算统计数据并更新状态
+                                                        int groupCount = (int) hashToAttachments.values().stream()
+                                                            .filter(list -> list.size() > 1)
+                                                            .count();
+                                                        int fileCount = hashToAttachments.values().stream()
+                                                            .filter(list -> list.size() > 1)
+                                                            .mapToInt(list -> list.size() - 1)
+                                                            .sum();
+                                                        // 相似组内容并不相同，不计入可节省空间
+                                                        long savableSize = hashToAttachments.entrySet().stream()
+                                                            .filter(entry -> !entry.getKey().startsWith(PERCEPTUAL_KEY_PREFIX)
+                                                                && entry.getValue().size() > 1)
+                                                            .mapToLong(entry -> calculateSavableSize(entry.getValue()))
+                                                            .sum();
+
+                                                        log.debug("扫描统计 - 重复组: {}, 重复文件: {}, 可节省: {} bytes",
+                                                            groupCount, fileCount, savableSize);
+                                                        return updateScanCompleted(scanTotal.get(), groupCount, fileCount, savableSize,
+                                                            groupAlgorithm);
+                                                    }));
                                             }));
                                     }));
-                            }));
+                            });
                     });
             })
             .doOnSuccess(s -> {
+                if (cancelRequested.get()) {
+                    // 取消时旧数据已恢复，不能删除
+                    return;
+                }
                 log.debug("扫描流程完成，开始清理旧数据");
                 // 异步删除旧数据
                 asyncDeletePendingRecords();
@@ -226,29 +380,397 @@ public class DuplicateServiceImpl implements DuplicateService {
     }
 
     /**
-     * 处理单个附件：计算 MD5 并添加到映射
+     * 相似图片检测
+     * 对图片附件计算感知哈希（dHash），以代表图片为中心聚类为相似组；
+     * 内容完全相同的图片由内容哈希流程另行归入 EXACT 组，无法解码的图片不参与相似检测
+     *
+     * @param images      图片附件（未开启相似图片检测时为空）
+     * @param progress    完成后计入进度的数量（同时是内容哈希候选的图片由内容哈希流程计入）
+     * @param maxDistance 最大汉明距离
      */
-    private Mono<Void> processAttachment(Attachment attachment,
+    private Mono<Void> groupSimilarImages(List<Attachment> images,
+                                          int progress,
                                           Map<String, List<AttachmentInfo>> hashToAttachments,
-                                          int md5TimeoutSeconds) {
+                                          int maxDistance,
+                                          int concurrency,
+                                          HashContext context) {
+        if (images.isEmpty()) {
+            return Mono.empty();
+        }
+        log.debug("相似图片检测: {} 张图片待计算感知哈希，阈值 {}", images.size(), maxDistance);
+
+        return Flux.fromIterable(images)
+            .takeWhile(attachment -> !cancelRequested.get())
+            .flatMap(attachment -> resolvePerceptualHash(attachment, context), concurrency)
+            .then(Mono.fromRunnable(() -> {
+                List<Attachment> hashed = new ArrayList<>();
+                List<Long> fingerprints = new ArrayList<>();
+                for (Attachment attachment : images) {
+                    HashState state = context.hashStates().get(attachment.getMetadata().getName());
+                    if (state != null && state.perceptualHash != null) {
+                        hashed.add(attachment);
+                        fingerprints.add(state.perceptualHash);
+                    }
+                }
+                int groupCount = clusterByFingerprint(hashed, fingerprints, maxDistance, hashToAttachments);
+                scanProgress.addAndGet(progress);
+                log.debug("相似图片检测完成: {} 张图片，{} 组相似，{} 张图片无法计算感知哈希",
+                    hashed.size(), groupCount, images.size() - hashed.size());
+            }));
+    }
+
+    /**
+     * 获取图片的感知哈希（优先使用哈希索引），无法解码时为空
+     */
+    private Mono<Long> resolvePerceptualHash(Attachment attachment, HashContext context) {
+        HashState state = getHashState(attachment, context);
+        if (state.perceptualHash != null) {
+            context.cacheHits().incrementAndGet();
+            return Mono.just(state.perceptualHash);
+        }
+        int timeoutSeconds = context.timeoutSeconds();
+        Mono<Long> hashMono = state.localPath != null
+            ? perceptualHasher.hash(state.localPath)
+            : perceptualHasher.hash(getPermalink(attachment), timeoutSeconds);
+        return hashMono
+            .timeout(java.time.Duration.ofSeconds(timeoutSeconds))
+            .doOnNext(fingerprint -> {
+                state.perceptualHash = fingerprint;
+                markDirty(state, context);
+            })
+            .delayUntil(fingerprint -> checkpointIfNeeded(context))
+            .doOnError(e -> log.warn("计算图片 {} 感知哈希失败: {}",
+                attachment.getSpec().getDisplayName(), e.getMessage()))
+            .onErrorResume(e -> Mono.empty());
+    }
+
+    /**
+     * 按感知哈希聚类（以代表图片为中心，不做传递合并）
+     * 依次处理每张图片：在代表图片的 BK 树中查找阈值内距离最近的代表，找到则加入该代表的组，
+     * 否则自身成为新的代表。组内每张图片与代表的距离都不超过阈值，
+     * 避免 A~B、B~C 把相距更远的 A 和 C 串成一个大组
+     *
+     * @return 相似组数量
+     */
+    private int clusterByFingerprint(List<Attachment> images,
+                                     List<Long> fingerprints,
+                                     int maxDistance,
+                                     Map<String, List<AttachmentInfo>> hashToAttachments) {
+        HammingBkTree<Integer> representatives = new HammingBkTree<>();
+        Map<Integer, List<AttachmentInfo>> clusters = new LinkedHashMap<>();
+        for (int i = 0; i < images.size(); i++) {
+            long fingerprint = fingerprints.get(i);
+            int[] nearest = {-1, Integer.MAX_VALUE};
+            representatives.search(fingerprint, maxDistance, representative -> {
+                int distance = HammingBkTree.distance(fingerprint, fingerprints.get(representative));
+                if (distance < nearest[1] || (distance == nearest[1] && representative < nearest[0])) {
+                    nearest[0] = representative;
+                    nearest[1] = distance;
+                }
+            });
+            int representative = nearest[0];
+            if (representative < 0) {
+                representative = i;
+                representatives.add(fingerprint, i);
+            }
+            Attachment attachment = images.get(i);
+            clusters.computeIfAbsent(representative, k -> Collections.synchronizedList(new ArrayList<>()))
+                .add(new AttachmentInfo(attachment.getMetadata().getName(), attachment.getSpec().getDisplayName(),
+                    attachment.getSpec().getSize(), attachment.getMetadata().getCreationTimestamp(), 0));
+        }
+
+        int groupCount = 0;
+        for (Map.Entry<Integer, List<AttachmentInfo>> cluster : clusters.entrySet()) {
+            if (cluster.getValue().size() > 1) {
+                String key = PERCEPTUAL_KEY_PREFIX + PerceptualHasher.toHex(fingerprints.get(cluster.getKey()));
+                hashToAttachments.put(key, cluster.getValue());
+                groupCount++;
+            }
+        }
+        return groupCount;
+    }
+
+    /**
+     * 移除与内容重复组完全重合的相似组
+     * 相似组的全部图片都在同一个 EXACT 组中时，相似组没有额外信息
+     */
+    private void removeRedundantPerceptualGroups(Map<String, List<AttachmentInfo>> hashToAttachments) {
+        Map<String, String> exactKeyByName = new HashMap<>();
+        hashToAttachments.forEach((key, members) -> {
+            if (!key.startsWith(PERCEPTUAL_KEY_PREFIX)) {
+                members.forEach(info -> exactKeyByName.put(info.name(), key));
+            }
+        });
+        hashToAttachments.entrySet().removeIf(entry -> {
+            if (!entry.getKey().startsWith(PERCEPTUAL_KEY_PREFIX)) {
+                return false;
+            }
+            Set<String> exactKeys = new HashSet<>();
+            for (AttachmentInfo info : entry.getValue()) {
+                String exactKey = exactKeyByName.get(info.name());
+                if (exactKey == null) {
+                    return false;
+                }
+                exactKeys.add(exactKey);
+            }
+            return exactKeys.size() == 1;
+        });
+    }
+
+    /**
+     * 预筛选并计算附件哈希
+     * 1. 按 spec.size 分桶，大小唯一的附件不可能与其他附件完全相同，直接跳过；
+     * 2. 较大的文件先计算首尾片段哈希（HTTP Range 或本地文件读取），片段哈希唯一的附件同样跳过；
+     * 3. 只对仍可能重复的附件计算完整哈希（算法可配置），非加密哈希可再以 SHA-256 复核；
+     * 4. 新计算的哈希写回哈希索引
+     * 本地存储策略的附件直接读取磁盘文件，无法解析路径时回退到 HTTP
+     */
+    private Mono<Void> hashCandidates(List<Attachment> attachments,
+                                      Map<String, List<AttachmentInfo>> hashToAttachments,
+                                      int concurrency,
+                                      HashContext context) {
+        Map<String, AttachmentHash> hashIndex = context.hashIndex();
+        Map<String, HashState> hashStates = context.hashStates();
+        Map<Long, List<Attachment>> sizeBuckets = new HashMap<>();
+        List<Attachment> fullHashCandidates = new ArrayList<>();
+        List<Attachment> partialHashCandidates = new ArrayList<>();
+        int skipped = 0;
+
+        for (Attachment attachment : attachments) {
+            if (getPermalink(attachment) == null) {
+                log.warn("附件 {} 没有 permalink，跳过", attachment.getMetadata().getName());
+                skipped++;
+                continue;
+            }
+            Long size = attachment.getSpec().getSize();
+            if (size == null) {
+                // 大小未知，无法预筛选
+                fullHashCandidates.add(attachment);
+                continue;
+            }
+            sizeBuckets.computeIfAbsent(size, k -> new ArrayList<>()).add(attachment);
+        }
+
+        int sizeUnique = 0;
+        for (Map.Entry<Long, List<Attachment>> bucket : sizeBuckets.entrySet()) {
+            List<Attachment> members = bucket.getValue();
+            if (members.size() < 2) {
+                sizeUnique++;
+                continue;
+            }
+            boolean allCached = members.stream()
+                .allMatch(attachment -> attachmentHashService.getCachedHashes(hashIndex, attachment)
+                    .containsKey(context.algorithm()));
+            if (allCached || !AttachmentContentHasher.supportsPartialHash(bucket.getKey())) {
+                fullHashCandidates.addAll(members);
+            } else {
+                partialHashCandidates.addAll(members);
+            }
+        }
+        scanProgress.addAndGet(skipped + sizeUnique);
+        log.debug("大小预筛选: {} 个附件大小唯一已跳过，{} 个待计算片段哈希，{} 个待计算完整哈希",
+            sizeUnique, partialHashCandidates.size(), fullHashCandidates.size());
+
+        return Flux.fromIterable(partialHashCandidates)
+            .takeWhile(attachment -> !cancelRequested.get())
+            .flatMap(attachment -> resolvePartialHash(attachment, context), concurrency)
+            .then(Mono.fromCallable(() -> {
+                // 按（大小, 片段哈希）分组，片段哈希唯一的附件不可能重复
+                Map<String, List<Attachment>> partialGroups = new HashMap<>();
+                for (Attachment attachment : partialHashCandidates) {
+                    HashState state = hashStates.get(attachment.getMetadata().getName());
+                    if (state == null || state.partialHash == null) {
+                        // 片段哈希计算失败，保守起见计算完整哈希
+                        fullHashCandidates.add(attachment);
+                        continue;
+                    }
+                    partialGroups.computeIfAbsent(attachment.getSpec().getSize() + ":" + state.partialHash,
+                        k -> new ArrayList<>()).add(attachment);
+                }
+                int partialUnique = 0;
+                for (List<Attachment> group : partialGroups.values()) {
+                    if (group.size() < 2) {
+                        partialUnique++;
+                    } else {
+                        fullHashCandidates.addAll(group);
+                    }
+                }
+                scanProgress.addAndGet(partialUnique);
+                log.debug("片段哈希预筛选: {} 个附件已跳过，{} 个待计算完整哈希",
+                    partialUnique, fullHashCandidates.size());
+                return fullHashCandidates;
+            }))
+            .flatMapMany(Flux::fromIterable)
+            .takeWhile(attachment -> !cancelRequested.get())
+            .flatMap(attachment -> resolveFullHash(attachment, hashToAttachments, context), concurrency)
+            .then(Mono.defer(() -> confirmDuplicates(hashToAttachments, concurrency, context)))
+            // 写回剩余的检查点（取消时同样执行，已计算的哈希不会丢失）
+            .then(Mono.defer(() -> flushCheckpoint(context)));
+    }
+
+    /**
+     * 标记哈希状态有新结果，加入检查点队列
+     */
+    private void markDirty(HashState state, HashContext context) {
+        if (state.dirty.compareAndSet(false, true)) {
+            context.checkpoint().queue.add(state);
+        }
+    }
+
+    /**
+     * 累计足够多的新哈希或距上次检查点超过间隔时写回哈希索引
+     * 同一时间只有一个写回在执行，其余调用直接跳过
+     */
+    private Mono<Void> checkpointIfNeeded(HashContext context) {
+        ScanCheckpoint checkpoint = context.checkpoint();
+        int pending = checkpoint.queue.size();
+        boolean due = pending >= CHECKPOINT_BATCH_SIZE
+            || (pending > 0 && System.currentTimeMillis() - checkpoint.lastFlushAt.get() >= CHECKPOINT_INTERVAL_MILLIS);
+        if (!due || !checkpoint.flushing.compareAndSet(false, true)) {
+            return Mono.empty();
+        }
+        return flushCheckpoint(context)
+            .doFinally(signal -> checkpoint.flushing.set(false));
+    }
+
+    /**
+     * 写回检查点：保存队列中的哈希状态，并持久化扫描进度
+     * 服务重启或取消后重新扫描时，已写回的哈希直接命中索引，从而从检查点继续
+     */
+    private Mono<Void> flushCheckpoint(HashContext context) {
+        ScanCheckpoint checkpoint = context.checkpoint();
+        List<HashState> batch = new ArrayList<>();
+        HashState polled;
+        while ((polled = checkpoint.queue.poll()) != null) {
+            batch.add(polled);
+        }
+        checkpoint.lastFlushAt.set(System.currentTimeMillis());
+        if (batch.isEmpty()) {
+            return Mono.empty();
+        }
+        Map<String, AttachmentHash> hashIndex = context.hashIndex();
+        return Flux.fromIterable(batch)
+            .flatMap(state -> {
+                // 先清除标记再取快照，保存期间产生的新结果会重新入队
+                state.dirty.set(false);
+                String attachmentName = state.attachment.getMetadata().getName();
+                return attachmentHashService.saveHash(hashIndex.get(attachmentName), state.attachment,
+                        new EnumMap<>(state.hashes), state.partialHash,
+                        state.perceptualHash != null ? PerceptualHasher.toHex(state.perceptualHash) : null)
+                    .doOnNext(saved -> hashIndex.put(attachmentName, saved));
+            }, CHECKPOINT_SAVE_CONCURRENCY)
+            .count()
+            .flatMap(saved -> updateScanCheckpoint(checkpoint.saved.addAndGet(saved.intValue())));
+    }
+
+    /**
+     * 持久化扫描进度和检查点数量
+     */
+    private Mono<Void> updateScanCheckpoint(int checkpointCount) {
+        return client.fetch(DuplicateScanStatus.class, DuplicateScanStatus.SINGLETON_NAME)
+            .flatMap(status -> {
+                if (status.getStatus() == null) {
+                    status.setStatus(new DuplicateScanStatus.DuplicateScanStatusStatus());
+                }
+                status.getStatus().setScannedCount(scanProgress.get());
+                status.getStatus().setTotalCount(scanTotal.get());
+                status.getStatus().setCheckpointCount(checkpointCount);
+                status.getStatus().setLastCheckpointTime(Instant.now());
+                return client.update(status);
+            })
+            .retryWhen(RetryUtils.optimisticLockRetry())
+            .doOnSuccess(v -> log.debug("已写入哈希检查点，累计 {} 条，进度 {}/{}",
+                checkpointCount, scanProgress.get(), scanTotal.get()))
+            .onErrorResume(e -> {
+                log.warn("更新扫描检查点失败: {}", e.getMessage());
+                return Mono.empty();
+            })
+            .then();
+    }
+
+    /**
+     * 非加密哈希的 SHA-256 复核
+     * 对首轮哈希相同的附件再计算 SHA-256 并重新分组，排除 CRC32C 碰撞造成的误判
+     */
+    private Mono<Void> confirmDuplicates(Map<String, List<AttachmentInfo>> hashToAttachments,
+                                         int concurrency,
+                                         HashContext context) {
+        if (!context.confirm()) {
+            return Mono.empty();
+        }
+        List<AttachmentInfo> candidates = hashToAttachments.entrySet().stream()
+            .filter(entry -> !entry.getKey().startsWith(PERCEPTUAL_KEY_PREFIX) && entry.getValue().size() > 1)
+            .flatMap(entry -> entry.getValue().stream())
+            .toList();
+        Map<String, List<AttachmentInfo>> confirmed = new ConcurrentHashMap<>();
+        return Flux.fromIterable(candidates)
+            .takeWhile(info -> !cancelRequested.get())
+            .flatMap(info -> {
+                HashState state = context.hashStates().get(info.name());
+                return resolveHash(state, HashAlgorithm.SHA_256, context)
+                    .doOnNext(sha256 -> confirmed.computeIfAbsent(sha256,
+                        k -> Collections.synchronizedList(new ArrayList<>())).add(info))
+                    .doOnError(e -> log.warn("复核附件 {} SHA-256 失败: {}", info.displayName(), e.getMessage()))
+                    .onErrorResume(e -> Mono.empty());
+            }, concurrency)
+            .then(Mono.fromRunnable(() -> {
+                log.debug("SHA-256 复核完成: {} 个疑似重复附件，确认 {} 组",
+                    candidates.size(), confirmed.values().stream().filter(list -> list.size() > 1).count());
+                // 相似图片组不参与复核，保留原样
+                hashToAttachments.keySet().removeIf(key -> !key.startsWith(PERCEPTUAL_KEY_PREFIX));
+                hashToAttachments.putAll(confirmed);
+            }));
+    }
+
+    /**
+     * 获取附件的首尾片段哈希（优先使用哈希索引）
+     */
+    private Mono<Void> resolvePartialHash(Attachment attachment, HashContext context) {
+        HashState state = getHashState(attachment, context);
+        if (state.partialHash != null) {
+            return Mono.empty();
+        }
+        int timeoutSeconds = context.timeoutSeconds();
+        Mono<AttachmentContentHasher.PartialHash> partialMono = state.localPath != null
+            ? hasher.partialHash(state.localPath)
+            : hasher.partialHash(getPermalink(attachment), attachment.getSpec().getSize(), timeoutSeconds,
+                context.algorithm());
+        return partialMono
+            .timeout(java.time.Duration.ofSeconds(timeoutSeconds))
+            .doOnNext(result -> {
+                state.partialHash = result.partialHash();
+                if (result.fullHash() != null) {
+                    state.hashes.put(context.algorithm(), result.fullHash());
+                }
+                markDirty(state, context);
+            })
+            .delayUntil(result -> checkpointIfNeeded(context))
+            .doOnError(e -> log.warn("计算附件 {} 片段哈希失败: {}",
+                attachment.getSpec().getDisplayName(), e.getMessage()))
+            .onErrorResume(e -> Mono.empty())
+            .then();
+    }
+
+    /**
+     * 获取附件的完整哈希（优先使用哈希索引）并添加到映射
+     */
+    private Mono<Void> resolveFullHash(Attachment attachment,
+                                       Map<String, List<AttachmentInfo>> hashToAttachments,
+                                       HashContext context) {
         String attachmentName = attachment.getMetadata().getName();
         String displayName = attachment.getSpec().getDisplayName();
         Long fileSize = attachment.getSpec().getSize();
         Instant uploadTime = attachment.getMetadata().getCreationTimestamp();
 
-        // 获取文件路径
-        String permalink = attachment.getStatus() != null ? attachment.getStatus().getPermalink() : null;
-        if (permalink == null) {
-            log.warn("附件 {} 没有 permalink，跳过", attachmentName);
-            scanProgress.incrementAndGet();
-            return Mono.empty();
+        HashState state = getHashState(attachment, context);
+        if (state.fullHashCached) {
+            context.cacheHits().incrementAndGet();
         }
 
-        return calculateMd5(permalink, md5TimeoutSeconds)
-            .timeout(java.time.Duration.ofSeconds(md5TimeoutSeconds))
-            .doOnNext(md5 -> {
+        return resolveHash(state, context.algorithm(), context)
+            .doOnNext(hash -> {
                 AttachmentInfo info = new AttachmentInfo(attachmentName, displayName, fileSize, uploadTime, 0);
-                hashToAttachments.computeIfAbsent(md5, k -> Collections.synchronizedList(new ArrayList<>())).add(info);
+                hashToAttachments.computeIfAbsent(hash, k -> Collections.synchronizedList(new ArrayList<>())).add(info);
             })
             .doFinally(signal -> {
                 // 无论成功失败都更新进度
@@ -257,55 +779,153 @@ public class DuplicateServiceImpl implements DuplicateService {
                     log.debug("已处理 {}/{} 个附件...", count, scanTotal.get());
                 }
             })
-            .doOnError(e -> log.warn("计算附件 {} MD5 失败: {}", displayName, e.getMessage()))
+            .doOnError(e -> log.warn("计算附件 {} 哈希失败: {}", displayName, e.getMessage()))
             .onErrorResume(e -> Mono.empty())
             .then();
     }
 
     /**
-     * 流式计算文件 MD5（通过 HTTP 获取文件内容）
+     * 获取附件指定算法的完整哈希，已有结果（索引缓存或本次已计算）时直接返回
      */
-    private Mono<String> calculateMd5(String permalink, int timeoutSeconds) {
-        return Mono.fromCallable(() -> {
-            // 使用 ExternalLinkProcessor 将相对路径转为完整 URL
-            String fullUrl = externalLinkProcessor.processLink(permalink);
+    private Mono<String> resolveHash(HashState state, HashAlgorithm algorithm, HashContext context) {
+        String known = state.hashes.get(algorithm);
+        if (known != null) {
+            return Mono.just(known);
+        }
+        int timeoutSeconds = context.timeoutSeconds();
+        Mono<String> hashMono = state.localPath != null
+            ? hasher.fullHash(state.localPath, algorithm)
+            : hasher.fullHash(getPermalink(state.attachment), timeoutSeconds, algorithm);
+        return hashMono
+            .timeout(java.time.Duration.ofSeconds(timeoutSeconds))
+            .doOnNext(hash -> {
+                state.hashes.put(algorithm, hash);
+                markDirty(state, context);
+            })
+            .delayUntil(hash -> checkpointIfNeeded(context));
+    }
 
-            HttpURLConnection conn = null;
-            try {
-                URL url = new URL(fullUrl);
-                conn = (HttpURLConnection) url.openConnection();
-                // 使用配置的超时时间：连接超时取 1/3，最大 30 秒；读取超时使用完整配置
-                conn.setConnectTimeout(com.timxs.storagetoolkit.service.support.TimeoutUtils.connectTimeoutMillis(timeoutSeconds));
-                conn.setReadTimeout(com.timxs.storagetoolkit.service.support.TimeoutUtils.readTimeoutMillis(timeoutSeconds));
-                conn.setRequestMethod("GET");
+    /**
+     * 获取附件本次扫描的哈希状态，首次访问时从哈希索引初始化
+     */
+    private HashState getHashState(Attachment attachment, HashContext context) {
+        return context.hashStates().computeIfAbsent(attachment.getMetadata().getName(), name -> {
+            HashState state = new HashState(attachment);
+            state.hashes.putAll(attachmentHashService.getCachedHashes(context.hashIndex(), attachment));
+            state.fullHashCached = state.hashes.containsKey(context.algorithm());
+            state.partialHash = attachmentHashService.getCachedPartialHash(context.hashIndex(), attachment);
+            state.perceptualHash = PerceptualHasher.fromHex(
+                attachmentHashService.getCachedPerceptualHash(context.hashIndex(), attachment));
+            if (Boolean.TRUE.equals(context.policyIsLocal().get(attachment.getSpec().getPolicyName()))) {
+                state.localPath = localAttachmentResolver.resolve(attachment);
+            }
+            return state;
+        });
+    }
 
-                int responseCode = conn.getResponseCode();
-                if (responseCode != 200) {
-                    throw new RuntimeException("HTTP " + responseCode);
-                }
+    /**
+     * 单次扫描的哈希计算上下文
+     *
+     * @param timeoutSeconds 单个附件哈希超时时间（秒）
+     * @param algorithm      完整哈希算法
+     * @param confirm        是否以 SHA-256 复核首轮哈希相同的附件
+     * @param hashIndex      已加载的哈希索引
+     * @param policyIsLocal  存储策略名称 -> 是否本地存储
+     * @param hashStates     附件名称 -> 哈希状态
+     * @param cacheHits      命中哈希索引的附件数
+     * @param checkpoint     检查点状态
+     */
+    private record HashContext(int timeoutSeconds,
+                               HashAlgorithm algorithm,
+                               boolean confirm,
+                               Map<String, AttachmentHash> hashIndex,
+                               Map<String, Boolean> policyIsLocal,
+                               Map<String, HashState> hashStates,
+                               AtomicInteger cacheHits,
+                               ScanCheckpoint checkpoint) {
+    }
 
-                MessageDigest md5Digest = MessageDigest.getInstance("MD5");
-                byte[] buffer = new byte[8192]; // 8KB buffer
+    /**
+     * 单次扫描的检查点状态
+     */
+    private static class ScanCheckpoint {
+        /**
+         * 有新结果、等待写回的哈希状态
+         */
+        private final Queue<HashState> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean flushing = new AtomicBoolean(false);
+        private final AtomicLong lastFlushAt = new AtomicLong(System.currentTimeMillis());
+        /**
+         * 本次扫描已写回的记录数
+         */
+        private final AtomicInteger saved = new AtomicInteger(0);
+    }
 
-                try (InputStream is = conn.getInputStream();
-                     DigestInputStream dis = new DigestInputStream(is, md5Digest)) {
-                    while (dis.read(buffer) != -1) {
-                        // 流式读取，自动更新 digest
-                    }
-                }
+    private String getPermalink(Attachment attachment) {
+        return attachment.getStatus() != null ? attachment.getStatus().getPermalink() : null;
+    }
 
-                byte[] digest = md5Digest.digest();
-                StringBuilder sb = new StringBuilder();
-                for (byte b : digest) {
-                    sb.append(String.format("%02x", b));
-                }
-                return sb.toString();
-            } finally {
-                if (conn != null) {
-                    conn.disconnect();
-                }
-            }
-        }).subscribeOn(reactor.core.scheduler.Schedulers.boundedElastic());
+    /**
+     * 是否为可计算感知哈希的图片附件
+     */
+    private boolean isImage(Attachment attachment) {
+        String mediaType = attachment.getSpec().getMediaType();
+        return mediaType != null && mediaType.startsWith("image/") && getPermalink(attachment) != null;
+    }
+
+    /**
+     * 分页读取全部未删除的附件
+     * 按页拉取并逐条下发，不会一次性把全部附件加载到内存
+     */
+    private Flux<Attachment> listAttachmentsPaged() {
+        return fetchAttachmentPage(1)
+            .expand(result -> result.hasNext() ? fetchAttachmentPage(result.getPage() + 1) : Mono.empty())
+            .concatMap(result -> Flux.fromIterable(result.getItems()))
+            .filter(attachment -> attachment.getMetadata().getDeletionTimestamp() == null);
+    }
+
+    private Mono<ListResult<Attachment>> fetchAttachmentPage(int page) {
+        return client.listBy(Attachment.class, ListOptions.builder().build(),
+            PageRequestImpl.of(page, ATTACHMENT_PAGE_SIZE, Sort.by("metadata.name")));
+    }
+
+    /**
+     * 分页读取后保留的候选附件
+     *
+     * @param images     待计算感知哈希的图片（仅相似图片检测开启时）
+     * @param candidates 可能内容重复的附件
+     * @param overlap    同时属于两者的图片数量
+     */
+    private record ScanCandidates(List<Attachment> images, List<Attachment> candidates, int overlap) {
+    }
+
+    /**
+     * 单个附件在本次扫描中的哈希状态
+     */
+    private static class HashState {
+        private final Attachment attachment;
+        private volatile String partialHash;
+        /**
+         * 当前有效的完整哈希（算法 -> 哈希值），含索引缓存和本次新计算的结果
+         */
+        private final Map<HashAlgorithm, String> hashes = new ConcurrentHashMap<>();
+        private volatile boolean fullHashCached;
+        /**
+         * 图片感知哈希（未计算或无法解码时为 null）
+         */
+        private volatile Long perceptualHash;
+        /**
+         * 本地存储附件的磁盘路径（非本地或无法解析时为 null）
+         */
+        private volatile Path localPath;
+        /**
+         * 是否有新计算的哈希等待写回索引
+         */
+        private final AtomicBoolean dirty = new AtomicBoolean(false);
+
+        HashState(Attachment attachment) {
+            this.attachment = attachment;
+        }
     }
 
     /**
@@ -336,6 +956,20 @@ public class DuplicateServiceImpl implements DuplicateService {
             .doOnSuccess(v -> log.debug("已标记所有旧 DuplicateGroup 为待删除"));
     }
 
+    /**
+     * 恢复被标记为待删除的旧记录（扫描取消时上次的结果继续有效）
+     */
+    private Mono<Void> restorePendingRecords() {
+        return client.listAll(DuplicateGroup.class, ListOptions.builder().build(), Sort.unsorted())
+            .filter(group -> group.getStatus() != null && Boolean.TRUE.equals(group.getStatus().getPendingDelete()))
+            .flatMap(group -> {
+                group.getStatus().setPendingDelete(false);
+                return client.update(group);
+            })
+            .then()
+            .doOnSuccess(v -> log.debug("已恢复旧 DuplicateGroup"));
+    }
+
     /**
      * 异步删除待删除的记录
      */
@@ -368,8 +1002,11 @@ public class DuplicateServiceImpl implements DuplicateService {
 
         log.debug("查询 {} 个附件的引用次数...", attachmentNames.size());
 
-        // 批量获取引用次数
-        return client.listAll(AttachmentReference.class, ListOptions.builder().build(), Sort.unsorted())
+        // 通过 spec.attachmentName 索引分批查询，只读取重复组内附件的引用记录
+        return Flux.fromIterable(attachmentNames)
+            .buffer(REFERENCE_QUERY_BATCH_SIZE)
+            .concatMap(batch -> client.listAll(AttachmentReference.class,
+                ListOptions.builder().fieldQuery(in("spec.attachmentName", batch)).build(), Sort.unsorted()))
             .filter(ref -> ref.getSpec() != null
                 && ref.getSpec().getAttachmentName() != null
                 && attachmentNames.contains(ref.getSpec().getAttachmentName())
@@ -414,23 +1051,33 @@ public class DuplicateServiceImpl implements DuplicateService {
             .flatMap(entry -> {
                 String md5Hash = entry.getKey();
                 List<AttachmentInfo> attachments = entry.getValue();
+                boolean perceptual = md5Hash.startsWith(PERCEPTUAL_KEY_PREFIX);
+                String recommendedKeep = selectRecommendedKeep(attachments);
 
                 DuplicateGroup group = new DuplicateGroup();
                 group.setMetadata(new Metadata());
-                group.getMetadata().setName("dup-" + md5Hash.substring(0, 8) + "-" + timestamp);
+                // 相似组指纹前缀相近的概率较高，使用完整指纹命名
+                String namePart = perceptual ? md5Hash : md5Hash.substring(0, 8);
+                group.getMetadata().setName("dup-" + namePart + "-" + timestamp);
 
                 DuplicateGroup.DuplicateGroupSpec spec = new DuplicateGroup.DuplicateGroupSpec();
                 spec.setMd5Hash(md5Hash);
+                spec.setMatchType((perceptual ? DuplicateMatchType.PERCEPTUAL : DuplicateMatchType.EXACT).name());
                 group.setSpec(spec);
 
                 DuplicateGroup.DuplicateGroupStatus status = new DuplicateGroup.DuplicateGroupStatus();
-                status.setFileSize(attachments.get(0).size);
+                status.setFileSize(attachments.stream()
+                    .filter(info -> info.name().equals(recommendedKeep))
+                    .mapToLong(this::sizeOf)
+                    .findFirst()
+                    .orElse(0));
                 status.setFileCount(attachments.size());
-                status.setSavableSize(attachments.get(0).size * (attachments.size() - 1));
+                // 相似组内容并不相同，删除前需用户逐张确认，不计入可节省空间
+                status.setSavableSize(perceptual ? 0 : calculateSavableSize(attachments));
                 status.setAttachmentNames(attachments.stream()
                     .map(AttachmentInfo::name)
                     .collect(Collectors.toList()));
-                status.setRecommendedKeep(selectRecommendedKeep(attachments));
+                status.setRecommendedKeep(recommendedKeep);
                 status.setPendingDelete(false);
                 group.setStatus(status);
 
@@ -439,6 +1086,28 @@ public class DuplicateServiceImpl implements DuplicateService {
             .then();
     }
 
+    /**
+     * 计算重复组可节省空间：组内文件总大小减去推荐保留文件的大小
+     * 内容完全相同的组等价于 fileSize × (fileCount - 1)
+     */
+    private long calculateSavableSize(List<AttachmentInfo> attachments) {
+        String recommendedKeep = selectRecommendedKeep(attachments);
+        long total = 0;
+        long keepSize = 0;
+        for (AttachmentInfo info : attachments) {
+            long size = sizeOf(info);
+            total += size;
+            if (info.name().equals(recommendedKeep)) {
+                keepSize = size;
+            }
+        }
+        return total - keepSize;
+    }
+
+    private long sizeOf(AttachmentInfo info) {
+        return info.size() != null ? info.size() : 0;
+    }
+
     /**
      * 选择推荐保留的文件（引用次数最多，相同则选最晚上传的）
      */
@@ -457,7 +1126,8 @@ public class DuplicateServiceImpl implements DuplicateService {
     private Mono<DuplicateScanStatus> updateScanCompleted(int totalCount,
                                                            int groupCount,
                                                            int fileCount,
-                                                           long savableSize) {
+                                                           long savableSize,
+                                                           HashAlgorithm hashAlgorithm) {
         log.info("扫描完成 - 总附件: {}, 重复组: {}, 重复文件: {}, 可节省: {} bytes",
             totalCount, groupCount, fileCount, savableSize);
 
@@ -472,9 +1142,29 @@ public class DuplicateServiceImpl implements DuplicateService {
                 status.getStatus().setDuplicateGroupCount(groupCount);
                 status.getStatus().setDuplicateFileCount(fileCount);
                 status.getStatus().setSavableSize(savableSize);
+                status.getStatus().setHashAlgorithm(hashAlgorithm.name());
                 status.getStatus().setErrorMessage(null);
                 return client.update(status);
-            });
+            })
+            .retryWhen(RetryUtils.optimisticLockRetry());
+    }
+
+    /**
+     * 更新扫描取消状态，保留已处理进度
+     */
+    private Mono<DuplicateScanStatus> updateScanCancelled() {
+        return client.fetch(DuplicateScanStatus.class, DuplicateScanStatus.SINGLETON_NAME)
+            .flatMap(status -> {
+                if (status.getStatus() == null) {
+                    status.setStatus(new DuplicateScanStatus.DuplicateScanStatusStatus());
+                }
+                status.getStatus().setPhase(DuplicateScanStatus.Phase.CANCELLED);
+                status.getStatus().setScannedCount(scanProgress.get());
+                status.getStatus().setTotalCount(scanTotal.get());
+                status.getStatus().setErrorMessage(null);
+                return client.update(status);
+            })
+            .retryWhen(RetryUtils.optimisticLockRetry());
     }
 
     /**
@@ -489,7 +1179,8 @@ public class DuplicateServiceImpl implements DuplicateService {
                 status.getStatus().setPhase(DuplicateScanStatus.Phase.ERROR);
                 status.getStatus().setErrorMessage(errorMessage);
                 return client.update(status);
-            });
+            })
+            .retryWhen(RetryUtils.optimisticLockRetry());
     }
 
     @Override
@@ -503,9 +1194,8 @@ public class DuplicateServiceImpl implements DuplicateService {
                 return client.create(status);
             }))
             .map(status -> {
-                // 只在 SCANNING 阶段注入内存进度，其他阶段使用数据库持久化值
-                if (status.getStatus() != null
-                    && DuplicateScanStatus.Phase.SCANNING.equals(status.getStatus().getPhase())) {
+                // 只在扫描（含取消中）阶段注入内存进度，其他阶段使用数据库持久化值
+                if (status.getStatus() != null && isRunning(status.getStatus().getPhase())) {
                     status.getStatus().setScannedCount(scanProgress.get());
                     status.getStatus().setTotalCount(scanTotal.get());
                 }
@@ -514,50 +1204,43 @@ public class DuplicateServiceImpl implements DuplicateService {
     }
 
     @Override
-    public Mono<ListResult<DuplicateGroupVo>> listDuplicateGroups(int page, int size) {
-        return client.listAll(DuplicateGroup.class, ListOptions.builder().build(), Sort.unsorted())
-            .filter(group -> group.getStatus() == null ||
-                             group.getStatus().getPendingDelete() == null ||
-                             !group.getStatus().getPendingDelete())
-            .collectList()
-            .flatMap(groups -> {
-                // 按 savableSize 降序排序
-                groups.sort((a, b) -> {
-                    long sizeA = a.getStatus() != null ? a.getStatus().getSavableSize() : 0;
-                    long sizeB = b.getStatus() != null ? b.getStatus().getSavableSize() : 0;
-                    return Long.compare(sizeB, sizeA);
-                });
-
-                int total = groups.size();
-                int start = (page - 1) * size;
-                int end = Math.min(start + size, total);
-
-                List<DuplicateGroup> pageItems = start < total
-                    ? groups.subList(start, end)
-                    : Collections.emptyList();
-
-                // 批量获取附件信息
+    public Mono<ListResult<DuplicateGroupVo>> listDuplicateGroups(int page, int size, String sort) {
+        // 排除待删除的重复组，排序和分页通过索引在服务端完成
+        var listOptions = ListOptions.builder()
+            .andQuery(equal("status.pendingDelete", "false"))
+            .build();
+        var pageRequest = PageRequestImpl.of(page, size, resolveDuplicateGroupSort(sort));
+        return client.listBy(DuplicateGroup.class, listOptions, pageRequest)
+            .flatMap(result -> {
+                List<DuplicateGroup> pageItems = result.getItems();
+                long total = result.getTotal();
+
+                // 收集当前页的附件名
                 Set<String> allAttachmentNames = pageItems.stream()
                     .filter(g -> g.getStatus() != null && g.getStatus().getAttachmentNames() != null)
                     .flatMap(g -> g.getStatus().getAttachmentNames().stream())
                     .collect(Collectors.toSet());
 
-                // 批量获取附件和引用信息
-                Mono<Map<String, Attachment>> attachmentsMono = client.listAll(Attachment.class, ListOptions.builder().build(), Sort.unsorted())
-                    .filter(att -> att.getMetadata().getDeletionTimestamp() == null)
-                    .filter(att -> allAttachmentNames.contains(att.getMetadata().getName()))
-                    .collectMap(att -> att.getMetadata().getName(), att -> att);
+                // 只查询当前页涉及的附件和引用信息
+                Mono<Map<String, Attachment>> attachmentsMono = allAttachmentNames.isEmpty()
+                    ? Mono.just(Map.of())
+                    : client.listAll(Attachment.class, ListOptions.builder()
+                            .andQuery(in("metadata.name", allAttachmentNames))
+                            .build(), Sort.unsorted())
+                        .filter(att -> att.getMetadata().getDeletionTimestamp() == null)
+                        .collectMap(att -> att.getMetadata().getName(), att -> att);
 
                 // 通过 spec.attachmentName 关联附件，获取完整引用信息
-                Mono<Map<String, AttachmentReference>> referencesMono = client.listAll(AttachmentReference.class, ListOptions.builder().build(), Sort.unsorted())
-                    .filter(ref -> ref.getSpec() != null
-                        && ref.getSpec().getAttachmentName() != null
-                        && allAttachmentNames.contains(ref.getSpec().getAttachmentName())
-                        && (ref.getStatus() == null || !Boolean.TRUE.equals(ref.getStatus().getPendingDelete())))
-                    .collectMap(
-                        ref -> ref.getSpec().getAttachmentName(),
-                        ref -> ref
-                    );
+                Mono<Map<String, AttachmentReference>> referencesMono = allAttachmentNames.isEmpty()
+                    ? Mono.just(Map.of())
+                    : client.listAll(AttachmentReference.class, ListOptions.builder()
+                            .andQuery(in("spec.attachmentName", allAttachmentNames))
+                            .build(), Sort.unsorted())
+                        .filter(ref -> ref.getStatus() == null || !Boolean.TRUE.equals(ref.getStatus().getPendingDelete()))
+                        .collectMap(
+                            ref -> ref.getSpec().getAttachmentName(),
+                            ref -> ref
+                        );
 
                 // 批量获取分组和存储策略信息
                 Mono<Map<String, String>> groupsMono = client.listAll(run.halo.app.core.extension.attachment.Group.class, ListOptions.builder().build(), Sort.unsorted())
@@ -588,6 +1271,34 @@ public class DuplicateServiceImpl implements DuplicateService {
             });
     }
 
+    /**
+     * 解析重复组排序参数
+     * 同值时按名称排序，保证分页结果稳定
+     *
+     * @param sort 排序参数，格式：field,asc|desc，支持 savableSize（默认）、fileCount 和 createTime
+     * @return 排序规则
+     */
+    private Sort resolveDuplicateGroupSort(String sort) {
+        boolean desc = true;
+        String sortField = "savableSize";
+        if (StringUtils.hasText(sort)) {
+            String[] parts = sort.split(",");
+            sortField = parts[0];
+            if (parts.length > 1) {
+                desc = "desc".equalsIgnoreCase(parts[1]);
+            }
+        }
+
+        String indexName = switch (sortField) {
+            case "fileCount" -> "status.fileCount";
+            // 重复组在扫描时创建，创建时间即扫描时间
+            case "createTime" -> "metadata.creationTimestamp";
+            default -> "status.savableSize";
+        };
+        Sort.Order order = desc ? Sort.Order.desc(indexName) : Sort.Order.asc(indexName);
+        return Sort.by(order, Sort.Order.asc("metadata.name"));
+    }
+
     /**
      * 转换为 VO
      */
@@ -654,6 +1365,8 @@ public class DuplicateServiceImpl implements DuplicateService {
 
         DuplicateGroupVo vo = new DuplicateGroupVo();
         vo.setMd5Hash(group.getSpec().getMd5Hash());
+        vo.setMatchType(group.getSpec().getMatchType() != null
+            ? group.getSpec().getMatchType() : DuplicateMatchType.EXACT.name());
         vo.setFileSize(group.getStatus() != null ? group.getStatus().getFileSize() : 0);
         vo.setFileCount(group.getStatus() != null ? group.getStatus().getFileCount() : 0);
         vo.setSavableSize(group.getStatus() != null ? group.getStatus().getSavableSize() : 0);
@@ -690,6 +1403,9 @@ public class DuplicateServiceImpl implements DuplicateService {
                             status.getStatus().setDuplicateGroupCount(0);
                             status.getStatus().setDuplicateFileCount(0);
                             status.getStatus().setSavableSize(0);
+                            status.getStatus().setHashAlgorithm(null);
+                            status.getStatus().setCheckpointCount(0);
+                            status.getStatus().setLastCheckpointTime(null);
                             status.getStatus().setErrorMessage(null);
                         }
                         return client.update(status);
@@ -700,7 +1416,8 @@ public class DuplicateServiceImpl implements DuplicateService {
     }
 
     @Override
-    public Mono<CleanupResult> deleteDuplicates(String groupMd5, List<String> attachmentNames, Boolean replaceReferences) {
+    public Mono<CleanupResult> deleteDuplicates(String groupMd5, List<String> attachmentNames, Boolean replaceReferences,
+                                                Boolean confirmSimilar) {
         if (attachmentNames == null || attachmentNames.isEmpty()) {
             return Mono.error(new IllegalArgumentException("附件列表不能为空"));
         }
@@ -710,12 +1427,19 @@ public class DuplicateServiceImpl implements DuplicateService {
 
         log.info("删除重复文件 - groupMd5: {}, 附件数: {}, 替换引用: {}", groupMd5, attachmentNames.size(), shouldReplace);
 
-        // 查找重复组
-        return client.listAll(DuplicateGroup.class, ListOptions.builder().build(), Sort.unsorted())
-            .filter(group -> group.getSpec() != null && groupMd5.equals(group.getSpec().getMd5Hash()))
+        // 通过 spec.md5Hash 索引查找重复组
+        return client.listAll(DuplicateGroup.class, ListOptions.builder()
+                .andQuery(equal("spec.md5Hash", groupMd5))
+                .build(), Sort.unsorted())
             .next()
             .switchIfEmpty(Mono.error(new IllegalArgumentException("重复组不存在: " + groupMd5)))
             .flatMap(group -> {
+                boolean perceptual = DuplicateMatchType.PERCEPTUAL.name().equals(group.getSpec().getMatchType());
+                if (perceptual && !Boolean.TRUE.equals(confirmSimilar)) {
+                    // 相似图片内容并不完全相同，必须由用户逐张核对后显式确认
+                    return Mono.error(new IllegalArgumentException("相似图片组内容并不完全相同，删除前需要确认"));
+                }
+
                 List<String> groupAttachments = group.getStatus() != null 
                     ? group.getStatus().getAttachmentNames() 
                     : Collections.emptyList();
@@ -748,7 +1472,8 @@ public class DuplicateServiceImpl implements DuplicateService {
                             log.warn("更新重复组失败: {}", e.getMessage());
                             return Mono.empty();
                         })))
-                    .then(Mono.defer(() -> updateScanStatusAfterDelete(deletedCount.get(), freedSize.get())
+                    .then(Mono.defer(() -> updateScanStatusAfterDelete(deletedCount.get(),
+                            perceptual ? 0 : freedSize.get())
                         .onErrorResume(e -> {
                             log.warn("更新扫描状态失败: {}", e.getMessage());
                             return Mono.empty();
@@ -823,6 +1548,103 @@ public class DuplicateServiceImpl implements DuplicateService {
             });
     }
 
+    @Override
+    public Mono<Void> recordUploadDuplicate(Map<HashAlgorithm, String> contentHashes,
+                                            Attachment uploaded, Attachment existing) {
+        String uploadedName = uploaded.getMetadata().getName();
+        long uploadedSize = uploaded.getSpec().getSize() != null ? uploaded.getSpec().getSize() : 0;
+
+        return getScanStatus()
+            // 未扫描过没有可归入的重复组；扫描进行中会重建全部重复组，由扫描结果覆盖
+            .filter(status -> status.getStatus() != null && status.getStatus().getLastScanTime() != null
+                && !isRunning(status.getStatus().getPhase()))
+            // 重复组以上次扫描的算法为键，上传时没有该算法的哈希则无法归组
+            .mapNotNull(status -> contentHashes.get(HashAlgorithm.fromString(status.getStatus().getHashAlgorithm())))
+            .flatMap(contentHash -> client.listAll(DuplicateGroup.class, ListOptions.builder()
+                    .andQuery(equal("spec.md5Hash", contentHash))
+                    .andQuery(equal("status.pendingDelete", "false"))
+                    .build(), Sort.unsorted())
+                .next()
+                .flatMap(group -> appendToDuplicateGroup(group.getMetadata().getName(), uploadedName, uploadedSize)
+                    .thenReturn(true))
+                .switchIfEmpty(Mono.defer(() -> createUploadDuplicateGroup(contentHash, uploaded, existing)
+                    .thenReturn(true))))
+            .doOnNext(recorded -> log.debug("上传重复已记录: {} -> {}", uploadedName, existing.getMetadata().getName()))
+            .then();
+    }
+
+    /**
+     * 追加上传的附件到已有重复组（附件已在组内时不做修改）
+     * 每次重试重新读取重复组，避免并发上传或删除时覆盖其他修改
+     */
+    private Mono<Void> appendToDuplicateGroup(String groupName, String uploadedName, long uploadedSize) {
+        return Mono.defer(() -> client.fetch(DuplicateGroup.class, groupName))
+            .filter(group -> group.getStatus() != null)
+            .flatMap(group -> {
+                List<String> names = group.getStatus().getAttachmentNames() != null
+                    ? new ArrayList<>(group.getStatus().getAttachmentNames())
+                    : new ArrayList<>();
+                if (names.contains(uploadedName)) {
+                    return Mono.empty();
+                }
+                names.add(uploadedName);
+                group.getStatus().setAttachmentNames(names);
+                group.getStatus().setFileCount(names.size());
+                group.getStatus().setSavableSize(group.getStatus().getSavableSize() + uploadedSize);
+                return client.update(group);
+            })
+            .retryWhen(RetryUtils.optimisticLockRetry())
+            .flatMap(updated -> updateScanStatusAfterUpload(0, 1, uploadedSize));
+    }
+
+    /**
+     * 为上传的附件和内容相同的已有附件新建重复组，推荐保留已有附件
+     */
+    private Mono<Void> createUploadDuplicateGroup(String contentHash, Attachment uploaded, Attachment existing) {
+        String existingName = existing.getMetadata().getName();
+        long existingSize = existing.getSpec().getSize() != null ? existing.getSpec().getSize() : 0;
+        long uploadedSize = uploaded.getSpec().getSize() != null ? uploaded.getSpec().getSize() : 0;
+
+        DuplicateGroup group = new DuplicateGroup();
+        group.setMetadata(new Metadata());
+        group.getMetadata().setName("dup-" + contentHash.substring(0, 8) + "-" + System.currentTimeMillis());
+
+        DuplicateGroup.DuplicateGroupSpec spec = new DuplicateGroup.DuplicateGroupSpec();
+        spec.setMd5Hash(contentHash);
+        spec.setMatchType(DuplicateMatchType.EXACT.name());
+        group.setSpec(spec);
+
+        DuplicateGroup.DuplicateGroupStatus status = new DuplicateGroup.DuplicateGroupStatus();
+        status.setFileSize(existingSize);
+        status.setFileCount(2);
+        status.setSavableSize(uploadedSize);
+        status.setAttachmentNames(new ArrayList<>(List.of(existingName, uploaded.getMetadata().getName())));
+        status.setRecommendedKeep(existingName);
+        status.setPendingDelete(false);
+        group.setStatus(status);
+
+        // 重复文件数按组内文件数减一统计，新建组只增加上传的这一个
+        return client.create(group)
+            .then(updateScanStatusAfterUpload(1, 1, uploadedSize));
+    }
+
+    /**
+     * 上传记录重复后更新扫描状态统计
+     */
+    private Mono<Void> updateScanStatusAfterUpload(int addedGroups, int addedFiles, long addedSavableSize) {
+        return getScanStatus()
+            .flatMap(status -> {
+                if (status.getStatus() != null) {
+                    status.getStatus().setDuplicateGroupCount(status.getStatus().getDuplicateGroupCount() + addedGroups);
+                    status.getStatus().setDuplicateFileCount(status.getStatus().getDuplicateFileCount() + addedFiles);
+                    status.getStatus().setSavableSize(status.getStatus().getSavableSize() + addedSavableSize);
+                }
+                return client.update(status);
+            })
+            .retryWhen(RetryUtils.optimisticLockRetry())
+            .then();
+    }
+
     /**
      * 删除后更新重复组
      */
@@ -839,8 +1661,13 @@ public class DuplicateServiceImpl implements DuplicateService {
             // 更新组信息
             group.getStatus().setAttachmentNames(remaining);
             group.getStatus().setFileCount(remaining.size());
-            long fileSize = group.getStatus().getFileSize();
-            group.getStatus().setSavableSize(fileSize * (remaining.size() - 1));
+            if (DuplicateMatchType.PERCEPTUAL.name().equals(group.getSpec().getMatchType())) {
+                // 相似组不计入可节省空间
+                group.getStatus().setSavableSize(0);
+            } else {
+                long fileSize = group.getStatus().getFileSize();
+                group.getStatus().setSavableSize(fileSize * (remaining.size() - 1));
+            }
             return client.update(group).then();
         }
     }
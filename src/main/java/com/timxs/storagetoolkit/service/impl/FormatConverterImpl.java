@@ -4,6 +4,10 @@ import com.github.avifimageio.AvifWriteParam;
 import com.luciad.imageio.webp.WebPWriteParam;
 import com.timxs.storagetoolkit.model.ImageFormat;
 import com.timxs.storagetoolkit.service.FormatConverter;
+import com.timxs.storagetoolkit.service.support.BoundedImageOutputStream;
+import com.timxs.storagetoolkit.service.support.ImageBuffers;
+import com.timxs.storagetoolkit.service.support.ImageWriterPool;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
@@ -12,11 +16,8 @@ import javax.imageio.ImageIO;
 import javax.imageio.ImageWriteParam;
 import javax.imageio.ImageWriter;
 import javax.imageio.stream.ImageOutputStream;
-import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.Iterator;
 import java.util.Set;
 
 /**
@@ -25,8 +26,14 @@ import java.util.Set;
  */
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class FormatConverterImpl implements FormatConverter {
 
+    /**
+     * ImageWriter 池
+     */
+    private final ImageWriterPool imageWriterPool;
+
     /**
      * 支持的目标格式集合
      * 目前支持 WebP 和 AVIF 格式
@@ -51,6 +58,26 @@ public class FormatConverterImpl implements FormatConverter {
      */
     @Override
     public byte[] convert(BufferedImage image, ImageFormat targetFormat, int quality, int effort) {
+        BoundedImageOutputStream output = new BoundedImageOutputStream(Long.MAX_VALUE);
+        convert(image, targetFormat, quality, effort, output);
+        return output.toByteArray();
+    }
+
+    /**
+     * 转换图片格式并写入指定输出流
+     *
+     * @param image        BufferedImage 对象
+     * @param targetFormat 目标格式（不能是 ORIGINAL）
+     * @param quality      输出质量（0-100）
+     * @param effort       压缩等级（WebP: 0-6, AVIF: 0-10）
+     * @param output       输出流
+     * @throws IllegalArgumentException      图片为空或目标格式无效
+     * @throws UnsupportedOperationException 不支持的格式
+     * @throws RuntimeException              转换失败（包括输出超过大小上限）
+     */
+    @Override
+    public void convert(BufferedImage image, ImageFormat targetFormat, int quality, int effort,
+                        ImageOutputStream output) {
         // 参数校验
         if (image == null) {
             throw new IllegalArgumentException("Image cannot be null");
@@ -66,7 +93,8 @@ public class FormatConverterImpl implements FormatConverter {
             image.getWidth(), image.getHeight(), image.getType(), targetFormat, quality, effort);
 
         // 规范化图片类型，保留 Alpha 通道（WebP 和 AVIF 均支持透明）
-        BufferedImage normalizedImage = normalizeImage(image);
+        // 解码/水印阶段已规范化的图片直接使用，不再复制
+        BufferedImage normalizedImage = ImageBuffers.normalize(image);
 
         // 保存当前线程的类加载器，用于后续恢复
         ClassLoader originalClassLoader = Thread.currentThread().getContextClassLoader();
@@ -74,40 +102,17 @@ public class FormatConverterImpl implements FormatConverter {
             // 设置插件类加载器，确保 ImageIO 能找到 WebP 的 SPI
             Thread.currentThread().setContextClassLoader(this.getClass().getClassLoader());
 
-            // 诊断：列出所有可用的 ImageWriter 格式
-            String[] writerFormats = ImageIO.getWriterFormatNames();
-            log.debug("可用的 ImageWriter 格式: {}", String.join(", ", writerFormats));
-
-            // 诊断：检查 WebP writer 是否可用
-            Iterator<ImageWriter> webpWriters = ImageIO.getImageWritersByFormatName("webp");
-            if (webpWriters.hasNext()) {
-                log.debug("WebP ImageWriter 可用: {}", webpWriters.next().getClass().getName());
-            } else {
-                log.warn("WebP ImageWriter 不可用！检查 native 库是否加载成功，系统架构: {} {}",
-                    System.getProperty("os.name"), System.getProperty("os.arch"));
-            }
-
-            // 诊断：检查 AVIF writer 是否可用
-            Iterator<ImageWriter> avifWriters = ImageIO.getImageWritersByFormatName("avif");
-            if (avifWriters.hasNext()) {
-                log.debug("AVIF ImageWriter 可用: {}", avifWriters.next().getClass().getName());
-            } else {
-                log.warn("AVIF ImageWriter 不可用！检查 native 库是否加载成功，系统架构: {} {}",
-                    System.getProperty("os.name"), System.getProperty("os.arch"));
-            }
-
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
             String formatName = targetFormat.getExtension();
 
-            // 获取对应格式的 ImageWriter
-            Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(formatName);
-            if (!writers.hasNext()) {
+            // 从池中获取对应格式的 ImageWriter（可用编码器在插件启动时已探测）
+            ImageWriter writer = imageWriterPool.borrow(formatName);
+            if (writer == null) {
                 throw new RuntimeException("No appropriate writer found for format: " + targetFormat);
             }
             
-            ImageWriter writer = writers.next();
-            try (ImageOutputStream ios = ImageIO.createImageOutputStream(outputStream)) {
-                writer.setOutput(ios);
+            boolean written = false;
+            try {
+                writer.setOutput(output);
                 
                 // 配置压缩参数
                 ImageWriteParam param = writer.getDefaultWriteParam();
@@ -127,15 +132,24 @@ public class FormatConverterImpl implements FormatConverter {
                 
                 // 执行写入
                 writer.write(null, new IIOImage(normalizedImage, null, null), param);
+                written = true;
             } finally {
-                writer.dispose();
+                // 编码失败的 Writer 不再复用
+                if (written) {
+                    imageWriterPool.release(formatName, writer);
+                } else {
+                    imageWriterPool.discard(writer);
+                }
             }
             
             log.debug("Converted image to {} format with quality {}, size: {} KB", 
-                targetFormat, quality, String.format("%.2f", outputStream.size() / 1024.0));
-            return outputStream.toByteArray();
+                targetFormat, quality, String.format("%.2f", output.length() / 1024.0));
         } catch (IOException e) {
-            log.error("Failed to convert image to {}", targetFormat, e);
+            if (BoundedImageOutputStream.isLimitExceeded(e)) {
+                log.debug("{} 编码超过大小上限，已中止", targetFormat);
+            } else {
+                log.error("Failed to convert image to {}", targetFormat, e);
+            }
             throw new RuntimeException("Failed to convert image to " + targetFormat, e);
         } finally {
             // 恢复原来的类加载器
@@ -143,35 +157,6 @@ public class FormatConverterImpl implements FormatConverter {
         }
     }
 
-    /**
-     * 规范化图片类型，保留 Alpha 通道
-     * 有 Alpha 通道的图片转为 TYPE_INT_ARGB，无 Alpha 的转为 TYPE_INT_RGB
-     *
-     * @param src 源图片
-     * @return 规范化后的图片
-     */
-    private BufferedImage normalizeImage(BufferedImage src) {
-        boolean hasAlpha = src.getColorModel().hasAlpha();
-        int targetType = hasAlpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
-
-        if (src.getType() == targetType) {
-            log.debug("图片已经是{}格式，无需转换", hasAlpha ? "ARGB" : "RGB");
-            return src;
-        }
-
-        log.debug("将图片从类型 {} 转换为 {}", src.getType(), hasAlpha ? "ARGB" : "RGB");
-        BufferedImage dest = new BufferedImage(src.getWidth(), src.getHeight(), targetType);
-        Graphics2D g = dest.createGraphics();
-        if (!hasAlpha) {
-            // 无 Alpha 通道时用白色填充背景
-            g.setColor(Color.WHITE);
-            g.fillRect(0, 0, src.getWidth(), src.getHeight());
-        }
-        g.drawImage(src, 0, 0, null);
-        g.dispose();
-        return dest;
-    }
-
     /**
      * 设置压缩等级参数
      * WebP 使用 method 参数（0-6），AVIF 使用 speed 参数（0-10，需要转换：speed = 10 - effort）
@@ -4,28 +4,37 @@ import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.timxs.storagetoolkit.config.ImageWatermarkConfig;
 import com.timxs.storagetoolkit.config.ProcessingConfig;
+import com.timxs.storagetoolkit.config.ResizeConfig;
 import com.timxs.storagetoolkit.config.TextWatermarkConfig;
 import com.timxs.storagetoolkit.config.WatermarkConfig;
+import com.timxs.storagetoolkit.model.EncodingCandidate;
 import com.timxs.storagetoolkit.model.ImageFormat;
+import com.timxs.storagetoolkit.model.ImageInfo;
 import com.timxs.storagetoolkit.model.ProcessingResult;
 import com.timxs.storagetoolkit.model.WatermarkType;
 import com.timxs.storagetoolkit.service.FormatConverter;
 import com.timxs.storagetoolkit.service.ImageProcessor;
 import com.timxs.storagetoolkit.service.WatermarkService;
+import com.timxs.storagetoolkit.service.support.BoundedImageOutputStream;
+import com.timxs.storagetoolkit.service.support.ImageBuffers;
+import com.timxs.storagetoolkit.service.support.ImageProber;
+import com.timxs.storagetoolkit.service.support.ImageProcessingExecutor;
+import com.timxs.storagetoolkit.service.support.ImageWriterPool;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 import run.halo.app.infra.ExternalLinkProcessor;
 
 import javax.imageio.ImageIO;
+import javax.imageio.stream.ImageOutputStream;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * 图片处理器实现
@@ -52,6 +61,16 @@ public class ImageProcessorImpl implements ImageProcessor {
      */
     private final ExternalLinkProcessor externalLinkProcessor;
 
+    /**
+     * 图片处理专用线程池（CPU 密集型任务）
+     */
+    private final ImageProcessingExecutor imageProcessingExecutor;
+
+    /**
+     * ImageWriter 池
+     */
+    private final ImageWriterPool imageWriterPool;
+
     /**
      * 水印图片缓存
      * Key: 图片 URL，Value: BufferedImage
@@ -64,7 +83,7 @@ public class ImageProcessorImpl implements ImageProcessor {
 
     /**
      * 处理图片
-     * 在独立线程池中执行，避免阻塞主线程
+     * 在图片处理专用线程池中执行，避免阻塞主线程和占用 IO 线程
      *
      * @param imageData        原始图片数据
      * @param originalFilename 原始文件名
@@ -85,7 +104,7 @@ public class ImageProcessorImpl implements ImageProcessor {
                         "处理错误: " + t.getClass().getSimpleName() + " - " + t.getMessage());
                 }
             })
-            .subscribeOn(Schedulers.boundedElastic())  // 在弹性线程池中执行
+            .subscribeOn(imageProcessingExecutor.scheduler())
             .onErrorResume(e -> {
                 log.error("图片处理失败: {}", e.getMessage(), e);
                 return Mono.just(ProcessingResult.failed(imageData, originalFilename, contentType, e.getMessage()));
@@ -198,12 +217,13 @@ public class ImageProcessorImpl implements ImageProcessor {
     @Override
     public boolean hasProcessingEnabled(ProcessingConfig config) {
         return config.getWatermark().isEnabled()
-            || config.getFormatConversion().isEnabled();
+            || config.getFormatConversion().isEnabled()
+            || config.getResize().isEnabled();
     }
 
     /**
      * 执行图片处理（同步方法）
-     * 处理顺序：水印 -> 格式转换
+     * 处理顺序：缩放 -> 水印 -> 格式转换
      *
      * @param imageData        原始图片数据
      * @param originalFilename 原始文件名
@@ -219,8 +239,23 @@ public class ImageProcessorImpl implements ImageProcessor {
             // 设置插件类加载器为上下文类加载器，确保 ImageIO 能找到 WebP 等格式的 SPI
             Thread.currentThread().setContextClassLoader(this.getClass().getClassLoader());
             
-            // 读取图片
-            BufferedImage image = ImageIO.read(new ByteArrayInputStream(imageData));
+            // 探测文件头（不解码像素），尽早跳过不需要处理的图片
+            ImageInfo info = ImageProber.probe(imageData);
+            if (info == null) {
+                return ProcessingResult.failed(imageData, originalFilename, contentType, "无法读取图片数据");
+            }
+            String probeSkipReason = getProbeSkipReason(info, config);
+            if (probeSkipReason != null) {
+                log.debug("图片跳过处理: {} - {}", originalFilename, probeSkipReason);
+                return ProcessingResult.skipped(imageData, originalFilename, contentType, probeSkipReason);
+            }
+            // 以文件内容识别出的格式为准，回退编码时使用
+            String sourceContentType = info.mimeType();
+
+            // 读取图片（启用缩放时按目标尺寸采样解码，避免解码整张原图）
+            ResizeConfig resizeConfig = config.getResize();
+            int maxLongEdge = resizeConfig.isEnabled() ? resizeConfig.getMaxLongEdge() : 0;
+            BufferedImage image = ImageProber.decode(imageData, info, maxLongEdge);
             if (image == null) {
                 return ProcessingResult.failed(imageData, originalFilename, contentType, "无法读取图片数据");
             }
@@ -235,6 +270,24 @@ public class ImageProcessorImpl implements ImageProcessor {
             String skipReason = null;
             boolean watermarkApplied = false;
             String successNote = null;
+            long savedPixels = 0;
+
+            // 步骤0：尺寸缩放（在水印之前，水印按输出尺寸绘制）
+            if (maxLongEdge > 0 && Math.max(info.width(), info.height()) > maxLongEdge) {
+                image = resizeToLongEdge(image, maxLongEdge);
+                savedPixels = info.pixelCount() - (long) image.getWidth() * image.getHeight();
+                processed = true;
+                log.debug("尺寸缩放: {} {}x{} -> {}x{}", originalFilename,
+                    info.width(), info.height(), image.getWidth(), image.getHeight());
+            }
+            // 缩放或水印后原始文件已不可直接复用
+            boolean resized = savedPixels > 0;
+
+            // 需要格式转换时提前规范化一次（解码器已直接输出规范化类型时不复制），
+            // 之后水印直接绘制在这份光栅上，编码器也不再复制
+            if (config.getFormatConversion().isEnabled() && !ImageBuffers.isNormalized(image)) {
+                image = ImageBuffers.normalize(image);
+            }
 
             // 步骤1：添加水印
             WatermarkConfig watermarkConfig = config.getWatermark();
@@ -252,6 +305,7 @@ public class ImageProcessorImpl implements ImageProcessor {
 
             // 步骤2：格式转换
             byte[] resultData;
+            EncodingCandidate encodingCandidate = null;
             if (config.getFormatConversion().isEnabled()) {
                 try {
                     var formatConfig = config.getFormatConversion();
@@ -259,62 +313,92 @@ public class ImageProcessorImpl implements ImageProcessor {
                     int effort = formatConfig.getTargetFormat() == ImageFormat.AVIF
                         ? formatConfig.getAvifEffort() 
                         : formatConfig.getWebpEffort();
-                    byte[] convertedData = formatConverter.convert(image, formatConfig.getTargetFormat(), 
-                        formatConfig.getOutputQuality(), effort);
-                    
-                    // 计算体积增加比例
-                    double increaseRatio = (double)(convertedData.length - imageData.length) / imageData.length * 100;
                     int threshold = formatConfig.getSkipThreshold();
-                    
-                    // 智能跳过逻辑：仅在无水印时生效（有水印时原始文件已不可用，跳过无意义）
-                    if (formatConfig.isSkipIfLarger() && increaseRatio > threshold && !watermarkApplied) {
-                        // 无水印 + 转换后体积增加超过阈值 → 直接返回原始数据
-                        log.debug("智能跳过格式转换: {} 体积 ({}) > 原始体积 ({})，增加 {}% 超过阈值 {}%",
-                            formatConfig.getTargetFormat(),
-                            formatFileSize(convertedData.length),
-                            formatFileSize(imageData.length),
-                            String.format("%.1f", increaseRatio),
-                            threshold);
-
-                        resultData = imageData;
-
-                        // 标记格式转换被跳过
-                        formatConversionSkipped = true;
-                        skipReason = String.format("格式转换跳过: %s 体积 (%s) > 原始体积 (%s)，增加 %.1f%% 超过阈值 %d%%",
-                            formatConfig.getTargetFormat(),
-                            formatFileSize(convertedData.length),
-                            formatFileSize(imageData.length),
-                            increaseRatio,
-                            threshold);
-                    } else {
-                        processed = true;
 
-                        // 有水印且智能跳过已启用且体积超阈值：额外编码回原格式，比较选小的
-                        if (watermarkApplied && formatConfig.isSkipIfLarger() && increaseRatio > threshold) {
-                            byte[] watermarkedOriginal = imageToBytes(image, contentType);
-
-                            if (watermarkedOriginal.length <= convertedData.length) {
-                                // 带水印原格式更小或相等 → 回退为原格式（水印已保留）
-                                resultData = watermarkedOriginal;
-                                String note = "格式转换体积增大，已回退为原格式（水印已保留）";
-                                errorMessages.append(note).append("; ");
-                                log.debug("智能回退: 带水印原格式 ({}) <= 目标格式 ({})，回退为原格式",
-                                    formatFileSize(watermarkedOriginal.length),
-                                    formatFileSize(convertedData.length));
-                            } else {
-                                // 目标格式仍更小 → 使用目标格式
-                                resultData = convertedData;
-                                currentFilename = formatConverter.updateFilenameExtension(currentFilename,
-                                    formatConfig.getTargetFormat());
-                                currentContentType = formatConverter.getMimeType(formatConfig.getTargetFormat());
+                    if ((watermarkApplied || resized) && formatConfig.isSkipIfLarger()) {
+                        // 有水印/缩放且智能跳过已启用：原始文件已不可复用，
+                        // 目标格式与原格式同时编码，体积上限互相收紧，落选的一方提前中止
+                        processed = true;
+                        long sizeLimit = (long) Math.floor(imageData.length * (1 + threshold / 100.0));
+                        CandidateOutputs outputs = encodeCandidates(image, sourceContentType,
+                            formatConfig.getTargetFormat(), formatConfig.getOutputQuality(), effort,
+                            sizeLimit);
+                        byte[] convertedData = outputs.targetData();
+                        byte[] watermarkedOriginal = outputs.originalData();
+
+                        if (convertedData != null && convertedData.length <= sizeLimit) {
+                            // 目标格式体积在阈值内 → 使用目标格式
+                            resultData = convertedData;
+                            encodingCandidate = EncodingCandidate.TARGET_FORMAT;
+                            currentFilename = formatConverter.updateFilenameExtension(currentFilename,
+                                formatConfig.getTargetFormat());
+                            currentContentType = formatConverter.getMimeType(formatConfig.getTargetFormat());
+                            log.debug("格式转换成功: {} -> {}, 体积 {} (阈值上限 {})",
+                                originalFilename, currentFilename,
+                                formatFileSize(convertedData.length), formatFileSize(sizeLimit));
+                        } else if (watermarkedOriginal != null
+                            && (convertedData == null || watermarkedOriginal.length <= convertedData.length)) {
+                            // 带水印原格式更小或相等（或目标格式已被中止）→ 回退为原格式（水印已保留）
+                            resultData = watermarkedOriginal;
+                            encodingCandidate = EncodingCandidate.ORIGINAL_FORMAT;
+                            currentContentType = getWrittenContentType(sourceContentType);
+                            currentFilename = withWrittenExtension(currentFilename, contentType, currentContentType);
+                            String note = "格式转换体积增大，已回退为原格式（水印/缩放已保留）";
+                            errorMessages.append(note).append("; ");
+                            log.debug("智能回退: 带水印原格式 ({}) <= 目标格式 ({})，回退为原格式",
+                                formatFileSize(watermarkedOriginal.length),
+                                convertedData != null ? formatFileSize(convertedData.length) : "已中止");
+                        } else if (convertedData != null) {
+                            // 目标格式仍更小 → 使用目标格式
+                            resultData = convertedData;
+                            encodingCandidate = EncodingCandidate.TARGET_FORMAT;
+                            currentFilename = formatConverter.updateFilenameExtension(currentFilename,
+                                formatConfig.getTargetFormat());
+                            currentContentType = formatConverter.getMimeType(formatConfig.getTargetFormat());
+                            double increaseRatio = (double)(convertedData.length - imageData.length) / imageData.length * 100;
+                            if (watermarkedOriginal != null) {
                                 double reductionVsWatermarked = (double)(watermarkedOriginal.length - convertedData.length) / watermarkedOriginal.length * 100;
                                 successNote = String.format("体积较原图增大 %.1f%%，但较带水印原格式减小 %.1f%%",
                                     increaseRatio, reductionVsWatermarked);
-                                log.debug("格式转换成功: 目标格式 ({}) < 带水印原格式 ({})，保留目标格式",
-                                    formatFileSize(convertedData.length),
-                                    formatFileSize(watermarkedOriginal.length));
+                            } else {
+                                successNote = String.format("体积较原图增大 %.1f%%，但小于带水印原格式", increaseRatio);
                             }
+                            log.debug("格式转换成功: 目标格式 ({}) < 带水印原格式 ({})，保留目标格式",
+                                formatFileSize(convertedData.length),
+                                watermarkedOriginal != null ? formatFileSize(watermarkedOriginal.length) : "已中止");
+                        } else {
+                            throw new IOException("目标格式与原格式均编码失败");
+                        }
+                    } else {
+                        byte[] convertedData = formatConverter.convert(image, formatConfig.getTargetFormat(), 
+                            formatConfig.getOutputQuality(), effort);
+
+                        // 计算体积增加比例
+                        double increaseRatio = (double)(convertedData.length - imageData.length) / imageData.length * 100;
+
+                        // 智能跳过逻辑：仅在无水印且未缩放时到达这里（原始文件可直接复用）
+                        if (formatConfig.isSkipIfLarger() && increaseRatio > threshold) {
+                            // 无水印 + 转换后体积增加超过阈值 → 直接返回原始数据
+                            log.debug("智能跳过格式转换: {} 体积 ({}) > 原始体积 ({})，增加 {}% 超过阈值 {}%",
+                                formatConfig.getTargetFormat(),
+                                formatFileSize(convertedData.length),
+                                formatFileSize(imageData.length),
+                                String.format("%.1f", increaseRatio),
+                                threshold);
+
+                            resultData = imageData;
+
+                            // 标记格式转换被跳过
+                            formatConversionSkipped = true;
+                            skipReason = String.format("格式转换跳过: %s 体积 (%s) > 原始体积 (%s)，增加 %.1f%% 超过阈值 %d%%",
+                                formatConfig.getTargetFormat(),
+                                formatFileSize(convertedData.length),
+                                formatFileSize(imageData.length),
+                                increaseRatio,
+                                threshold);
                         } else {
+                            processed = true;
+
                             // 正常情况：使用转换后的数据
                             resultData = convertedData;
                             currentFilename = formatConverter.updateFilenameExtension(currentFilename,
@@ -338,25 +422,29 @@ public class ImageProcessorImpl implements ImageProcessor {
                                         String.format("%.1f", increaseRatio), threshold);
                                 }
                             }
-                        }
 
-                        // 强制转换模式下体积增加的警告
-                        if (!formatConfig.isSkipIfLarger() && increaseRatio > 0) {
-                            log.warn("格式转换完成，但体积增加: {} → {} (+{}%)",
-                                formatFileSize(imageData.length),
-                                formatFileSize(convertedData.length),
-                                String.format("%.1f", increaseRatio));
+                            // 强制转换模式下体积增加的警告
+                            if (!formatConfig.isSkipIfLarger() && increaseRatio > 0) {
+                                log.warn("格式转换完成，但体积增加: {} → {} (+{}%)",
+                                    formatFileSize(imageData.length),
+                                    formatFileSize(convertedData.length),
+                                    String.format("%.1f", increaseRatio));
+                            }
                         }
                     }
                 } catch (Exception e) {
                     log.warn("格式转换失败: {}", e.getMessage());
                     errorMessages.append("格式转换失败: ").append(e.getMessage()).append("; ");
                     // 格式转换失败时，输出原格式
-                    resultData = imageToBytes(image, contentType);
+                    resultData = imageToBytes(image, sourceContentType);
+                    currentContentType = getWrittenContentType(sourceContentType);
+                    currentFilename = withWrittenExtension(currentFilename, contentType, currentContentType);
                 }
             } else {
                 // 没有格式转换，输出原格式
-                resultData = imageToBytes(image, contentType);
+                resultData = imageToBytes(image, sourceContentType);
+                currentContentType = getWrittenContentType(sourceContentType);
+                currentFilename = withWrittenExtension(currentFilename, contentType, currentContentType);
             }
 
             // 返回结果
@@ -384,12 +472,14 @@ public class ImageProcessorImpl implements ImageProcessor {
             // 有错误信息则返回 PARTIAL 状态
             if (errorMessages.length() > 0) {
                 return ProcessingResult.partial(resultData, currentFilename, currentContentType,
-                    errorMessages.toString());
+                    errorMessages.toString()).withSavedPixels(savedPixels).withEncodingCandidate(encodingCandidate);
             }
             if (successNote != null) {
-                return ProcessingResult.success(resultData, currentFilename, currentContentType, successNote);
+                return ProcessingResult.success(resultData, currentFilename, currentContentType, successNote)
+                    .withSavedPixels(savedPixels).withEncodingCandidate(encodingCandidate);
             }
-            return ProcessingResult.success(resultData, currentFilename, currentContentType);
+            return ProcessingResult.success(resultData, currentFilename, currentContentType)
+                .withSavedPixels(savedPixels).withEncodingCandidate(encodingCandidate);
 
         } catch (IOException e) {
             log.error("图片处理IO错误: {}", e.getMessage(), e);
@@ -400,6 +490,68 @@ public class ImageProcessorImpl implements ImageProcessor {
         }
     }
 
+    /**
+     * 等比缩放到指定最长边
+     * 采样解码后的图片通常仍略大于目标尺寸，这里逐级减半后再做一次双三次插值，
+     * 避免一次性大比例缩小产生锯齿
+     *
+     * @param image       源图片
+     * @param maxLongEdge 目标最长边
+     * @return 缩放后的图片
+     */
+    private BufferedImage resizeToLongEdge(BufferedImage image, int maxLongEdge) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double ratio = (double) maxLongEdge / Math.max(width, height);
+        if (ratio >= 1.0) {
+            return image;
+        }
+        int targetWidth = Math.max(1, (int) Math.round(width * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(height * ratio));
+        int type = image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+
+        BufferedImage current = image;
+        int currentWidth = width;
+        int currentHeight = height;
+        do {
+            // 每步最多缩小一半，最后一步直接到目标尺寸
+            currentWidth = Math.max(targetWidth, currentWidth / 2);
+            currentHeight = Math.max(targetHeight, currentHeight / 2);
+            BufferedImage next = new BufferedImage(currentWidth, currentHeight, type);
+            java.awt.Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(java.awt.RenderingHints.KEY_INTERPOLATION,
+                    java.awt.RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+                g.setRenderingHint(java.awt.RenderingHints.KEY_RENDERING,
+                    java.awt.RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (currentWidth != targetWidth || currentHeight != targetHeight);
+        return current;
+    }
+
+    /**
+     * 根据文件头信息判断是否跳过处理
+     *
+     * @param info   图片头信息
+     * @param config 处理配置
+     * @return 跳过原因，不需要跳过返回 null
+     */
+    private String getProbeSkipReason(ImageInfo info, ProcessingConfig config) {
+        if (info.animated() && config.isSkipAnimated()) {
+            return "动图（" + info.formatName() + "）跳过处理，避免丢失动画帧";
+        }
+        long maxPixels = config.getMaxImagePixels();
+        if (maxPixels > 0 && info.pixelCount() > maxPixels) {
+            return String.format("图片尺寸 %dx%d（%.1f 百万像素）超过限制 %.1f 百万像素",
+                info.width(), info.height(), info.pixelCount() / 1_000_000.0, maxPixels / 1_000_000.0);
+        }
+        return null;
+    }
+
     /**
      * 应用水印
      * 根据配置类型选择文字水印或图片水印
@@ -517,9 +669,98 @@ public class ImageProcessorImpl implements ImageProcessor {
         }
     }
 
+    /**
+     * 目标格式与原格式同时编码
+     * 原格式在图片处理线程池中编码，目标格式在当前线程编码：
+     * 原格式先完成时，目标格式的上限收紧为 max(阈值上限, 原格式体积)，超过即必然落选，提前中止；
+     * 目标格式先完成且在阈值内时，原格式直接放弃；否则原格式的上限收紧为目标格式体积。
+     * 原格式任务尚未被线程池执行时由当前线程认领执行，线程池占满时也不会互相等待
+     *
+     * @param image             待编码图片
+     * @param sourceContentType 原格式 MIME 类型
+     * @param targetFormat      目标格式
+     * @param quality           目标格式输出质量
+     * @param effort            目标格式压缩等级
+     * @param sizeLimit         目标格式体积阈值上限（字节）
+     * @return 两个候选的编码结果（被中止或失败的一方为 null）
+     */
+    private CandidateOutputs encodeCandidates(BufferedImage image, String sourceContentType,
+                                              ImageFormat targetFormat, int quality, int effort,
+                                              long sizeLimit) {
+        BoundedImageOutputStream targetOutput = new BoundedImageOutputStream(Long.MAX_VALUE);
+        BoundedImageOutputStream originalOutput = new BoundedImageOutputStream(Long.MAX_VALUE);
+        AtomicBoolean originalClaimed = new AtomicBoolean();
+        CompletableFuture<byte[]> originalFuture = new CompletableFuture<>();
+
+        Runnable originalTask = () -> {
+            if (!originalClaimed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                writeImage(image, sourceContentType, originalOutput);
+                byte[] data = originalOutput.toByteArray();
+                targetOutput.setLimit(Math.max(sizeLimit, data.length));
+                originalFuture.complete(data);
+            } catch (Exception e) {
+                if (!BoundedImageOutputStream.isLimitExceeded(e)) {
+                    log.debug("原格式候选编码失败: {}", e.getMessage());
+                }
+                originalFuture.complete(null);
+            }
+        };
+        try {
+            imageProcessingExecutor.scheduler().schedule(originalTask);
+        } catch (RejectedExecutionException e) {
+            // 线程池已关闭，稍后在当前线程执行
+            log.debug("原格式候选编码无法提交到线程池，改为当前线程执行");
+        }
+
+        byte[] targetData = null;
+        try {
+            formatConverter.convert(image, targetFormat, quality, effort, targetOutput);
+            targetData = targetOutput.toByteArray();
+        } catch (RuntimeException e) {
+            if (!BoundedImageOutputStream.isLimitExceeded(e)) {
+                abandon(originalClaimed, originalFuture, originalOutput);
+                throw e;
+            }
+        }
+
+        if (targetData != null && targetData.length <= sizeLimit) {
+            abandon(originalClaimed, originalFuture, originalOutput);
+            return new CandidateOutputs(targetData, null);
+        }
+        if (targetData != null) {
+            originalOutput.setLimit(targetData.length);
+        }
+        // 原格式任务尚未开始时在当前线程执行
+        originalTask.run();
+        return new CandidateOutputs(targetData, originalFuture.join());
+    }
+
+    /**
+     * 放弃原格式候选：尚未开始则不再执行，正在编码则在下一次写入时中止
+     */
+    private void abandon(AtomicBoolean claimed, CompletableFuture<byte[]> future,
+                         BoundedImageOutputStream output) {
+        if (claimed.compareAndSet(false, true)) {
+            future.complete(null);
+        } else {
+            output.setLimit(0);
+        }
+    }
+
+    /**
+     * 候选编码结果
+     *
+     * @param targetData   目标格式数据（被中止时为 null）
+     * @param originalData 原格式数据（被放弃或失败时为 null）
+     */
+    private record CandidateOutputs(byte[] targetData, byte[] originalData) {
+    }
+
     /**
      * 将 BufferedImage 转换为字节数组
-     * 注意：JPEG 不支持 Alpha 通道，需要先转换为 RGB
      *
      * @param image       图片对象
      * @param contentType MIME 类型
@@ -527,6 +768,21 @@ public class ImageProcessorImpl implements ImageProcessor {
      * @throws IOException 写入失败时抛出
      */
     private byte[] imageToBytes(BufferedImage image, String contentType) throws IOException {
+        BoundedImageOutputStream output = new BoundedImageOutputStream(Long.MAX_VALUE);
+        writeImage(image, contentType, output);
+        return output.toByteArray();
+    }
+
+    /**
+     * 将 BufferedImage 按 MIME 类型编码写入输出流
+     * 注意：JPEG 不支持 Alpha 通道，需要先转换为 RGB
+     *
+     * @param image       图片对象
+     * @param contentType MIME 类型
+     * @param output      输出流
+     * @throws IOException 写入失败（包括超过输出大小上限）时抛出
+     */
+    private void writeImage(BufferedImage image, String contentType, ImageOutputStream output) throws IOException {
         String formatName = getFormatName(contentType);
         boolean isJpeg = "jpg".equals(formatName) || "jpeg".equals(formatName);
 
@@ -541,28 +797,35 @@ public class ImageProcessorImpl implements ImageProcessor {
             imageToWrite = convertToRGB(image);
         }
 
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-
-        // JPEG 使用指定质量参数编码，避免 ImageIO 默认质量（约 0.75）导致画质下降
-        if (isJpeg) {
-            javax.imageio.ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        // 从池中获取 ImageWriter，避免每次扫描 SPI 注册表
+        javax.imageio.ImageWriter writer = imageWriterPool.borrow(formatName);
+        if (writer == null) {
+            throw new IOException("无法写入图片格式: " + formatName);
+        }
+        if (writer.getOriginatingProvider() != null
+            && !writer.getOriginatingProvider().canEncodeImage(imageToWrite)) {
+            imageWriterPool.release(formatName, writer);
+            throw new IOException("无法写入图片格式: " + formatName);
+        }
+        boolean written = false;
+        try {
+            writer.setOutput(output);
             javax.imageio.ImageWriteParam param = writer.getDefaultWriteParam();
-            param.setCompressionMode(javax.imageio.ImageWriteParam.MODE_EXPLICIT);
-            param.setCompressionQuality(0.85f);
-            try (var ios = ImageIO.createImageOutputStream(outputStream)) {
-                writer.setOutput(ios);
-                writer.write(null, new javax.imageio.IIOImage(imageToWrite, null, null), param);
-            } finally {
-                writer.dispose();
+            // JPEG 使用指定质量参数编码，避免 ImageIO 默认质量（约 0.75）导致画质下降
+            if (isJpeg) {
+                param.setCompressionMode(javax.imageio.ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(0.85f);
             }
-        } else {
-            boolean success = ImageIO.write(imageToWrite, formatName, outputStream);
-            if (!success) {
-                throw new IOException("无法写入图片格式: " + formatName);
+            writer.write(null, new javax.imageio.IIOImage(imageToWrite, null, null), param);
+            written = true;
+        } finally {
+            // 编码失败的 Writer 不再复用
+            if (written) {
+                imageWriterPool.release(formatName, writer);
+            } else {
+                imageWriterPool.discard(writer);
             }
         }
-
-        return outputStream.toByteArray();
     }
     
     /**
@@ -583,6 +846,36 @@ public class ImageProcessorImpl implements ImageProcessor {
         return rgb;
     }
 
+    /**
+     * 按原格式重新编码时实际写出的 MIME 类型
+     * 文件头识别出的类型不在可写格式内时（如 ImageReader 兜底识别的格式）会写为 PNG，结果需按 PNG 标注
+     *
+     * @param sourceContentType 文件内容识别出的 MIME 类型
+     * @return 实际写出格式的 MIME 类型
+     */
+    private String getWrittenContentType(String sourceContentType) {
+        String formatName = getFormatName(sourceContentType);
+        return "jpg".equals(formatName) ? "image/jpeg" : "image/" + formatName;
+    }
+
+    /**
+     * 实际写出的格式与上传声明的格式不同时，替换文件扩展名
+     *
+     * @param filename           当前文件名
+     * @param uploadContentType  上传声明的 MIME 类型
+     * @param writtenContentType 实际写出的 MIME 类型
+     * @return 文件名
+     */
+    private String withWrittenExtension(String filename, String uploadContentType, String writtenContentType) {
+        String writtenFormat = getFormatName(writtenContentType);
+        if (filename == null || writtenFormat.equals(getFormatName(uploadContentType))) {
+            return filename;
+        }
+        int lastDotIndex = filename.lastIndexOf('.');
+        String baseName = lastDotIndex > 0 ? filename.substring(0, lastDotIndex) : filename;
+        return baseName + "." + writtenFormat;
+    }
+
     /**
      * 从 MIME 类型获取格式名称
      * 用于 ImageIO.write() 方法
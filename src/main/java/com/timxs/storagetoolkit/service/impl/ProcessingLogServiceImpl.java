@@ -71,6 +71,13 @@ public class ProcessingLogServiceImpl implements ProcessingLogService {
     @Override
     public Mono<ProcessingLog> saveSkippedLog(String filename, String contentType, long fileSize,
                                                Instant startTime, String reason, ProcessingSource source) {
+        return saveSkippedLog(filename, contentType, fileSize, startTime, reason, source, null);
+    }
+
+    @Override
+    public Mono<ProcessingLog> saveSkippedLog(String filename, String contentType, long fileSize,
+                                               Instant startTime, String reason, ProcessingSource source,
+                                               String duplicateOf) {
         ProcessingLog logEntry = new ProcessingLog();
         ProcessingLog.ProcessingLogSpec spec = new ProcessingLog.ProcessingLogSpec();
 
@@ -83,6 +90,7 @@ public class ProcessingLogServiceImpl implements ProcessingLogService {
         spec.setProcessingDuration(Instant.now().toEpochMilli() - startTime.toEpochMilli());
         spec.setErrorMessage(reason);
         spec.setSource(source);
+        spec.setDuplicateOf(duplicateOf);
 
         logEntry.setSpec(spec);
 
@@ -104,6 +112,13 @@ public class ProcessingLogServiceImpl implements ProcessingLogService {
     @Override
     public Mono<ProcessingLog> saveResultLog(ProcessingResult result, String originalFilename,
                                               long originalSize, Instant startTime, ProcessingSource source) {
+        return saveResultLog(result, originalFilename, originalSize, startTime, source, null);
+    }
+
+    @Override
+    public Mono<ProcessingLog> saveResultLog(ProcessingResult result, String originalFilename,
+                                              long originalSize, Instant startTime, ProcessingSource source,
+                                              String duplicateOf) {
         ProcessingLog logEntry = new ProcessingLog();
         ProcessingLog.ProcessingLogSpec spec = new ProcessingLog.ProcessingLogSpec();
 
@@ -111,10 +126,13 @@ public class ProcessingLogServiceImpl implements ProcessingLogService {
         spec.setResultFilename(result.filename());
         spec.setOriginalSize(originalSize);
         spec.setResultSize(result.data().length);
+        spec.setSavedPixels(result.savedPixels());
+        spec.setEncodingCandidate(result.encodingCandidate());
         spec.setStatus(result.status());
         spec.setProcessedAt(startTime);
         spec.setProcessingDuration(Instant.now().toEpochMilli() - startTime.toEpochMilli());
         spec.setSource(source);
+        spec.setDuplicateOf(duplicateOf);
 
         if (result.message() != null) {
             spec.setErrorMessage(result.message());
@@ -0,0 +1,220 @@
+package com.timxs.storagetoolkit.service.impl;
+
+import com.timxs.storagetoolkit.extension.AttachmentReference;
+import com.timxs.storagetoolkit.extension.ReferenceSourceIndex;
+import com.timxs.storagetoolkit.service.ReferenceIndexService;
+import com.timxs.storagetoolkit.service.support.ReferenceScanContext;
+import com.timxs.storagetoolkit.service.support.RetryUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import run.halo.app.extension.ListOptions;
+import run.halo.app.extension.Metadata;
+import run.halo.app.extension.ReactiveExtensionClient;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static run.halo.app.extension.index.query.Queries.in;
+
+/**
+ * 引用源索引服务实现
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReferenceIndexServiceImpl implements ReferenceIndexService {
+
+    /**
+     * 按 URL 批量查询时每批的 URL 数量
+     */
+    private static final int QUERY_BATCH_SIZE = 200;
+
+    private final ReactiveExtensionClient client;
+
+    @Override
+    public Mono<Integer> rebuild(ReferenceScanContext context) {
+        Map<String, ReferenceSourceIndex.ReferenceSourceIndexStatus> statusBySource = groupBySource(context);
+        return clearAll()
+            .thenMany(Flux.fromIterable(statusBySource.values()))
+            .flatMap(status -> {
+                AttachmentReference.ReferenceSource first = status.getSources().get(0);
+                return client.create(newIndex(first.getSourceType(), first.getSourceName(), status));
+            })
+            .count()
+            .map(Long::intValue)
+            .doOnNext(count -> log.debug("引用源索引重建完成，共 {} 个引用源", count));
+    }
+
+    @Override
+    public Mono<Set<String>> replaceSource(String sourceType, String sourceName, ReferenceScanContext context) {
+        ReferenceSourceIndex.ReferenceSourceIndexStatus status = groupBySource(context)
+            .get(sourceKey(sourceType, sourceName));
+        ReferenceSourceIndex replacement = status != null ? newIndex(sourceType, sourceName, status) : null;
+        Map<String, Set<AttachmentReference.ReferenceSource>> newRefs = replacement != null
+            ? ReferenceSourceIndex.referenceMap(replacement) : Map.of();
+
+        return Mono.defer(() -> findBySource(sourceType, sourceName)
+                .flatMap(existing -> {
+                    Set<String> changed = changedUrls(ReferenceSourceIndex.referenceMap(existing), newRefs);
+                    if (changed.isEmpty()) {
+                        return Mono.just(changed);
+                    }
+                    if (replacement == null) {
+                        return client.delete(existing).thenReturn(changed);
+                    }
+                    existing.setStatus(replacement.getStatus());
+                    return client.update(existing).thenReturn(changed);
+                })
+                .switchIfEmpty(Mono.defer(() -> {
+                    if (replacement == null) {
+                        return Mono.just(Set.<String>of());
+                    }
+                    return client.create(replacement).thenReturn(newRefs.keySet());
+                })))
+            .retryWhen(RetryUtils.optimisticLockRetry());
+    }
+
+    @Override
+    public Flux<ReferenceSourceIndex> findByUrls(Collection<String> urls) {
+        Set<String> distinct = new LinkedHashSet<>(urls);
+        return Flux.fromIterable(distinct)
+            .map(ReferenceSourceIndex::urlId)
+            .buffer(QUERY_BATCH_SIZE)
+            .concatMap(batch -> client.listAll(ReferenceSourceIndex.class,
+                ListOptions.builder().fieldQuery(in("status.urlIds", batch)).build(), Sort.unsorted()))
+            .filter(index -> index.getMetadata().getDeletionTimestamp() == null)
+            .distinct(index -> index.getMetadata().getName());
+    }
+
+    @Override
+    public Flux<AttachmentReference.ReferenceSource> findSourcesByUrls(Collection<String> urls) {
+        Set<String> distinct = new HashSet<>(urls);
+        return findByUrls(distinct)
+            .flatMapIterable(index -> {
+                // URL ID 为哈希值，按完整 URL 再比对一次
+                List<AttachmentReference.ReferenceSource> sources = new ArrayList<>();
+                ReferenceSourceIndex.referenceMap(index).forEach((url, refs) -> {
+                    if (distinct.contains(url)) {
+                        sources.addAll(refs);
+                    }
+                });
+                return sources;
+            })
+            .distinct();
+    }
+
+    @Override
+    public Mono<ReferenceSourceIndex> findBySource(String sourceType, String sourceName) {
+        return client.fetch(ReferenceSourceIndex.class, ReferenceSourceIndex.nameOf(sourceType, sourceName))
+            .filter(index -> index.getMetadata().getDeletionTimestamp() == null);
+    }
+
+    @Override
+    public Mono<Void> clearAll() {
+        return client.listAll(ReferenceSourceIndex.class, ListOptions.builder().build(), Sort.unsorted())
+            .flatMap(client::delete)
+            .then()
+            .doOnSuccess(v -> log.debug("已删除所有引用源索引记录"));
+    }
+
+    /**
+     * 将扫描上下文中的完整 URL 按引用源（类型 + 名称）分组
+     * 同一引用源的引用信息去重后存入 sources，URL 条目按下标引用
+     */
+    private Map<String, ReferenceSourceIndex.ReferenceSourceIndexStatus> groupBySource(ReferenceScanContext context) {
+        Map<String, SourceGroup> grouped = new HashMap<>();
+        context.getFullUrlToSources().forEach((url, sources) -> {
+            for (AttachmentReference.ReferenceSource source : sources) {
+                if (source.getSourceType() == null || source.getSourceName() == null) {
+                    continue;
+                }
+                grouped.computeIfAbsent(sourceKey(source.getSourceType(), source.getSourceName()),
+                        k -> new SourceGroup())
+                    .add(url, context.getOriginalUrl(url), source);
+            }
+        });
+
+        Map<String, ReferenceSourceIndex.ReferenceSourceIndexStatus> result = new HashMap<>();
+        grouped.forEach((key, group) -> result.put(key, group.toStatus()));
+        return result;
+    }
+
+    /**
+     * 单个引用源的分组构建器
+     */
+    private static class SourceGroup {
+        private final Map<AttachmentReference.ReferenceSource, Integer> sourceIds = new LinkedHashMap<>();
+        private final Map<String, ReferenceSourceIndex.UrlEntry> entries = new LinkedHashMap<>();
+
+        void add(String url, String originalUrl, AttachmentReference.ReferenceSource source) {
+            Integer id = sourceIds.computeIfAbsent(source, k -> sourceIds.size());
+            ReferenceSourceIndex.UrlEntry entry = entries.computeIfAbsent(url, k -> {
+                ReferenceSourceIndex.UrlEntry created = new ReferenceSourceIndex.UrlEntry();
+                created.setUrl(url);
+                created.setOriginalUrl(originalUrl);
+                created.setSourceIds(new ArrayList<>());
+                return created;
+            });
+            if (!entry.getSourceIds().contains(id)) {
+                entry.getSourceIds().add(id);
+            }
+        }
+
+        ReferenceSourceIndex.ReferenceSourceIndexStatus toStatus() {
+            ReferenceSourceIndex.ReferenceSourceIndexStatus status =
+                new ReferenceSourceIndex.ReferenceSourceIndexStatus();
+            status.setSources(new ArrayList<>(sourceIds.keySet()));
+            status.setEntries(new ArrayList<>(entries.values()));
+            status.setIndexedAt(Instant.now());
+            return status;
+        }
+    }
+
+    /**
+     * 比较新旧索引，返回引用信息有变化的 URL（新增、移除或引用类型、标题等变化）
+     */
+    private Set<String> changedUrls(Map<String, Set<AttachmentReference.ReferenceSource>> oldRefs,
+                                    Map<String, Set<AttachmentReference.ReferenceSource>> newRefs) {
+        Set<String> changed = new LinkedHashSet<>();
+        Set<String> allUrls = new HashSet<>(oldRefs.keySet());
+        allUrls.addAll(newRefs.keySet());
+        for (String url : allUrls) {
+            if (!Objects.equals(oldRefs.get(url), newRefs.get(url))) {
+                changed.add(url);
+            }
+        }
+        return changed;
+    }
+
+    private ReferenceSourceIndex newIndex(String sourceType, String sourceName,
+                                          ReferenceSourceIndex.ReferenceSourceIndexStatus status) {
+        ReferenceSourceIndex index = new ReferenceSourceIndex();
+        index.setMetadata(new Metadata());
+        index.getMetadata().setName(ReferenceSourceIndex.nameOf(sourceType, sourceName));
+
+        ReferenceSourceIndex.ReferenceSourceIndexSpec spec = new ReferenceSourceIndex.ReferenceSourceIndexSpec();
+        spec.setSourceType(sourceType);
+        spec.setSourceName(sourceName);
+        index.setSpec(spec);
+
+        index.setStatus(status);
+        return index;
+    }
+
+    private static String sourceKey(String sourceType, String sourceName) {
+        return sourceType + "/" + sourceName;
+    }
+}
@@ -5,6 +5,7 @@ import com.timxs.storagetoolkit.model.ReferenceReplacementResult;
 import com.timxs.storagetoolkit.model.ReferenceReplacementTask;
 import com.timxs.storagetoolkit.model.ReplaceResult;
 import com.timxs.storagetoolkit.model.ReplaceSource;
+import com.timxs.storagetoolkit.service.ReferenceIndexService;
 import com.timxs.storagetoolkit.service.ReferenceReplacerService;
 import com.timxs.storagetoolkit.service.ReferenceService;
 import com.timxs.storagetoolkit.service.SettingsManager;
@@ -28,6 +29,8 @@ import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
+import static run.halo.app.extension.index.query.Queries.in;
+
 /**
  * 引用替换服务实现
  */
@@ -40,6 +43,7 @@ public class ReferenceReplacerServiceImpl implements ReferenceReplacerService {
     private final SettingsManager settingsManager;
     private final UrlReplaceLogService urlReplaceLogService;
     private final ReferenceService referenceService;
+    private final ReferenceIndexService referenceIndexService;
     private final ExternalLinkProcessor externalLinkProcessor;
 
     // 各种内容类型的处理器
@@ -168,21 +172,56 @@ public class ReferenceReplacerServiceImpl implements ReferenceReplacerService {
 
     /**
      * 收集所有需要处理的引用源
+     * 合并两处来源：附件引用记录（通过 spec.attachmentName 索引查询）和引用源倒排索引（按旧 URL 查询）。
+     * 倒排索引还包含排除分组中附件的引用，开启增量更新时也比引用记录更新
      */
     private Mono<Set<AttachmentReference.ReferenceSource>> collectReferenceSources(ReferenceReplacementTask task) {
         Set<AttachmentReference.ReferenceSource> allSources = ConcurrentHashMap.newKeySet();
 
-        return client.listAll(AttachmentReference.class, ListOptions.builder().build(), Sort.unsorted())
-            .filter(ref -> ref.getSpec() != null
-                && ref.getSpec().getAttachmentName() != null
-                && task.getAttachmentMapping().containsKey(ref.getSpec().getAttachmentName())
-                && ref.getStatus() != null
-                && ref.getStatus().getReferences() != null)
-            .flatMap(ref -> Flux.fromIterable(ref.getStatus().getReferences()))
+        Flux<AttachmentReference.ReferenceSource> fromReferences = CollectionUtils.isEmpty(task.getAttachmentMapping())
+            ? Flux.empty()
+            : client.listAll(AttachmentReference.class, ListOptions.builder()
+                    .fieldQuery(in("spec.attachmentName", task.getAttachmentMapping().keySet()))
+                    .build(), Sort.unsorted())
+                .filter(ref -> ref.getMetadata().getDeletionTimestamp() == null
+                    && ref.getStatus() != null
+                    && ref.getStatus().getReferences() != null
+                    && !Boolean.TRUE.equals(ref.getStatus().getPendingDelete()))
+                .flatMapIterable(ref -> ref.getStatus().getReferences());
+
+        Flux<AttachmentReference.ReferenceSource> fromIndex =
+            referenceIndexService.findSourcesByUrls(toFullUrls(task.getUrlMapping().keySet()))
+                .onErrorResume(e -> {
+                    log.warn("查询引用源索引失败，仅使用引用记录: {}", e.getMessage());
+                    return Flux.empty();
+                });
+
+        return Flux.concat(fromReferences, fromIndex)
             .doOnNext(allSources::add)
             .then(Mono.just(allSources));
     }
 
+    /**
+     * 将 URL 映射中的旧 URL 统一为完整 URL（引用源索引只保存完整 URL）
+     */
+    private Set<String> toFullUrls(Collection<String> urls) {
+        Set<String> fullUrls = new LinkedHashSet<>();
+        for (String url : urls) {
+            if (url == null || url.isEmpty()) {
+                continue;
+            }
+            if (url.startsWith("http://") || url.startsWith("https://")) {
+                fullUrls.add(url);
+            } else {
+                String fullUrl = externalLinkProcessor.processLink(url);
+                if (fullUrl != null && !fullUrl.isEmpty()) {
+                    fullUrls.add(fullUrl);
+                }
+            }
+        }
+        return fullUrls;
+    }
+
     /**
      * 处理特定类型的内容源（按 sourceName 分组，每个实体只替换一次，记录一条合并日志）
      */
@@ -9,19 +9,22 @@ import com.timxs.storagetoolkit.model.CleanupReason;
 import com.timxs.storagetoolkit.model.CleanupResult;
 import com.timxs.storagetoolkit.service.CleanupLogService;
 import com.timxs.storagetoolkit.service.ContentScanner;
+import com.timxs.storagetoolkit.service.ReferenceIndexService;
 import com.timxs.storagetoolkit.service.ReferenceService;
 import com.timxs.storagetoolkit.service.SettingsManager;
 import com.timxs.storagetoolkit.service.WhitelistService;
 import com.timxs.storagetoolkit.service.support.BrokenLinkDetector;
 import com.timxs.storagetoolkit.service.support.ReferenceScanContext;
+import com.timxs.storagetoolkit.service.support.ReferenceScanProgress;
+import com.timxs.storagetoolkit.service.support.RetryUtils;
+import com.timxs.storagetoolkit.service.support.SnapshotBatchLoader;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import run.halo.app.content.ContentWrapper;
-import run.halo.app.content.PostContentService;
+import reactor.core.publisher.Sinks;
 import run.halo.app.core.extension.content.Snapshot;
 import run.halo.app.core.extension.content.Comment;
 import run.halo.app.core.extension.content.Post;
@@ -43,15 +46,22 @@ import run.halo.app.extension.SchemeManager;
 import org.springframework.data.domain.Sort;
 
 import static run.halo.app.extension.index.query.Queries.equal;
+import static run.halo.app.extension.index.query.Queries.in;
 
 import com.timxs.storagetoolkit.extension.BrokenLink;
 import com.timxs.storagetoolkit.extension.BrokenLinkScanStatus;
 
+import java.net.URI;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -65,15 +75,27 @@ public class ReferenceServiceImpl implements ReferenceService {
     private final ReactiveExtensionClient client;
     private final ContentScanner contentScanner;
     private final SettingsManager settingsManager;
-    private final PostContentService postContentService;
     private final SchemeManager schemeManager;
     private final ExternalLinkProcessor externalLinkProcessor;
     private final WhitelistService whitelistService;
     private final BrokenLinkDetector brokenLinkDetector;
     private final CleanupLogService cleanupLogService;
+    private final ReferenceIndexService referenceIndexService;
 
     private static final com.fasterxml.jackson.databind.ObjectMapper objectMapper = JsonUtils.mapper();
 
+    // 全量扫描期间保存分类型进度的间隔
+    private static final Duration PROGRESS_SAVE_INTERVAL = Duration.ofSeconds(2);
+
+    // 全量扫描时每页批量加载快照的内容数量
+    private static final int SNAPSHOT_BATCH_SIZE = 100;
+
+    // 按 status.permalink 查询附件时单次 in 查询的数量上限
+    private static final int PERMALINK_QUERY_BATCH_SIZE = 200;
+
+    // ConfigMap 找不到所属插件或主题时，重新加载所属关系的最短间隔
+    private static final Duration CONFIG_MAP_OWNER_RELOAD_INTERVAL = Duration.ofMinutes(1);
+
     // 瞬间插件 GVK (moment.halo.run/v1alpha1/Moment)
     private static final GroupVersionKind MOMENT_GVK = 
         new GroupVersionKind("moment.halo.run", "v1alpha1", "Moment");
@@ -96,6 +118,13 @@ public class ReferenceServiceImpl implements ReferenceService {
     // 内存中的扫描标志（用于检测服务重启）
     private final AtomicInteger scanningFlag = new AtomicInteger(0);
 
+    // 附件 status.permalink 索引是否可用（Halo 未注册该索引时退回全量遍历）
+    private final AtomicBoolean permalinkIndexAvailable = new AtomicBoolean(true);
+
+    // ConfigMap 名称到所属插件或主题的缓存，避免每次设置变更都遍历全部插件和主题
+    private final Map<String, List<ConfigMapOwner>> configMapOwners = new ConcurrentHashMap<>();
+    private final AtomicLong configMapOwnersLoadedAt = new AtomicLong(0);
+
     @Override
     public Mono<ReferenceScanStatus> startScan() {
         return getScanStatus()
@@ -128,18 +157,23 @@ public class ReferenceServiceImpl implements ReferenceService {
         status.getStatus().setPhase(ReferenceScanStatus.Phase.SCANNING);
         status.getStatus().setStartTime(Instant.now());
         status.getStatus().setErrorMessage(null);
+        // 全量扫描期间引用源索引会被重建，暂停增量更新
+        status.getStatus().setSourceIndexedAt(null);
+        status.getStatus().setLastIncrementalUpdateTime(null);
+        status.getStatus().setIncrementalUpdateCount(0);
+        status.getStatus().setTypeProgress(null);
 
         return client.update(status)
             .flatMap(updated -> {
                 // 异步执行扫描
-                performScan(updated)
+                performScan()
                     .doFinally(signal -> scanningFlag.set(0))  // 扫描结束时清除标志
                     .subscribe(
                         result -> log.info("扫描完成: {}", result),
                         error -> {
                             log.error("扫描失败", error);
                             // 更新引用扫描状态为错误
-                            updateScanError(updated, error.getMessage()).subscribe(
+                            updateScanError(error.getMessage()).subscribe(
                                 v -> {},
                                 err -> log.error("更新引用扫描错误状态失败", err)
                             );
@@ -180,7 +214,7 @@ public class ReferenceServiceImpl implements ReferenceService {
     /**
      * 执行实际的扫描逻辑
      */
-    private Mono<ReferenceScanStatus> performScan(ReferenceScanStatus status) {
+    private Mono<ReferenceScanStatus> performScan() {
         log.info("开始扫描附件引用...");
 
         // 使用 ReferenceScanContext 管理扫描状态
@@ -192,46 +226,115 @@ public class ReferenceServiceImpl implements ReferenceService {
         // 先删除所有现有记录
         return deleteAllExistingRecords()
             .then(settingsManager.getAnalysisSettings())
-            .flatMap(settings -> {
-                // 根据配置决定扫描哪些内容
-                List<Mono<Void>> scanTasks = new ArrayList<>();
-
-                if (settings.scanPosts()) {
-                    scanTasks.add(scanPosts(context));
-                }
-                if (settings.scanPages()) {
-                    scanTasks.add(scanSinglePages(context));
-                }
-                if (settings.scanComments()) {
-                    scanTasks.add(scanComments(context));
-                    scanTasks.add(scanReplies(context));
-                }
-                if (settings.scanMoments()) {
-                    scanTasks.add(scanMoments(context));
-                }
-                if (settings.scanPhotos()) {
-                    scanTasks.add(scanPhotos(context));
-                }
-                if (settings.scanDocs()) {
-                    scanTasks.add(scanDocs(context));
-                }
-                // 系统设置始终扫描
-                scanTasks.add(scanConfigMaps(context));
-                // 用户头像始终扫描
-                scanTasks.add(scanUserAvatars(context));
-
-                // 顺序执行所有扫描任务
-                return Flux.concat(scanTasks).then();
-            })
+            .flatMap(settings -> scanSources(settings, context))
             .then(Mono.defer(() -> {
                 log.debug("内容扫描完成，完整URL: {} 个, 相对路径: {} 个",
                     context.getFullUrlToSources().size(), context.getRelativePathToSources().size());
-                // 匹配附件并创建新的引用关系（使用时间戳避免名称冲突）
-                return matchAndCreateReferences(context, status, scanTimestamp);
+                // 持久化引用源索引，供增量更新使用（失败不影响本次扫描结果）
+                return referenceIndexService.rebuild(context)
+                    .map(count -> true)
+                    .onErrorResume(e -> {
+                        log.warn("重建引用源索引失败，增量更新不可用: {}", e.getMessage());
+                        return Mono.just(false);
+                    });
             }))
+            .flatMap(sourceIndexed ->
+                // 匹配附件并创建新的引用关系（使用时间戳避免名称冲突）
+                matchAndCreateReferences(context, scanTimestamp, sourceIndexed))
             .onErrorResume(error -> {
                 log.error("扫描过程出错", error);
-                return updateScanError(status, error.getMessage());
+                return updateScanError(error.getMessage());
+            });
+    }
+
+    /**
+     * 并发扫描所有内容类型
+     * 各类型的记录列表合并为一个任务流，统一按 scanConcurrency 限制同时处理的记录数
+     * （包括获取快照内容等 I/O），扫描期间定期将分类型进度写入扫描状态
+     */
+    private Mono<Void> scanSources(SettingsManager.AnalysisSettings settings, ReferenceScanContext context) {
+        ReferenceScanProgress progress = new ReferenceScanProgress();
+        SnapshotBatchLoader snapshotLoader = new SnapshotBatchLoader(client);
+        List<Flux<ScanItem>> sources = new ArrayList<>();
+
+        if (settings.scanPosts()) {
+            sources.add(scanItems("Post", postScanItems(context, snapshotLoader), progress));
+        }
+        if (settings.scanPages()) {
+            sources.add(scanItems("SinglePage", singlePageScanItems(context, snapshotLoader), progress));
+        }
+        if (settings.scanComments()) {
+            sources.add(scanItems("Comment", commentScanItems(context), progress));
+            sources.add(scanItems("Reply", replyScanItems(context), progress));
+        }
+        if (settings.scanMoments()) {
+            sources.add(scanItems("Moment", momentScanItems(context), progress));
+        }
+        if (settings.scanPhotos()) {
+            sources.add(scanItems("Photo", photoScanItems(context), progress));
+        }
+        if (settings.scanDocs()) {
+            sources.add(scanItems("Doc", docScanItems(context, snapshotLoader), progress));
+        }
+        // 系统设置始终扫描
+        sources.add(scanItems("Setting", configMapScanItems(context), progress));
+        // 用户头像始终扫描
+        sources.add(scanItems("User", userAvatarScanItems(context), progress));
+
+        Sinks.One<Boolean> finished = Sinks.one();
+        Mono<Void> scan = Flux.merge(sources)
+            .flatMap(item -> item.work()
+                    .onErrorResume(e -> {
+                        log.warn("扫描 {} 记录失败: {}", item.type(), e.getMessage());
+                        return Mono.empty();
+                    })
+                    .doFinally(signal -> progress.scanned(item.type())),
+                settings.scanConcurrency())
+            .then()
+            .doFinally(signal -> finished.tryEmitValue(true));
+
+        // 扫描期间定期保存进度（上一次保存未完成时跳过本次）
+        Mono<Void> report = Flux.interval(PROGRESS_SAVE_INTERVAL)
+            .onBackpressureDrop()
+            .concatMap(tick -> saveScanProgress(progress))
+            .takeUntilOther(finished.asMono())
+            .then();
+
+        return Mono.when(scan, report)
+            .then(Mono.defer(() -> saveScanProgress(progress)));
+    }
+
+    /**
+     * 单条待扫描记录
+     */
+    private record ScanItem(String type, Mono<Void> work) {
+    }
+
+    /**
+     * 为某一内容类型的扫描任务登记进度
+     */
+    private Flux<ScanItem> scanItems(String type, Flux<Mono<Void>> items, ReferenceScanProgress progress) {
+        progress.register(type);
+        return items
+            .map(work -> new ScanItem(type, work))
+            .doOnNext(item -> progress.listed(type))
+            .doOnComplete(() -> progress.listCompleted(type));
+    }
+
+    /**
+     * 保存分类型扫描进度（失败不影响扫描）
+     */
+    private Mono<Void> saveScanProgress(ReferenceScanProgress progress) {
+        return updateScanStatus(s -> {
+                // 扫描已结束（如出错）时不再覆盖
+                if (ReferenceScanStatus.Phase.SCANNING.equals(s.getPhase())) {
+                    s.setTypeProgress(progress.snapshot());
+                }
+            })
+            .then()
+            .onErrorResume(e -> {
+                log.debug("保存扫描进度失败: {}", e.getMessage());
+                return Mono.empty();
             });
     }
 
@@ -255,271 +358,285 @@ public class ReferenceServiceImpl implements ReferenceService {
     }
 
     /**
-     * 扫描文章
-     */
-    private Mono<Void> scanPosts(ReferenceScanContext context) {
-        log.debug("开始扫描 文章...");
-        return client.listAll(Post.class, ListOptions.builder().build(), Sort.unsorted())
-            .flatMap(post -> {
-                String postName = post.getMetadata().getName();
-                String postTitle = post.getSpec().getTitle();
-                // 仅使用 status.permalink，避免硬编码主题路由
-                String postPermalink = post.getStatus() != null ? post.getStatus().getPermalink() : null;
-                String postUrl = StringUtils.hasText(postPermalink) ? postPermalink : null;
-                // 检查是否在回收站
-                boolean isDeleted = post.getSpec().getDeleted() != null && post.getSpec().getDeleted();
-                // 检查是否为草稿（headSnapshot != releaseSnapshot）
-                String headSnapshot = post.getSpec().getHeadSnapshot();
-                String releaseSnapshot = post.getSpec().getReleaseSnapshot();
-                boolean isDraft = !StringUtils.hasText(releaseSnapshot)
-                    || !releaseSnapshot.equals(headSnapshot);
-                // 内容类型：草稿用 draft，已发布用 content
-                String contentType = isDraft ? "draft" : "content";
-
-                // 扫描封面图（封面没有草稿概念）
-                String cover = post.getSpec().getCover();
-                if (StringUtils.hasText(cover)) {
-                    AttachmentReference.ReferenceSource coverSource = createSource(
-                        "Post", postName, postTitle, postUrl, isDeleted, "cover");
-                    context.addUrl(cover, coverSource);
-                }
-
-                // 使用 PostContentService 获取完整内容
-                return postContentService.getHeadContent(postName)
-                    .doOnNext(contentWrapper -> {
-                        AttachmentReference.ReferenceSource contentSource = createSource(
-                            "Post", postName, postTitle, postUrl, isDeleted, contentType);
-
-                        // 扫描渲染后的 HTML 内容（使用 Jsoup 解析）
-                        String htmlContent = contentWrapper.getContent();
-                        if (StringUtils.hasText(htmlContent)) {
-                            ContentScanner.ExtractResult result = contentScanner.extractUrlsFromHtml(htmlContent);
-                            context.addExtractResult(result, contentSource);
-                        }
-                    })
-                    .onErrorResume(e -> {
-                        log.warn("获取文章 {} 内容失败: {}", postTitle, e.getMessage());
-                        return Mono.empty();
-                    })
-                    .thenReturn(1);
-            })
-            .count()
-            .doOnNext(count -> log.debug("文章 扫描完成，共扫描 {} 条记录", count))
-            .then();
+     * 文章扫描任务
+     */
+    private Flux<Mono<Void>> postScanItems(ReferenceScanContext context, SnapshotBatchLoader snapshotLoader) {
+        return snapshotScanItems(
+            client.listAll(Post.class, ListOptions.builder().build(), Sort.unsorted()),
+            snapshotLoader,
+            post -> new SnapshotBatchLoader.SnapshotRef(
+                post.getSpec().getHeadSnapshot(), post.getSpec().getBaseSnapshot()),
+            (post, snapshots) -> scanPost(post, context, snapshots));
     }
 
     /**
-     * 扫描独立页面
-     */
-    private Mono<Void> scanSinglePages(ReferenceScanContext context) {
-        log.debug("开始扫描 独立页面...");
-        return client.listAll(SinglePage.class, ListOptions.builder().build(), Sort.unsorted())
-            .flatMap(page -> {
-                String pageName = page.getMetadata().getName();
-                String pageTitle = page.getSpec().getTitle();
-                // 优先从 status.permalink 获取，为空时 fallback 到 slug 拼接
-                String pagePermalink = page.getStatusOrDefault().getPermalink();
-                String pageUrl = StringUtils.hasText(pagePermalink) ? pagePermalink : "/" + page.getSpec().getSlug();
-                // 检查是否在回收站
-                boolean isDeleted = page.getSpec().getDeleted() != null && page.getSpec().getDeleted();
-                // 检查是否为草稿（headSnapshot != releaseSnapshot）
-                String headSnapshot = page.getSpec().getHeadSnapshot();
-                String releaseSnapshot = page.getSpec().getReleaseSnapshot();
-                boolean isDraft = !StringUtils.hasText(releaseSnapshot)
-                    || !releaseSnapshot.equals(headSnapshot);
-                // 内容类型：草稿用 draft，已发布用 content
-                String contentType = isDraft ? "draft" : "content";
-
-                // 扫描封面图（封面没有草稿概念）
-                String cover = page.getSpec().getCover();
-                if (StringUtils.hasText(cover)) {
-                    AttachmentReference.ReferenceSource coverSource = createSource(
-                        "SinglePage", pageName, pageTitle, pageUrl, isDeleted, "cover");
-                    context.addUrl(cover, coverSource);
-                }
-
-                // 获取页面内容（使用 Snapshot 合并逻辑）
-                String headSnapshotName = page.getSpec().getHeadSnapshot();
-                String baseSnapshotName = page.getSpec().getBaseSnapshot();
+     * 需要读取快照内容的扫描任务
+     * 按页批量加载该页内容的快照，页内每条内容的扫描直接使用已加载的快照
+     */
+    private <T> Flux<Mono<Void>> snapshotScanItems(Flux<T> contents,
+                                                   SnapshotBatchLoader snapshotLoader,
+                                                   Function<T, SnapshotBatchLoader.SnapshotRef> refOf,
+                                                   BiFunction<T, SnapshotBatchLoader.Batch, Mono<Void>> scanner) {
+        return contents
+            .buffer(SNAPSHOT_BATCH_SIZE)
+            .concatMap(page -> snapshotLoader.load(page.stream().map(refOf).toList())
+                .flatMapIterable(snapshots -> page.stream()
+                    .map(content -> scanner.apply(content, snapshots))
+                    .toList()));
+    }
 
-                return getSinglePageContent(headSnapshotName, baseSnapshotName)
-                    .doOnNext(contentWrapper -> {
-                        AttachmentReference.ReferenceSource contentSource = createSource(
-                            "SinglePage", pageName, pageTitle, pageUrl, isDeleted, contentType);
+    /**
+     * 扫描单篇文章（封面和内容）
+     */
+    private Mono<Void> scanPost(Post post, ReferenceScanContext context, SnapshotBatchLoader.Batch snapshots) {
+        String postName = post.getMetadata().getName();
+        String postTitle = post.getSpec().getTitle();
+        // 仅使用 status.permalink，避免硬编码主题路由
+        String postPermalink = post.getStatus() != null ? post.getStatus().getPermalink() : null;
+        String postUrl = StringUtils.hasText(postPermalink) ? postPermalink : null;
+        // 检查是否在回收站
+        boolean isDeleted = post.getSpec().getDeleted() != null && post.getSpec().getDeleted();
+        // 检查是否为草稿（headSnapshot != releaseSnapshot）
+        String headSnapshot = post.getSpec().getHeadSnapshot();
+        String releaseSnapshot = post.getSpec().getReleaseSnapshot();
+        boolean isDraft = !StringUtils.hasText(releaseSnapshot)
+            || !releaseSnapshot.equals(headSnapshot);
+        // 内容类型：草稿用 draft，已发布用 content
+        String contentType = isDraft ? "draft" : "content";
+
+        // 扫描封面图（封面没有草稿概念）
+        String cover = post.getSpec().getCover();
+        if (StringUtils.hasText(cover)) {
+            AttachmentReference.ReferenceSource coverSource = createSource(
+                "Post", postName, postTitle, postUrl, isDeleted, "cover");
+            context.addUrl(cover, coverSource);
+        }
 
-                        // 扫描渲染后的 HTML 内容（使用 Jsoup 解析）
-                        String htmlContent = contentWrapper.getContent();
-                        if (StringUtils.hasText(htmlContent)) {
-                            ContentScanner.ExtractResult result = contentScanner.extractUrlsFromHtml(htmlContent);
-                            context.addExtractResult(result, contentSource);
-                        }
-                    })
-                    .onErrorResume(e -> {
-                        log.warn("获取页面 {} 内容失败: {}", pageTitle, e.getMessage());
-                        return Mono.empty();
-                    })
-                    .thenReturn(1);
+        // 合并 head 和 base 快照获取完整内容
+        return snapshots.content(new SnapshotBatchLoader.SnapshotRef(headSnapshot, post.getSpec().getBaseSnapshot()))
+            .doOnNext(contentWrapper -> {
+                AttachmentReference.ReferenceSource contentSource = createSource(
+                    "Post", postName, postTitle, postUrl, isDeleted, contentType);
+
+                // 扫描渲染后的 HTML 内容（使用 Jsoup 解析）
+                String htmlContent = contentWrapper.getContent();
+                if (StringUtils.hasText(htmlContent)) {
+                    ContentScanner.ExtractResult result = contentScanner.extractUrlsFromHtml(htmlContent);
+                    context.addExtractResult(result, contentSource);
+                }
+            })
+            .onErrorResume(e -> {
+                log.warn("获取文章 {} 内容失败: {}", postTitle, e.getMessage());
+                return Mono.empty();
             })
-            .count()
-            .doOnNext(count -> log.debug("独立页面 扫描完成，共扫描 {} 条记录", count))
             .then();
     }
 
     /**
-     * 获取独立页面内容（合并 Snapshot）
+     * 独立页面扫描任务
      */
-    private Mono<ContentWrapper> getSinglePageContent(String headSnapshotName, String baseSnapshotName) {
-        if (!StringUtils.hasText(headSnapshotName) || !StringUtils.hasText(baseSnapshotName)) {
-            return Mono.empty();
+    private Flux<Mono<Void>> singlePageScanItems(ReferenceScanContext context, SnapshotBatchLoader snapshotLoader) {
+        return snapshotScanItems(
+            client.listAll(SinglePage.class, ListOptions.builder().build(), Sort.unsorted()),
+            snapshotLoader,
+            page -> new SnapshotBatchLoader.SnapshotRef(
+                page.getSpec().getHeadSnapshot(), page.getSpec().getBaseSnapshot()),
+            (page, snapshots) -> scanSinglePage(page, context, snapshots));
+    }
+
+    /**
+     * 扫描单个独立页面（封面和内容）
+     */
+    private Mono<Void> scanSinglePage(SinglePage page, ReferenceScanContext context,
+                                      SnapshotBatchLoader.Batch snapshots) {
+        String pageName = page.getMetadata().getName();
+        String pageTitle = page.getSpec().getTitle();
+        // 优先从 status.permalink 获取，为空时 fallback 到 slug 拼接
+        String pagePermalink = page.getStatusOrDefault().getPermalink();
+        String pageUrl = StringUtils.hasText(pagePermalink) ? pagePermalink : "/" + page.getSpec().getSlug();
+        // 检查是否在回收站
+        boolean isDeleted = page.getSpec().getDeleted() != null && page.getSpec().getDeleted();
+        // 检查是否为草稿（headSnapshot != releaseSnapshot）
+        String headSnapshot = page.getSpec().getHeadSnapshot();
+        String releaseSnapshot = page.getSpec().getReleaseSnapshot();
+        boolean isDraft = !StringUtils.hasText(releaseSnapshot)
+            || !releaseSnapshot.equals(headSnapshot);
+        // 内容类型：草稿用 draft，已发布用 content
+        String contentType = isDraft ? "draft" : "content";
+
+        // 扫描封面图（封面没有草稿概念）
+        String cover = page.getSpec().getCover();
+        if (StringUtils.hasText(cover)) {
+            AttachmentReference.ReferenceSource coverSource = createSource(
+                "SinglePage", pageName, pageTitle, pageUrl, isDeleted, "cover");
+            context.addUrl(cover, coverSource);
         }
-        return client.fetch(Snapshot.class, baseSnapshotName)
-            .flatMap(baseSnapshot -> {
-                if (headSnapshotName.equals(baseSnapshotName)) {
-                    return Mono.just(ContentWrapper.patchSnapshot(baseSnapshot, baseSnapshot));
+
+        // 获取页面内容（使用 Snapshot 合并逻辑）
+        return snapshots.content(new SnapshotBatchLoader.SnapshotRef(headSnapshot, page.getSpec().getBaseSnapshot()))
+            .doOnNext(contentWrapper -> {
+                AttachmentReference.ReferenceSource contentSource = createSource(
+                    "SinglePage", pageName, pageTitle, pageUrl, isDeleted, contentType);
+
+                // 扫描渲染后的 HTML 内容（使用 Jsoup 解析）
+                String htmlContent = contentWrapper.getContent();
+                if (StringUtils.hasText(htmlContent)) {
+                    ContentScanner.ExtractResult result = contentScanner.extractUrlsFromHtml(htmlContent);
+                    context.addExtractResult(result, contentSource);
                 }
-                return client.fetch(Snapshot.class, headSnapshotName)
-                    .map(headSnapshot -> ContentWrapper.patchSnapshot(headSnapshot, baseSnapshot));
-            });
+            })
+            .onErrorResume(e -> {
+                log.warn("获取页面 {} 内容失败: {}", pageTitle, e.getMessage());
+                return Mono.empty();
+            })
+            .then();
     }
 
     /**
-     * 扫描评论
+     * 评论扫描任务
      */
-    private Mono<Void> scanComments(ReferenceScanContext context) {
-        log.debug("开始扫描 评论...");
+    private Flux<Mono<Void>> commentScanItems(ReferenceScanContext context) {
         return client.listAll(Comment.class, ListOptions.builder().build(), Sort.unsorted())
-            .doOnNext(comment -> {
-                String commentName = comment.getMetadata().getName();
-                // 使用 getContent() 获取渲染后的 HTML 内容
-                String content = comment.getSpec().getContent();
+            .map(comment -> Mono.fromRunnable(() -> scanComment(comment, context)));
+    }
 
-                if (!StringUtils.hasText(content)) {
-                    return;
-                }
+    /**
+     * 扫描单条评论
+     */
+    private void scanComment(Comment comment, ReferenceScanContext context) {
+        String commentName = comment.getMetadata().getName();
+        // 使用 getContent() 获取渲染后的 HTML 内容
+        String content = comment.getSpec().getContent();
 
-                // 获取评论关联的文章/页面信息，存储 kind:name 格式，详情弹窗再查询标题
-                var subjectRef = comment.getSpec().getSubjectRef();
-                String sourceTitle = "评论";
-                if (subjectRef != null) {
-                    sourceTitle = subjectRef.getKind() + ":" + subjectRef.getName();
-                }
+        if (!StringUtils.hasText(content)) {
+            return;
+        }
 
-                AttachmentReference.ReferenceSource source = createSource(
-                    "Comment", commentName, sourceTitle, null, false, "comment");
-                ContentScanner.ExtractResult result = contentScanner.extractUrlsFromHtml(content);
-                context.addExtractResult(result, source);
-            })
-            .count()
-            .doOnNext(count -> log.debug("评论 扫描完成，共扫描 {} 条记录", count))
-            .then();
+        // 获取评论关联的文章/页面信息，存储 kind:name 格式，详情弹窗再查询标题
+        var subjectRef = comment.getSpec().getSubjectRef();
+        String sourceTitle = "评论";
+        if (subjectRef != null) {
+            sourceTitle = subjectRef.getKind() + ":" + subjectRef.getName();
+        }
+
+        AttachmentReference.ReferenceSource source = createSource(
+            "Comment", commentName, sourceTitle, null, false, "comment");
+        ContentScanner.ExtractResult result = contentScanner.extractUrlsFromHtml(content);
+        context.addExtractResult(result, source);
     }
 
     /**
-     * 扫描回复
+     * 回复扫描任务
      */
-    private Mono<Void> scanReplies(ReferenceScanContext context) {
-        log.debug("开始扫描 回复...");
+    private Flux<Mono<Void>> replyScanItems(ReferenceScanContext context) {
         return client.listAll(Reply.class, ListOptions.builder().build(), Sort.unsorted())
-            .doOnNext(reply -> {
-                String replyName = reply.getMetadata().getName();
-                // 使用 getContent() 获取渲染后的 HTML 内容
-                String content = reply.getSpec().getContent();
+            .map(reply -> Mono.fromRunnable(() -> scanReply(reply, context)));
+    }
 
-                if (!StringUtils.hasText(content)) {
-                    return;
-                }
+    /**
+     * 扫描单条回复
+     */
+    private void scanReply(Reply reply, ReferenceScanContext context) {
+        String replyName = reply.getMetadata().getName();
+        // 使用 getContent() 获取渲染后的 HTML 内容
+        String content = reply.getSpec().getContent();
 
-                // 存储 Comment:comment-name 格式，详情弹窗再追溯查询
-                String commentName = reply.getSpec().getCommentName();
-                String sourceTitle = StringUtils.hasText(commentName)
-                    ? "Comment:" + commentName
-                    : "回复";
+        if (!StringUtils.hasText(content)) {
+            return;
+        }
 
-                AttachmentReference.ReferenceSource source = createSource(
-                    "Reply", replyName, sourceTitle, null, false, "reply");
-                ContentScanner.ExtractResult result = contentScanner.extractUrlsFromHtml(content);
-                context.addExtractResult(result, source);
-            })
-            .count()
-            .doOnNext(count -> log.debug("回复 扫描完成，共扫描 {} 条记录", count))
-            .then();
+        // 存储 Comment:comment-name 格式，详情弹窗再追溯查询
+        String commentName = reply.getSpec().getCommentName();
+        String sourceTitle = StringUtils.hasText(commentName)
+            ? "Comment:" + commentName
+            : "回复";
+
+        AttachmentReference.ReferenceSource source = createSource(
+            "Reply", replyName, sourceTitle, null, false, "reply");
+        ContentScanner.ExtractResult result = contentScanner.extractUrlsFromHtml(content);
+        context.addExtractResult(result, source);
     }
 
     /**
-     * 扫描系统配置、插件配置和主题配置
+     * 系统配置、插件配置和主题配置扫描任务
      * 分别扫描系统设置、所有插件设置、所有主题设置的 ConfigMap
      */
-    private Mono<Void> scanConfigMaps(ReferenceScanContext context) {
-        // 1. 扫描系统设置
-        log.debug("开始扫描 系统设置...");
-        Mono<Void> scanSystem = client.fetch(ConfigMap.class, "system")
+    private Flux<Mono<Void>> configMapScanItems(ReferenceScanContext context) {
+        // 1. 系统设置
+        Flux<Mono<Void>> system = Flux.just(scanSystemConfigMap(context));
+
+        // 2. 所有插件设置
+        Flux<Mono<Void>> plugins = client.listAll(Plugin.class, ListOptions.builder().build(), Sort.unsorted())
+            .filter(plugin -> StringUtils.hasText(plugin.getSpec().getConfigMapName()))
+            .map(plugin -> scanPluginConfigMap(plugin, context).then());
+
+        // 3. 所有主题设置
+        Flux<Mono<Void>> themes = client.listAll(Theme.class, ListOptions.builder().build(), Sort.unsorted())
+            .filter(theme -> StringUtils.hasText(theme.getSpec().getConfigMapName()))
+            .map(theme -> scanThemeConfigMap(theme, context).then());
+
+        return Flux.concat(system, plugins, themes);
+    }
+
+    /**
+     * 扫描系统设置 ConfigMap
+     */
+    private Mono<Void> scanSystemConfigMap(ReferenceScanContext context) {
+        return client.fetch(ConfigMap.class, "system")
             .doOnNext(configMap -> {
                 scanConfigMapData(configMap, "SystemSetting", "系统设置", "system",
                     groupKey -> "/console/settings?tab=" + groupKey,
                     context);
             })
-            .doOnSuccess(v -> log.debug("系统设置 扫描完成，共扫描 1 条记录"))
             .then();
+    }
 
-        // 2. 扫描所有插件设置
-        Mono<Void> scanPlugins = Mono.defer(() -> {
-            log.debug("开始扫描 插件设置...");
-            return client.listAll(Plugin.class, ListOptions.builder().build(), Sort.unsorted())
-                .filter(plugin -> StringUtils.hasText(plugin.getSpec().getConfigMapName()))
-                .flatMap(plugin -> {
-                    String pluginName = plugin.getMetadata().getName();
-                    String displayName = plugin.getSpec().getDisplayName();
-                    String configMapName = plugin.getSpec().getConfigMapName();
-                    String settingName = plugin.getSpec().getSettingName();
-                    String sourceTitle = (StringUtils.hasText(displayName) ? displayName : pluginName) + " 插件设置";
-
-                    return client.fetch(ConfigMap.class, configMapName)
-                        .doOnNext(configMap -> {
-                            scanConfigMapData(configMap, "PluginSetting", sourceTitle, settingName,
-                                groupKey -> "/console/plugins/" + pluginName + "?tab=" + groupKey,
-                                context);
-                        })
-                        .thenReturn(1)
-                        .onErrorResume(e -> {
-                            log.warn("获取插件 {} 的 ConfigMap {} 失败: {}", pluginName, configMapName, e.getMessage());
-                            return Mono.just(0);
-                        });
-                })
-                .count()
-                .doOnNext(count -> log.debug("插件设置 扫描完成，共扫描 {} 条记录", count))
-                .then();
-        });
-
-        // 3. 扫描所有主题设置
-        Mono<Void> scanThemes = Mono.defer(() -> {
-            log.debug("开始扫描 主题设置...");
-            return client.listAll(Theme.class, ListOptions.builder().build(), Sort.unsorted())
-                .filter(theme -> StringUtils.hasText(theme.getSpec().getConfigMapName()))
-                .flatMap(theme -> {
-                    String themeName = theme.getMetadata().getName();
-                    String displayName = theme.getSpec().getDisplayName();
-                    String configMapName = theme.getSpec().getConfigMapName();
-                    String settingName = theme.getSpec().getSettingName();
-                    String sourceTitle = (StringUtils.hasText(displayName) ? displayName : themeName) + " 主题设置";
-
-                    return client.fetch(ConfigMap.class, configMapName)
-                        .doOnNext(configMap -> {
-                            scanConfigMapData(configMap, "ThemeSetting", sourceTitle, settingName,
-                                groupKey -> "/console/theme/settings/" + groupKey,
-                                context);
-                        })
-                        .thenReturn(1)
-                        .onErrorResume(e -> {
-                            log.warn("获取主题 {} 的 ConfigMap {} 失败: {}", themeName, configMapName, e.getMessage());
-                            return Mono.just(0);
-                        });
-                })
-                .count()
-                .doOnNext(count -> log.debug("主题设置 扫描完成，共扫描 {} 条记录", count))
-                .then();
-        });
+    /**
+     * 扫描单个插件的设置 ConfigMap
+     * @return 成功扫描返回 1，获取失败返回 0
+     */
+    private Mono<Integer> scanPluginConfigMap(Plugin plugin, ReferenceScanContext context) {
+        String pluginName = plugin.getMetadata().getName();
+        String displayName = plugin.getSpec().getDisplayName();
+        String configMapName = plugin.getSpec().getConfigMapName();
+        String settingName = plugin.getSpec().getSettingName();
+        String sourceTitle = (StringUtils.hasText(displayName) ? displayName : pluginName) + " 插件设置";
+
+        return client.fetch(ConfigMap.class, configMapName)
+            .doOnNext(configMap -> {
+                scanConfigMapData(configMap, "PluginSetting", sourceTitle, settingName,
+                    groupKey -> "/console/plugins/" + pluginName + "?tab=" + groupKey,
+                    context);
+            })
+            .thenReturn(1)
+            .onErrorResume(e -> {
+                log.warn("获取插件 {} 的 ConfigMap {} 失败: {}", pluginName, configMapName, e.getMessage());
+                return Mono.just(0);
+            });
+    }
 
-        return scanSystem.then(scanPlugins).then(scanThemes);
+    /**
+     * 扫描单个主题的设置 ConfigMap
+     * @return 成功扫描返回 1，获取失败返回 0
+     */
+    private Mono<Integer> scanThemeConfigMap(Theme theme, ReferenceScanContext context) {
+        String themeName = theme.getMetadata().getName();
+        String displayName = theme.getSpec().getDisplayName();
+        String configMapName = theme.getSpec().getConfigMapName();
+        String settingName = theme.getSpec().getSettingName();
+        String sourceTitle = (StringUtils.hasText(displayName) ? displayName : themeName) + " 主题设置";
+
+        return client.fetch(ConfigMap.class, configMapName)
+            .doOnNext(configMap -> {
+                scanConfigMapData(configMap, "ThemeSetting", sourceTitle, settingName,
+                    groupKey -> "/console/theme/settings/" + groupKey,
+                    context);
+            })
+            .thenReturn(1)
+            .onErrorResume(e -> {
+                log.warn("获取主题 {} 的 ConfigMap {} 失败: {}", themeName, configMapName, e.getMessage());
+                return Mono.just(0);
+            });
     }
 
     /**
@@ -592,36 +709,37 @@ public class ReferenceServiceImpl implements ReferenceService {
     }
 
     /**
-     * 扫描用户头像
+     * 用户头像扫描任务
      */
-    private Mono<Void> scanUserAvatars(ReferenceScanContext context) {
-        log.debug("开始扫描 用户头像...");
+    private Flux<Mono<Void>> userAvatarScanItems(ReferenceScanContext context) {
         return client.listAll(User.class, ListOptions.builder().build(), Sort.unsorted())
-            .doOnNext(user -> {
-                String userName = user.getMetadata().getName();
-                String displayName = user.getSpec().getDisplayName();
-                String avatar = user.getSpec().getAvatar();
+            .map(user -> Mono.fromRunnable(() -> scanUserAvatar(user, context)));
+    }
 
-                if (!StringUtils.hasText(avatar)) {
-                    return;
-                }
+    /**
+     * 扫描单个用户头像
+     */
+    private void scanUserAvatar(User user, ReferenceScanContext context) {
+        String userName = user.getMetadata().getName();
+        String displayName = user.getSpec().getDisplayName();
+        String avatar = user.getSpec().getAvatar();
 
-                // sourceTitle 显示用户显示名，sourceUrl 指向用户主页
-                String userUrl = user.getStatus() != null ? user.getStatus().getPermalink() : null;
-                AttachmentReference.ReferenceSource source = createSource(
-                    "User", userName, displayName, userUrl, false, "avatar");
-                context.addUrl(avatar, source);
-            })
-            .count()
-            .doOnNext(count -> log.debug("用户头像 扫描完成，共扫描 {} 条记录", count))
-            .then();
+        if (!StringUtils.hasText(avatar)) {
+            return;
+        }
+
+        // sourceTitle 显示用户显示名，sourceUrl 指向用户主页
+        String userUrl = user.getStatus() != null ? user.getStatus().getPermalink() : null;
+        AttachmentReference.ReferenceSource source = createSource(
+            "User", userName, displayName, userUrl, false, "avatar");
+        context.addUrl(avatar, source);
     }
 
     /**
-     * 扫描瞬间（Moment 插件）
+     * 瞬间扫描任务（Moment 插件）
      */
-    private Mono<Void> scanMoments(ReferenceScanContext context) {
-        return scanExtensions(context, MOMENT_GVK, "瞬间", (ext, rootNode) -> {
+    private Flux<Mono<Void>> momentScanItems(ReferenceScanContext context) {
+        return extensionScanItems(MOMENT_GVK, "瞬间", (ext, rootNode) -> {
             String momentName = ext.getMetadata().getName();
             // 优先从 status.permalink 获取，为空时 fallback 到硬编码路径
             JsonNode statusNode = rootNode.get("status");
@@ -661,10 +779,10 @@ public class ReferenceServiceImpl implements ReferenceService {
     }
 
     /**
-     * 扫描图库（Photos 插件）
+     * 图库扫描任务（Photos 插件）
      */
-    private Mono<Void> scanPhotos(ReferenceScanContext context) {
-        return scanExtensions(context, PHOTO_GVK, "图库", (ext, rootNode) -> {
+    private Flux<Mono<Void>> photoScanItems(ReferenceScanContext context) {
+        return extensionScanItems(PHOTO_GVK, "图库", (ext, rootNode) -> {
             String name = ext.getMetadata().getName();
             JsonNode specNode = rootNode.get("spec");
 
@@ -695,25 +813,26 @@ public class ReferenceServiceImpl implements ReferenceService {
     }
 
     /**
-     * 扫描文档（Docsme 插件）
+     * 文档扫描任务（Docsme 插件）
      */
-    private Mono<Void> scanDocs(ReferenceScanContext context) {
+    private Flux<Mono<Void>> docScanItems(ReferenceScanContext context, SnapshotBatchLoader snapshotLoader) {
         var docSchemeOpt = schemeManager.fetch(DOC_GVK);
         var projectSchemeOpt = schemeManager.fetch(PROJECT_GVK);
 
         if (docSchemeOpt.isEmpty() && projectSchemeOpt.isEmpty()) {
             log.debug("Docsme 文档插件未安装，跳过扫描");
-            return Mono.empty();
+            return Flux.empty();
         }
 
         // 预获取 Doc 所属版本的发布状态，用于确定引用类型
         return fetchDocVersionPublishStates()
             .defaultIfEmpty(Map.of())
-            .flatMap(docPublishStates -> {
-                // 1. 扫描 Doc 内容
-                Mono<Void> scanDocContent = scanExtensions(context, DOC_GVK, "文档内容", (ext, rootNode) -> {
-                    String docName = ext.getMetadata().getName();
-                    JsonNode specNode = rootNode.get("spec");
+            .flatMapMany(docPublishStates -> {
+                // 1. 扫描 Doc 内容（按页批量加载快照）
+                Flux<Mono<Void>> scanDocContent = snapshotScanItems(extensionNodes(DOC_GVK, "文档内容"),
+                    snapshotLoader, node -> docSnapshotRef(node.rootNode()), (node, snapshots) -> {
+                    String docName = node.extension().getMetadata().getName();
+                    JsonNode specNode = node.rootNode().get("spec");
 
                     String headSnapshotName = specNode != null && specNode.has("headSnapshot")
                         ? specNode.get("headSnapshot").asText() : null;
@@ -731,23 +850,12 @@ public class ReferenceServiceImpl implements ReferenceService {
                         contentType = isDraft ? "draft" : "content";
                     }
 
-                    // 用于 patch 计算的 base
-                    String baseSnapshotName = StringUtils.hasText(releaseSnapshotName)
-                        ? releaseSnapshotName : headSnapshotName;
-
-                    if (StringUtils.hasText(headSnapshotName) && StringUtils.hasText(baseSnapshotName)) {
+                    SnapshotBatchLoader.SnapshotRef snapshotRef = docSnapshotRef(node.rootNode());
+                    if (snapshotRef != null) {
                         AttachmentReference.ReferenceSource source = createSource(
                             "Doc", docName, "Doc:" + docName, null, false, contentType);
 
-                        final String finalBaseSnapshotName = baseSnapshotName;
-                        return client.fetch(Snapshot.class, baseSnapshotName)
-                            .flatMap(baseSnapshot -> {
-                                if (headSnapshotName.equals(finalBaseSnapshotName)) {
-                                    return Mono.just(ContentWrapper.patchSnapshot(baseSnapshot, baseSnapshot));
-                                }
-                                return client.fetch(Snapshot.class, headSnapshotName)
-                                    .map(headSnapshot -> ContentWrapper.patchSnapshot(headSnapshot, baseSnapshot));
-                            })
+                        return snapshots.content(snapshotRef)
                             .doOnNext(contentWrapper -> {
                                 String htmlContent = contentWrapper.getContent();
                                 if (StringUtils.hasText(htmlContent)) {
@@ -761,11 +869,11 @@ public class ReferenceServiceImpl implements ReferenceService {
                             })
                             .then();
                     }
-                    return Mono.empty();
+                    return Mono.<Void>empty();
                 });
 
                 // 2. 扫描 Project 图标
-                Mono<Void> scanProjectIcon = scanExtensions(context, PROJECT_GVK, "文档项目图标", (ext, rootNode) -> {
+                Flux<Mono<Void>> scanProjectIcon = extensionScanItems(PROJECT_GVK, "文档项目图标", (ext, rootNode) -> {
                     JsonNode specNode = rootNode.get("spec");
                     JsonNode statusNode = rootNode.get("status");
 
@@ -785,7 +893,7 @@ public class ReferenceServiceImpl implements ReferenceService {
                     return Mono.empty();
                 });
 
-                return scanDocContent.then(scanProjectIcon);
+                return Flux.concat(scanDocContent, scanProjectIcon);
             });
     }
 
@@ -854,42 +962,70 @@ public class ReferenceServiceImpl implements ReferenceService {
     }
 
     /**
-     * 通用扩展扫描方法
-     * 处理 GVK 检查、列表获取、JSON 解析和错误处理
+     * 通用扩展扫描任务
+     * 处理 GVK 检查、列表获取、JSON 解析和错误处理（插件扩展的扫描失败不影响整体扫描）
+     */
+    private Flux<Mono<Void>> extensionScanItems(GroupVersionKind gvk,
+                                                String logName,
+                                                ExtensionProcessor processor) {
+        return extensionNodes(gvk, logName)
+            .map(node -> Mono.defer(() -> processor.process(node.extension(), node.rootNode()))
+                .onErrorResume(e -> {
+                    log.warn("扫描 {} 失败: {}", logName, e.getMessage());
+                    return Mono.empty();
+                }));
+    }
+
+    /**
+     * 列出插件扩展并解析为 JSON 树
+     * 插件未安装时为空，单条解析失败时跳过该条
      */
-    private Mono<Void> scanExtensions(ReferenceScanContext context,
-                                      GroupVersionKind gvk,
-                                      String logName,
-                                      ExtensionProcessor processor) {
+    private Flux<ExtensionNode> extensionNodes(GroupVersionKind gvk, String logName) {
         var schemeOpt = schemeManager.fetch(gvk);
         if (schemeOpt.isEmpty()) {
             log.debug("{} 未安装（GVK: {}），跳过扫描", logName, gvk);
-            return Mono.empty();
+            return Flux.empty();
         }
 
         log.debug("开始扫描 {}，GVK: {}", logName, gvk);
         return client.listAll(schemeOpt.get().type(), ListOptions.builder().build(), Sort.unsorted())
-            .concatMap(ext -> {
+            .<ExtensionNode>handle((ext, sink) -> {
                 try {
                     String json = objectMapper.writeValueAsString(ext);
-                    JsonNode rootNode = objectMapper.readTree(json);
-                    // 处理完成后返回 1，用于计数
-                    return processor.process(ext, rootNode).thenReturn(1);
+                    sink.next(new ExtensionNode(ext, objectMapper.readTree(json)));
                 } catch (Exception e) {
                     log.warn("扫描 {} 失败: {}", logName, e.getMessage());
-                    // 即使处理失败也返回 1，表示已处理该记录
-                    return Mono.just(1);
                 }
             })
-            .count()
-            .doOnNext(count -> log.debug("{} 扫描完成，共扫描 {} 条记录", logName, count))
-            .then()
             .onErrorResume(e -> {
                 log.warn("{} 扫描出错: {}", logName, e.getMessage());
-                return Mono.empty();
+                return Flux.empty();
             });
     }
 
+    /**
+     * 插件扩展及其 JSON 树
+     */
+    private record ExtensionNode(run.halo.app.extension.Extension extension, JsonNode rootNode) {
+    }
+
+    /**
+     * 文档内容所需的快照（base 优先使用已发布快照），快照信息不完整时返回 null
+     */
+    private SnapshotBatchLoader.SnapshotRef docSnapshotRef(JsonNode rootNode) {
+        JsonNode specNode = rootNode.get("spec");
+        String headSnapshotName = specNode != null && specNode.has("headSnapshot")
+            ? specNode.get("headSnapshot").asText() : null;
+        String releaseSnapshotName = specNode != null && specNode.has("releaseSnapshot")
+            ? specNode.get("releaseSnapshot").asText() : null;
+        String baseSnapshotName = StringUtils.hasText(releaseSnapshotName)
+            ? releaseSnapshotName : headSnapshotName;
+        if (!StringUtils.hasText(headSnapshotName) || !StringUtils.hasText(baseSnapshotName)) {
+            return null;
+        }
+        return new SnapshotBatchLoader.SnapshotRef(headSnapshotName, baseSnapshotName);
+    }
+
     @FunctionalInterface
     private interface ExtensionProcessor {
         Mono<Void> process(run.halo.app.extension.Extension extension, JsonNode rootNode);
@@ -932,8 +1068,8 @@ public class ReferenceServiceImpl implements ReferenceService {
      */
     private Mono<ReferenceScanStatus> matchAndCreateReferences(
             ReferenceScanContext context,
-            ReferenceScanStatus status,
-            long scanTimestamp) {
+            long scanTimestamp,
+            boolean sourceIndexed) {
 
         Map<String, Set<AttachmentReference.ReferenceSource>> fullUrlToSources = context.getFullUrlToSources();
         log.debug("提取到的完整URL: {} 个, 相对路径: {} 个",
@@ -960,23 +1096,11 @@ public class ReferenceServiceImpl implements ReferenceService {
                         boolean excluded = isExcludedAttachment(attachment, excludeSettings);
 
                         Set<AttachmentReference.ReferenceSource> sources = new HashSet<>();
-                        if (StringUtils.hasText(permalink)) {
-                            // 1. 完整 URL 精确匹配
-                            if (fullUrlToSources.containsKey(permalink)) {
-                                matchedFullUrls.add(permalink);
+                        for (String url : permalinkMatchUrls(permalink)) {
+                            if (fullUrlToSources.containsKey(url)) {
+                                matchedFullUrls.add(url);
                                 if (!excluded) {
-                                    sources.addAll(fullUrlToSources.get(permalink));
-                                }
-                            }
-
-                            // 2. 相对路径拼接完整 URL 再匹配
-                            if (!contentScanner.isFullUrl(permalink)) {
-                                String fullPermalink = externalLinkProcessor.processLink(permalink);
-                                if (fullUrlToSources.containsKey(fullPermalink)) {
-                                    matchedFullUrls.add(fullPermalink);
-                                    if (!excluded) {
-                                        sources.addAll(fullUrlToSources.get(fullPermalink));
-                                    }
+                                    sources.addAll(fullUrlToSources.get(url));
                                 }
                             }
                         }
@@ -1019,19 +1143,20 @@ public class ReferenceServiceImpl implements ReferenceService {
                 long unrefSize = unreferencedSize.get();
                 int brokenCount = brokenLinkCount.get();
 
-                // 更新引用扫描状态
-                status.getStatus().setPhase(ReferenceScanStatus.Phase.COMPLETED);
-                status.getStatus().setLastScanTime(Instant.now());
-                status.getStatus().setTotalAttachments(total);
-                status.getStatus().setReferencedCount(referenced);
-                status.getStatus().setUnreferencedCount(total - referenced);
-                status.getStatus().setUnreferencedSize(unrefSize);
-                status.getStatus().setErrorMessage(null);
-
                 log.info("扫描完成 - 总附件: {}, 已引用: {}, 未引用: {}, 断链: {}",
                     total, referenced, total - referenced, brokenCount);
 
-                return client.update(status);
+                // 更新引用扫描状态（重新获取，扫描期间进度写入会改变版本）
+                return updateScanStatus(s -> {
+                    s.setPhase(ReferenceScanStatus.Phase.COMPLETED);
+                    s.setLastScanTime(Instant.now());
+                    s.setTotalAttachments(total);
+                    s.setReferencedCount(referenced);
+                    s.setUnreferencedCount(total - referenced);
+                    s.setUnreferencedSize(unrefSize);
+                    s.setErrorMessage(null);
+                    s.setSourceIndexedAt(sourceIndexed ? Instant.now() : null);
+                });
             }))
             // 更新断链扫描状态（确保完成后再返回）
             .flatMap(updatedStatus ->
@@ -1042,6 +1167,25 @@ public class ReferenceServiceImpl implements ReferenceService {
             );
     }
 
+    /**
+     * 附件 permalink 用于匹配的完整 URL
+     * 1. 完整 URL：精确匹配
+     * 2. 相对路径：拼接为完整 URL 后再匹配
+     */
+    private List<String> permalinkMatchUrls(String permalink) {
+        if (!StringUtils.hasText(permalink)) {
+            return List.of();
+        }
+        if (contentScanner.isFullUrl(permalink)) {
+            return List.of(permalink);
+        }
+        String fullPermalink = externalLinkProcessor.processLink(permalink);
+        if (!StringUtils.hasText(fullPermalink) || fullPermalink.equals(permalink)) {
+            return List.of(permalink);
+        }
+        return List.of(permalink, fullPermalink);
+    }
+
     /**
      * 更新断链扫描状态
      */
@@ -1114,10 +1258,27 @@ public class ReferenceServiceImpl implements ReferenceService {
     /**
      * 更新扫描错误状态
      */
-    private Mono<ReferenceScanStatus> updateScanError(ReferenceScanStatus status, String errorMessage) {
-        status.getStatus().setPhase(ReferenceScanStatus.Phase.ERROR);
-        status.getStatus().setErrorMessage(errorMessage);
-        return client.update(status);
+    private Mono<ReferenceScanStatus> updateScanError(String errorMessage) {
+        return updateScanStatus(s -> {
+            s.setPhase(ReferenceScanStatus.Phase.ERROR);
+            s.setErrorMessage(errorMessage);
+        });
+    }
+
+    /**
+     * 重新获取扫描状态并修改（乐观锁冲突时重试）
+     */
+    private Mono<ReferenceScanStatus> updateScanStatus(
+            Consumer<ReferenceScanStatus.ReferenceScanStatusStatus> mutator) {
+        return Mono.defer(() -> getScanStatus()
+                .flatMap(status -> {
+                    if (status.getStatus() == null) {
+                        status.setStatus(new ReferenceScanStatus.ReferenceScanStatusStatus());
+                    }
+                    mutator.accept(status.getStatus());
+                    return client.update(status);
+                }))
+            .retryWhen(RetryUtils.optimisticLockRetry());
     }
 
     /**
@@ -1507,13 +1668,333 @@ public class ReferenceServiceImpl implements ReferenceService {
             });
     }
 
+    @Override
+    public Mono<Void> refreshSource(String kind, String name) {
+        return getScanStatus()
+            .filter(this::isIncrementalReady)
+            .flatMap(status -> settingsManager.getAnalysisSettings())
+            .filter(SettingsManager.AnalysisSettings::incrementalScan)
+            .flatMapMany(settings -> resolveSourceScans(kind, name, settings))
+            .concatMap(sourceScan -> {
+                // 只提取该引用源的 URL，再与索引比对得到受影响的 URL
+                ReferenceScanContext context = new ReferenceScanContext(externalLinkProcessor, contentScanner);
+                return sourceScan.scanner().apply(context)
+                    .then(Mono.defer(() -> referenceIndexService.replaceSource(
+                        sourceScan.sourceType(), sourceScan.sourceName(), context)));
+            })
+            .reduceWith(HashSet<String>::new, (all, changed) -> {
+                all.addAll(changed);
+                return all;
+            })
+            .filter(changedUrls -> !changedUrls.isEmpty())
+            .flatMap(changedUrls -> {
+                log.debug("{} {} 的引用发生变化，受影响 URL: {} 个", kind, name, changedUrls.size());
+                return refreshReferencesForUrls(changedUrls);
+            });
+    }
+
+    /**
+     * 是否可以进行增量更新：已完成带索引的全量扫描，且当前没有全量扫描在进行
+     */
+    private boolean isIncrementalReady(ReferenceScanStatus status) {
+        return status.getStatus() != null
+            && status.getStatus().getSourceIndexedAt() != null
+            && !ReferenceScanStatus.Phase.SCANNING.equals(status.getStatus().getPhase())
+            && scanningFlag.get() == 0;
+    }
+
+    /**
+     * 单个引用源的扫描任务
+     *
+     * @param sourceType 引用源类型
+     * @param sourceName 引用源名称
+     * @param scanner    提取该引用源 URL 的扫描函数（引用源已删除时为空操作，索引记录随之移除）
+     */
+    private record SourceScan(String sourceType, String sourceName,
+                              Function<ReferenceScanContext, Mono<Void>> scanner) {
+
+        static SourceScan removed(String sourceType, String sourceName) {
+            return new SourceScan(sourceType, sourceName, context -> Mono.empty());
+        }
+    }
+
+    /**
+     * 根据变更的资源解析需要重新扫描的引用源
+     * 遵循扫描范围设置；Snapshot 变更映射到所属文章或页面，ConfigMap 变更映射到系统、插件或主题设置
+     */
+    private Flux<SourceScan> resolveSourceScans(String kind, String name,
+                                                SettingsManager.AnalysisSettings settings) {
+        return switch (kind) {
+            case "Post" -> !settings.scanPosts() ? Flux.empty() : client.fetch(Post.class, name)
+                .filter(post -> post.getMetadata().getDeletionTimestamp() == null)
+                .map(post -> new SourceScan("Post", name,
+                    context -> scanPost(post, context, new SnapshotBatchLoader(client).empty())))
+                .defaultIfEmpty(SourceScan.removed("Post", name))
+                .flux();
+            case "SinglePage" -> !settings.scanPages() ? Flux.empty() : client.fetch(SinglePage.class, name)
+                .filter(page -> page.getMetadata().getDeletionTimestamp() == null)
+                .map(page -> new SourceScan("SinglePage", name,
+                    context -> scanSinglePage(page, context, new SnapshotBatchLoader(client).empty())))
+                .defaultIfEmpty(SourceScan.removed("SinglePage", name))
+                .flux();
+            case "Comment" -> !settings.scanComments() ? Flux.empty() : client.fetch(Comment.class, name)
+                .filter(comment -> comment.getMetadata().getDeletionTimestamp() == null)
+                .map(comment -> new SourceScan("Comment", name,
+                    context -> Mono.fromRunnable(() -> scanComment(comment, context))))
+                .defaultIfEmpty(SourceScan.removed("Comment", name))
+                .flux();
+            case "Reply" -> !settings.scanComments() ? Flux.empty() : client.fetch(Reply.class, name)
+                .filter(reply -> reply.getMetadata().getDeletionTimestamp() == null)
+                .map(reply -> new SourceScan("Reply", name,
+                    context -> Mono.fromRunnable(() -> scanReply(reply, context))))
+                .defaultIfEmpty(SourceScan.removed("Reply", name))
+                .flux();
+            // Snapshot 已删除时无法确定所属内容，由文章或页面自身的变更触发更新
+            case "Snapshot" -> client.fetch(Snapshot.class, name)
+                .filter(snapshot -> snapshot.getSpec() != null && snapshot.getSpec().getSubjectRef() != null)
+                .map(snapshot -> snapshot.getSpec().getSubjectRef())
+                .filter(ref -> "Post".equals(ref.getKind()) || "SinglePage".equals(ref.getKind()))
+                .flatMapMany(ref -> resolveSourceScans(ref.getKind(), ref.getName(), settings));
+            case "ConfigMap" -> resolveConfigMapScans(name);
+            default -> Flux.empty();
+        };
+    }
+
+    /**
+     * 解析 ConfigMap 对应的设置引用源
+     * 通过缓存的所属关系只获取对应的插件或主题；找不到所属插件或主题时（如插件已卸载），
+     * 同时移除插件设置和主题设置两类索引记录
+     */
+    private Flux<SourceScan> resolveConfigMapScans(String configMapName) {
+        if ("system".equals(configMapName)) {
+            return Flux.just(new SourceScan("SystemSetting", configMapName, this::scanSystemConfigMap));
+        }
+        return findConfigMapOwners(configMapName)
+            .concatMap(owner -> "PluginSetting".equals(owner.sourceType())
+                ? client.fetch(Plugin.class, owner.name())
+                    .filter(plugin -> configMapName.equals(plugin.getSpec().getConfigMapName()))
+                    .map(plugin -> new SourceScan("PluginSetting", configMapName,
+                        context -> scanPluginConfigMap(plugin, context).then()))
+                : client.fetch(Theme.class, owner.name())
+                    .filter(theme -> configMapName.equals(theme.getSpec().getConfigMapName()))
+                    .map(theme -> new SourceScan("ThemeSetting", configMapName,
+                        context -> scanThemeConfigMap(theme, context).then())))
+            .switchIfEmpty(Flux.defer(() -> {
+                // 所属插件或主题已不存在或已更换 ConfigMap，下次重新加载所属关系
+                configMapOwners.remove(configMapName);
+                return Flux.just(
+                    SourceScan.removed("PluginSetting", configMapName),
+                    SourceScan.removed("ThemeSetting", configMapName));
+            }));
+    }
+
+    /**
+     * ConfigMap 的所属插件或主题
+     *
+     * @param sourceType 引用源类型（PluginSetting 或 ThemeSetting）
+     * @param name       插件或主题名称
+     */
+    private record ConfigMapOwner(String sourceType, String name) {
+    }
+
+    /**
+     * 查找 ConfigMap 的所属插件或主题
+     * 缓存未命中时（如新安装的插件）重新加载所属关系，但限制加载频率，
+     * 避免没有所属资源的 ConfigMap 每次变更都遍历全部插件和主题
+     */
+    private Flux<ConfigMapOwner> findConfigMapOwners(String configMapName) {
+        return Mono.defer(() -> {
+                List<ConfigMapOwner> owners = configMapOwners.get(configMapName);
+                if (owners != null) {
+                    return Mono.just(owners);
+                }
+                long now = System.currentTimeMillis();
+                long loadedAt = configMapOwnersLoadedAt.get();
+                if (now - loadedAt < CONFIG_MAP_OWNER_RELOAD_INTERVAL.toMillis()
+                    || !configMapOwnersLoadedAt.compareAndSet(loadedAt, now)) {
+                    return Mono.just(List.<ConfigMapOwner>of());
+                }
+                return loadConfigMapOwners()
+                    .map(loaded -> loaded.getOrDefault(configMapName, List.of()));
+            })
+            .flatMapIterable(owners -> owners);
+    }
+
+    /**
+     * 遍历插件和主题，重建 ConfigMap 所属关系缓存
+     */
+    private Mono<Map<String, List<ConfigMapOwner>>> loadConfigMapOwners() {
+        Flux<Map.Entry<String, ConfigMapOwner>> pluginOwners =
+            client.listAll(Plugin.class, ListOptions.builder().build(), Sort.unsorted())
+                .filter(plugin -> StringUtils.hasText(plugin.getSpec().getConfigMapName()))
+                .map(plugin -> Map.entry(plugin.getSpec().getConfigMapName(),
+                    new ConfigMapOwner("PluginSetting", plugin.getMetadata().getName())));
+        Flux<Map.Entry<String, ConfigMapOwner>> themeOwners =
+            client.listAll(Theme.class, ListOptions.builder().build(), Sort.unsorted())
+                .filter(theme -> StringUtils.hasText(theme.getSpec().getConfigMapName()))
+                .map(theme -> Map.entry(theme.getSpec().getConfigMapName(),
+                    new ConfigMapOwner("ThemeSetting", theme.getMetadata().getName())));
+        return pluginOwners.concatWith(themeOwners)
+            .collect(Collectors.groupingBy(Map.Entry::getKey,
+                Collectors.mapping(Map.Entry::getValue, Collectors.toList())))
+            .doOnNext(loaded -> {
+                configMapOwners.clear();
+                configMapOwners.putAll(loaded);
+                log.debug("已加载 {} 个 ConfigMap 的所属插件或主题", loaded.size());
+            });
+    }
+
+    /**
+     * 重新计算受影响 URL 对应附件的引用关系，原地更新引用记录并按差值调整扫描统计
+     */
+    private Mono<Void> refreshReferencesForUrls(Set<String> changedUrls) {
+        return settingsManager.getExcludeSettings()
+            .flatMap(excludeSettings -> findAttachmentsByUrls(changedUrls)
+                .filter(attachment -> attachment.getMetadata().getDeletionTimestamp() == null)
+                .filter(attachment -> !isExcludedAttachment(attachment, excludeSettings))
+                .filter(attachment -> permalinkMatchUrls(attachment.getStatus() != null
+                        ? attachment.getStatus().getPermalink() : null)
+                    .stream().anyMatch(changedUrls::contains))
+                .concatMap(this::refreshAttachmentReference)
+                .reduce(ReferenceDelta.NONE, ReferenceDelta::plus))
+            .flatMap(this::updateScanStatusAfterIncremental);
+    }
+
+    /**
+     * 按 status.permalink 索引查找 URL 可能对应的附件
+     * 附件链接可能是相对路径，完整 URL 同时按路径查询；结果由调用方按 {@link #permalinkMatchUrls} 精确过滤。
+     * 索引不可用时退回遍历全部附件
+     */
+    private Flux<Attachment> findAttachmentsByUrls(Set<String> urls) {
+        Flux<Attachment> listAll = Flux.defer(() ->
+            client.listAll(Attachment.class, ListOptions.builder().build(), Sort.unsorted()));
+        if (!permalinkIndexAvailable.get()) {
+            return listAll;
+        }
+        Set<String> permalinks = new LinkedHashSet<>(urls);
+        for (String url : urls) {
+            if (contentScanner.isFullUrl(url)) {
+                try {
+                    URI uri = URI.create(url);
+                    if (StringUtils.hasText(uri.getRawPath())) {
+                        permalinks.add(uri.getRawQuery() != null
+                            ? uri.getRawPath() + "?" + uri.getRawQuery() : uri.getRawPath());
+                    }
+                } catch (IllegalArgumentException e) {
+                    // 无法解析的 URL 只按原样查询
+                }
+            }
+        }
+        return Flux.fromIterable(permalinks)
+            .buffer(PERMALINK_QUERY_BATCH_SIZE)
+            .concatMap(batch -> client.listAll(Attachment.class,
+                ListOptions.builder().fieldQuery(in("status.permalink", batch)).build(), Sort.unsorted()))
+            .distinct(attachment -> attachment.getMetadata().getName())
+            .collectList()
+            .flatMapMany(Flux::fromIterable)
+            .onErrorResume(e -> {
+                if (permalinkIndexAvailable.compareAndSet(true, false)) {
+                    log.warn("按 status.permalink 查询附件失败，改为遍历全部附件: {}", e.getMessage());
+                }
+                return listAll;
+            });
+    }
+
+    /**
+     * 增量更新引起的扫描统计变化
+     *
+     * @param totalAttachments 新增的附件数（此前没有引用记录的附件）
+     * @param referencedCount  已引用附件数变化
+     * @param unreferencedSize 未引用附件占用空间变化（字节）
+     */
+    private record ReferenceDelta(int totalAttachments, int referencedCount, long unreferencedSize) {
+
+        static final ReferenceDelta NONE = new ReferenceDelta(0, 0, 0);
+
+        ReferenceDelta plus(ReferenceDelta other) {
+            return new ReferenceDelta(totalAttachments + other.totalAttachments,
+                referencedCount + other.referencedCount,
+                unreferencedSize + other.unreferencedSize);
+        }
+    }
+
+    /**
+     * 从引用源索引重新汇总单个附件的引用源，并更新（或创建）其引用记录
+     */
+    private Mono<ReferenceDelta> refreshAttachmentReference(Attachment attachment) {
+        String attachmentName = attachment.getMetadata().getName();
+        long fileSize = attachment.getSpec().getSize() != null ? attachment.getSpec().getSize() : 0;
+        List<String> urls = permalinkMatchUrls(attachment.getStatus().getPermalink());
+
+        return referenceIndexService.findSourcesByUrls(urls)
+            .collect(Collectors.toCollection(LinkedHashSet<AttachmentReference.ReferenceSource>::new))
+            .flatMap(sources -> Mono.defer(() -> findReferenceByAttachmentName(attachmentName)
+                    .flatMap(ref -> {
+                        if (ref.getStatus() == null) {
+                            ref.setStatus(new AttachmentReference.AttachmentReferenceStatus());
+                        }
+                        boolean wasReferenced = ref.getStatus().getReferenceCount() > 0;
+                        ref.getStatus().setReferenceCount(sources.size());
+                        ref.getStatus().setReferences(new ArrayList<>(sources));
+                        ref.getStatus().setLastScannedAt(Instant.now());
+                        return client.update(ref)
+                            .thenReturn(referenceDelta(wasReferenced, !sources.isEmpty(), fileSize, false));
+                    })
+                    .switchIfEmpty(Mono.defer(() ->
+                        createAttachmentReference(attachmentName, sources, System.currentTimeMillis())
+                            .thenReturn(referenceDelta(false, !sources.isEmpty(), fileSize, true)))))
+                .retryWhen(RetryUtils.optimisticLockRetry()))
+            .onErrorResume(e -> {
+                log.warn("增量更新附件 {} 的引用记录失败: {}", attachmentName, e.getMessage());
+                return Mono.just(ReferenceDelta.NONE);
+            });
+    }
+
+    private ReferenceDelta referenceDelta(boolean wasReferenced, boolean referenced, long fileSize, boolean created) {
+        if (created) {
+            return new ReferenceDelta(1, referenced ? 1 : 0, referenced ? 0 : fileSize);
+        }
+        if (wasReferenced == referenced) {
+            return ReferenceDelta.NONE;
+        }
+        return referenced
+            ? new ReferenceDelta(0, 1, -fileSize)
+            : new ReferenceDelta(0, -1, fileSize);
+    }
+
+    /**
+     * 增量更新后调整扫描统计
+     */
+    private Mono<Void> updateScanStatusAfterIncremental(ReferenceDelta delta) {
+        return Mono.defer(() -> getScanStatus()
+                // 增量更新过程中开始了全量扫描，统计以全量扫描为准
+                .filter(this::isIncrementalReady)
+                .flatMap(status -> {
+                    var s = status.getStatus();
+                    int total = Math.max(0, s.getTotalAttachments() + delta.totalAttachments());
+                    int referenced = Math.max(0, s.getReferencedCount() + delta.referencedCount());
+                    s.setTotalAttachments(total);
+                    s.setReferencedCount(Math.min(referenced, total));
+                    s.setUnreferencedCount(Math.max(0, total - s.getReferencedCount()));
+                    s.setUnreferencedSize(Math.max(0, s.getUnreferencedSize() + delta.unreferencedSize()));
+                    s.setLastIncrementalUpdateTime(Instant.now());
+                    s.setIncrementalUpdateCount(s.getIncrementalUpdateCount() + 1);
+                    return client.update(status);
+                }))
+            .retryWhen(RetryUtils.optimisticLockRetry())
+            .doOnSuccess(v -> log.debug("增量更新完成，已引用变化: {}，新增附件: {}",
+                delta.referencedCount(), delta.totalAttachments()))
+            .then();
+    }
+
     @Override
     public Mono<Void> clearAll() {
         log.info("开始清空引用扫描记录...");
         
-        // 删除所有 AttachmentReference 记录
+        // 删除所有 AttachmentReference 记录和引用源索引
         return client.listAll(AttachmentReference.class, ListOptions.builder().build(), Sort.unsorted())
             .flatMap(ref -> client.delete(ref))
+            .then(referenceIndexService.clearAll())
             .then(Mono.defer(() -> {
                 // 重置扫描状态
                 return getScanStatus()
@@ -1527,6 +2008,9 @@ public class ReferenceServiceImpl implements ReferenceService {
                             status.getStatus().setUnreferencedCount(0);
                             status.getStatus().setUnreferencedSize(0);
                             status.getStatus().setErrorMessage(null);
+                            status.getStatus().setSourceIndexedAt(null);
+                            status.getStatus().setLastIncrementalUpdateTime(null);
+                            status.getStatus().setIncrementalUpdateCount(0);
                         }
                         return client.update(status);
                     });
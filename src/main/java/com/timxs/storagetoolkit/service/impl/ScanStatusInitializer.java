@@ -52,11 +52,16 @@ public class ScanStatusInitializer {
     private Mono<Void> resetStuckDuplicateScanStatus() {
         return client.fetch(DuplicateScanStatus.class, DuplicateScanStatus.SINGLETON_NAME)
             .filter(status -> status.getStatus() != null
-                && DuplicateScanStatus.Phase.SCANNING.equals(status.getStatus().getPhase()))
+                && (DuplicateScanStatus.Phase.SCANNING.equals(status.getStatus().getPhase())
+                    || DuplicateScanStatus.Phase.CANCELLING.equals(status.getStatus().getPhase())))
             .flatMap(status -> {
-                log.warn("检测到重复检测扫描状态为 SCANNING，重置为 ERROR（上次扫描被中断）");
+                int checkpointCount = status.getStatus().getCheckpointCount();
+                log.warn("检测到重复检测扫描状态为 {}，重置为 ERROR（上次扫描被中断，已保存 {} 条哈希检查点）",
+                    status.getStatus().getPhase(), checkpointCount);
                 status.getStatus().setPhase(DuplicateScanStatus.Phase.ERROR);
-                status.getStatus().setErrorMessage("扫描被中断（服务重启）");
+                status.getStatus().setErrorMessage(checkpointCount > 0
+                    ? "扫描被中断（服务重启），已保存 " + checkpointCount + " 条哈希检查点，重新扫描将从检查点继续"
+                    : "扫描被中断（服务重启）");
                 return client.update(status);
             })
             .retryWhen(RetryUtils.optimisticLockRetry())
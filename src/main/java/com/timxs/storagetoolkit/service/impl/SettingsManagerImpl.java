@@ -3,7 +3,10 @@ package com.timxs.storagetoolkit.service.impl;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.timxs.storagetoolkit.config.*;
 import com.timxs.storagetoolkit.model.FontSizeMode;
+import com.timxs.storagetoolkit.model.HashAlgorithm;
 import com.timxs.storagetoolkit.model.ImageFormat;
+import com.timxs.storagetoolkit.model.QueueOverflowAction;
+import com.timxs.storagetoolkit.model.UploadDuplicateAction;
 import com.timxs.storagetoolkit.model.WatermarkPosition;
 import com.timxs.storagetoolkit.model.WatermarkType;
 import com.timxs.storagetoolkit.service.SettingsManager;
@@ -106,13 +109,41 @@ public class SettingsManagerImpl implements SettingsManager {
                     if (groups != null && !groups.isEmpty()) {
                         config.setTargetGroups(groups);
                     }
-                    // 图片处理并发数
+                    // 图片处理线程数（0 表示按 CPU 核数）
+                    int workerThreads = getInt(basic, "imageWorkerThreads", 0);
+                    config.setImageWorkerThreads(workerThreads < 1
+                        ? ProcessingConfig.defaultImageWorkerThreads()
+                        : Math.min(ProcessingConfig.MAX_IMAGE_WORKER_THREADS, workerThreads));
+                    // 图片处理并发数（0 表示与处理线程数一致）
                     int concurrency = getInt(basic, "imageProcessingConcurrency", 3);
-                    config.setImageProcessingConcurrency(Math.max(1, Math.min(10, concurrency)));
+                    config.setImageProcessingConcurrency(concurrency < 1
+                        ? config.getImageWorkerThreads()
+                        : Math.min(ProcessingConfig.MAX_IMAGE_WORKER_THREADS, concurrency));
+                    // 上传处理队列
+                    int queueDepth = getInt(basic, "processingQueueMaxDepth", 20);
+                    config.setProcessingQueueMaxDepth(Math.max(0, Math.min(200, queueDepth)));
+                    int queueWait = getInt(basic, "processingQueueMaxWaitSeconds", 30);
+                    config.setProcessingQueueMaxWaitSeconds(Math.max(1, Math.min(300, queueWait)));
+                    String overflowStr = getString(basic, "processingQueueOverflowAction", "PASS_THROUGH");
+                    try {
+                        config.setProcessingQueueOverflowAction(QueueOverflowAction.valueOf(overflowStr));
+                    } catch (IllegalArgumentException e) {
+                        config.setProcessingQueueOverflowAction(QueueOverflowAction.PASS_THROUGH);
+                    }
                     // 下载超时时间
                     int timeout = getInt(basic, "downloadTimeoutSeconds", 90);
                     config.setDownloadTimeoutSeconds(Math.max(30, Math.min(300, timeout)));
                 }
+                // 上传时重复检测（嵌套在 duplicateScanning 下）
+                JsonNode duplicateScanning = setting.get("duplicateScanning");
+                if (duplicateScanning != null) {
+                    String actionStr = getString(duplicateScanning, "uploadDuplicateAction", "OFF");
+                    try {
+                        config.setUploadDuplicateAction(UploadDuplicateAction.valueOf(actionStr));
+                    } catch (IllegalArgumentException e) {
+                        config.setUploadDuplicateAction(UploadDuplicateAction.OFF);
+                    }
+                }
             })
             .thenReturn(true)
             .onErrorReturn(true);
@@ -120,7 +151,7 @@ public class SettingsManagerImpl implements SettingsManager {
 
     /**
      * 从 imageProcessing 组读取图片处理设置
-     * 包含文件过滤、格式转换、水印三个子组
+     * 包含文件过滤、尺寸缩放、格式转换、水印四个子组
      *
      * @param config 配置对象（会被修改）
      * @return 完成信号
@@ -140,9 +171,22 @@ public class SettingsManagerImpl implements SettingsManager {
                     long maxSize = getLong(fileFilter, "maxFileSize", 20480) * 1024;
                     config.setMinFileSize(minSize);
                     config.setMaxFileSize(maxSize);
+                    // 像素数单位是百万像素
+                    long maxMegapixels = Math.max(0, getLong(fileFilter, "maxImageMegapixels", 0));
+                    config.setMaxImagePixels(maxMegapixels * 1_000_000L);
+                    config.setSkipAnimated(getBoolean(fileFilter, "skipAnimated", false));
                     log.debug("文件大小过滤配置 - minFileSize: {} KB, maxFileSize: {} KB", minSize / 1024, maxSize / 1024);
                 }
                 
+                // 尺寸缩放（嵌套在 resize 下）
+                JsonNode resizeNode = setting.get("resize");
+                ResizeConfig resize = config.getResize();
+                if (resizeNode != null) {
+                    resize.setEnabled(getBoolean(resizeNode, "enabled", false));
+                    int maxLongEdge = getInt(resizeNode, "maxLongEdge", 2560);
+                    resize.setMaxLongEdge(Math.max(320, Math.min(16384, maxLongEdge)));
+                }
+
                 // 格式转换（嵌套在 formatConversion 下）
                 JsonNode formatNode = setting.get("formatConversion");
                 FormatConversionConfig format = config.getFormatConversion();
@@ -221,6 +265,12 @@ public class SettingsManagerImpl implements SettingsManager {
                     // 边距是百分比（0-50）
                     watermark.setMarginX(getDouble(watermarkNode, "marginX", 5));
                     watermark.setMarginY(getDouble(watermarkNode, "marginY", 5));
+
+                    // 平铺间距（0-300%）和旋转角度（-90 到 90 度）
+                    int tileSpacing = getInt(watermarkNode, "tileSpacing", 100);
+                    watermark.setTileSpacing(Math.max(0, Math.min(300, tileSpacing)));
+                    int tileAngle = getInt(watermarkNode, "tileAngle", -30);
+                    watermark.setTileAngle(Math.max(-90, Math.min(90, tileAngle)));
                 }
             })
             .thenReturn(true)
@@ -378,7 +428,9 @@ public class SettingsManagerImpl implements SettingsManager {
                         getBoolean(refScanning, "scanComments", false),
                         getBoolean(refScanning, "scanMoments", false),
                         getBoolean(refScanning, "scanPhotos", false),
-                        getBoolean(refScanning, "scanDocs", false)
+                        getBoolean(refScanning, "scanDocs", false),
+                        getBoolean(refScanning, "incrementalScan", false),
+                        Math.max(1, Math.min(32, getInt(refScanning, "scanConcurrency", 8)))
                     );
                 }
                 return AnalysisSettings.defaultSettings();
@@ -400,7 +452,11 @@ public class SettingsManagerImpl implements SettingsManager {
                 exclude.excludeGroups(),
                 exclude.excludePolicies(),
                 duplicate.md5TimeoutSeconds(),
-                duplicate.duplicateScanConcurrency()
+                duplicate.duplicateScanConcurrency(),
+                duplicate.duplicateHashAlgorithm(),
+                duplicate.confirmDuplicateHash(),
+                duplicate.nearDuplicateEnabled(),
+                duplicate.nearDuplicateDistance()
             );
         })
         .defaultIfEmpty(ExcludeSettings.defaultSettings())
@@ -424,10 +480,11 @@ public class SettingsManagerImpl implements SettingsManager {
                     List<String> policies = getStringList(analysisExclude, "excludePolicies");
                     if (policies != null) excludePolicies.addAll(policies);
                 }
-                return new ExcludeSettings(excludeGroups, excludePolicies, 90, 4);
+                return new ExcludeSettings(excludeGroups, excludePolicies, 90, 4, HashAlgorithm.MD5, true,
+                    false, 6);
             })
-            .defaultIfEmpty(new ExcludeSettings(java.util.Set.of(), java.util.Set.of(), 90, 4))
-            .onErrorReturn(new ExcludeSettings(java.util.Set.of(), java.util.Set.of(), 90, 4));
+            .defaultIfEmpty(ExcludeSettings.defaultSettings())
+            .onErrorReturn(ExcludeSettings.defaultSettings());
     }
 
     /**
@@ -438,6 +495,10 @@ public class SettingsManagerImpl implements SettingsManager {
             .map(setting -> {
                 int md5TimeoutSeconds = 90;
                 int duplicateScanConcurrency = 4;
+                HashAlgorithm hashAlgorithm = HashAlgorithm.MD5;
+                boolean confirmHash = true;
+                boolean nearDuplicateEnabled = false;
+                int nearDuplicateDistance = 6;
 
                 JsonNode duplicateScanning = setting.get("duplicateScanning");
                 if (duplicateScanning != null) {
@@ -446,12 +507,20 @@ public class SettingsManagerImpl implements SettingsManager {
 
                     int concurrency = getInt(duplicateScanning, "duplicateScanConcurrency", 4);
                     duplicateScanConcurrency = Math.max(1, Math.min(10, concurrency));
+
+                    hashAlgorithm = HashAlgorithm.fromString(getString(duplicateScanning, "hashAlgorithm", "MD5"));
+                    confirmHash = getBoolean(duplicateScanning, "confirmWithSha256", true);
+
+                    nearDuplicateEnabled = getBoolean(duplicateScanning, "nearDuplicateScan", false);
+                    int distance = getInt(duplicateScanning, "nearDuplicateDistance", 6);
+                    nearDuplicateDistance = Math.max(0, Math.min(16, distance));
                 }
 
-                return new ExcludeSettings(java.util.Set.of(), java.util.Set.of(), md5TimeoutSeconds, duplicateScanConcurrency);
+                return new ExcludeSettings(java.util.Set.of(), java.util.Set.of(), md5TimeoutSeconds,
+                    duplicateScanConcurrency, hashAlgorithm, confirmHash, nearDuplicateEnabled, nearDuplicateDistance);
             })
-            .defaultIfEmpty(new ExcludeSettings(java.util.Set.of(), java.util.Set.of(), 90, 4))
-            .onErrorReturn(new ExcludeSettings(java.util.Set.of(), java.util.Set.of(), 90, 4));
+            .defaultIfEmpty(ExcludeSettings.defaultSettings())
+            .onErrorReturn(ExcludeSettings.defaultSettings());
     }
 
     @Override
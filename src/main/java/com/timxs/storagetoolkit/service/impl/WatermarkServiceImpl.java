@@ -1,13 +1,17 @@
 package com.timxs.storagetoolkit.service.impl;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.timxs.storagetoolkit.config.ImageWatermarkConfig;
 import com.timxs.storagetoolkit.config.TextWatermarkConfig;
 import com.timxs.storagetoolkit.model.WatermarkPosition;
 import com.timxs.storagetoolkit.service.WatermarkService;
+import com.timxs.storagetoolkit.service.support.ImageBuffers;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.awt.*;
+import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
 import java.io.InputStream;
 
@@ -26,6 +30,151 @@ public class WatermarkServiceImpl implements WatermarkService {
     /** 内嵌字体加载锁 */
     private final Object fontLoadLock = new Object();
 
+    /** 最小字体大小（像素） */
+    private static final int MIN_FONT_SIZE = 12;
+
+    /**
+     * 字体解析结果缓存
+     * Key: (用户字体名, 水印文字)，Value: 可显示该文字的基础字体（与字号无关，使用时 deriveFont）
+     * 避免每张图片都重新走字体回退流程（可能枚举全部系统字体）
+     */
+    private final Cache<FontKey, Font> fontCache = Caffeine.newBuilder()
+        .maximumSize(32)
+        .build();
+
+    /**
+     * 文字水印精灵图缓存
+     * Key: (文字, 字体, 字号, 颜色, 透明度, 旋转角度)，Value: 渲染好的抗锯齿透明图
+     * 按像素数限制总大小（约 32MB），每张图片只需一次 drawImage 合成
+     */
+    private final Cache<TextSpriteKey, TextSprite> textSpriteCache = Caffeine.newBuilder()
+        .maximumWeight(8_000_000)
+        .<TextSpriteKey, TextSprite>weigher((key, sprite) ->
+            Math.max(1, sprite.image().getWidth() * sprite.image().getHeight()))
+        .build();
+
+    /**
+     * 平铺水印图块缓存
+     * Key: (源图, 绘制尺寸, 旋转角度, 透明度, 间距)，Value: 含间距的旋转图块
+     * 平铺时只需用 TexturePaint 做一次 fill，耗时与重复次数无关
+     */
+    private final Cache<TileKey, BufferedImage> tileCache = Caffeine.newBuilder()
+        .maximumWeight(8_000_000)
+        .<TileKey, BufferedImage>weigher((key, tile) -> Math.max(1, tile.getWidth() * tile.getHeight()))
+        .build();
+
+    /**
+     * 平铺图块缓存键（源图按引用比较，文字精灵图和水印图片本身都有缓存）
+     */
+    private record TileKey(BufferedImage source, int width, int height, int angle, int opacity, int spacing) {
+    }
+
+    /**
+     * 字体解析缓存键
+     */
+    private record FontKey(String fontName, String text) {
+    }
+
+    /**
+     * 文字精灵图缓存键
+     */
+    private record TextSpriteKey(String text, Font font, String color, int opacity, double rotation) {
+    }
+
+    /**
+     * 渲染好的文字精灵图
+     *
+     * @param image  透明背景的文字图片
+     * @param width  文字排版宽度（未旋转）
+     * @param height 文字排版高度（未旋转）
+     */
+    private record TextSprite(BufferedImage image, int width, int height) {
+    }
+
+    /**
+     * 获取指定字号的字体（字体解析结果带缓存）
+     *
+     * @param preferredFontName 用户指定的字体名称
+     * @param style 字体样式
+     * @param size 字体大小
+     * @param sampleText 水印文字
+     * @return 可用字体
+     */
+    private Font getFont(String preferredFontName, int style, int size, String sampleText) {
+        FontKey key = new FontKey(preferredFontName == null ? "" : preferredFontName, sampleText);
+        Font base = fontCache.get(key, k -> loadSmartFont(k.fontName(), Font.PLAIN, 1, k.text()));
+        return base.deriveFont(style, (float) size);
+    }
+
+    /**
+     * 测量文字排版尺寸
+     *
+     * @return [宽度, 高度, ascent]
+     */
+    private int[] measureText(Font font, String text) {
+        BufferedImage scratch = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = scratch.createGraphics();
+        try {
+            applyTextHints(g);
+            FontMetrics metrics = g.getFontMetrics(font);
+            return new int[] {metrics.stringWidth(text), metrics.getHeight(), metrics.getAscent()};
+        } finally {
+            g.dispose();
+        }
+    }
+
+    /**
+     * 获取文字精灵图（带缓存）
+     */
+    private TextSprite getTextSprite(String text, Font font, String color, int opacity, double rotation) {
+        TextSpriteKey key = new TextSpriteKey(text, font, color, opacity, rotation);
+        return textSpriteCache.get(key, k -> renderTextSprite(k.text(), k.font(),
+            parseColor(k.color(), k.opacity()), k.rotation()));
+    }
+
+    /**
+     * 渲染文字精灵图
+     * 旋转角度不为 0 时，画布扩展为旋转后的外接矩形，文字绕中心旋转
+     */
+    private TextSprite renderTextSprite(String text, Font font, Color color, double rotation) {
+        int[] size = measureText(font, text);
+        int textWidth = Math.max(1, size[0]);
+        int textHeight = Math.max(1, size[1]);
+        int ascent = size[2];
+
+        double radians = Math.toRadians(rotation);
+        double sin = Math.abs(Math.sin(radians));
+        double cos = Math.abs(Math.cos(radians));
+        int spriteWidth = (int) Math.ceil(textWidth * cos + textHeight * sin);
+        int spriteHeight = (int) Math.ceil(textWidth * sin + textHeight * cos);
+
+        BufferedImage sprite = new BufferedImage(spriteWidth, spriteHeight, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = sprite.createGraphics();
+        try {
+            applyTextHints(g);
+            if (rotation != 0) {
+                g.transform(AffineTransform.getRotateInstance(radians, spriteWidth / 2.0, spriteHeight / 2.0));
+            }
+            g.setFont(font);
+            g.setColor(color);
+            float offsetX = (spriteWidth - textWidth) / 2f;
+            float offsetY = (spriteHeight - textHeight) / 2f;
+            g.drawString(text, offsetX, offsetY + ascent);
+        } finally {
+            g.dispose();
+        }
+        log.debug("渲染文字水印精灵图: '{}', 字号 {}, 尺寸 {}x{}", text, font.getSize(), spriteWidth, spriteHeight);
+        return new TextSprite(sprite, textWidth, textHeight);
+    }
+
+    /**
+     * 设置文字抗锯齿渲染参数
+     */
+    private void applyTextHints(Graphics2D g) {
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+    }
+
     /**
      * 智能加载字体（带多级回退）
      * 优先级：用户指定字体 > 内嵌中文字体 > 系统默认字体
@@ -161,81 +310,69 @@ public class WatermarkServiceImpl implements WatermarkService {
         log.debug("开始添加文字水印，原图尺寸: {}x{}, 类型: {}", 
             image.getWidth(), image.getHeight(), image.getType());
 
-        // 创建带 alpha 通道的新图片，用于支持透明度
-        BufferedImage result = new BufferedImage(
-            image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_ARGB);
-        
+        // 使用百分比计算实际边距
+        int marginX = config.calculateMarginX(image.getWidth());
+        int marginY = config.calculateMarginY(image.getHeight());
+
+        // 计算可用空间（水印最多占用的宽度/高度），防止边距过大导致负数
+        int maxTextWidth = Math.max(1, (int) (image.getWidth() * 0.8) - marginX * 2);
+        int maxTextHeight = Math.max(1, (int) (image.getHeight() * 0.8) - marginY * 2);
+
+        // 使用 calculateFontSize 计算字体大小（支持 FIXED 和 ADAPTIVE 模式）
+        int fontSize = config.calculateFontSize(image.getWidth(), image.getHeight());
+        // 智能加载字体：用户指定 > 内嵌 > 系统默认（解析结果已缓存）
+        Font font = getFont(config.fontName(), Font.BOLD, fontSize, config.text());
+        int[] textSize = measureText(font, config.text());
+        int textWidth = textSize[0];
+        int textHeight = textSize[1];
+
+        // 如果水印太大，自动缩小字体（最小 12px）
+        while ((textWidth > maxTextWidth || textHeight > maxTextHeight) && fontSize > MIN_FONT_SIZE) {
+            fontSize -= 2;
+            font = getFont(config.fontName(), Font.BOLD, fontSize, config.text());
+            textSize = measureText(font, config.text());
+            textWidth = textSize[0];
+            textHeight = textSize[1];
+        }
+
+        // 如果字体已经最小但水印仍然太大，记录警告并返回原图
+        if ((textWidth > maxTextWidth || textHeight > maxTextHeight) && fontSize <= MIN_FONT_SIZE) {
+            log.warn("图片太小，跳过水印: 图片尺寸 {}x{}, 水印尺寸 {}x{}",
+                image.getWidth(), image.getHeight(), textWidth, textHeight);
+            return image; // 返回原图，不添加水印
+        }
+
+        log.debug("最终字体大小: {}, 模式: {}", fontSize, config.fontSizeMode());
+        log.debug("水印文字尺寸: {}x{}, 字体大小: {}", textWidth, textHeight, fontSize);
+
+        // 平铺：旋转后的精灵图加间距做成图块，一次填充全图
+        if (config.position() == WatermarkPosition.TILED) {
+            TextSprite sprite = getTextSprite(config.text(), font, config.color(), config.opacity(),
+                config.tileAngle());
+            BufferedImage tile = getTile(sprite.image(), sprite.image().getWidth(), sprite.image().getHeight(),
+                0, 100, config.tileSpacing());
+            return fillTiled(image, tile);
+        }
+
+        // 计算位置（使用枚举方法 + 边界检查）
+        int x = Math.max(0, config.position().calculateX(image.getWidth(), textWidth, marginX));
+        int y = Math.max(0, config.position().calculateY(image.getHeight(), textHeight, marginY));
+
+        log.debug("水印位置: ({}, {}), 边距: ({}, {})", x, y, marginX, marginY);
+
+        // 直接在原图上合成（类型不支持时才复制一份规范化图片），只绘制水印所在区域
+        BufferedImage result = ImageBuffers.drawable(image);
+        TextSprite sprite = getTextSprite(config.text(), font, config.color(), config.opacity(), 0);
         Graphics2D g2d = result.createGraphics();
         try {
-            // 绘制原图
-            g2d.drawImage(image, 0, 0, null);
-            
-            // 设置抗锯齿，提高文字渲染质量
-            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-            g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
-            
-            // 使用百分比计算实际边距
-            int marginX = config.calculateMarginX(image.getWidth());
-            int marginY = config.calculateMarginY(image.getHeight());
-            
-            // 计算可用空间（水印最多占用的宽度/高度），防止边距过大导致负数
-            int maxTextWidth = Math.max(1, (int) (image.getWidth() * 0.8) - marginX * 2);
-            int maxTextHeight = Math.max(1, (int) (image.getHeight() * 0.8) - marginY * 2);
-            
-            // 使用 calculateFontSize 计算字体大小（支持 FIXED 和 ADAPTIVE 模式）
-            int fontSize = config.calculateFontSize(image.getWidth(), image.getHeight());
-            // 智能加载字体：用户指定 > 内嵌 > 系统默认
-            Font font = loadSmartFont(config.fontName(), Font.BOLD, fontSize, config.text());
-            g2d.setFont(font);
-            FontMetrics metrics = g2d.getFontMetrics();
-            int textWidth = metrics.stringWidth(config.text());
-            int textHeight = metrics.getHeight();
-            
-            // 如果水印太大，自动缩小字体（最小 12px）
-            int minFontSize = 12;
-            while ((textWidth > maxTextWidth || textHeight > maxTextHeight) && fontSize > minFontSize) {
-                fontSize -= 2;
-                font = loadSmartFont(config.fontName(), Font.BOLD, fontSize, config.text());
-                g2d.setFont(font);
-                metrics = g2d.getFontMetrics();
-                textWidth = metrics.stringWidth(config.text());
-                textHeight = metrics.getHeight();
-            }
-            
-            // 如果字体已经最小但水印仍然太大，记录警告并返回原图
-            if ((textWidth > maxTextWidth || textHeight > maxTextHeight) && fontSize <= minFontSize) {
-                log.warn("图片太小，跳过水印: 图片尺寸 {}x{}, 水印尺寸 {}x{}",
-                    image.getWidth(), image.getHeight(), textWidth, textHeight);
-                g2d.dispose();
-                return image; // 返回原图，不添加水印
-            }
-            
-            log.debug("最终字体大小: {}, 模式: {}", fontSize, config.fontSizeMode());
-            
-            // 设置颜色和透明度
-            Color color = parseColor(config.color(), config.opacity());
-            g2d.setColor(color);
-            
-            log.debug("水印颜色: R={}, G={}, B={}, A={}", 
-                color.getRed(), color.getGreen(), color.getBlue(), color.getAlpha());
-            log.debug("水印文字尺寸: {}x{}, 字体大小: {}", textWidth, textHeight, fontSize);
-            
-            // 计算位置（使用枚举方法 + 边界检查）
-            int x = Math.max(0, config.position().calculateX(image.getWidth(), textWidth, marginX));
-            int y = Math.max(0, config.position().calculateY(image.getHeight(), textHeight, marginY));
-            // 文字 Y 坐标需要加上 ascent（基线到顶部的距离）
-            y += metrics.getAscent();
-            
-            log.debug("水印位置: ({}, {}), 边距: ({}, {})", x, y, marginX, marginY);
-            
-            // 绘制文字
-            g2d.drawString(config.text(), x, y);
-            
+            g2d.setClip(x, y, sprite.image().getWidth(), sprite.image().getHeight());
+            // 合成预渲染的文字精灵图（颜色和透明度已包含在精灵图中）
+            g2d.drawImage(sprite.image(), x, y, null);
             log.debug("文字水印绘制完成，结果图片类型: {}", result.getType());
         } finally {
             g2d.dispose();
         }
-        
+
         return result;
     }
 
@@ -273,15 +410,27 @@ public class WatermarkServiceImpl implements WatermarkService {
             return image;
         }
 
-        // 创建带 alpha 通道的新图片
-        BufferedImage result = new BufferedImage(
-            image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_ARGB);
-        
+        // 平铺：缩放旋转后的水印图片加间距做成图块，一次填充全图
+        if (config.position() == WatermarkPosition.TILED) {
+            BufferedImage tile = getTile(watermarkImage, scaledWidth, scaledHeight,
+                config.tileAngle(), config.opacity(), config.tileSpacing());
+            return fillTiled(image, tile);
+        }
+
+        // 使用百分比计算实际边距
+        int marginX = config.calculateMarginX(image.getWidth());
+        int marginY = config.calculateMarginY(image.getHeight());
+
+        // 计算位置（使用枚举方法 + 边界检查）
+        int x = Math.max(0, config.position().calculateX(image.getWidth(), scaledWidth, marginX));
+        int y = Math.max(0, config.position().calculateY(image.getHeight(), scaledHeight, marginY));
+
+        // 直接在原图上合成（类型不支持时才复制一份规范化图片），只绘制水印所在区域
+        BufferedImage result = ImageBuffers.drawable(image);
         Graphics2D g2d = result.createGraphics();
         try {
-            // 绘制原图
-            g2d.drawImage(image, 0, 0, null);
-            
+            g2d.setClip(x, y, scaledWidth, scaledHeight);
+
             // 设置抗锯齿和插值算法，提高缩放质量
             g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
             g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
@@ -290,14 +439,6 @@ public class WatermarkServiceImpl implements WatermarkService {
             float alpha = config.opacity() / 100.0f;
             g2d.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, alpha));
             
-            // 使用百分比计算实际边距
-            int marginX = config.calculateMarginX(image.getWidth());
-            int marginY = config.calculateMarginY(image.getHeight());
-            
-            // 计算位置（使用枚举方法 + 边界检查）
-            int x = Math.max(0, config.position().calculateX(image.getWidth(), scaledWidth, marginX));
-            int y = Math.max(0, config.position().calculateY(image.getHeight(), scaledHeight, marginY));
-            
             // 绘制缩放后的水印图片
             g2d.drawImage(watermarkImage, x, y, scaledWidth, scaledHeight, null);
             
@@ -310,6 +451,73 @@ public class WatermarkServiceImpl implements WatermarkService {
         return result;
     }
 
+    /**
+     * 获取平铺图块（带缓存）
+     */
+    private BufferedImage getTile(BufferedImage source, int width, int height,
+                                  int angle, int opacity, int spacing) {
+        TileKey key = new TileKey(source, width, height, angle, opacity, spacing);
+        return tileCache.get(key, k -> renderTile(k.source(), k.width(), k.height(),
+            k.angle(), k.opacity(), k.spacing()));
+    }
+
+    /**
+     * 渲染平铺图块
+     * 源图按指定尺寸绘制并绕图块中心旋转，四周按间距留白，平铺后水印之间的距离即为间距
+     *
+     * @param source  源图（文字精灵图或水印图片）
+     * @param width   绘制宽度
+     * @param height  绘制高度
+     * @param angle   旋转角度（度）
+     * @param opacity 透明度 0-100
+     * @param spacing 间距（相对旋转后尺寸的百分比）
+     * @return 图块
+     */
+    private BufferedImage renderTile(BufferedImage source, int width, int height,
+                                     int angle, int opacity, int spacing) {
+        double radians = Math.toRadians(angle);
+        double sin = Math.abs(Math.sin(radians));
+        double cos = Math.abs(Math.cos(radians));
+        int rotatedWidth = (int) Math.ceil(width * cos + height * sin);
+        int rotatedHeight = (int) Math.ceil(width * sin + height * cos);
+        int tileWidth = Math.max(1, rotatedWidth + rotatedWidth * spacing / 100);
+        int tileHeight = Math.max(1, rotatedHeight + rotatedHeight * spacing / 100);
+
+        BufferedImage tile = new BufferedImage(tileWidth, tileHeight, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = tile.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            if (opacity < 100) {
+                g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, opacity / 100.0f));
+            }
+            if (angle != 0) {
+                g.transform(AffineTransform.getRotateInstance(radians, tileWidth / 2.0, tileHeight / 2.0));
+            }
+            g.drawImage(source, (tileWidth - width) / 2, (tileHeight - height) / 2, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        log.debug("渲染平铺水印图块: {}x{}, 角度 {}, 间距 {}%", tileWidth, tileHeight, angle, spacing);
+        return tile;
+    }
+
+    /**
+     * 用图块平铺填充整张图片（TexturePaint 一次 fill）
+     */
+    private BufferedImage fillTiled(BufferedImage image, BufferedImage tile) {
+        BufferedImage result = ImageBuffers.drawable(image);
+        Graphics2D g2d = result.createGraphics();
+        try {
+            g2d.setPaint(new TexturePaint(tile, new Rectangle(0, 0, tile.getWidth(), tile.getHeight())));
+            g2d.fillRect(0, 0, result.getWidth(), result.getHeight());
+            log.debug("平铺水印绘制完成，图块尺寸 {}x{}", tile.getWidth(), tile.getHeight());
+        } finally {
+            g2d.dispose();
+        }
+        return result;
+    }
+
     /**
      * 解析颜色字符串
      * 支持十六进制格式（如 #FFFFFF 或 FFFFFF）
@@ -0,0 +1,233 @@
+package com.timxs.storagetoolkit.service.support;
+
+import com.timxs.storagetoolkit.model.HashAlgorithm;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * 附件内容哈希计算
+ * 本地存储的附件直接通过 FileChannel 读取磁盘文件，其他附件通过 {@link AttachmentFetcher} 非阻塞流式读取；
+ * 部分哈希只读取文件首尾各 {@value #PARTIAL_SEGMENT_SIZE} 字节（HTTP Range 请求），用于重复检测预筛选。
+ * 完整哈希的算法可选（见 {@link HashAlgorithm}），部分哈希固定使用 MD5，保证哈希索引中的记录始终可比较
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AttachmentContentHasher {
+
+    /**
+     * 部分哈希读取的首尾片段大小
+     */
+    public static final int PARTIAL_SEGMENT_SIZE = 64 * 1024;
+
+    /**
+     * 本地文件读取缓冲区大小
+     */
+    private static final int READ_BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * 本地文件读取缓冲区（直接内存，每个线程复用一个）
+     * 不使用内存映射：映射区域在 GC 回收前一直占用文件，Windows 上会导致附件无法删除
+     */
+    private static final ThreadLocal<ByteBuffer> READ_BUFFER =
+        ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(READ_BUFFER_SIZE));
+
+    private final AttachmentFetcher fetcher;
+
+    /**
+     * 部分哈希结果
+     *
+     * @param partialHash 首尾片段的 MD5
+     * @param fullHash    服务器不支持 Range 请求时顺带计算出的完整哈希（指定算法），否则为 null
+     */
+    public record PartialHash(String partialHash, String fullHash) {
+    }
+
+    /**
+     * 文件是否足够大、值得先计算部分哈希
+     * 不超过首尾片段总长的文件，部分哈希就是完整内容，直接计算完整哈希
+     */
+    public static boolean supportsPartialHash(Long size) {
+        return size != null && size > 2L * PARTIAL_SEGMENT_SIZE;
+    }
+
+    /**
+     * 流式计算文件完整哈希
+     * 响应体按块更新摘要，不在内存中缓存整个文件
+     *
+     * @param permalink      附件 permalink
+     * @param timeoutSeconds 超时时间（秒）
+     * @param algorithm      哈希算法
+     * @return 哈希十六进制字符串
+     */
+    public Mono<String> fullHash(String permalink, int timeoutSeconds, HashAlgorithm algorithm) {
+        return fetcher.<String>fetch(permalink, null, timeoutSeconds, (status, body) -> {
+            if (status.value() != 200) {
+                return Mono.error(new RuntimeException("HTTP " + status.value()));
+            }
+            ContentDigest digest = ContentDigest.of(algorithm);
+            return AttachmentFetcher.consume(body, digest::update)
+                .then(Mono.fromCallable(digest::hex));
+        });
+    }
+
+    /**
+     * 计算文件首尾片段的 MD5
+     * 分别以 Range 请求读取首、尾 {@value #PARTIAL_SEGMENT_SIZE} 字节；
+     * 服务器忽略 Range 返回 200 时，在同一次读取中截取首尾片段并计算完整哈希，避免再次下载
+     *
+     * @param permalink      附件 permalink
+     * @param size           文件大小（须满足 {@link #supportsPartialHash(Long)}）
+     * @param timeoutSeconds 超时时间（秒）
+     * @param algorithm      不支持 Range 时顺带计算的完整哈希算法
+     * @return 部分哈希结果
+     */
+    public Mono<PartialHash> partialHash(String permalink, long size, int timeoutSeconds,
+                                         HashAlgorithm algorithm) {
+        return Mono.defer(() -> {
+            MessageDigest partialDigest = newDigest();
+            return fetcher.<PartialHash>fetch(permalink, "bytes=0-" + (PARTIAL_SEGMENT_SIZE - 1), timeoutSeconds,
+                    (status, body) -> {
+                        if (status.value() == 200) {
+                            // 不支持 Range：完整读取一次，同时得到部分哈希和完整哈希
+                            return readWhole(body, size, partialDigest, algorithm);
+                        }
+                        if (status.value() != 206) {
+                            return Mono.error(new RuntimeException("HTTP " + status.value()));
+                        }
+                        return readSegment(body, partialDigest).then(Mono.<PartialHash>empty());
+                    })
+                .switchIfEmpty(Mono.defer(() -> fetcher.<PartialHash>fetch(permalink,
+                    "bytes=-" + PARTIAL_SEGMENT_SIZE, timeoutSeconds, (status, body) -> {
+                        if (status.value() != 206) {
+                            return Mono.error(new RuntimeException("HTTP " + status.value()));
+                        }
+                        return readSegment(body, partialDigest)
+                            .then(Mono.fromCallable(() ->
+                                new PartialHash(HexFormat.of().formatHex(partialDigest.digest()), null)));
+                    })));
+        });
+    }
+
+    /**
+     * 计算本地文件完整哈希
+     * 顺序读入复用的直接缓冲区，摘要直接读取缓冲区，不经过堆内数组复制
+     *
+     * @param path      文件路径
+     * @param algorithm 哈希算法
+     * @return 哈希十六进制字符串
+     */
+    public Mono<String> fullHash(Path path, HashAlgorithm algorithm) {
+        return Mono.fromCallable(() -> {
+            ContentDigest digest = ContentDigest.of(algorithm);
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                ByteBuffer buffer = READ_BUFFER.get();
+                buffer.clear();
+                while (channel.read(buffer) != -1) {
+                    digest.update(buffer.flip());
+                    buffer.clear();
+                }
+            }
+            return digest.hex();
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * 计算本地文件首尾片段的 MD5，结果与 HTTP Range 方式一致
+     *
+     * @param path 文件路径
+     * @return 部分哈希结果
+     */
+    public Mono<PartialHash> partialHash(Path path) {
+        return Mono.fromCallable(() -> {
+            MessageDigest partialDigest = newDigest();
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                ByteBuffer buffer = ByteBuffer.allocate(PARTIAL_SEGMENT_SIZE);
+                readFully(channel, buffer, 0);
+                partialDigest.update(buffer.flip());
+                buffer.clear();
+                readFully(channel, buffer, Math.max(0, channel.size() - PARTIAL_SEGMENT_SIZE));
+                partialDigest.update(buffer.flip());
+            }
+            return new PartialHash(HexFormat.of().formatHex(partialDigest.digest()), null);
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read == -1) {
+                break;
+            }
+            position += read;
+        }
+    }
+
+    /**
+     * 读取一个 Range 片段并更新摘要（最多 {@value #PARTIAL_SEGMENT_SIZE} 字节）
+     */
+    private Mono<Void> readSegment(Flux<DataBuffer> body, MessageDigest digest) {
+        long[] remaining = {PARTIAL_SEGMENT_SIZE};
+        return AttachmentFetcher.consume(body, chunk -> {
+            int len = (int) Math.min(chunk.remaining(), remaining[0]);
+            if (len > 0) {
+                digest.update(chunk.slice(chunk.position(), len));
+                remaining[0] -= len;
+            }
+        });
+    }
+
+    /**
+     * 完整读取文件，按偏移截取首尾片段更新部分摘要，同时计算完整摘要
+     */
+    private Mono<PartialHash> readWhole(Flux<DataBuffer> body, long size, MessageDigest partialDigest,
+                                        HashAlgorithm algorithm) {
+        ContentDigest fullDigest = ContentDigest.of(algorithm);
+        long tailStart = size - PARTIAL_SEGMENT_SIZE;
+        long[] offset = {0};
+        return AttachmentFetcher.consume(body, chunk -> {
+                int read = chunk.remaining();
+                long start = offset[0];
+                long end = start + read;
+                // 首部片段 [0, PARTIAL_SEGMENT_SIZE)
+                if (start < PARTIAL_SEGMENT_SIZE) {
+                    int len = (int) (Math.min(end, PARTIAL_SEGMENT_SIZE) - start);
+                    partialDigest.update(chunk.slice(chunk.position(), len));
+                }
+                // 尾部片段 [size - PARTIAL_SEGMENT_SIZE, size)
+                if (end > tailStart) {
+                    int from = (int) Math.max(0, tailStart - start);
+                    int len = (int) (Math.min(end, size) - start) - from;
+                    if (len > 0) {
+                        partialDigest.update(chunk.slice(chunk.position() + from, len));
+                    }
+                }
+                fullDigest.update(chunk);
+                offset[0] = end;
+            })
+            .then(Mono.fromCallable(() -> new PartialHash(HexFormat.of().formatHex(partialDigest.digest()),
+                fullDigest.hex())));
+    }
+
+    private MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 不可用", e);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.timxs.storagetoolkit.service.support;
+
+import com.timxs.storagetoolkit.service.SettingsManager;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import run.halo.app.infra.ExternalLinkProcessor;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * 附件内容下载组件
+ * 基于 Reactor Netty 的非阻塞 HTTP 客户端，重复检测与批量处理共用：
+ * 连接池按目标主机限制并发连接数并保持长连接，响应体以 DataBuffer 流式交给调用方，
+ * 计算摘要时无需把整个文件读入内存
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AttachmentFetcher {
+
+    /**
+     * 每个目标主机的最大并发连接数
+     * Reactor Netty 连接池按远端地址分池，超出的请求排队等待空闲连接
+     */
+    static final int MAX_CONNECTIONS_PER_HOST = 8;
+
+    /**
+     * 空闲连接保留时间
+     */
+    private static final Duration MAX_IDLE_TIME = Duration.ofSeconds(30);
+
+    private final ExternalLinkProcessor externalLinkProcessor;
+
+    /**
+     * 共享连接池（所有超时配置的 WebClient 共用）
+     */
+    private final ConnectionProvider connectionProvider = ConnectionProvider.builder("storage-toolkit-fetch")
+        .maxConnections(MAX_CONNECTIONS_PER_HOST)
+        .pendingAcquireMaxCount(-1)
+        .maxIdleTime(MAX_IDLE_TIME)
+        .evictInBackground(MAX_IDLE_TIME)
+        .build();
+
+    /**
+     * 按超时时间缓存 WebClient 实例
+     */
+    private final ConcurrentHashMap<Integer, WebClient> webClientCache = new ConcurrentHashMap<>();
+
+    /**
+     * 获取或创建配置了底层 HTTP 超时的 WebClient
+     */
+    private WebClient getWebClient(int timeoutSeconds) {
+        return webClientCache.computeIfAbsent(timeoutSeconds, timeout -> {
+            HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, TimeoutUtils.connectTimeoutMillis(timeout))
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .responseTimeout(Duration.ofSeconds(timeout))
+                .keepAlive(true)
+                .followRedirect(true);
+            return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+        });
+    }
+
+    /**
+     * 请求附件内容并交给调用方处理响应
+     * 响应体未被消费时由 WebClient 负责释放
+     *
+     * @param permalink      附件 permalink（相对路径会补全为站点 URL）
+     * @param range          Range 请求头，为 null 时请求完整内容
+     * @param timeoutSeconds 超时时间（秒）
+     * @param handler        响应处理：（状态码, 响应体）-> 结果
+     * @return 处理结果
+     */
+    public <T> Mono<T> fetch(String permalink, String range, int timeoutSeconds,
+                             BiFunction<HttpStatusCode, Flux<DataBuffer>, Mono<T>> handler) {
+        return Mono.defer(() -> {
+            URI uri = URI.create(externalLinkProcessor.processLink(permalink));
+            String siteUrl = externalLinkProcessor.processLink("/");
+            return getWebClient(timeoutSeconds).get()
+                .uri(uri)
+                .headers(headers -> {
+                    headers.set(HttpHeaders.USER_AGENT, SettingsManager.DEFAULT_USER_AGENT);
+                    headers.set(HttpHeaders.REFERER, siteUrl);
+                    if (range != null) {
+                        headers.set(HttpHeaders.RANGE, range);
+                    }
+                })
+                .exchangeToMono(response ->
+                    handler.apply(response.statusCode(), response.bodyToFlux(DataBuffer.class)));
+        });
+    }
+
+    /**
+     * 下载附件完整内容
+     * 按到达的 DataBuffer 合并后一次性复制为字节数组
+     *
+     * @param permalink      附件 permalink
+     * @param timeoutSeconds 超时时间（秒）
+     * @return 文件内容
+     */
+    public Mono<byte[]> download(String permalink, int timeoutSeconds) {
+        return this.<byte[]>fetch(permalink, null, timeoutSeconds, (status, body) -> {
+            if (status.value() != 200) {
+                return Mono.error(new RuntimeException("HTTP " + status.value()));
+            }
+            return DataBufferUtils.join(body)
+                .map(buffer -> {
+                    try {
+                        byte[] bytes = new byte[buffer.readableByteCount()];
+                        buffer.read(bytes);
+                        return bytes;
+                    } finally {
+                        DataBufferUtils.release(buffer);
+                    }
+                });
+        });
+    }
+
+    /**
+     * 逐块消费响应体，每个 DataBuffer 处理后立即释放
+     *
+     * @param body     响应体
+     * @param consumer 数据块处理（按到达顺序调用）
+     * @return 完成信号
+     */
+    public static Mono<Void> consume(Flux<DataBuffer> body, Consumer<ByteBuffer> consumer) {
+        return body
+            .doOnNext(buffer -> {
+                try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+                    while (iterator.hasNext()) {
+                        consumer.accept(iterator.next());
+                    }
+                } finally {
+                    DataBufferUtils.release(buffer);
+                }
+            })
+            .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+            .then();
+    }
+
+    /**
+     * 插件停止时关闭连接池
+     */
+    @PreDestroy
+    public void destroy() {
+        webClientCache.clear();
+        connectionProvider.dispose();
+    }
+}
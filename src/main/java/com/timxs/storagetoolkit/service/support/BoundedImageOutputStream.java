@@ -0,0 +1,121 @@
+package com.timxs.storagetoolkit.service.support;
+
+import javax.imageio.stream.ImageOutputStreamImpl;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * 带大小上限的内存 ImageOutputStream
+ * 编码器直接写入内存数组（不经过 ImageIO 的缓存流再复制一次），
+ * 输出超过上限时立即抛出 {@link LimitExceededException} 中止编码；
+ * 上限可在编码过程中由其他线程调小，用于多个候选格式竞争时提前放弃较大的一个
+ */
+public class BoundedImageOutputStream extends ImageOutputStreamImpl {
+
+    private byte[] buffer = new byte[64 * 1024];
+
+    private int length;
+
+    private volatile long limit;
+
+    /**
+     * @param limit 输出大小上限（字节），Long.MAX_VALUE 表示不限制
+     */
+    public BoundedImageOutputStream(long limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * 调整输出大小上限，当前已写出的数据超过新上限时，下一次写入即中止
+     */
+    public void setLimit(long limit) {
+        this.limit = limit;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        flushBits();
+        ensureCapacity(streamPos + 1);
+        buffer[(int) streamPos++] = (byte) b;
+        length = Math.max(length, (int) streamPos);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        flushBits();
+        ensureCapacity(streamPos + len);
+        System.arraycopy(b, off, buffer, (int) streamPos, len);
+        streamPos += len;
+        length = Math.max(length, (int) streamPos);
+    }
+
+    @Override
+    public int read() throws IOException {
+        checkClosed();
+        bitOffset = 0;
+        if (streamPos >= length) {
+            return -1;
+        }
+        return buffer[(int) streamPos++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        checkClosed();
+        bitOffset = 0;
+        if (streamPos >= length) {
+            return -1;
+        }
+        int n = Math.min(len, length - (int) streamPos);
+        System.arraycopy(buffer, (int) streamPos, b, off, n);
+        streamPos += n;
+        return n;
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    /**
+     * 已写出的数据
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, length);
+    }
+
+    private void ensureCapacity(long required) throws IOException {
+        checkClosed();
+        if (required > limit) {
+            throw new LimitExceededException(limit);
+        }
+        if (required > Integer.MAX_VALUE - 8) {
+            throw new IOException("输出数据过大");
+        }
+        if (required > buffer.length) {
+            int newCapacity = (int) Math.min(Integer.MAX_VALUE - 8L, Math.max(required, buffer.length * 2L));
+            buffer = Arrays.copyOf(buffer, newCapacity);
+        }
+    }
+
+    /**
+     * 判断异常（含被 ImageIO 包装的异常）是否由超过大小上限引起
+     */
+    public static boolean isLimitExceeded(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof LimitExceededException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 输出超过大小上限
+     */
+    public static class LimitExceededException extends IOException {
+        public LimitExceededException(long limit) {
+            super("输出超过大小上限 " + limit + " 字节");
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.timxs.storagetoolkit.service.support;
+
+import com.timxs.storagetoolkit.model.HashAlgorithm;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.zip.CRC32C;
+
+/**
+ * 增量内容摘要
+ * 统一 MessageDigest 与 CRC32C 的调用方式，结果输出为小写十六进制字符串
+ */
+public interface ContentDigest {
+
+    /**
+     * 追加数据（消费 buffer 的剩余内容）
+     */
+    void update(ByteBuffer buffer);
+
+    /**
+     * 完成计算并返回十六进制结果
+     */
+    String hex();
+
+    /**
+     * 创建指定算法的摘要
+     */
+    static ContentDigest of(HashAlgorithm algorithm) {
+        return switch (algorithm) {
+            case CRC32C -> new Crc32cDigest();
+            case MD5 -> new MessageDigestAdapter("MD5");
+            case SHA_256 -> new MessageDigestAdapter("SHA-256");
+        };
+    }
+
+    /**
+     * CRC32C 实现
+     */
+    final class Crc32cDigest implements ContentDigest {
+        private final CRC32C crc = new CRC32C();
+
+        @Override
+        public void update(ByteBuffer buffer) {
+            crc.update(buffer);
+        }
+
+        @Override
+        public String hex() {
+            return HexFormat.of().toHexDigits((int) crc.getValue());
+        }
+    }
+
+    /**
+     * MessageDigest 适配
+     */
+    final class MessageDigestAdapter implements ContentDigest {
+        private final MessageDigest digest;
+
+        MessageDigestAdapter(String algorithm) {
+            try {
+                this.digest = MessageDigest.getInstance(algorithm);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(algorithm + " 不可用", e);
+            }
+        }
+
+        @Override
+        public void update(ByteBuffer buffer) {
+            digest.update(buffer);
+        }
+
+        @Override
+        public String hex() {
+            return HexFormat.of().formatHex(digest.digest());
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.timxs.storagetoolkit.service.support;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 以 64 位指纹汉明距离为度量的 BK 树
+ * 每个子节点按与父节点的距离挂载，查询半径为 r 时根据三角不等式
+ * 只需访问距离落在 [d - r, d + r] 内的子树，小半径查询远少于两两比较（n² 次）
+ * 非线程安全，构建和查询应在同一线程中完成
+ *
+ * @param <T> 指纹关联的值类型
+ */
+public class HammingBkTree<T> {
+
+    private Node<T> root;
+
+    private int size;
+
+    /**
+     * 添加指纹，相同指纹的值合并到同一节点
+     *
+     * @param fingerprint 64 位指纹
+     * @param value       关联的值
+     */
+    public void add(long fingerprint, T value) {
+        size++;
+        if (root == null) {
+            root = new Node<>(fingerprint, value);
+            return;
+        }
+        Node<T> node = root;
+        while (true) {
+            int distance = distance(node.fingerprint, fingerprint);
+            if (distance == 0) {
+                node.values.add(value);
+                return;
+            }
+            Node<T> child = node.children.get(distance);
+            if (child == null) {
+                node.children.put(distance, new Node<>(fingerprint, value));
+                return;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * 查找与指定指纹汉明距离不超过 maxDistance 的全部值
+     *
+     * @param fingerprint 64 位指纹
+     * @param maxDistance 最大汉明距离
+     * @param consumer    命中值的回调
+     */
+    public void search(long fingerprint, int maxDistance, Consumer<T> consumer) {
+        if (root == null) {
+            return;
+        }
+        Deque<Node<T>> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node<T> node = pending.pop();
+            int distance = distance(node.fingerprint, fingerprint);
+            if (distance <= maxDistance) {
+                node.values.forEach(consumer);
+            }
+            int low = distance - maxDistance;
+            int high = distance + maxDistance;
+            for (Map.Entry<Integer, Node<T>> child : node.children.entrySet()) {
+                if (child.getKey() >= low && child.getKey() <= high) {
+                    pending.push(child.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * 已添加的值数量
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 计算两个 64 位指纹的汉明距离
+     */
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    private static final class Node<T> {
+        private final long fingerprint;
+        private final List<T> values = new ArrayList<>(1);
+        private final Map<Integer, Node<T>> children = new HashMap<>();
+
+        Node(long fingerprint, T value) {
+            this.fingerprint = fingerprint;
+            this.values.add(value);
+        }
+    }
+}
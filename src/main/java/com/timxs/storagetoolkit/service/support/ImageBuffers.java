@@ -0,0 +1,94 @@
+package com.timxs.storagetoolkit.service.support;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * 图片光栅工具类
+ * 统一"规范化"图片类型的判断和转换，保证整个处理流程中最多只存在一份全尺寸光栅：
+ * 规范化类型为 TYPE_INT_RGB（无 Alpha）或 TYPE_INT_ARGB（有 Alpha），
+ * 解码时尽量直接解码为规范化类型，水印直接绘制在原图上，编码前已规范化的图片不再复制
+ */
+@Slf4j
+public final class ImageBuffers {
+
+    private ImageBuffers() {
+        // 工具类不允许实例化
+    }
+
+    /**
+     * 是否已经是规范化类型
+     *
+     * @param image 图片
+     * @return TYPE_INT_RGB 或 TYPE_INT_ARGB 返回 true
+     */
+    public static boolean isNormalized(BufferedImage image) {
+        int type = image.getType();
+        return type == BufferedImage.TYPE_INT_RGB || type == BufferedImage.TYPE_INT_ARGB;
+    }
+
+    /**
+     * 是否可以直接在原图上绘制水印
+     * 索引色、灰度和自定义类型绘制后会丢失颜色或被重新量化，需要先复制为规范化类型
+     *
+     * @param image 图片
+     * @return 可以直接绘制返回 true
+     */
+    public static boolean canDrawInPlace(BufferedImage image) {
+        return switch (image.getType()) {
+            case BufferedImage.TYPE_INT_RGB,
+                 BufferedImage.TYPE_INT_ARGB,
+                 BufferedImage.TYPE_INT_ARGB_PRE,
+                 BufferedImage.TYPE_INT_BGR,
+                 BufferedImage.TYPE_3BYTE_BGR,
+                 BufferedImage.TYPE_4BYTE_ABGR,
+                 BufferedImage.TYPE_4BYTE_ABGR_PRE -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * 规范化图片类型，保留 Alpha 通道
+     * 有 Alpha 通道的图片转为 TYPE_INT_ARGB，无 Alpha 的转为 TYPE_INT_RGB；已规范化的直接返回
+     *
+     * @param src 源图片
+     * @return 规范化后的图片
+     */
+    public static BufferedImage normalize(BufferedImage src) {
+        boolean hasAlpha = src.getColorModel().hasAlpha();
+        int targetType = hasAlpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+
+        if (src.getType() == targetType) {
+            return src;
+        }
+
+        log.debug("将图片从类型 {} 转换为 {}", src.getType(), hasAlpha ? "ARGB" : "RGB");
+        BufferedImage dest = new BufferedImage(src.getWidth(), src.getHeight(), targetType);
+        Graphics2D g = dest.createGraphics();
+        try {
+            if (!hasAlpha) {
+                // 无 Alpha 通道时用白色填充背景
+                g.setColor(Color.WHITE);
+                g.fillRect(0, 0, src.getWidth(), src.getHeight());
+            }
+            g.drawImage(src, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return dest;
+    }
+
+    /**
+     * 获取可绘制水印的图片
+     * 能直接绘制则返回原图，否则复制为规范化类型
+     *
+     * @param image 图片
+     * @return 可绘制的图片
+     */
+    public static BufferedImage drawable(BufferedImage image) {
+        return canDrawInPlace(image) ? image : normalize(image);
+    }
+}
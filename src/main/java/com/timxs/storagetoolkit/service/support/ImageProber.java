@@ -0,0 +1,278 @@
+package com.timxs.storagetoolkit.service.support;
+
+import com.timxs.storagetoolkit.model.ImageInfo;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.spi.ImageReaderSpi;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+
+/**
+ * 图片头探测工具类
+ * 通过魔数识别真实格式，并只读取文件头获取宽高、判断是否为动图，
+ * 用于在完整解码（分配整张光栅内存）之前决定是否跳过处理
+ */
+@Slf4j
+public final class ImageProber {
+
+    private ImageProber() {
+        // 工具类不允许实例化
+    }
+
+    /**
+     * 探测图片头信息
+     * 魔数无法识别时交给已注册的 ImageReader 判断格式
+     *
+     * @param data 图片数据
+     * @return 头信息，无法识别格式或读取文件头失败时返回 null
+     */
+    public static ImageInfo probe(byte[] data) {
+        String formatName = sniffFormat(data);
+        if (formatName == null) {
+            return probeWithReaders(data);
+        }
+
+        ImageReader reader = findReader(formatName);
+        if (reader == null) {
+            log.debug("没有可用的 ImageReader: {}", formatName);
+            return null;
+        }
+
+        try (ImageInputStream iis = ImageIO.createImageInputStream(new ByteArrayInputStream(data))) {
+            // ignoreMetadata = true，只解析到尺寸所需的文件头
+            reader.setInput(iis, true, true);
+            int width = reader.getWidth(0);
+            int height = reader.getHeight(0);
+            return new ImageInfo(formatName, toMimeType(formatName), width, height, isAnimated(formatName, data));
+        } catch (IOException | RuntimeException e) {
+            log.debug("读取图片头失败: {} - {}", formatName, e.getMessage());
+            return null;
+        } finally {
+            reader.dispose();
+        }
+    }
+
+    /**
+     * 由 ImageIO 按已注册的 ImageReader 识别格式并读取文件头
+     * 格式名取 ImageReaderSpi 声明的第一个名称，解码时按该名称可以找回同一个 ImageReader
+     */
+    private static ImageInfo probeWithReaders(byte[] data) {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+        try (ImageInputStream iis = ImageIO.createImageInputStream(new ByteArrayInputStream(data))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                ImageReaderSpi spi = reader.getOriginatingProvider();
+                String formatName = spi != null && spi.getFormatNames().length > 0
+                    ? spi.getFormatNames()[0]
+                    : reader.getFormatName();
+                String mimeType = spi != null && spi.getMIMETypes() != null && spi.getMIMETypes().length > 0
+                    ? spi.getMIMETypes()[0]
+                    : toMimeType(formatName.toLowerCase(Locale.ROOT));
+                reader.setInput(iis, false, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                // 帧数未知时返回 -1，按静态图处理
+                boolean animated = reader.getNumImages(false) > 1;
+                return new ImageInfo(formatName, mimeType, width, height, animated);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.debug("ImageReader 识别图片失败: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 按探测到的格式完整解码第一帧
+     *
+     * @param data 图片数据
+     * @param info 头信息
+     * @return 解码后的图片
+     * @throws IOException 解码失败时抛出
+     */
+    public static BufferedImage decode(byte[] data, ImageInfo info) throws IOException {
+        return decode(data, info, 0);
+    }
+
+    /**
+     * 按探测到的格式解码第一帧，最长边超过 maxLongEdge 时隔行隔列采样解码
+     * 采样步长取不会使结果小于 maxLongEdge 的最大整数，
+     * 解码后的图片仍需再精确缩放到目标尺寸
+     *
+     * @param data        图片数据
+     * @param info        头信息
+     * @param maxLongEdge 目标最长边，0 表示不采样
+     * @return 解码后的图片
+     * @throws IOException 解码失败时抛出
+     */
+    public static BufferedImage decode(byte[] data, ImageInfo info, int maxLongEdge) throws IOException {
+        ImageReader reader = findReader(info.formatName());
+        if (reader == null) {
+            throw new IOException("没有可用的 ImageReader: " + info.formatName());
+        }
+        try (ImageInputStream iis = ImageIO.createImageInputStream(new ByteArrayInputStream(data))) {
+            reader.setInput(iis, true, true);
+            ImageReadParam param = reader.getDefaultReadParam();
+            // 解码器支持时直接解码为规范化类型，后续水印和编码无需再复制一份光栅
+            ImageTypeSpecifier normalizedType = findNormalizedType(reader);
+            if (normalizedType != null) {
+                param.setDestinationType(normalizedType);
+            }
+            int subsampling = subsamplingFactor(info, maxLongEdge);
+            if (subsampling > 1) {
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                log.debug("采样解码: {}x{}, 步长 {}", info.width(), info.height(), subsampling);
+            }
+            return reader.read(0, param);
+        } finally {
+            reader.dispose();
+        }
+    }
+
+    /**
+     * 查找解码器支持的规范化输出类型（TYPE_INT_RGB / TYPE_INT_ARGB）
+     */
+    private static ImageTypeSpecifier findNormalizedType(ImageReader reader) throws IOException {
+        Iterator<ImageTypeSpecifier> types = reader.getImageTypes(0);
+        while (types.hasNext()) {
+            ImageTypeSpecifier type = types.next();
+            int bufferedType = type.getBufferedImageType();
+            if (bufferedType == BufferedImage.TYPE_INT_RGB || bufferedType == BufferedImage.TYPE_INT_ARGB) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 计算采样步长
+     */
+    private static int subsamplingFactor(ImageInfo info, int maxLongEdge) {
+        if (maxLongEdge <= 0) {
+            return 1;
+        }
+        int longEdge = Math.max(info.width(), info.height());
+        return Math.max(1, longEdge / maxLongEdge);
+    }
+
+    /**
+     * 通过魔数识别图片格式
+     *
+     * @param data 图片数据
+     * @return ImageIO 格式名，无法识别返回 null
+     */
+    public static String sniffFormat(byte[] data) {
+        if (data == null || data.length < 12) {
+            return null;
+        }
+        if ((data[0] & 0xFF) == 0xFF && (data[1] & 0xFF) == 0xD8 && (data[2] & 0xFF) == 0xFF) {
+            return "jpeg";
+        }
+        if ((data[0] & 0xFF) == 0x89 && data[1] == 'P' && data[2] == 'N' && data[3] == 'G') {
+            return "png";
+        }
+        if (data[0] == 'G' && data[1] == 'I' && data[2] == 'F' && data[3] == '8') {
+            return "gif";
+        }
+        if (startsWith(data, 0, "RIFF") && startsWith(data, 8, "WEBP")) {
+            return "webp";
+        }
+        if (startsWith(data, 4, "ftyp") && (hasFtypBrand(data, "avif") || hasFtypBrand(data, "avis"))) {
+            return "avif";
+        }
+        if (data[0] == 'B' && data[1] == 'M') {
+            return "bmp";
+        }
+        if ((data[0] == 'I' && data[1] == 'I' && data[2] == 42 && data[3] == 0)
+            || (data[0] == 'M' && data[1] == 'M' && data[2] == 0 && data[3] == 42)) {
+            return "tiff";
+        }
+        return null;
+    }
+
+    /**
+     * 判断是否为动图
+     * GIF：存在 NETSCAPE2.0 / ANIMEXTS1.0 循环扩展；
+     * WebP：VP8X 块的动画标志位；AVIF：主品牌或兼容品牌含 avis（图像序列）
+     */
+    private static boolean isAnimated(String formatName, byte[] data) {
+        return switch (formatName) {
+            case "gif" -> indexOf(data, "NETSCAPE2.0") >= 0 || indexOf(data, "ANIMEXTS1.0") >= 0;
+            case "webp" -> data.length > 20 && startsWith(data, 12, "VP8X") && (data[20] & 0x02) != 0;
+            case "avif" -> hasFtypBrand(data, "avis");
+            default -> false;
+        };
+    }
+
+    /**
+     * 判断 ISOBMFF ftyp 盒的主品牌或兼容品牌列表中是否包含指定品牌
+     * 主品牌为 mif1 / msf1 等通用品牌时，avif 只出现在兼容品牌中
+     * ftyp 盒结构：size(4) + "ftyp"(4) + 主品牌(4) + 次版本(4) + 兼容品牌(4 * n)
+     */
+    private static boolean hasFtypBrand(byte[] data, String brand) {
+        if (startsWith(data, 8, brand)) {
+            return true;
+        }
+        long boxSize = ((data[0] & 0xFFL) << 24) | ((data[1] & 0xFFL) << 16)
+            | ((data[2] & 0xFFL) << 8) | (data[3] & 0xFFL);
+        int end = (int) Math.min(boxSize, data.length);
+        for (int offset = 16; offset + 4 <= end; offset += 4) {
+            if (startsWith(data, offset, brand)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static ImageReader findReader(String formatName) {
+        Iterator<ImageReader> readers = ImageIO.getImageReadersByFormatName(formatName);
+        return readers.hasNext() ? readers.next() : null;
+    }
+
+    private static String toMimeType(String formatName) {
+        return "image/" + formatName;
+    }
+
+    private static boolean startsWith(byte[] data, int offset, String ascii) {
+        byte[] bytes = ascii.getBytes(StandardCharsets.US_ASCII);
+        if (data.length < offset + bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (data[offset + i] != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(byte[] data, String ascii) {
+        byte[] bytes = ascii.getBytes(StandardCharsets.US_ASCII);
+        outer:
+        for (int i = 0; i <= data.length - bytes.length; i++) {
+            for (int j = 0; j < bytes.length; j++) {
+                if (data[i + j] != bytes[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+}
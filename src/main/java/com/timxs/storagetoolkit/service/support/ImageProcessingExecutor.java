@@ -0,0 +1,163 @@
+package com.timxs.storagetoolkit.service.support;
+
+import com.timxs.storagetoolkit.config.ProcessingConfig;
+import com.timxs.storagetoolkit.service.SettingsManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import run.halo.app.plugin.PluginConfigUpdatedEvent;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 图片处理专用线程池
+ * 解码、水印、编码都是 CPU 密集型操作，放在共享的 boundedElastic 上会与 IO 任务争抢线程，
+ * 且线程数与 CPU 核数无关；这里使用固定大小的线程池，默认按 CPU 核数创建，
+ * 上传过滤器和批量处理共用，由插件启动/停止时管理生命周期。
+ * 线程数只在启动和插件配置变更时按设置调整，获取调度器不会改变线程池大小
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ImageProcessingExecutor {
+
+    /**
+     * 线程名前缀
+     */
+    private static final String THREAD_NAME_PREFIX = "storage-toolkit-image-";
+
+    private final SettingsManager settingsManager;
+
+    private final AtomicInteger threadCounter = new AtomicInteger(0);
+
+    private ThreadPoolExecutor executor;
+
+    /**
+     * 当前调度器；停止后保留已释放的调度器，之后提交的任务直接被拒绝
+     */
+    private Scheduler scheduler;
+
+    /**
+     * 启动线程池（插件启动时调用）
+     * 先按默认线程数创建，再异步读取设置调整为配置的线程数
+     */
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        int size = ProcessingConfig.defaultImageWorkerThreads();
+        executor = new ThreadPoolExecutor(size, size, 60L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), newThreadFactory());
+        scheduler = Schedulers.fromExecutorService(executor, "storage-toolkit-image");
+        log.info("图片处理线程池已启动，线程数: {}", size);
+        applyConfiguredPoolSize();
+    }
+
+    /**
+     * 停止线程池（插件停止时调用）
+     * 先停止接收新任务并等待正在执行的任务完成，超时后强制中断，最后释放调度器
+     * （调度器 dispose 会直接 shutdownNow 底层线程池，必须放在等待之后）
+     */
+    public synchronized void stop() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("图片处理线程池未在 10 秒内结束，强制停止");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        scheduler.dispose();
+        executor = null;
+        log.info("图片处理线程池已停止");
+    }
+
+    /**
+     * 获取图片处理调度器
+     * 插件停止后返回已释放的调度器，任务提交时以 RejectedExecutionException 失败，不会重新创建线程池
+     *
+     * @return 调度器
+     * @throws RejectedExecutionException 线程池尚未启动时抛出
+     */
+    public synchronized Scheduler scheduler() {
+        if (scheduler == null) {
+            throw new RejectedExecutionException("图片处理线程池未启动");
+        }
+        return scheduler;
+    }
+
+    /**
+     * 插件配置变更时按新设置调整线程数
+     */
+    @EventListener(PluginConfigUpdatedEvent.class)
+    public void onConfigUpdated() {
+        applyConfiguredPoolSize();
+    }
+
+    /**
+     * 读取设置中的线程数并应用
+     */
+    private void applyConfiguredPoolSize() {
+        settingsManager.getConfig()
+            .subscribe(config -> resize(config.getImageWorkerThreads()),
+                e -> log.warn("读取图片处理线程数设置失败: {}", e.getMessage()));
+    }
+
+    /**
+     * 调整线程数（不重建线程池，排队任务不受影响）
+     *
+     * @param poolSize 期望线程数（小于 1 时使用默认值）
+     */
+    synchronized void resize(int poolSize) {
+        if (executor == null) {
+            return;
+        }
+        int size = poolSize < 1
+            ? ProcessingConfig.defaultImageWorkerThreads()
+            : Math.min(ProcessingConfig.MAX_IMAGE_WORKER_THREADS, poolSize);
+        int current = executor.getMaximumPoolSize();
+        if (size == current) {
+            return;
+        }
+        log.info("图片处理线程数配置变更: {} -> {}", current, size);
+        // 扩容先调大 max，缩容先调小 core，避免 core > max 抛出异常
+        if (size > current) {
+            executor.setMaximumPoolSize(size);
+            executor.setCorePoolSize(size);
+        } else {
+            executor.setCorePoolSize(size);
+            executor.setMaximumPoolSize(size);
+        }
+    }
+
+    /**
+     * 当前线程数
+     */
+    public synchronized int getPoolSize() {
+        return executor != null ? executor.getMaximumPoolSize() : 0;
+    }
+
+    private ThreadFactory newThreadFactory() {
+        // 使用插件类加载器，保证 WebP/AVIF 等 native 库在工作线程中可以正常加载
+        ClassLoader pluginClassLoader = ImageProcessingExecutor.class.getClassLoader();
+        return runnable -> {
+            Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setContextClassLoader(pluginClassLoader);
+            return thread;
+        };
+    }
+}
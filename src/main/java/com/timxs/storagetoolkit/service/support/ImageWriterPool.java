@@ -0,0 +1,248 @@
+package com.timxs.storagetoolkit.service.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ImageWriter 池
+ * 插件启动时一次性探测可用的编码器并生成能力报告，运行时按格式复用 ImageWriter，
+ * 避免每张图片都扫描 SPI 注册表和初始化 native 编码器
+ */
+@Slf4j
+@Component
+public class ImageWriterPool {
+
+    /**
+     * 需要探测的编码格式
+     */
+    private static final List<String> FORMATS = List.of("jpeg", "png", "webp", "avif", "gif", "bmp");
+
+    /**
+     * 每种格式最多保留的空闲 Writer 数
+     */
+    private static final int MAX_IDLE_PER_FORMAT = 16;
+
+    /**
+     * 空闲 Writer，按格式名（小写）分组
+     */
+    private final Map<String, Queue<ImageWriter>> idleWriters = new ConcurrentHashMap<>();
+
+    /**
+     * 各格式空闲 Writer 数量
+     */
+    private final Map<String, AtomicInteger> idleCounts = new ConcurrentHashMap<>();
+
+    /**
+     * 池是否已关闭（插件停止时 clear 之后），关闭后归还的 Writer 直接销毁，不再入池
+     */
+    private volatile boolean closed;
+
+    /**
+     * 编码能力报告（插件启动时生成）
+     */
+    private volatile Capabilities capabilities = new Capabilities(List.of(), List.of());
+
+    /**
+     * 探测可用编码器并生成能力报告（插件注册 ImageIO SPI 之后调用）
+     */
+    public void discover() {
+        closed = false;
+        ClassLoader originalClassLoader = Thread.currentThread().getContextClassLoader();
+        try {
+            Thread.currentThread().setContextClassLoader(ImageWriterPool.class.getClassLoader());
+            List<WriterCapability> writers = new ArrayList<>();
+            for (String format : FORMATS) {
+                Iterator<ImageWriter> it = ImageIO.getImageWritersByFormatName(format);
+                if (!it.hasNext()) {
+                    writers.add(new WriterCapability(format, false, null, false, List.of()));
+                    continue;
+                }
+                ImageWriter writer = it.next();
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                boolean compressed = param.canWriteCompressed();
+                List<String> compressionTypes = compressed && param.getCompressionTypes() != null
+                    ? Arrays.asList(param.getCompressionTypes()) : List.of();
+                writers.add(new WriterCapability(format, true, writer.getClass().getName(),
+                    compressed, compressionTypes));
+                // 探测用的实例直接放入池中
+                release(format, writer);
+            }
+            List<String> readers = Arrays.stream(ImageIO.getReaderFormatNames())
+                .map(String::toLowerCase)
+                .distinct()
+                .sorted()
+                .toList();
+            capabilities = new Capabilities(writers, readers);
+
+            for (WriterCapability writer : writers) {
+                if (writer.available()) {
+                    log.info("ImageWriter 可用: {} ({})", writer.format(), writer.writerClass());
+                } else {
+                    log.warn("ImageWriter 不可用: {}，检查 native 库是否加载成功，系统架构: {} {}",
+                        writer.format(), System.getProperty("os.name"), System.getProperty("os.arch"));
+                }
+            }
+        } finally {
+            Thread.currentThread().setContextClassLoader(originalClassLoader);
+        }
+    }
+
+    /**
+     * 关闭池并销毁所有空闲 Writer（插件停止、注销 SPI 之前调用）
+     * 之后归还的 Writer（停止时仍在使用中的）直接销毁，避免注销 SPI 后仍被池持有插件类加载器
+     */
+    public void clear() {
+        closed = true;
+        drainIdle();
+        idleWriters.clear();
+        idleCounts.clear();
+        capabilities = new Capabilities(List.of(), List.of());
+    }
+
+    private void drainIdle() {
+        idleWriters.forEach((format, queue) -> {
+            ImageWriter writer;
+            while ((writer = queue.poll()) != null) {
+                disposeQuietly(writer);
+            }
+        });
+    }
+
+    /**
+     * 借出指定格式的 ImageWriter
+     * 编码成功后调用 {@link #release(String, ImageWriter)} 归还，编码失败时调用 {@link #discard(ImageWriter)} 销毁
+     *
+     * @param format 格式名（如 jpeg、png、webp、avif）
+     * @return ImageWriter，没有可用编码器时返回 null
+     */
+    public ImageWriter borrow(String format) {
+        String key = normalizeFormat(format);
+        Queue<ImageWriter> queue = idleWriters.get(key);
+        if (queue != null) {
+            ImageWriter writer = queue.poll();
+            if (writer != null) {
+                idleCounts.get(key).decrementAndGet();
+                return writer;
+            }
+        }
+        Iterator<ImageWriter> it = ImageIO.getImageWritersByFormatName(key);
+        return it.hasNext() ? it.next() : null;
+    }
+
+    /**
+     * 归还编码成功的 ImageWriter
+     * 归还前重置状态（清除输出流和监听器）；池已关闭、已满或重置失败时直接销毁
+     *
+     * @param format 格式名
+     * @param writer ImageWriter
+     */
+    public void release(String format, ImageWriter writer) {
+        if (writer == null) {
+            return;
+        }
+        if (closed) {
+            disposeQuietly(writer);
+            return;
+        }
+        String key = normalizeFormat(format);
+        try {
+            writer.reset();
+        } catch (RuntimeException e) {
+            disposeQuietly(writer);
+            return;
+        }
+        AtomicInteger count = idleCounts.computeIfAbsent(key, k -> new AtomicInteger(0));
+        if (count.incrementAndGet() > MAX_IDLE_PER_FORMAT) {
+            count.decrementAndGet();
+            disposeQuietly(writer);
+            return;
+        }
+        idleWriters.computeIfAbsent(key, k -> new ConcurrentLinkedQueue<>()).offer(writer);
+        // 与 clear 并发时可能在清空之后入池，再检查一次
+        if (closed) {
+            drainIdle();
+        }
+    }
+
+    /**
+     * 销毁编码失败的 ImageWriter，不再放回池中
+     * 中途失败（超过输出上限被中止、native 编码器报错）后 reset 不能保证恢复到干净状态
+     *
+     * @param writer ImageWriter
+     */
+    public void discard(ImageWriter writer) {
+        if (writer != null) {
+            disposeQuietly(writer);
+        }
+    }
+
+    /**
+     * 获取编码能力报告
+     */
+    public Capabilities getCapabilities() {
+        return capabilities;
+    }
+
+    /**
+     * 指定格式是否有可用编码器
+     */
+    public boolean isAvailable(String format) {
+        String key = normalizeFormat(format);
+        return capabilities.writers().stream()
+            .anyMatch(writer -> writer.format().equals(key) && writer.available());
+    }
+
+    private String normalizeFormat(String format) {
+        String key = format == null ? "" : format.toLowerCase();
+        return "jpg".equals(key) ? "jpeg" : key;
+    }
+
+    private void disposeQuietly(ImageWriter writer) {
+        try {
+            writer.dispose();
+        } catch (RuntimeException e) {
+            log.debug("ImageWriter 销毁失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 单个格式的编码能力
+     *
+     * @param format             格式名
+     * @param available          是否可用
+     * @param writerClass        ImageWriter 实现类
+     * @param canWriteCompressed 是否支持压缩参数
+     * @param compressionTypes   支持的压缩类型
+     */
+    public record WriterCapability(
+        String format,
+        boolean available,
+        String writerClass,
+        boolean canWriteCompressed,
+        List<String> compressionTypes
+    ) {}
+
+    /**
+     * 编码/解码能力报告
+     *
+     * @param writers 各格式编码能力
+     * @param readers 可解码的格式
+     */
+    public record Capabilities(
+        List<WriterCapability> writers,
+        List<String> readers
+    ) {}
+}
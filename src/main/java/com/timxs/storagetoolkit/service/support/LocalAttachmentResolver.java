@@ -0,0 +1,81 @@
+package com.timxs.storagetoolkit.service.support;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import run.halo.app.core.extension.attachment.Attachment;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 本地存储策略附件的磁盘路径解析
+ * Halo 本地存储把文件保存在 {工作目录}/attachments 下，
+ * 相对路径记录在附件注解 {@value #LOCAL_RELATIVE_PATH_ANNO} 中
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LocalAttachmentResolver {
+
+    /**
+     * Halo 本地存储记录相对路径的注解
+     */
+    public static final String LOCAL_RELATIVE_PATH_ANNO = "storage.halo.run/local-relative-path";
+
+    private final Environment environment;
+
+    private volatile Path attachmentsRoot;
+
+    /**
+     * 解析附件在磁盘上的路径
+     * 路径不存在、越出附件目录或文件大小与 spec.size 不一致时返回 null，由调用方回退到 HTTP
+     *
+     * @param attachment 本地存储策略的附件
+     * @return 文件路径，无法解析时返回 null
+     */
+    public Path resolve(Attachment attachment) {
+        Map<String, String> annotations = attachment.getMetadata().getAnnotations();
+        String relativePath = annotations != null ? annotations.get(LOCAL_RELATIVE_PATH_ANNO) : null;
+        if (!StringUtils.hasText(relativePath)) {
+            return null;
+        }
+        try {
+            Path root = getAttachmentsRoot();
+            Path path = root.resolve(relativePath).normalize();
+            if (!path.startsWith(root) || !Files.isRegularFile(path)) {
+                return null;
+            }
+            Long size = attachment.getSpec().getSize();
+            if (size != null && !Objects.equals(Files.size(path), size)) {
+                return null;
+            }
+            return path;
+        } catch (Exception e) {
+            log.debug("解析附件 {} 本地路径失败: {}", attachment.getMetadata().getName(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 附件根目录：优先读取 halo.work-dir 配置，未配置时使用 Halo 默认工作目录 ~/.halo2
+     */
+    private Path getAttachmentsRoot() {
+        Path root = attachmentsRoot;
+        if (root == null) {
+            String workDir = environment.getProperty("halo.work-dir");
+            Path workPath = StringUtils.hasText(workDir)
+                ? Paths.get(workDir)
+                : Paths.get(System.getProperty("user.home"), ".halo2");
+            root = workPath.resolve("attachments").toAbsolutePath().normalize();
+            attachmentsRoot = root;
+            log.debug("本地附件目录: {}", root);
+        }
+        return root;
+    }
+}
@@ -0,0 +1,151 @@
+package com.timxs.storagetoolkit.service.support;
+
+import com.timxs.storagetoolkit.model.ImageInfo;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HexFormat;
+
+/**
+ * 图片感知哈希计算组件
+ * 使用 dHash（差值哈希）：采样解码后按区域平均缩小为 9x8 的亮度网格，
+ * 逐行比较相邻格子的亮度得到 64 位指纹。同一张图片重新压缩、缩放或转换格式后，
+ * 指纹之间的汉明距离通常只有个位数
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PerceptualHasher {
+
+    /**
+     * 采样解码的目标最长边，只需明显大于哈希网格即可
+     */
+    private static final int DECODE_LONG_EDGE = 64;
+
+    private static final int GRID_WIDTH = 9;
+
+    private static final int GRID_HEIGHT = 8;
+
+    private final AttachmentFetcher fetcher;
+    private final ImageProcessingExecutor imageProcessingExecutor;
+
+    /**
+     * 计算本地图片文件的感知哈希
+     *
+     * @param path 文件路径
+     * @return 64 位指纹，无法识别或解码时为空
+     */
+    public Mono<Long> hash(Path path) {
+        return Mono.fromCallable(() -> Files.readAllBytes(path))
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMap(this::hash);
+    }
+
+    /**
+     * 下载并计算远程图片的感知哈希
+     *
+     * @param permalink      附件 permalink
+     * @param timeoutSeconds 下载超时时间（秒）
+     * @return 64 位指纹，无法识别或解码时为空
+     */
+    public Mono<Long> hash(String permalink, int timeoutSeconds) {
+        return fetcher.download(permalink, timeoutSeconds)
+            .flatMap(this::hash);
+    }
+
+    /**
+     * 计算图片数据的感知哈希
+     * 解码是 CPU 密集型操作，在图片处理线程池中执行
+     *
+     * @param data 图片数据
+     * @return 64 位指纹，无法识别或解码时为空
+     */
+    public Mono<Long> hash(byte[] data) {
+        return Mono.fromCallable(() -> {
+            ImageInfo info = ImageProber.probe(data);
+            if (info == null) {
+                return null;
+            }
+            BufferedImage image = ImageProber.decode(data, info, DECODE_LONG_EDGE);
+            return image != null ? dHash(image) : null;
+        }).subscribeOn(imageProcessingExecutor.scheduler());
+    }
+
+    /**
+     * 计算 dHash 指纹
+     * 每个格子取覆盖区域的平均亮度（透明像素按白色背景合成），避免直接缩放时的采样混叠
+     */
+    static long dHash(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] argb = image.getRGB(0, 0, width, height, null, 0, width);
+
+        double[] luminance = new double[GRID_WIDTH * GRID_HEIGHT];
+        for (int gy = 0; gy < GRID_HEIGHT; gy++) {
+            int y0 = gy * height / GRID_HEIGHT;
+            int y1 = Math.max(y0 + 1, (gy + 1) * height / GRID_HEIGHT);
+            for (int gx = 0; gx < GRID_WIDTH; gx++) {
+                int x0 = gx * width / GRID_WIDTH;
+                int x1 = Math.max(x0 + 1, (gx + 1) * width / GRID_WIDTH);
+                double sum = 0;
+                int count = 0;
+                for (int y = y0; y < y1 && y < height; y++) {
+                    for (int x = x0; x < x1 && x < width; x++) {
+                        sum += luminance(argb[y * width + x]);
+                        count++;
+                    }
+                }
+                luminance[gy * GRID_WIDTH + gx] = count > 0 ? sum / count : 255;
+            }
+        }
+
+        long hash = 0;
+        for (int gy = 0; gy < GRID_HEIGHT; gy++) {
+            for (int gx = 0; gx < GRID_WIDTH - 1; gx++) {
+                hash <<= 1;
+                if (luminance[gy * GRID_WIDTH + gx] < luminance[gy * GRID_WIDTH + gx + 1]) {
+                    hash |= 1;
+                }
+            }
+        }
+        return hash;
+    }
+
+    private static double luminance(int argb) {
+        double alpha = ((argb >>> 24) & 0xFF) / 255.0;
+        int r = (argb >> 16) & 0xFF;
+        int g = (argb >> 8) & 0xFF;
+        int b = argb & 0xFF;
+        double y = 0.299 * r + 0.587 * g + 0.114 * b;
+        return y * alpha + 255 * (1 - alpha);
+    }
+
+    /**
+     * 指纹转为 16 位十六进制字符串
+     */
+    public static String toHex(long fingerprint) {
+        return HexFormat.of().toHexDigits(fingerprint);
+    }
+
+    /**
+     * 解析十六进制指纹
+     *
+     * @return 指纹，格式不正确时返回 null
+     */
+    public static Long fromHex(String hex) {
+        if (hex == null || hex.length() != 16) {
+            return null;
+        }
+        try {
+            return HexFormat.fromHexDigitsToLong(hex);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.timxs.storagetoolkit.service.support;
+
+import com.timxs.storagetoolkit.extension.ReferenceScanStatus;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 引用扫描分类型进度
+ * 各内容类型并发扫描，分别统计已列出和已扫描的记录数；
+ * 类型的记录全部列出且全部扫描完成后视为该类型完成
+ */
+@Slf4j
+public class ReferenceScanProgress {
+
+    private final Map<String, TypeCounter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * 注册内容类型（按注册顺序展示）
+     */
+    public void register(String type) {
+        counters.computeIfAbsent(type, k -> new TypeCounter(counters.size()));
+    }
+
+    /**
+     * 列出一条待扫描记录
+     */
+    public void listed(String type) {
+        counter(type).listed.incrementAndGet();
+    }
+
+    /**
+     * 该类型的记录已全部列出
+     */
+    public void listCompleted(String type) {
+        TypeCounter counter = counter(type);
+        counter.listCompleted.set(true);
+        checkCompleted(type, counter);
+    }
+
+    /**
+     * 一条记录扫描完成（成功或失败）
+     */
+    public void scanned(String type) {
+        TypeCounter counter = counter(type);
+        counter.scanned.incrementAndGet();
+        checkCompleted(type, counter);
+    }
+
+    /**
+     * 当前进度快照
+     */
+    public List<ReferenceScanStatus.TypeProgress> snapshot() {
+        List<Map.Entry<String, TypeCounter>> entries = new ArrayList<>(counters.entrySet());
+        entries.sort(Map.Entry.comparingByValue((a, b) -> Integer.compare(a.order, b.order)));
+
+        List<ReferenceScanStatus.TypeProgress> result = new ArrayList<>(entries.size());
+        for (Map.Entry<String, TypeCounter> entry : entries) {
+            TypeCounter counter = entry.getValue();
+            ReferenceScanStatus.TypeProgress progress = new ReferenceScanStatus.TypeProgress();
+            progress.setType(entry.getKey());
+            progress.setListed(counter.listed.get());
+            progress.setScanned(counter.scanned.get());
+            progress.setCompleted(counter.completed.get());
+            result.add(progress);
+        }
+        return result;
+    }
+
+    private TypeCounter counter(String type) {
+        return counters.computeIfAbsent(type, k -> new TypeCounter(counters.size()));
+    }
+
+    private void checkCompleted(String type, TypeCounter counter) {
+        if (counter.listCompleted.get()
+            && counter.scanned.get() >= counter.listed.get()
+            && counter.completed.compareAndSet(false, true)) {
+            log.debug("{} 扫描完成，共扫描 {} 条记录", type, counter.scanned.get());
+        }
+    }
+
+    private static class TypeCounter {
+        private final int order;
+        private final AtomicInteger listed = new AtomicInteger();
+        private final AtomicInteger scanned = new AtomicInteger();
+        private final AtomicBoolean listCompleted = new AtomicBoolean();
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        TypeCounter(int order) {
+            this.order = order;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.timxs.storagetoolkit.service.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import run.halo.app.content.ContentWrapper;
+import run.halo.app.core.extension.content.Snapshot;
+import run.halo.app.extension.ListOptions;
+import run.halo.app.extension.ReactiveExtensionClient;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static run.halo.app.extension.index.query.Queries.in;
+
+/**
+ * 快照批量加载器（单次扫描内使用）
+ * 按页收集内容所需的 head/base 快照名称，通过 metadata.name 的 in 查询一次性加载，
+ * 替代每条内容分别 fetch base 和 head 的两次请求；base 快照在多次修订间共享，额外做有界缓存
+ */
+@Slf4j
+public class SnapshotBatchLoader {
+
+    /**
+     * 单次 in 查询的快照名称数量上限
+     */
+    private static final int QUERY_BATCH_SIZE = 200;
+
+    /**
+     * base 快照缓存容量（快照包含完整原始内容，需限制内存占用）
+     */
+    private static final int BASE_CACHE_SIZE = 256;
+
+    private final ReactiveExtensionClient client;
+
+    private final Map<String, Snapshot> baseCache = Collections.synchronizedMap(
+        new LinkedHashMap<String, Snapshot>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Snapshot> eldest) {
+                return size() > BASE_CACHE_SIZE;
+            }
+        });
+
+    public SnapshotBatchLoader(ReactiveExtensionClient client) {
+        this.client = client;
+    }
+
+    /**
+     * 内容所需的快照（head 为最新修订，base 为 patch 计算的基准）
+     */
+    public record SnapshotRef(String headSnapshotName, String baseSnapshotName) {
+        boolean isComplete() {
+            return StringUtils.hasText(headSnapshotName) && StringUtils.hasText(baseSnapshotName);
+        }
+    }
+
+    /**
+     * 批量加载一页内容所需的快照
+     *
+     * @param refs 该页内容的快照引用
+     * @return 已加载快照的批次，供该页内容合并内容使用
+     */
+    public Mono<Batch> load(Collection<SnapshotRef> refs) {
+        Map<String, Snapshot> loaded = new HashMap<>();
+        Set<String> baseNames = new LinkedHashSet<>();
+        Set<String> missing = new LinkedHashSet<>();
+        for (SnapshotRef ref : refs) {
+            if (ref == null || !ref.isComplete()) {
+                continue;
+            }
+            baseNames.add(ref.baseSnapshotName());
+            Snapshot cached = baseCache.get(ref.baseSnapshotName());
+            if (cached != null) {
+                loaded.put(ref.baseSnapshotName(), cached);
+            } else {
+                missing.add(ref.baseSnapshotName());
+            }
+            missing.add(ref.headSnapshotName());
+        }
+        missing.removeAll(loaded.keySet());
+        if (missing.isEmpty()) {
+            return Mono.just(new Batch(loaded));
+        }
+
+        return Flux.fromIterable(missing)
+            .buffer(QUERY_BATCH_SIZE)
+            .concatMap(names -> client.listAll(Snapshot.class,
+                ListOptions.builder().fieldQuery(in("metadata.name", names)).build(), Sort.unsorted()))
+            .doOnNext(snapshot -> {
+                String name = snapshot.getMetadata().getName();
+                loaded.put(name, snapshot);
+                if (baseNames.contains(name)) {
+                    baseCache.put(name, snapshot);
+                }
+            })
+            .then(Mono.fromSupplier(() -> new Batch(loaded)))
+            .onErrorResume(e -> {
+                // 批量查询失败时退回逐条获取
+                log.warn("批量加载快照失败，改为逐条获取: {}", e.getMessage());
+                return Mono.just(new Batch(loaded));
+            });
+    }
+
+    /**
+     * 不预加载任何快照的批次（单条内容的增量扫描使用）
+     */
+    public Batch empty() {
+        return new Batch(Map.of());
+    }
+
+    /**
+     * 获取单个快照，优先使用 base 缓存
+     */
+    private Mono<Snapshot> fetch(String name, boolean base) {
+        if (base) {
+            Snapshot cached = baseCache.get(name);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            return client.fetch(Snapshot.class, name)
+                .doOnNext(snapshot -> baseCache.put(name, snapshot));
+        }
+        return client.fetch(Snapshot.class, name);
+    }
+
+    /**
+     * 一页内容预加载的快照
+     */
+    public class Batch {
+
+        private final Map<String, Snapshot> snapshots;
+
+        private Batch(Map<String, Snapshot> snapshots) {
+            this.snapshots = snapshots;
+        }
+
+        /**
+         * 合并 head 和 base 快照得到内容
+         * 未预加载的快照逐条获取，任一快照不存在时返回空
+         */
+        public Mono<ContentWrapper> content(SnapshotRef ref) {
+            if (ref == null || !ref.isComplete()) {
+                return Mono.empty();
+            }
+            String headName = ref.headSnapshotName();
+            String baseName = ref.baseSnapshotName();
+            return snapshot(baseName, true)
+                .flatMap(baseSnapshot -> {
+                    if (headName.equals(baseName)) {
+                        return Mono.just(ContentWrapper.patchSnapshot(baseSnapshot, baseSnapshot));
+                    }
+                    return snapshot(headName, false)
+                        .map(headSnapshot -> ContentWrapper.patchSnapshot(headSnapshot, baseSnapshot));
+                });
+        }
+
+        private Mono<Snapshot> snapshot(String name, boolean base) {
+            Snapshot preloaded = snapshots.get(name);
+            return preloaded != null ? Mono.just(preloaded) : fetch(name, base);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.timxs.storagetoolkit.filter;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UploadAdmissionControllerTest {
+
+    private static final Duration LONG_WAIT = Duration.ofSeconds(30);
+
+    private final UploadAdmissionController controller = new UploadAdmissionController();
+
+    @Test
+    void grantsQueuedUploadsInArrivalOrder() {
+        UploadAdmissionController.Permit first = controller.acquire(1, 10, LONG_WAIT).block();
+        assertNotNull(first);
+
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        List<UploadAdmissionController.Permit> permits = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            int index = i;
+            controller.acquire(1, 10, LONG_WAIT).subscribe(permit -> {
+                order.add(index);
+                permits.add(permit);
+            });
+        }
+        assertEquals(3, controller.getStats().queued());
+
+        first.release();
+        for (int i = 0; i < 3; i++) {
+            assertEquals(i + 1, order.size());
+            permits.get(i).release();
+        }
+
+        assertEquals(List.of(0, 1, 2), order);
+        assertEquals(0, controller.getStats().active());
+        assertEquals(0, controller.getStats().queued());
+    }
+
+    @Test
+    void rejectsWhenQueueIsFull() {
+        UploadAdmissionController.Permit first = controller.acquire(1, 1, LONG_WAIT).block();
+        Disposable queued = controller.acquire(1, 1, LONG_WAIT).subscribe();
+
+        assertThrows(UploadAdmissionController.AdmissionRejectedException.class,
+            () -> controller.acquire(1, 1, LONG_WAIT).block());
+        assertEquals(1, controller.getStats().queueFullCount());
+
+        queued.dispose();
+        first.release();
+        assertEquals(0, controller.getStats().active());
+    }
+
+    @Test
+    void neverQueuesMoreThanMaxDepthUnderConcurrentArrivals() throws InterruptedException {
+        UploadAdmissionController.Permit first = controller.acquire(1, 5, LONG_WAIT).block();
+        assertNotNull(first);
+
+        int threads = 8;
+        int perThread = 50;
+        List<Disposable> waiting = new CopyOnWriteArrayList<>();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        waiting.add(controller.acquire(1, 5, LONG_WAIT)
+                            .subscribe(UploadAdmissionController.Permit::release, e -> rejected.incrementAndGet()));
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        start.countDown();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+
+        assertEquals(5, controller.getStats().queued());
+        assertEquals(threads * perThread - 5, rejected.get());
+
+        waiting.forEach(Disposable::dispose);
+        first.release();
+        assertEquals(0, controller.getStats().active());
+        assertEquals(0, controller.getStats().queued());
+    }
+
+    @Test
+    void rejectsAfterWaitTimeout() {
+        UploadAdmissionController.Permit first = controller.acquire(1, 10, LONG_WAIT).block();
+
+        assertThrows(UploadAdmissionController.AdmissionRejectedException.class,
+            () -> controller.acquire(1, 10, Duration.ofMillis(20)).block());
+        assertEquals(1, controller.getStats().timeoutCount());
+        assertEquals(0, controller.getStats().queued());
+
+        first.release();
+        assertEquals(0, controller.getStats().active());
+    }
+
+    @Test
+    void doesNotLeakPermitsWhenTimeoutRacesWithGrant() throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            UploadAdmissionController.Permit first = controller.acquire(1, 10, LONG_WAIT).block();
+            assertNotNull(first);
+
+            CountDownLatch done = new CountDownLatch(1);
+            AtomicReference<UploadAdmissionController.Permit> granted = new AtomicReference<>();
+            controller.acquire(1, 10, Duration.ofMillis(1))
+                .subscribe(granted::set, e -> done.countDown(), done::countDown);
+            // 在超时前后释放许可，与超时处理竞争
+            Thread.sleep(0, (i % 20) * 100_000);
+            first.release();
+
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            if (granted.get() != null) {
+                granted.get().release();
+            }
+            assertEquals(0, controller.getStats().active(), "iteration " + i);
+            assertEquals(0, controller.getStats().queued(), "iteration " + i);
+        }
+    }
+
+    @Test
+    void releasesQueueSlotAndPermitOnCancel() {
+        UploadAdmissionController.Permit first = controller.acquire(1, 10, LONG_WAIT).block();
+
+        // 排队中取消：出队，不占用许可
+        Disposable waiting = controller.acquire(1, 10, LONG_WAIT).subscribe();
+        assertEquals(1, controller.getStats().queued());
+        waiting.dispose();
+        assertEquals(0, controller.getStats().queued());
+
+        first.release();
+        assertEquals(0, controller.getStats().active());
+
+        // 重复释放只生效一次
+        first.release();
+        assertEquals(0, controller.getStats().active());
+        UploadAdmissionController.Permit next = controller.acquire(1, 10, LONG_WAIT).block();
+        assertEquals(1, controller.getStats().active());
+        next.release();
+    }
+
+    @Test
+    void returnsPermitWhenCancelledAfterGrant() {
+        for (int i = 0; i < 200; i++) {
+            UploadAdmissionController.Permit first = controller.acquire(1, 10, LONG_WAIT).block();
+            assertNotNull(first);
+
+            // 先收到许可则由订阅者归还，取消时已分发但未送达的许可由取消处理归还
+            Disposable waiting = controller.acquire(1, 10, LONG_WAIT)
+                .subscribe(UploadAdmissionController.Permit::release);
+            Thread releaser = new Thread(first::release);
+            releaser.start();
+            waiting.dispose();
+            try {
+                releaser.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            assertEquals(0, controller.getStats().active(), "iteration " + i);
+            assertEquals(0, controller.getStats().queued(), "iteration " + i);
+        }
+    }
+}
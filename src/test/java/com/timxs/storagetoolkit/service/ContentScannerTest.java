@@ -0,0 +1,118 @@
+package com.timxs.storagetoolkit.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ContentScannerTest {
+
+    private final ContentScanner scanner = new ContentScanner();
+
+    @Test
+    void extractsMarkdownLinksWithTitle() {
+        var result = scanner.extractUrlsWithType(
+            "![图](/upload/a.png \"标题\") [文档](https://example.com/files/manual.pdf \"下载手册\")");
+
+        assertEquals(Set.of("https://example.com/files/manual.pdf"), result.fullUrls());
+        assertEquals(Set.of("/upload/a.png"), result.relativePaths());
+    }
+
+    @Test
+    void extractsNestedMarkdownLinks() {
+        var result = scanner.extractUrlsWithType("[![缩略图](/upload/thumb.jpg)](/upload/full.jpg)");
+
+        assertEquals(Set.of(), result.fullUrls());
+        assertEquals(Set.of("/upload/thumb.jpg", "/upload/full.jpg"), result.relativePaths());
+    }
+
+    @Test
+    void keepsProtocolRelativeUrlWhole() {
+        var result = scanner.extractUrlsWithType("见 //cdn.example.com/upload/a.png 和 /upload/b.png");
+
+        // 协议相对 URL 内部的路径不单独作为相对路径
+        assertEquals(Set.of(), result.fullUrls());
+        assertEquals(Set.of("//cdn.example.com/upload/a.png", "/upload/b.png"), result.relativePaths());
+    }
+
+    @Test
+    void skipsPathsInsideFullUrls() {
+        var result = scanner.extractUrlsWithType("https://example.com/upload/2024/a.png /upload/b.png");
+
+        assertEquals(Set.of("https://example.com/upload/2024/a.png"), result.fullUrls());
+        assertEquals(Set.of("/upload/b.png"), result.relativePaths());
+    }
+
+    @Test
+    void acceptsExtensionsOfTwoToFiveCharacters() {
+        var result = scanner.extractUrlsWithType(
+            "/upload/a.js /upload/b.woff2 /upload/c.backup https://example.com/d.backup");
+
+        assertEquals(Set.of(), result.fullUrls());
+        assertEquals(Set.of("/upload/a.js", "/upload/b.woff2"), result.relativePaths());
+    }
+
+    @Test
+    void stopsBeforeQueryCommaAndParenthesis() {
+        var result = scanner.extractUrlsWithType(
+            "https://example.com/a.png?x=1 https://example.com/b.png, (https://example.com/c.png) "
+                + "/upload/d.png? /upload/e.png, (/upload/f.png)");
+
+        assertEquals(Set.of("https://example.com/a.png", "https://example.com/b.png", "https://example.com/c.png"),
+            result.fullUrls());
+        assertEquals(Set.of("/upload/d.png", "/upload/e.png", "/upload/f.png"), result.relativePaths());
+    }
+
+    @Test
+    void keepsMarkdownUrlWithQuery() {
+        var result = scanner.extractUrlsWithType("[x](https://example.com/a.png?w=100)");
+
+        assertEquals(Set.of("https://example.com/a.png?w=100", "https://example.com/a.png"), result.fullUrls());
+    }
+
+    @Test
+    void matchesRegexImplementationOnPlainText() {
+        // 不含 Markdown 语法时与正则实现完全一致
+        compareWithRegex(new String[]{
+            "http://", "https://", "HTTP://", "Https://", "/", ".", "png", "jpg", "jpeg12", "a", "b", "x",
+            "\"", "'", " ", "\n", "<", ">", "?", ",", "}", "_", "..", "//", "upload/", "img.webp", "=", "#",
+            "data:", "ab", ".c", ".png?x=1", "s://"
+        }, true);
+    }
+
+    @Test
+    void coversRegexImplementationWithMarkdown() {
+        // 含 Markdown 语法时，正则实现提取到的 URL 单遍扫描都能提取到；
+        // 链接文字中嵌套 [ 等正则无法匹配的写法，单遍扫描可能提取到更多
+        compareWithRegex(new String[]{
+            "http://", "https://", "HTTP://", "Https://", "/", ".", "png", "jpg", "jpeg12", "a", "b", "x",
+            "[", "]", "(", ")", "![", "](", "\"", "'", " ", "\n", "<", ">", "?", ",", "}", "_", "..", "//",
+            "upload/", "img.webp", "=", "#", "data:", "ab", ".c", ".png?x=1", "s://"
+        }, false);
+    }
+
+    private void compareWithRegex(String[] tokens, boolean exact) {
+        RegexContentScanner regex = new RegexContentScanner();
+        Random random = new Random(20240601L);
+        for (int i = 0; i < 50_000; i++) {
+            StringBuilder content = new StringBuilder();
+            int length = random.nextInt(30);
+            for (int k = 0; k < length; k++) {
+                content.append(tokens[random.nextInt(tokens.length)]);
+            }
+            String text = content.toString();
+            var expected = regex.extractUrlsWithType(text);
+            var actual = scanner.extractUrlsWithType(text);
+            if (exact) {
+                assertEquals(expected.fullUrls(), actual.fullUrls(), text);
+                assertEquals(expected.relativePaths(), actual.relativePaths(), text);
+            } else {
+                assertTrue(actual.fullUrls().containsAll(expected.fullUrls()), text);
+                assertTrue(actual.relativePaths().containsAll(expected.relativePaths()), text);
+            }
+        }
+    }
+}
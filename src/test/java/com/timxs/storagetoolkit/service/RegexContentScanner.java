@@ -0,0 +1,125 @@
+package com.timxs.storagetoolkit.service;
+
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 基于正则的 URL 提取（单遍扫描重写之前的实现）
+ * 作为 {@link ContentScanner#extractUrlsWithType} 的对照，供随机对比测试和 JMH 基准测试使用
+ */
+class RegexContentScanner {
+
+    /**
+     * Markdown 图片语法
+     * 匹配 ![alt](url) 或 ![alt](url "title")
+     */
+    private static final Pattern MD_IMAGE_PATTERN =
+        Pattern.compile("!\\[[^\\]]*\\]\\(([^)\"]+)(?:\\s+\"[^\"]*\")?\\)");
+
+    /**
+     * Markdown 链接语法
+     * 匹配 [text](url) 或 [text](url "title")
+     */
+    private static final Pattern MD_LINK_PATTERN =
+        Pattern.compile("(?<!!)\\[[^\\]]*\\]\\(([^)\"]+)(?:\\s+\"[^\"]*\")?\\)");
+
+    /**
+     * 相对路径匹配，匹配 / 开头、以扩展名结尾的路径
+     */
+    private static final Pattern RELATIVE_PATH_PATTERN =
+        Pattern.compile("(/[^\"'<>\\n\\s]+?\\.\\w{2,5})(?=[\"'\\s<>\\]\\)\\},?]|$)", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * HTTP/HTTPS URL 匹配，要求以文件扩展名结尾
+     */
+    private static final Pattern HTTP_URL_PATTERN =
+        Pattern.compile("(https?://[^\"'<>\\n\\s]+?\\.\\w{2,5})(?=[\"'\\s<>\\]\\)\\},?]|$)", Pattern.CASE_INSENSITIVE);
+
+    ContentScanner.ExtractResult extractUrlsWithType(String content) {
+        ContentScanner.ExtractResult result = new ContentScanner.ExtractResult();
+
+        if (!StringUtils.hasText(content)) {
+            return result;
+        }
+
+        // Markdown 语法（直接提取，自动分类）
+        extractByPattern(content, MD_IMAGE_PATTERN, result);
+        extractByPattern(content, MD_LINK_PATTERN, result);
+
+        // 1. 先提取完整 URL，并记录位置范围
+        List<int[]> fullUrlRanges = new ArrayList<>();
+        Matcher httpMatcher = HTTP_URL_PATTERN.matcher(content);
+        while (httpMatcher.find()) {
+            String url = httpMatcher.group(1);
+            if (StringUtils.hasText(url)) {
+                String trimmedUrl = url.trim();
+                if (isValidUrl(trimmedUrl)) {
+                    result.fullUrls().add(trimmedUrl);
+                    fullUrlRanges.add(new int[]{httpMatcher.start(), httpMatcher.end()});
+                }
+            }
+        }
+
+        // 2. 提取相对路径，跳过在完整 URL 范围内的
+        Matcher relativeMatcher = RELATIVE_PATH_PATTERN.matcher(content);
+        while (relativeMatcher.find()) {
+            int start = relativeMatcher.start();
+
+            boolean insideFullUrl = false;
+            for (int[] range : fullUrlRanges) {
+                if (start >= range[0] && start < range[1]) {
+                    insideFullUrl = true;
+                    break;
+                }
+            }
+            if (insideFullUrl) {
+                continue;
+            }
+
+            // 排除 // 开头（协议相对 URL）
+            if (start > 0 && content.charAt(start - 1) == '/') {
+                continue;
+            }
+
+            String url = relativeMatcher.group(1);
+            if (StringUtils.hasText(url)) {
+                String trimmedUrl = url.trim();
+                if (isValidUrl(trimmedUrl)) {
+                    result.relativePaths().add(trimmedUrl);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private void extractByPattern(String content, Pattern pattern, ContentScanner.ExtractResult result) {
+        Matcher matcher = pattern.matcher(content);
+        while (matcher.find()) {
+            String url = matcher.group(1);
+            if (StringUtils.hasText(url)) {
+                String trimmedUrl = url.trim();
+                if (isValidUrl(trimmedUrl)) {
+                    if (trimmedUrl.startsWith("http://") || trimmedUrl.startsWith("https://")) {
+                        result.fullUrls().add(trimmedUrl);
+                    } else if (trimmedUrl.startsWith("/")) {
+                        result.relativePaths().add(trimmedUrl);
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean isValidUrl(String url) {
+        if (url == null || url.isEmpty()) return false;
+        if (url.startsWith("data:")) return false;
+        if (url.startsWith("javascript:")) return false;
+        if (url.startsWith("mailto:")) return false;
+        if (url.startsWith("#")) return false;
+        return true;
+    }
+}
@@ -0,0 +1,84 @@
+package com.timxs.storagetoolkit.service.support;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedImageOutputStreamTest {
+
+    @Test
+    void writesUpToLimit() throws IOException {
+        BoundedImageOutputStream out = new BoundedImageOutputStream(4);
+        out.write(1);
+        out.write(new byte[]{2, 3, 4}, 0, 3);
+
+        assertArrayEquals(new byte[]{1, 2, 3, 4}, out.toByteArray());
+        assertEquals(4, out.length());
+    }
+
+    @Test
+    void rejectsWriteBeyondLimit() throws IOException {
+        BoundedImageOutputStream out = new BoundedImageOutputStream(4);
+        out.write(new byte[]{1, 2, 3}, 0, 3);
+
+        assertThrows(BoundedImageOutputStream.LimitExceededException.class,
+            () -> out.write(new byte[]{4, 5}, 0, 2));
+        assertThrows(BoundedImageOutputStream.LimitExceededException.class, () -> {
+            out.write(4);
+            out.write(5);
+        });
+        assertEquals(4, out.length());
+    }
+
+    @Test
+    void appliesLoweredLimitOnNextWrite() throws IOException {
+        BoundedImageOutputStream out = new BoundedImageOutputStream(Long.MAX_VALUE);
+        out.write(new byte[100], 0, 100);
+
+        out.setLimit(50);
+
+        assertThrows(BoundedImageOutputStream.LimitExceededException.class, () -> out.write(0));
+        assertEquals(100, out.length());
+    }
+
+    @Test
+    void seekAndOverwriteKeepLength() throws IOException {
+        BoundedImageOutputStream out = new BoundedImageOutputStream(8);
+        out.write(new byte[]{1, 2, 3, 4}, 0, 4);
+        out.seek(1);
+        out.write(9);
+
+        assertArrayEquals(new byte[]{1, 9, 3, 4}, out.toByteArray());
+        out.seek(0);
+        assertEquals(1, out.read());
+    }
+
+    @Test
+    void abortsImageEncodingOverLimit() throws IOException {
+        BufferedImage image = new BufferedImage(256, 256, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(7);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("png").next();
+        try (BoundedImageOutputStream out = new BoundedImageOutputStream(1024)) {
+            writer.setOutput(out);
+            IOException e = assertThrows(IOException.class, () -> writer.write(image));
+            assertTrue(BoundedImageOutputStream.isLimitExceeded(e));
+            assertTrue(out.length() <= 1024);
+        } finally {
+            writer.dispose();
+        }
+    }
+}
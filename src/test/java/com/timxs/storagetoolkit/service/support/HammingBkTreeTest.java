@@ -0,0 +1,81 @@
+package com.timxs.storagetoolkit.service.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HammingBkTreeTest {
+
+    @Test
+    void searchMatchesBruteForce() {
+        Random random = new Random(11);
+        // 若干簇：随机中心加少量位翻转，模拟相似图片的指纹分布
+        List<Long> fingerprints = new ArrayList<>();
+        for (int cluster = 0; cluster < 50; cluster++) {
+            long center = random.nextLong();
+            for (int member = 0; member < 40; member++) {
+                fingerprints.add(flipBits(center, random.nextInt(12), random));
+            }
+        }
+        HammingBkTree<Integer> tree = new HammingBkTree<>();
+        for (int i = 0; i < fingerprints.size(); i++) {
+            tree.add(fingerprints.get(i), i);
+        }
+        assertEquals(fingerprints.size(), tree.size());
+
+        for (int query = 0; query < 200; query++) {
+            long fingerprint = query % 2 == 0
+                ? flipBits(fingerprints.get(random.nextInt(fingerprints.size())), random.nextInt(6), random)
+                : random.nextLong();
+            for (int maxDistance : new int[]{0, 1, 4, 6, 10, 16}) {
+                Set<Integer> expected = new HashSet<>();
+                for (int i = 0; i < fingerprints.size(); i++) {
+                    if (HammingBkTree.distance(fingerprints.get(i), fingerprint) <= maxDistance) {
+                        expected.add(i);
+                    }
+                }
+                Set<Integer> actual = new HashSet<>();
+                tree.search(fingerprint, maxDistance, actual::add);
+                assertEquals(expected, actual, "query " + query + ", distance " + maxDistance);
+            }
+        }
+    }
+
+    @Test
+    void keepsAllValuesOfSameFingerprint() {
+        HammingBkTree<String> tree = new HammingBkTree<>();
+        tree.add(0xFFL, "a");
+        tree.add(0xFFL, "b");
+        tree.add(0x1FFL, "c");
+
+        Set<String> exact = new HashSet<>();
+        tree.search(0xFFL, 0, exact::add);
+        assertEquals(Set.of("a", "b"), exact);
+
+        Set<String> near = new HashSet<>();
+        tree.search(0xFFL, 1, near::add);
+        assertEquals(Set.of("a", "b", "c"), near);
+    }
+
+    @Test
+    void searchOnEmptyTreeFindsNothing() {
+        HammingBkTree<String> tree = new HammingBkTree<>();
+        Set<String> found = new HashSet<>();
+        tree.search(42L, 64, found::add);
+        assertEquals(Set.of(), found);
+    }
+
+    private static long flipBits(long value, int count, Random random) {
+        long result = value;
+        for (int i = 0; i < count; i++) {
+            result ^= 1L << random.nextInt(64);
+        }
+        return result;
+    }
+}
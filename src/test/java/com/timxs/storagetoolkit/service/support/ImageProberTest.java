@@ -0,0 +1,119 @@
+package com.timxs.storagetoolkit.service.support;
+
+import com.timxs.storagetoolkit.model.ImageInfo;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ImageProberTest {
+
+    @Test
+    void sniffsCommonFormatsByMagicNumber() throws IOException {
+        BufferedImage image = new BufferedImage(16, 8, BufferedImage.TYPE_INT_RGB);
+        for (String format : new String[]{"jpeg", "png", "gif", "bmp"}) {
+            assertEquals(format, ImageProber.sniffFormat(encode(image, format)));
+        }
+    }
+
+    @Test
+    void sniffsAvifByMajorBrand() {
+        assertEquals("avif", ImageProber.sniffFormat(ftyp("avif", "mif1", "miaf")));
+        assertEquals("avif", ImageProber.sniffFormat(ftyp("avis", "msf1", "miaf")));
+    }
+
+    @Test
+    void sniffsAvifByCompatibleBrand() {
+        // 通用主品牌，avif / avis 只出现在兼容品牌列表中
+        assertEquals("avif", ImageProber.sniffFormat(ftyp("mif1", "mif1", "miaf", "avif")));
+        assertEquals("avif", ImageProber.sniffFormat(ftyp("msf1", "msf1", "avis", "avif")));
+    }
+
+    @Test
+    void ignoresOtherIsoMediaBrands() {
+        assertNull(ImageProber.sniffFormat(ftyp("mif1", "mif1", "heic")));
+        assertNull(ImageProber.sniffFormat(ftyp("isom", "isom", "mp41")));
+    }
+
+    @Test
+    void ignoresBrandsBeyondFtypBox() {
+        byte[] box = ftyp("mif1", "mif1", "miaf");
+        // ftyp 盒之后的数据恰好是 avif 字样，不属于兼容品牌
+        byte[] data = ByteBuffer.allocate(box.length + 8)
+            .put(box)
+            .putInt(8)
+            .put("avif".getBytes(StandardCharsets.US_ASCII))
+            .array();
+        assertNull(ImageProber.sniffFormat(data));
+    }
+
+    @Test
+    void rejectsShortOrUnknownData() {
+        assertNull(ImageProber.sniffFormat(null));
+        assertNull(ImageProber.sniffFormat(new byte[]{(byte) 0xFF, (byte) 0xD8}));
+        assertNull(ImageProber.sniffFormat("plain text content".getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    @Test
+    void probesSniffedFormat() throws IOException {
+        ImageInfo info = ImageProber.probe(encode(new BufferedImage(40, 30, BufferedImage.TYPE_INT_RGB), "png"));
+
+        assertNotNull(info);
+        assertEquals("png", info.formatName());
+        assertEquals("image/png", info.mimeType());
+        assertEquals(40, info.width());
+        assertEquals(30, info.height());
+        assertFalse(info.animated());
+    }
+
+    @Test
+    void fallsBackToImageReadersWhenSniffingFails() throws IOException {
+        // WBMP 没有魔数，只能由 ImageReader 识别
+        byte[] data = encode(new BufferedImage(24, 12, BufferedImage.TYPE_BYTE_BINARY), "wbmp");
+        assertNull(ImageProber.sniffFormat(data));
+
+        ImageInfo info = ImageProber.probe(data);
+
+        assertNotNull(info);
+        assertEquals(24, info.width());
+        assertEquals(12, info.height());
+        assertNotNull(ImageIO.getImageReadersByFormatName(info.formatName()).next());
+        assertEquals(24, ImageProber.decode(data, info).getWidth());
+    }
+
+    @Test
+    void returnsNullForUnreadableData() {
+        assertNull(ImageProber.probe("plain text content".getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * 构造 ftyp 盒：size + "ftyp" + 主品牌 + 次版本 + 兼容品牌
+     */
+    private static byte[] ftyp(String majorBrand, String... compatibleBrands) {
+        int size = 16 + compatibleBrands.length * 4;
+        ByteBuffer buffer = ByteBuffer.allocate(size)
+            .putInt(size)
+            .put("ftyp".getBytes(StandardCharsets.US_ASCII))
+            .put(majorBrand.getBytes(StandardCharsets.US_ASCII))
+            .putInt(0);
+        for (String brand : compatibleBrands) {
+            buffer.put(brand.getBytes(StandardCharsets.US_ASCII));
+        }
+        return buffer.array();
+    }
+}
@@ -0,0 +1,54 @@
+package com.timxs.storagetoolkit.service.support;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageWriter;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ImageWriterPoolTest {
+
+    private final ImageWriterPool pool = new ImageWriterPool();
+
+    @Test
+    void reusesReleasedWriter() {
+        ImageWriter writer = pool.borrow("png");
+        assertNotNull(writer);
+
+        pool.release("png", writer);
+
+        assertSame(writer, pool.borrow("png"));
+    }
+
+    @Test
+    void doesNotReuseDiscardedWriter() {
+        ImageWriter writer = pool.borrow("png");
+
+        pool.discard(writer);
+
+        assertNotSame(writer, pool.borrow("png"));
+    }
+
+    @Test
+    void disposesWritersReleasedAfterClear() {
+        ImageWriter inUse = pool.borrow("png");
+
+        pool.clear();
+        pool.release("png", inUse);
+
+        assertNotSame(inUse, pool.borrow("png"));
+    }
+
+    @Test
+    void poolsAgainAfterRediscovery() {
+        pool.clear();
+        pool.discover();
+
+        ImageWriter writer = pool.borrow("jpg");
+        pool.release("jpeg", writer);
+
+        assertSame(writer, pool.borrow("jpeg"));
+    }
+}
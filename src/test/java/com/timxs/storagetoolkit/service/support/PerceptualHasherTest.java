@@ -0,0 +1,89 @@
+package com.timxs.storagetoolkit.service.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PerceptualHasherTest {
+
+    /**
+     * 默认相似度阈值
+     */
+    private static final int DEFAULT_DISTANCE = 6;
+
+    @Test
+    void dHashIsStableUnderRescale() {
+        BufferedImage original = scene(1200, 900, false);
+        long fingerprint = PerceptualHasher.dHash(original);
+
+        for (int width : new int[]{800, 400, 160, 64}) {
+            BufferedImage scaled = scale(original, width, width * 3 / 4);
+            int distance = HammingBkTree.distance(fingerprint, PerceptualHasher.dHash(scaled));
+            assertTrue(distance <= DEFAULT_DISTANCE, width + "px 缩放后距离为 " + distance);
+        }
+    }
+
+    @Test
+    void dHashSeparatesDifferentImages() {
+        long fingerprint = PerceptualHasher.dHash(scene(800, 600, false));
+        long mirrored = PerceptualHasher.dHash(scene(800, 600, true));
+
+        assertTrue(HammingBkTree.distance(fingerprint, mirrored) > DEFAULT_DISTANCE);
+    }
+
+    @Test
+    void hexRoundTrip() {
+        long fingerprint = 0x8000_0000_0000_00F1L;
+        String hex = PerceptualHasher.toHex(fingerprint);
+
+        assertEquals("80000000000000f1", hex);
+        assertEquals(Long.valueOf(fingerprint), PerceptualHasher.fromHex(hex));
+        assertNull(PerceptualHasher.fromHex("f1"));
+        assertNull(PerceptualHasher.fromHex("zz000000000000f1"));
+    }
+
+    /**
+     * 生成带渐变背景和若干色块的测试图片，mirror 为 true 时水平翻转构图
+     */
+    private static BufferedImage scene(int width, int height, boolean mirror) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            if (mirror) {
+                g.translate(width, 0);
+                g.scale(-1, 1);
+            }
+            g.setPaint(new GradientPaint(0, 0, new Color(30, 60, 120), width, height, new Color(240, 200, 90)));
+            g.fillRect(0, 0, width, height);
+            g.setColor(new Color(200, 30, 40));
+            g.fillOval(width / 10, height / 5, width / 3, height / 2);
+            g.setColor(new Color(20, 20, 20));
+            g.fillRect(width * 3 / 5, height / 8, width / 4, height * 3 / 4);
+            g.setColor(Color.WHITE);
+            g.fillRect(width / 4, height * 3 / 4, width / 2, height / 10);
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    private static BufferedImage scale(BufferedImage source, int width, int height) {
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+}
@@ -27,7 +27,7 @@ export interface ReferenceSource {
  */
 export interface DuplicateStats {
   /** 扫描阶段 */
-  phase: 'SCANNING' | 'COMPLETED' | 'ERROR' | null
+  phase: 'SCANNING' | 'CANCELLING' | 'CANCELLED' | 'COMPLETED' | 'ERROR' | null
   /** 上次扫描时间 */
   lastScanTime: string | null
   /** 扫描开始时间 */
@@ -46,6 +46,10 @@ export interface DuplicateStats {
   errorMessage: string | null
   /** 是否启用远程存储扫描 */
   enableRemoteStorage: boolean
+  /** 已写回的哈希检查点数量 */
+  checkpointCount: number
+  /** 最后一次写入检查点的时间 */
+  lastCheckpointTime: string | null
 }
 
 /**
@@ -84,6 +88,8 @@ export interface DuplicateFile {
 export interface DuplicateGroup {
   /** MD5 哈希值 */
   md5Hash: string
+  /** 匹配类型：完全相同 / 相似图片 */
+  matchType?: 'EXACT' | 'PERCEPTUAL'
   /** 文件大小（字节） */
   fileSize: number
   /** 组内文件数量 */